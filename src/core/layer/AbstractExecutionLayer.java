@@ -174,7 +174,7 @@ public abstract class AbstractExecutionLayer extends AbstractLayer implements Fo
      */
     protected void defineProcedure() throws MatrixException, DynamicParamException, NeuralNetworkException {
         if (procedure == null) initializeWeights();
-        procedure = new ProcedureFactory().getProcedure(this);
+        procedure = new ProcedureFactory(isFuseExpressions()).getProcedure(this);
     }
 
     /**
@@ -246,6 +246,15 @@ public abstract class AbstractExecutionLayer extends AbstractLayer implements Fo
         }
     }
 
+    /**
+     * Releases off-heap memory reserved by procedure of layer.<br>
+     * Off-heap matrices produced by layer are not accessible after memory has been released.<br>
+     *
+     */
+    public void releaseMemory() {
+        if (procedure != null) procedure.close();
+    }
+
     /**
      * Reinitializes neural network layer.
      *
@@ -256,6 +265,49 @@ public abstract class AbstractExecutionLayer extends AbstractLayer implements Fo
         if (getWeightSet() != null) getWeightSet().reinitialize();
     }
 
+    /**
+     * Quantizes weights of neural network layer for inference.<br>
+     * Layer without quantizable weights is left unchanged.<br>
+     *
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public void quantize() throws MatrixException {
+    }
+
+    /**
+     * Returns activation function applied as last operation to output of neural network layer.<br>
+     * Layer without such activation function returns null.<br>
+     *
+     * @return activation function applied as last operation to output of layer or null if there is no such function.
+     */
+    public UnaryFunction getOutputActivationFunction() {
+        return null;
+    }
+
+    /**
+     * Fuses activation function applied as last operation to output of neural network layer with loss function of next layer.<br>
+     * Layer without such activation function does nothing.<br>
+     *
+     */
+    public void fuseOutputActivationWithLoss() {
+    }
+
+    /**
+     * Returns quantized copy of weight matrix and replaces weight matrix by it in registered weights.
+     *
+     * @param weight weight matrix.
+     * @param perRow if true weight matrix is quantized per row of each depth slice otherwise per depth slice.
+     * @return quantized weight matrix.
+     */
+    protected Matrix getQuantizedWeight(Matrix weight, boolean perRow) {
+        Matrix quantizedWeight = new QMatrix(weight, perRow);
+        quantizedWeight.setName(weight.getName());
+        for (Map.Entry<Integer, Matrix> entry : weightsMap.entrySet()) if (entry.getValue() == weight) entry.setValue(quantizedWeight);
+        if (normalizedWeights.remove(weight)) normalizedWeights.add(quantizedWeight);
+        if (regularizedWeights.remove(weight)) regularizedWeights.add(quantizedWeight);
+        return quantizedWeight;
+    }
+
     /**
      * Takes single forward processing step to process layer input(s).<br>
      *
@@ -264,7 +316,7 @@ public abstract class AbstractExecutionLayer extends AbstractLayer implements Fo
      */
     public void forwardProcess() throws MatrixException, DynamicParamException {
         reset();
-        if (procedure != null) procedure.calculateExpression(getInputSequences(), getLayerOutputs());
+        if (procedure != null) procedure.calculateExpression(getInputSequences(), getLayerOutputs(), getCheckpointSteps());
     }
 
     /**
@@ -287,6 +339,15 @@ public abstract class AbstractExecutionLayer extends AbstractLayer implements Fo
         return -1;
     }
 
+    /**
+     * Returns interval of steps of which intermediate results are kept for gradient calculation. 0 means that intermediate results of all steps are kept.
+     *
+     * @return interval of checkpoint steps.
+     */
+    protected int getCheckpointSteps() {
+        return 0;
+    }
+
     /**
      * Registers weights of layer.
      *
@@ -414,6 +475,33 @@ public abstract class AbstractExecutionLayer extends AbstractLayer implements Fo
         return getWeightSet() != null ? getWeightSet().getNumberOfParameters() : 0;
     }
 
+    /**
+     * Returns number of procedure nodes removed by fusing chains of element wise expressions.
+     *
+     * @return number of procedure nodes removed by fusing chains of element wise expressions.
+     */
+    public int getNumberOfFusedNodes() {
+        return procedure != null ? procedure.getNumberOfFusedNodes() : 0;
+    }
+
+    /**
+     * Returns planned peak bytes per sample held in buffers of layer procedure when buffers are released according to memory plan.
+     *
+     * @return planned peak bytes per sample.
+     */
+    public long getPlannedPeakBytes() {
+        return procedure != null ? procedure.getPlannedPeakBytes() : 0;
+    }
+
+    /**
+     * Returns actual peak bytes held in buffers of layer procedure during execution.
+     *
+     * @return actual peak bytes.
+     */
+    public long getPeakBytes() {
+        return procedure != null ? procedure.getPeakBytes() : 0;
+    }
+
     /**
      * Returns optimizer by name.
      *
@@ -438,6 +526,8 @@ public abstract class AbstractExecutionLayer extends AbstractLayer implements Fo
     public void print() throws NeuralNetworkException {
         System.out.println(getLayerName() + " [ Width: " + getLayerWidth() + ", Height: " + getLayerHeight() + ", Depth: " + getLayerDepth() + " ]");
         System.out.println("Number of parameters: " + getNumberOfParameters());
+        if (getNumberOfFusedNodes() > 0) System.out.println("Number of fused nodes: " + getNumberOfFusedNodes());
+        if (getPlannedPeakBytes() > 0) System.out.println("Planned peak bytes per sample: " + getPlannedPeakBytes() + ", actual peak bytes: " + getPeakBytes());
         System.out.println(getOptimizerByName());
         String layerConnections = hasPreviousLayers() ? getLayerConnections() : "";
         String layerDetailsByName = getLayerDetailsByName();
@@ -9,6 +9,7 @@ import core.network.NeuralNetworkException;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.MatrixException;
+import utils.matrix.MatrixPrecision;
 import utils.sampling.Sequence;
 
 import java.io.Serial;
@@ -156,6 +157,18 @@ public abstract class AbstractLayer implements NeuralNetworkLayer, Serializable
      */
     private transient int executionStartCount;
 
+    /**
+     * Precision of matrices created by neural network layer.
+     *
+     */
+    private MatrixPrecision matrixPrecision = MatrixPrecision.DOUBLE;
+
+    /**
+     * If true chains of element wise expressions of layer procedure are fused into fused expressions.
+     *
+     */
+    private boolean fuseExpressions = false;
+
     /**
      * Default constructor for abstract layer.
      *
@@ -227,6 +240,69 @@ public abstract class AbstractLayer implements NeuralNetworkLayer, Serializable
         }
     }
 
+    /**
+     * Sets precision of matrices (weights, inputs and states) created by neural network layer.
+     *
+     * @param matrixPrecision matrix precision.
+     */
+    public void setMatrixPrecision(MatrixPrecision matrixPrecision) {
+        this.matrixPrecision = matrixPrecision;
+    }
+
+    /**
+     * Returns precision of matrices created by neural network layer.
+     *
+     * @return matrix precision.
+     */
+    public MatrixPrecision getMatrixPrecision() {
+        return matrixPrecision != null ? matrixPrecision : MatrixPrecision.DOUBLE;
+    }
+
+    /**
+     * Sets if chains of element wise expressions of layer procedure are fused into fused expressions.
+     *
+     * @param fuseExpressions if true chains of element wise expressions are fused.
+     */
+    public void setFuseExpressions(boolean fuseExpressions) {
+        this.fuseExpressions = fuseExpressions;
+    }
+
+    /**
+     * Returns true if chains of element wise expressions of layer procedure are fused otherwise false.
+     *
+     * @return true if chains of element wise expressions of layer procedure are fused otherwise false.
+     */
+    protected boolean isFuseExpressions() {
+        return fuseExpressions;
+    }
+
+    /**
+     * Returns number of procedure nodes removed by fusing chains of element wise expressions.
+     *
+     * @return number of procedure nodes removed by fusing chains of element wise expressions.
+     */
+    public int getNumberOfFusedNodes() {
+        return 0;
+    }
+
+    /**
+     * Returns planned peak bytes per sample held in buffers of layer procedure when buffers are released according to memory plan.
+     *
+     * @return planned peak bytes per sample.
+     */
+    public long getPlannedPeakBytes() {
+        return 0;
+    }
+
+    /**
+     * Returns actual peak bytes held in buffers of layer procedure during execution.
+     *
+     * @return actual peak bytes.
+     */
+    public long getPeakBytes() {
+        return 0;
+    }
+
     /**
      * Sets parameters used for abstract layer.<br>
      * <br>
@@ -566,6 +642,14 @@ public abstract class AbstractLayer implements NeuralNetworkLayer, Serializable
         nextState(ExecutionState.TERMINATED, true);
     }
 
+    /**
+     * Releases off-heap memory reserved by neural network layer.<br>
+     * Off-heap matrices produced by layer are not accessible after memory has been released.<br>
+     *
+     */
+    public void releaseMemory() {
+    }
+
     /**
      * Executes training step for neural network layer and propagates procedure to next layer.
      *
@@ -9,6 +9,7 @@ import core.network.NeuralNetworkException;
 import core.optimization.Optimizer;
 import utils.configurable.DynamicParamException;
 import utils.matrix.Matrix;
+import utils.matrix.UnaryFunction;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -73,6 +74,29 @@ public abstract class AbstractPlainLayer extends AbstractLayer {
     public void reinitialize() {
     }
 
+    /**
+     * Quantizes weights of layer for inference. Layer has no weights to be quantized.
+     *
+     */
+    public void quantize() {
+    }
+
+    /**
+     * Returns activation function applied as last operation to output of layer. Layer has no activation function.
+     *
+     * @return null.
+     */
+    public UnaryFunction getOutputActivationFunction() {
+        return null;
+    }
+
+    /**
+     * Fuses activation function applied as last operation to output of layer with loss function of next layer. Layer has no activation function.
+     *
+     */
+    public void fuseOutputActivationWithLoss() {
+    }
+
     /**
      * Returns weights for normalization.
      *
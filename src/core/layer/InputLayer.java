@@ -7,6 +7,10 @@ package core.layer;
 
 import core.network.NeuralNetworkException;
 import utils.configurable.DynamicParamException;
+import utils.matrix.Matrix;
+import utils.sampling.Sequence;
+
+import java.util.Map;
 
 /**
  * Implements input layer of neural network.<br>
@@ -68,6 +72,20 @@ public class InputLayer extends AbstractPlainLayer {
         throw new NeuralNetworkException("Input layer cannot have previous layers.");
     }
 
+    /**
+     * Sets layer outputs.<br>
+     * Converts dense input samples to precision of matrices used by layer.<br>
+     * Resets output gradients cumulated by previous inputs so that they do not retain matrices owned by next layers.<br>
+     *
+     * @param newLayerOutputs layer outputs.
+     */
+    protected void setLayerOutputs(Sequence newLayerOutputs) {
+        getLayerOutputGradients().reset();
+        Sequence convertedLayerOutputs = new Sequence();
+        for (Map.Entry<Integer, Matrix> entry : newLayerOutputs.entrySet()) convertedLayerOutputs.put(entry.getKey(), getMatrixPrecision().convert(entry.getValue()));
+        super.setLayerOutputs(convertedLayerOutputs);
+    }
+
     /**
      * Sets training flag.
      *
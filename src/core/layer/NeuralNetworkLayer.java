@@ -11,6 +11,8 @@ import utils.configurable.DynamicParamException;
 import utils.sampling.Sequence;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.matrix.MatrixPrecision;
+import utils.matrix.UnaryFunction;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -139,6 +141,48 @@ public interface NeuralNetworkLayer {
      */
     void initializeDimensions() throws NeuralNetworkException;
 
+    /**
+     * Sets precision of matrices (weights, inputs and states) created by neural network layer.
+     *
+     * @param matrixPrecision matrix precision.
+     */
+    void setMatrixPrecision(MatrixPrecision matrixPrecision);
+
+    /**
+     * Returns precision of matrices created by neural network layer.
+     *
+     * @return matrix precision.
+     */
+    MatrixPrecision getMatrixPrecision();
+
+    /**
+     * Sets if chains of element wise expressions of layer procedure are fused into fused expressions.
+     *
+     * @param fuseExpressions if true chains of element wise expressions are fused.
+     */
+    void setFuseExpressions(boolean fuseExpressions);
+
+    /**
+     * Returns number of procedure nodes removed by fusing chains of element wise expressions.
+     *
+     * @return number of procedure nodes removed by fusing chains of element wise expressions.
+     */
+    int getNumberOfFusedNodes();
+
+    /**
+     * Returns planned peak bytes per sample held in buffers of layer procedure when buffers are released according to memory plan.
+     *
+     * @return planned peak bytes per sample.
+     */
+    long getPlannedPeakBytes();
+
+    /**
+     * Returns actual peak bytes held in buffers of layer procedure during execution.
+     *
+     * @return actual peak bytes.
+     */
+    long getPeakBytes();
+
     /**
      * Sets reset flag for procedure expression dependencies.
      *
@@ -160,6 +204,27 @@ public interface NeuralNetworkLayer {
      */
     void reinitialize() throws MatrixException;
 
+    /**
+     * Quantizes weights of neural network layer for inference.
+     *
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    void quantize() throws MatrixException;
+
+    /**
+     * Returns activation function applied as last operation to output of neural network layer.
+     *
+     * @return activation function applied as last operation to output of layer or null if there is no such function.
+     */
+    UnaryFunction getOutputActivationFunction();
+
+    /**
+     * Fuses activation function applied as last operation to output of neural network layer with loss function of next layer.<br>
+     * Layer omits activation function and outputs its input (logits) from which next layer calculates activation, loss and gradient together.<br>
+     *
+     */
+    void fuseOutputActivationWithLoss();
+
     /**
      * Returns outputs of neural network layer.
      *
@@ -213,6 +278,13 @@ public interface NeuralNetworkLayer {
      */
     void stop();
 
+    /**
+     * Releases off-heap memory reserved by neural network layer.<br>
+     * Off-heap matrices produced by layer are not accessible after memory has been released.<br>
+     *
+     */
+    void releaseMemory();
+
     /**
      * Executes training step for neural network layer and propagates procedure to next layer.
      *
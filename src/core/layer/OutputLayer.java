@@ -8,9 +8,9 @@ package core.layer;
 import core.loss.LossFunction;
 import core.network.NeuralNetworkException;
 import utils.configurable.DynamicParamException;
-import utils.matrix.Matrix;
-import utils.matrix.MatrixException;
+import utils.matrix.*;
 import utils.matrix.operation.BinaryMatrixOperation;
+import utils.matrix.operation.SoftmaxCrossEntropyMatrixOperation;
 import utils.sampling.Sequence;
 
 import java.util.ArrayList;
@@ -21,6 +21,8 @@ import java.util.Map;
  * Implements output layer of neural network.<br>
  * Outputs inference result of neural network.<br>
  * Calculates loss and its gradient during training phase.<br>
+ * If softmax activation of previous layer feeds only cross-entropy or negative log likelihood loss of output layer softmax is fused with loss.<br>
+ * In this case previous layer outputs logits and output layer calculates probabilities, loss and gradient with respect to logits as one fused operation.<br>
  *
  */
 public class OutputLayer extends AbstractPlainLayer {
@@ -67,6 +69,18 @@ public class OutputLayer extends AbstractPlainLayer {
      */
     private BinaryMatrixOperation lossMatrixOperation;
 
+    /**
+     * Fused softmax and loss matrix operation. Null if loss is not fused with softmax activation.
+     *
+     */
+    private SoftmaxCrossEntropyMatrixOperation softmaxCrossEntropyMatrixOperation;
+
+    /**
+     * Probabilities calculated from logits of previous layer if loss is fused with softmax activation.
+     *
+     */
+    private transient Sequence probabilities;
+
     /**
      * Constructor for output layer.
      *
@@ -91,6 +105,13 @@ public class OutputLayer extends AbstractPlainLayer {
     public void initializeDimensions() throws NeuralNetworkException {
         super.initializeDimensions();
         lossMatrixOperation = new BinaryMatrixOperation(getLayerWidth(), getLayerHeight(), getLayerDepth(), lossFunction);
+        UnaryFunction outputActivationFunction = hasPreviousLayers() && getDefaultPreviousLayer().getNextLayers().size() == 1 ? getDefaultPreviousLayer().getOutputActivationFunction() : null;
+        boolean isCrossEntropy = lossFunction.getType() == BinaryFunctionType.CROSS_ENTROPY || lossFunction.getType() == BinaryFunctionType.NEGATIVE_LOG_LIKELIHOOD;
+        boolean isPlainSoftmax = outputActivationFunction != null && outputActivationFunction.getType() == UnaryFunctionType.SOFTMAX && outputActivationFunction.getSoftmaxTau() == 1 && !outputActivationFunction.isAsGumbelSoftmax();
+        if (isPlainSoftmax && isCrossEntropy) {
+            getDefaultPreviousLayer().fuseOutputActivationWithLoss();
+            softmaxCrossEntropyMatrixOperation = new SoftmaxCrossEntropyMatrixOperation(getLayerWidth(), getLayerHeight(), getLayerDepth(), lossFunction.getType() == BinaryFunctionType.NEGATIVE_LOG_LIKELIHOOD);
+        }
     }
 
     /**
@@ -131,12 +152,13 @@ public class OutputLayer extends AbstractPlainLayer {
     }
 
     /**
-     * Returns outputs of neural network layer.
+     * Returns outputs of neural network layer.<br>
+     * If loss is fused with softmax activation outputs are probabilities calculated from logits of previous layer.<br>
      *
      * @return outputs of neural network layer.
      */
     public Sequence getLayerOutputs() {
-        return getDefaultLayerInput();
+        return softmaxCrossEntropyMatrixOperation != null && probabilities != null ? probabilities : getDefaultLayerInput();
     }
 
     /**
@@ -145,7 +167,12 @@ public class OutputLayer extends AbstractPlainLayer {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public void forwardProcess() throws MatrixException {
-        if (targets == null || targets.isEmpty() || !training) return;
+        boolean calculateLoss = targets != null && !targets.isEmpty() && training;
+        if (softmaxCrossEntropyMatrixOperation != null) {
+            forwardProcessFused(calculateLoss);
+            return;
+        }
+        if (!calculateLoss) return;
         loss = null;
         for (Map.Entry<Integer, Matrix> entry : targets.entrySet()) {
             int sampleIndex = entry.getKey();
@@ -158,6 +185,31 @@ public class OutputLayer extends AbstractPlainLayer {
         loss = LossFunction.getMeanError(loss, targets.totalSize());
     }
 
+    /**
+     * Executes forward processing step of output layer with loss fused with softmax activation.<br>
+     * Calculates probabilities from logits of previous layer and loss in same pass.<br>
+     *
+     * @param calculateLoss if true loss is calculated otherwise only probabilities are calculated.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private void forwardProcessFused(boolean calculateLoss) throws MatrixException {
+        Sequence newProbabilities = new Sequence();
+        if (calculateLoss) loss = null;
+        for (Map.Entry<Integer, Matrix> entry : getDefaultLayerInput().entrySet()) {
+            int sampleIndex = entry.getKey();
+            Matrix logits = entry.getValue();
+            Matrix target = calculateLoss ? targets.get(sampleIndex) : null;
+            Matrix sampleProbabilities = logits.getNewMatrix();
+            Matrix currentLoss = softmaxCrossEntropyMatrixOperation.applyFunction(logits, target, sampleProbabilities);
+            newProbabilities.put(sampleIndex, sampleProbabilities);
+            if (currentLoss == null) continue;
+            if (importanceSamplingWeights != null) currentLoss.multiplyBy(importanceSamplingWeights.get(sampleIndex));
+            loss = loss == null ? currentLoss : loss.add(currentLoss);
+        }
+        probabilities = newProbabilities;
+        if (calculateLoss) loss = LossFunction.getMeanError(loss, targets.totalSize());
+    }
+
     /**
      * Executes backward step of neural network.
      *
@@ -180,7 +232,7 @@ public class OutputLayer extends AbstractPlainLayer {
             int sampleIndex = entry.getKey();
             Matrix output = getLayerOutputs().get(sampleIndex);
             Matrix target = entry.getValue();
-            Matrix currentLossGradient = lossMatrixOperation.applyGradient(output, target);
+            Matrix currentLossGradient = softmaxCrossEntropyMatrixOperation != null ? softmaxCrossEntropyMatrixOperation.applyGradient(output, target) : lossMatrixOperation.applyGradient(output, target);
             if (importanceSamplingWeights != null) currentLossGradient.multiplyBy(importanceSamplingWeights.get(sampleIndex));
             lossGradients.put(sampleIndex, currentLossGradient);
         }
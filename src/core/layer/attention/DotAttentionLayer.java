@@ -84,11 +84,11 @@ public class DotAttentionLayer extends AbstractExecutionLayer {
                 if (previousLayerDepth == -1) previousLayerDepth = previousLayer.getLayerDepth();
                 else if (previousLayerDepth != previousLayer.getLayerDepth()) throw new MatrixException("All layers must have same depth");
             }
-            queryWeight = new DMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
+            queryWeight = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
             queryWeight.setName("QueryWeight");
-            keyWeight = new DMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
+            keyWeight = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
             keyWeight.setName("KeyWeight");
-            valueWeight = new DMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
+            valueWeight = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
             valueWeight.setName("ValueWeight");
 
             weights.add(queryWeight);
@@ -252,7 +252,7 @@ public class DotAttentionLayer extends AbstractExecutionLayer {
     public void initializeWeights() throws MatrixException {
         weightSet = new SelfAttentionWeightSet(initialization, getPreviousLayers());
         if (scaled) {
-            scalingFactor = new DMatrix(1.0 / Math.sqrt(getDefaultPreviousLayer().getLayerWidth()));
+            scalingFactor = getMatrixPrecision().getNewMatrix(1.0 / Math.sqrt(getDefaultPreviousLayer().getLayerWidth()));
             scalingFactor.setName("ScalingFactor");
             registerConstantMatrix(scalingFactor);
             registerStopGradient(scalingFactor);
@@ -282,7 +282,7 @@ public class DotAttentionLayer extends AbstractExecutionLayer {
             }
             else if (layerWidth != entry.getValue().getLayerWidth() || layerHeight != entry.getValue().getLayerHeight() || layerDepth != entry.getValue().getLayerDepth()) throw new MatrixException("All inputs must have same size.");
 
-            Matrix input = new DMatrix(layerWidth, layerHeight, layerDepth, Initialization.ONE);
+            Matrix input = getMatrixPrecision().getNewMatrix(layerWidth, layerHeight, layerDepth, Initialization.ONE);
             input.setName("Input" + entry.getValue().getLayerIndex());
             inputs.put(inputIndex++, input);
         }
@@ -84,13 +84,13 @@ public class LocationBasedAttention extends DotAttentionLayer {
                 if (previousLayerDepth == -1) previousLayerDepth = previousLayer.getLayerDepth();
                 else if (previousLayerDepth != previousLayer.getLayerDepth()) throw new MatrixException("All layers must have same depth");
             }
-            queryWeight = new DMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
+            queryWeight = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
             queryWeight.setName("QueryWeight");
-            keyWeight = new DMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
+            keyWeight = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
             keyWeight.setName("KeyWeight");
-            valueWeight = new DMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
+            valueWeight = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
             valueWeight.setName("ValueWeight");
-            positionWeight = new DMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
+            positionWeight = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
             positionWeight.setName("PositionWeight");
 
             weights.add(queryWeight);
@@ -184,7 +184,7 @@ public class LocationBasedAttention extends DotAttentionLayer {
         int previousLayerHeight = getDefaultPreviousLayer().getLayerHeight() * getPreviousLayers().size();
         int previousLayerDepth = getDefaultPreviousLayer().getLayerDepth();
 
-        positionalEncodingMatrix = new DMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
+        positionalEncodingMatrix = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
         registerConstantMatrix(positionalEncodingMatrix);
         registerStopGradient(positionalEncodingMatrix);
     }
@@ -74,7 +74,7 @@ public abstract class AbstractConvolutionalLayer extends AbstractConvolutionLaye
          * Treemap for filter maps (weights).
          *
          */
-        private final Matrix filterWeight;
+        private Matrix filterWeight;
 
         /**
          * Treemap for biases.
@@ -105,12 +105,12 @@ public abstract class AbstractConvolutionalLayer extends AbstractConvolutionLaye
             this.numberOfFilters = numberOfFilters;
             this.previousLayerDepth = previousLayerDepth;
 
-            filterWeight = new DMatrix(filterRowSize, filterColumnSize, isDepthSeparable ? previousLayerDepth : previousLayerDepth * numberOfFilters, initialization, filterRowSize * filterColumnSize * previousLayerDepth,  filterRowSize * filterColumnSize * numberOfFilters);
+            filterWeight = getMatrixPrecision().getNewMatrix(filterRowSize, filterColumnSize, isDepthSeparable ? previousLayerDepth : previousLayerDepth * numberOfFilters, initialization, filterRowSize * filterColumnSize * previousLayerDepth,  filterRowSize * filterColumnSize * numberOfFilters);
             filterWeight.setName("Wf");
             weights.add(filterWeight);
             registerWeight(filterWeight, regulateWeights, true);
 
-            filterBias = new DMatrix(getLayerWidth(), getLayerHeight(), numberOfFilters);
+            filterBias = getMatrixPrecision().getNewMatrix(getLayerWidth(), getLayerHeight(), numberOfFilters);
             filterBias.setName("Bf");
             weights.add(filterBias);
             registerWeight(filterBias, false, false);
@@ -145,6 +145,16 @@ public abstract class AbstractConvolutionalLayer extends AbstractConvolutionLaye
             return numberOfParameters;
         }
 
+        /**
+         * Quantizes filter weight matrix per filter depth.
+         *
+         */
+        void quantize() {
+            weights.remove(filterWeight);
+            filterWeight = getQuantizedWeight(filterWeight, false);
+            weights.add(filterWeight);
+        }
+
     }
 
     /**
@@ -267,6 +277,14 @@ public abstract class AbstractConvolutionalLayer extends AbstractConvolutionLaye
         return weightSet;
     }
 
+    /**
+     * Quantizes filter weights of layer for inference.
+     *
+     */
+    public void quantize() {
+        if (weightSet != null) weightSet.quantize();
+    }
+
     /**
      * Initializes neural network layer weights.
      *
@@ -283,7 +301,7 @@ public abstract class AbstractConvolutionalLayer extends AbstractConvolutionLaye
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
         inputs = new TreeMap<>();
-        Matrix input = new DMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
+        Matrix input = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         inputs.put(0, input);
         return inputs;
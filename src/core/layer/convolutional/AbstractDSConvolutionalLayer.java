@@ -73,7 +73,7 @@ public abstract class AbstractDSConvolutionalLayer extends AbstractConvolutionLa
          * Treemap for depth-wise filter maps (weights).
          *
          */
-        private final Matrix filterWeightDepthWise;
+        private Matrix filterWeightDepthWise;
 
         /**
          * Tree map for depth-wise biases.
@@ -85,7 +85,7 @@ public abstract class AbstractDSConvolutionalLayer extends AbstractConvolutionLa
          * Treemap for point-wise filter maps (weights).
          *
          */
-        private final Matrix filterWeightPointWise;
+        private Matrix filterWeightPointWise;
 
         /**
          * Treemap for point-wise biases.
@@ -114,22 +114,22 @@ public abstract class AbstractDSConvolutionalLayer extends AbstractConvolutionLa
             this.filterColumnSize = filterColumnSize;
             this.numberOfFilters = numberOfFilters;
 
-            filterWeightDepthWise = new DMatrix(filterRowSize, filterColumnSize, previousLayerDepth, initialization, filterRowSize * filterColumnSize * previousLayerDepth, filterRowSize * filterColumnSize * previousLayerDepth);
+            filterWeightDepthWise = getMatrixPrecision().getNewMatrix(filterRowSize, filterColumnSize, previousLayerDepth, initialization, filterRowSize * filterColumnSize * previousLayerDepth, filterRowSize * filterColumnSize * previousLayerDepth);
             filterWeightDepthWise.setName("WfDW");
             weights.add(filterWeightDepthWise);
             registerWeight(filterWeightDepthWise, regulateWeights, true);
 
-            filterBiasDepthWise = new DMatrix(getLayerWidth(), getLayerHeight(), previousLayerDepth);
+            filterBiasDepthWise = getMatrixPrecision().getNewMatrix(getLayerWidth(), getLayerHeight(), previousLayerDepth);
             filterBiasDepthWise.setName("BfDW");
             weights.add(filterBiasDepthWise);
             registerWeight(filterBiasDepthWise, false, false);
 
-            filterWeightPointWise = new DMatrix(1, 1, previousLayerDepth * numberOfFilters, initialization, previousLayerDepth, numberOfFilters);
+            filterWeightPointWise = getMatrixPrecision().getNewMatrix(1, 1, previousLayerDepth * numberOfFilters, initialization, previousLayerDepth, numberOfFilters);
             filterWeightPointWise.setName("WfPW");
             weights.add(filterWeightPointWise);
             registerWeight(filterWeightPointWise, regulateWeights, true);
 
-            filterBiasPointWise = new DMatrix(getLayerWidth(), getLayerHeight(), numberOfFilters);
+            filterBiasPointWise = getMatrixPrecision().getNewMatrix(getLayerWidth(), getLayerHeight(), numberOfFilters);
             filterBiasPointWise.setName("BfPW");
             weights.add(filterBiasPointWise);
             registerWeight(filterBiasPointWise, false, false);
@@ -166,6 +166,19 @@ public abstract class AbstractDSConvolutionalLayer extends AbstractConvolutionLa
             return numberOfParameters;
         }
 
+        /**
+         * Quantizes filter weight matrices per filter depth.
+         *
+         */
+        void quantize() {
+            weights.remove(filterWeightDepthWise);
+            filterWeightDepthWise = getQuantizedWeight(filterWeightDepthWise, false);
+            weights.add(filterWeightDepthWise);
+            weights.remove(filterWeightPointWise);
+            filterWeightPointWise = getQuantizedWeight(filterWeightPointWise, false);
+            weights.add(filterWeightPointWise);
+        }
+
     }
 
     /**
@@ -299,6 +312,14 @@ public abstract class AbstractDSConvolutionalLayer extends AbstractConvolutionLa
         return weightSet;
     }
 
+    /**
+     * Quantizes filter weights of layer for inference.
+     *
+     */
+    public void quantize() {
+        if (weightSet != null) weightSet.quantize();
+    }
+
     /**
      * Initializes neural network layer weights.
      *
@@ -315,7 +336,7 @@ public abstract class AbstractDSConvolutionalLayer extends AbstractConvolutionLa
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
         inputs = new TreeMap<>();
-        Matrix input = new DMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
+        Matrix input = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         inputs.put(0, input);
         return inputs;
@@ -69,7 +69,7 @@ public abstract class AbstractDWSingleConvolutionLayer extends AbstractConvoluti
          * Treemap for depth-wise filter maps (weights).
          *
          */
-        private final Matrix filterWeightDepthWise;
+        private Matrix filterWeightDepthWise;
 
         /**
          * Tree map for depth-wise biases.
@@ -94,12 +94,12 @@ public abstract class AbstractDWSingleConvolutionLayer extends AbstractConvoluti
             this.filterRowSize = filterRowSize;
             this.filterColumnSize = filterColumnSize;
 
-            filterWeightDepthWise = new DMatrix(filterRowSize, filterColumnSize, 1, initialization, filterRowSize * filterColumnSize, filterRowSize * filterColumnSize);
+            filterWeightDepthWise = getMatrixPrecision().getNewMatrix(filterRowSize, filterColumnSize, 1, initialization, filterRowSize * filterColumnSize, filterRowSize * filterColumnSize);
             filterWeightDepthWise.setName("WfDW");
             weights.add(filterWeightDepthWise);
             registerWeight(filterWeightDepthWise, regulateWeights, true);
 
-            filterBiasDepthWise = new DMatrix(getLayerWidth(), getLayerHeight(), 1);
+            filterBiasDepthWise = getMatrixPrecision().getNewMatrix(getLayerWidth(), getLayerHeight(), 1);
             filterBiasDepthWise.setName("BfDW");
             weights.add(filterBiasDepthWise);
             registerWeight(filterBiasDepthWise, false, false);
@@ -134,6 +134,16 @@ public abstract class AbstractDWSingleConvolutionLayer extends AbstractConvoluti
             return numberOfParameters;
         }
 
+        /**
+         * Quantizes filter weight matrix per filter depth.
+         *
+         */
+        void quantize() {
+            weights.remove(filterWeightDepthWise);
+            filterWeightDepthWise = getQuantizedWeight(filterWeightDepthWise, false);
+            weights.add(filterWeightDepthWise);
+        }
+
     }
 
     /**
@@ -266,6 +276,14 @@ public abstract class AbstractDWSingleConvolutionLayer extends AbstractConvoluti
         return weightSet;
     }
 
+    /**
+     * Quantizes filter weights of layer for inference.
+     *
+     */
+    public void quantize() {
+        if (weightSet != null) weightSet.quantize();
+    }
+
     /**
      * Initializes neural network layer weights.
      *
@@ -282,7 +300,7 @@ public abstract class AbstractDWSingleConvolutionLayer extends AbstractConvoluti
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
         inputs = new TreeMap<>();
-        Matrix input = new DMatrix(previousLayerWidth, previousLayerHeight, 1);
+        Matrix input = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, 1);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         inputs.put(0, input);
         return inputs;
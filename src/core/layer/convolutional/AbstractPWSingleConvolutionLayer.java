@@ -70,14 +70,14 @@ public abstract class AbstractPWSingleConvolutionLayer extends AbstractConvoluti
          */
         PWConvolutionWeightSet(Initialization initialization, boolean regulateWeights) {
             for (Integer filterIndex : getPreviousLayers().keySet()) {
-                Matrix filterWeightPointWise = new DMatrix(1, 1, 1, initialization, 1, 1);
+                Matrix filterWeightPointWise = getMatrixPrecision().getNewMatrix(1, 1, 1, initialization, 1, 1);
                 filterWeightPointWise.setName("WfPW" + filterIndex);
                 weights.add(filterWeightPointWise);
                 registerWeight(filterWeightPointWise, regulateWeights, true);
                 filtersWeightPointWise.put(filterIndex, filterWeightPointWise);
             }
 
-            filterBiasPointWise = new DMatrix(getLayerWidth(), getLayerHeight(), getLayerDepth());
+            filterBiasPointWise = getMatrixPrecision().getNewMatrix(getLayerWidth(), getLayerHeight(), getLayerDepth());
             filterBiasPointWise.setName("BfPW");
             weights.add(filterBiasPointWise);
             registerWeight(filterBiasPointWise, false, false);
@@ -239,7 +239,7 @@ public abstract class AbstractPWSingleConvolutionLayer extends AbstractConvoluti
             else if (layerWidth != entry.getValue().getLayerWidth()) throw new MatrixException("All inputs must have same width.");
             if (layerHeight == -1) layerHeight = entry.getValue().getLayerHeight();
             else if (layerHeight != entry.getValue().getLayerHeight()) throw new MatrixException("All inputs must have same height.");
-            Matrix input = new DMatrix(layerWidth, layerHeight, 1, Initialization.ONE);
+            Matrix input = getMatrixPrecision().getNewMatrix(layerWidth, layerHeight, 1, Initialization.ONE);
             input.setName("Input" + entry.getValue().getLayerIndex() + "{" + entry.getKey() + "}");
             inputMatrices.put(entry.getKey(), input);
         }
@@ -157,7 +157,7 @@ public abstract class AbstractPoolingLayer extends AbstractConvolutionLayer {
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
         inputs = new TreeMap<>();
-        Matrix input = new DMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
+        Matrix input = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         inputs.put(0, input);
         return inputs;
@@ -67,7 +67,7 @@ public abstract class AbstractSingleConvolutionalLayer extends AbstractConvoluti
          * Treemap for filter maps (weights).
          *
          */
-        private final Matrix filterWeight;
+        private Matrix filterWeight;
 
         /**
          * Treemap for biases.
@@ -93,12 +93,12 @@ public abstract class AbstractSingleConvolutionalLayer extends AbstractConvoluti
             this.filterRowSize = filterRowSize;
             this.filterColumnSize = filterColumnSize;
 
-            filterWeight = new DMatrix(filterRowSize, filterColumnSize, previousLayerDepth, initialization, filterRowSize * filterColumnSize, filterRowSize * filterColumnSize);
+            filterWeight = getMatrixPrecision().getNewMatrix(filterRowSize, filterColumnSize, previousLayerDepth, initialization, filterRowSize * filterColumnSize, filterRowSize * filterColumnSize);
             filterWeight.setName("Wf");
             weights.add(filterWeight);
             registerWeight(filterWeight, regulateWeights, true);
 
-            filterBias = new DMatrix(getLayerWidth(), getLayerHeight(), 1);
+            filterBias = getMatrixPrecision().getNewMatrix(getLayerWidth(), getLayerHeight(), 1);
             filterBias.setName("Bf");
             weights.add(filterBias);
             registerWeight(filterBias, false, false);
@@ -133,6 +133,16 @@ public abstract class AbstractSingleConvolutionalLayer extends AbstractConvoluti
             return numberOfParameters;
         }
 
+        /**
+         * Quantizes filter weight matrix per filter depth.
+         *
+         */
+        void quantize() {
+            weights.remove(filterWeight);
+            filterWeight = getQuantizedWeight(filterWeight, false);
+            weights.add(filterWeight);
+        }
+
     }
 
     /**
@@ -260,6 +270,14 @@ public abstract class AbstractSingleConvolutionalLayer extends AbstractConvoluti
         return weightSet;
     }
 
+    /**
+     * Quantizes filter weights of layer for inference.
+     *
+     */
+    public void quantize() {
+        if (weightSet != null) weightSet.quantize();
+    }
+
     /**
      * Initializes neural network layer weights.
      *
@@ -286,7 +304,7 @@ public abstract class AbstractSingleConvolutionalLayer extends AbstractConvoluti
             else if (layerWidth != entry.getValue().getLayerWidth()) throw new MatrixException("All inputs must have same width.");
             if (layerHeight == -1) layerHeight = entry.getValue().getLayerHeight();
             else if (layerHeight != entry.getValue().getLayerHeight()) throw new MatrixException("All inputs must have same height.");
-            Matrix input = new DMatrix(layerWidth, layerHeight, 1, Initialization.ONE);
+            Matrix input = getMatrixPrecision().getNewMatrix(layerWidth, layerHeight, 1, Initialization.ONE);
             input.setName("Input" + entry.getValue().getLayerIndex() + "{" + entry.getKey() + "}");
             inputMatrices.put(entry.getKey(), input);
         }
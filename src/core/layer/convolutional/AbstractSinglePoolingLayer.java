@@ -158,7 +158,7 @@ public abstract class AbstractSinglePoolingLayer extends AbstractConvolutionLaye
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
         inputs = new TreeMap<>();
-        Matrix input = new DMatrix(previousLayerWidth, previousLayerHeight, 1);
+        Matrix input = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, 1);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         inputs.put(0, input);
         return inputs;
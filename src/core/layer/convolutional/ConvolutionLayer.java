@@ -26,13 +26,21 @@ public class ConvolutionLayer extends AbstractConvolutionalLayer {
      *     - filterColumnSize size of filter in terms of columns. Overrides filterSize parameter. Default value 3.<br>
      *     - stride: size of stride. Default size 1.<br>
      *     - dilation: dilation step for filter. Default step 1.<br>
+     *     - useFFT: if true convolution is calculated with fast Fourier transform. Default value false.<br>
      *
      */
     private final static String paramNameTypes = "(filterSize:INT), " +
             "(filterRowSize:INT), " +
             "(filterColumnSize:INT), " +
             "(stride:INT), " +
-            "(dilation:INT), ";
+            "(dilation:INT), " +
+            "(useFFT:BOOLEAN)";
+
+    /**
+     * If true convolution is calculated with fast Fourier transform.
+     *
+     */
+    private boolean useFFT;
 
     /**
      * Constructor for convolution layer.
@@ -48,6 +56,15 @@ public class ConvolutionLayer extends AbstractConvolutionalLayer {
         super (layerIndex, activationFunction, initialization, params);
     }
 
+    /**
+     * Initializes default params.
+     *
+     */
+    public void initializeDefaultParams() {
+        super.initializeDefaultParams();
+        useFFT = false;
+    }
+
     /**
      * Returns parameters used for convolution layer.
      *
@@ -66,6 +83,7 @@ public class ConvolutionLayer extends AbstractConvolutionalLayer {
      *     - filterColumnSize size of filter in terms of columns. Overrides filterSize parameter. Default value 3.<br>
      *     - stride: size of stride. Default size 1.<br>
      *     - dilation: dilation step for filter. Default step 1.<br>
+     *     - useFFT: if true convolution is calculated with fast Fourier transform. Default value false.<br>
      *
      * @param params parameters used for convolution layer.
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
@@ -99,6 +117,7 @@ public class ConvolutionLayer extends AbstractConvolutionalLayer {
             if (dilation < 1) throw new NeuralNetworkException("Dilation must be at least 1.");
             setDilation(dilation);
         }
+        if (params.hasParam("useFFT")) useFFT = params.getValueAsBoolean("useFFT");
     }
 
     /**
@@ -110,7 +129,7 @@ public class ConvolutionLayer extends AbstractConvolutionalLayer {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     protected Matrix executeConvolutionalOperation(Matrix input, Matrix filter) throws MatrixException {
-        return input.convolve(filter);
+        return useFFT ? input.fftConvolve(filter) : input.convolve(filter);
     }
 
     /**
@@ -26,15 +26,23 @@ public class CrosscorrelationLayer extends AbstractConvolutionalLayer {
      *     - filterColumnSize size of filter in terms of columns. Overrides filterSize parameter. Default value 3.<br>
      *     - stride: size of stride. Default size 1.<br>
      *     - dilation: dilation step for filter. Default step 1.<br>
+     *     - useFFT: if true crosscorrelation is calculated with fast Fourier transform. Default value false.<br>
      *
      */
     private final static String paramNameTypes = "(filterSize:INT), " +
             "(filterRowSize:INT), " +
             "(filterColumnSize:INT), " +
             "(stride:INT), " +
-            "(dilation:INT), ";
+            "(dilation:INT), " +
+            "(useFFT:BOOLEAN)";
 
 
+    /**
+     * If true crosscorrelation is calculated with fast Fourier transform.
+     *
+     */
+    private boolean useFFT;
+
     /**
      * Constructor for crosscorrelation layer.
      *
@@ -49,6 +57,15 @@ public class CrosscorrelationLayer extends AbstractConvolutionalLayer {
         super (layerIndex, activationFunction, initialization, params);
     }
 
+    /**
+     * Initializes default params.
+     *
+     */
+    public void initializeDefaultParams() {
+        super.initializeDefaultParams();
+        useFFT = false;
+    }
+
     /**
      * Returns parameters used for crosscorrelation layer.
      *
@@ -67,6 +84,7 @@ public class CrosscorrelationLayer extends AbstractConvolutionalLayer {
      *     - filterColumnSize size of filter in terms of columns. Overrides filterSize parameter. Default value 3.<br>
      *     - stride: size of stride. Default size 1.<br>
      *     - dilation: dilation step for filter. Default step 1.<br>
+     *     - useFFT: if true crosscorrelation is calculated with fast Fourier transform. Default value false.<br>
      *
      * @param params parameters used for crosscorrelation layer.
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
@@ -100,6 +118,7 @@ public class CrosscorrelationLayer extends AbstractConvolutionalLayer {
             if (dilation < 1) throw new NeuralNetworkException("Dilation must be at least 1.");
             setDilation(dilation);
         }
+        if (params.hasParam("useFFT")) useFFT = params.getValueAsBoolean("useFFT");
     }
 
     /**
@@ -111,7 +130,7 @@ public class CrosscorrelationLayer extends AbstractConvolutionalLayer {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     protected Matrix executeConvolutionalOperation(Matrix input, Matrix filter) throws MatrixException {
-        return input.crosscorrelate(filter);
+        return useFFT ? input.fftCrosscorrelate(filter) : input.crosscorrelate(filter);
     }
 
     /**
@@ -11,8 +11,6 @@ import utils.matrix.Initialization;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 
-import java.util.HashMap;
-
 /**
  * Implements cyclic pooling layer.<br>
  * Traverses cyclically each filter row and column through step by step and propagates selected row and column.<br>
@@ -41,7 +39,7 @@ public class CyclicPoolingLayer extends AbstractPoolingLayer {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     protected Matrix executePoolingOperation(Matrix input) throws MatrixException {
-        return input.cyclicPool(new HashMap<>());
+        return input.cyclicPool();
     }
 
     /**
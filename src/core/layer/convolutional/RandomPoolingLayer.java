@@ -11,8 +11,6 @@ import utils.matrix.Initialization;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 
-import java.util.HashMap;
-
 /**
  * Implements random pooling layer.<br>
  * Selects each input of pool for propagation randomly with uniform probability.<br>
@@ -41,7 +39,7 @@ public class RandomPoolingLayer extends AbstractPoolingLayer {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     protected Matrix executePoolingOperation(Matrix input) throws MatrixException {
-        return input.randomPool(new HashMap<>());
+        return input.randomPool();
     }
 
     /**
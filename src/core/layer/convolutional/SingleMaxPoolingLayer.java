@@ -11,8 +11,6 @@ import utils.matrix.Initialization;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 
-import java.util.HashMap;
-
 /**
  * Implements single max pooling layer.
  *
@@ -40,7 +38,7 @@ public class SingleMaxPoolingLayer extends AbstractSinglePoolingLayer {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     protected Matrix executePoolingOperation(Matrix input) throws MatrixException {
-        return input.maxPool(new HashMap<>());
+        return input.maxPool();
     }
 
     /**
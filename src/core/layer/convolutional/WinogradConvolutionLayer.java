@@ -7,17 +7,32 @@ package core.layer.convolutional;
 
 import core.activation.ActivationFunction;
 import core.network.NeuralNetworkException;
+import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.Initialization;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 
 /**
- * Implements Winograd convolution layer with filter size 3x3, stride 1 and dilation 1.
+ * Implements Winograd convolution layer with filter size 3x3, stride 1 and dilation 1.<br>
+ * Forward and backward passes are calculated with F(2x2, 3x3) or F(4x4, 3x3) Winograd transforms.<br>
  *
  */
 public class WinogradConvolutionLayer extends AbstractConvolutionalLayer {
 
+    /**
+     * Parameter name types for Winograd convolution layer.
+     *     - tileSize: output tile size of Winograd transform. Supported values are 2 (F(2x2, 3x3)) and 4 (F(4x4, 3x3)). Default value 4.<br>
+     *
+     */
+    private final static String paramNameTypes = "(tileSize:INT)";
+
+    /**
+     * Output tile size of Winograd transform.
+     *
+     */
+    private int tileSize;
+
     /**
      * Constructor for Winograd convolution layer.
      *
@@ -40,8 +55,37 @@ public class WinogradConvolutionLayer extends AbstractConvolutionalLayer {
         super.initializeDefaultParams();
         setFilterRowSize(3);
         setFilterColumnSize(3);
-        setStride(2);
+        setStride(1);
         setDilation(1);
+        tileSize = 4;
+    }
+
+    /**
+     * Returns parameters used for Winograd convolution layer.
+     *
+     * @return parameters used for Winograd convolution layer.
+     */
+    public String getParamDefs() {
+        return super.getParamDefs() + ", " + WinogradConvolutionLayer.paramNameTypes;
+    }
+
+    /**
+     * Sets parameters used for Winograd convolution layer.<br>
+     * <br>
+     * Supported parameters are:<br>
+     *     - tileSize: output tile size of Winograd transform. Supported values are 2 (F(2x2, 3x3)) and 4 (F(4x4, 3x3)). Default value 4.<br>
+     *
+     * @param params parameters used for Winograd convolution layer.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     * @throws NeuralNetworkException throws exception if minimum layer dimensions are not met.
+     */
+    public void setParams(DynamicParam params) throws DynamicParamException, NeuralNetworkException {
+        super.setParams(params);
+        if (params.hasParam("tileSize")) {
+            int tileSize = params.getValueAsInteger("tileSize");
+            if (tileSize != 2 && tileSize != 4) throw new NeuralNetworkException("Tile size must be 2 or 4.");
+            this.tileSize = tileSize;
+        }
     }
 
     /**
@@ -69,10 +113,9 @@ public class WinogradConvolutionLayer extends AbstractConvolutionalLayer {
      * @param filter filter matrix.
      * @return result of convolutional operation.
      * @throws MatrixException throws exception if matrix operation fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    protected Matrix executeConvolutionalOperation(Matrix input, Matrix filter) throws MatrixException, DynamicParamException {
-        return input.winogradConvolve(filter);
+    protected Matrix executeConvolutionalOperation(Matrix input, Matrix filter) throws MatrixException {
+        return input.winogradConvolve(filter, tileSize);
     }
 
     /**
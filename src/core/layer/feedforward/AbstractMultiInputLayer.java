@@ -95,7 +95,7 @@ public abstract class AbstractMultiInputLayer extends AbstractExecutionLayer {
             }
             else if (layerWidth != entry.getValue().getLayerWidth() || layerHeight != entry.getValue().getLayerHeight() || layerDepth != entry.getValue().getLayerDepth()) throw new MatrixException("All inputs must have same size.");
 
-            Matrix input = new DMatrix(layerWidth, layerHeight, layerDepth, Initialization.ONE);
+            Matrix input = getMatrixPrecision().getNewMatrix(layerWidth, layerHeight, layerDepth, Initialization.ONE);
             input.setName("Input" + entry.getValue().getLayerIndex());
             inputs.put(inputIndex++, input);
         }
@@ -27,6 +27,12 @@ public class ActivationLayer extends AbstractExecutionLayer {
      */
     protected final ActivationFunction activationFunction;
 
+    /**
+     * If true activation function is fused with loss function of next layer and omitted by this layer.
+     *
+     */
+    private boolean outputActivationFusedWithLoss = false;
+
     /**
      * Input matrices for procedure construction.
      *
@@ -72,7 +78,7 @@ public class ActivationLayer extends AbstractExecutionLayer {
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
         inputs = new TreeMap<>();
-        Matrix input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
+        Matrix input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         inputs.put(0, input);
         return inputs;
@@ -83,15 +89,33 @@ public class ActivationLayer extends AbstractExecutionLayer {
      *
      * @return output of forward procedure.
      * @throws MatrixException throws exception if matrix operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    public Matrix getForwardProcedure() throws MatrixException {
+    public Matrix getForwardProcedure() throws MatrixException, DynamicParamException {
         Matrix output = inputs.get(0);
-        output = output.apply(activationFunction);
+        output = output.apply(outputActivationFusedWithLoss ? new UnaryFunction(UnaryFunctionType.LINEAR) : activationFunction);
         output.setName("Output");
 
         return output;
     }
 
+    /**
+     * Returns activation function applied as last operation to output of layer.
+     *
+     * @return activation function applied as last operation to output of layer.
+     */
+    public UnaryFunction getOutputActivationFunction() {
+        return activationFunction;
+    }
+
+    /**
+     * Fuses activation function of layer with loss function of next layer. Layer applies linear function instead of activation function and outputs logits.
+     *
+     */
+    public void fuseOutputActivationWithLoss() {
+        outputActivationFusedWithLoss = true;
+    }
+
     /**
      * Returns layer details as string.
      *
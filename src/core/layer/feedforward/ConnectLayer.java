@@ -55,7 +55,7 @@ public class ConnectLayer extends AbstractExecutionLayer {
          */
         ConnectWeightSet(Initialization initialization, int layerWidth, int layerDepth, TreeMap<Integer, NeuralNetworkLayer> previousLayers) {
             for (Map.Entry<Integer, NeuralNetworkLayer> entry : previousLayers.entrySet()) {
-                Matrix connectInputWeight = new DMatrix(layerWidth, entry.getValue().getLayerWidth(), layerDepth, initialization);
+                Matrix connectInputWeight = getMatrixPrecision().getNewMatrix(layerWidth, entry.getValue().getLayerWidth(), layerDepth, initialization);
                 connectInputWeight.setName("ConnectWeight" + entry.getValue().getLayerIndex());
                 weights.add(connectInputWeight);
                 registerWeight(connectInputWeight, false, false);
@@ -164,7 +164,7 @@ public class ConnectLayer extends AbstractExecutionLayer {
                 layerDepth = entry.getValue().getLayerDepth();
             }
             else if (layerHeight != entry.getValue().getLayerHeight() || layerDepth != entry.getValue().getLayerDepth()) throw new MatrixException("All inputs must have same height and depth.");
-            Matrix input = new DMatrix(entry.getValue().getLayerWidth(), layerHeight, layerDepth, Initialization.ONE);
+            Matrix input = getMatrixPrecision().getNewMatrix(entry.getValue().getLayerWidth(), layerHeight, layerDepth, Initialization.ONE);
             input.setName("Input" + entry.getValue().getLayerIndex());
             inputs.put(inputIndex++, input);
         }
@@ -45,7 +45,7 @@ public class FeedforwardLayer extends AbstractExecutionLayer {
          * Weight matrix.
          *
          */
-        private final Matrix weight;
+        private Matrix weight;
 
         /**
          * Bias matrix.
@@ -70,9 +70,9 @@ public class FeedforwardLayer extends AbstractExecutionLayer {
          * @param regulateDirectWeights if true direct weights are regulated.
          */
         FeedforwardWeightSet(Initialization initialization, int previousLayerWidth, int previousLayerHeight, int layerWidth, int previousLayerDepth, boolean regulateDirectWeights) {
-            weight = new DMatrix(layerWidth, previousLayerWidth, previousLayerDepth, initialization);
+            weight = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, previousLayerDepth, initialization);
             weight.setName("Weight");
-            bias = new DMatrix(layerWidth, previousLayerHeight, previousLayerDepth);
+            bias = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerHeight, previousLayerDepth);
             bias.setName("Bias");
 
             weights.add(weight);
@@ -111,6 +111,16 @@ public class FeedforwardLayer extends AbstractExecutionLayer {
             return numberOfParameters;
         }
 
+        /**
+         * Quantizes weight matrix per row.
+         *
+         */
+        void quantize() {
+            weights.remove(weight);
+            weight = getQuantizedWeight(weight, true);
+            weights.add(weight);
+        }
+
     }
 
     /**
@@ -125,6 +135,12 @@ public class FeedforwardLayer extends AbstractExecutionLayer {
      */
     protected final ActivationFunction activationFunction;
 
+    /**
+     * If true activation function is fused with loss function of next layer and omitted by this layer.
+     *
+     */
+    private boolean outputActivationFusedWithLoss = false;
+
     /**
      * True if weights are regulated otherwise weights are not regulated.
      *
@@ -209,6 +225,14 @@ public class FeedforwardLayer extends AbstractExecutionLayer {
         return weightSet;
     }
 
+    /**
+     * Quantizes weight matrix of layer for inference.
+     *
+     */
+    public void quantize() {
+        if (weightSet != null) weightSet.quantize();
+    }
+
     /**
      * Initializes neural network layer weights.
      *
@@ -224,7 +248,7 @@ public class FeedforwardLayer extends AbstractExecutionLayer {
      * @return input matrix for procedure construction.
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
-        input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
+        input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         return new TreeMap<>() {{ put(0, input); }};
     }
@@ -239,12 +263,29 @@ public class FeedforwardLayer extends AbstractExecutionLayer {
         Matrix output = weightSet.weight.dot(input);
         output = output.add(weightSet.bias);
 
-        if (activationFunction != null) output = output.apply(activationFunction);
+        if (activationFunction != null && !outputActivationFusedWithLoss) output = output.apply(activationFunction);
 
         output.setName("Output");
         return output;
     }
 
+    /**
+     * Returns activation function applied as last operation to output of layer.
+     *
+     * @return activation function applied as last operation to output of layer.
+     */
+    public UnaryFunction getOutputActivationFunction() {
+        return activationFunction;
+    }
+
+    /**
+     * Fuses activation function of layer with loss function of next layer. Layer omits activation function and outputs logits.
+     *
+     */
+    public void fuseOutputActivationWithLoss() {
+        outputActivationFusedWithLoss = true;
+    }
+
     /**
      * Returns layer details as string.
      *
@@ -74,7 +74,7 @@ public class FlattenLayer extends AbstractExecutionLayer {
      * @return input matrix for procedure construction.
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
-        input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
+        input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         return new TreeMap<>() {{ put(0, input); }};
     }
@@ -54,7 +54,7 @@ public class JoinLayer extends AbstractExecutionLayer {
          */
         JoinWeightSet(Initialization initialization, int layerWidth, int layerDepth) {
             if (getLayerWidth() != getPreviousLayerTotalWidth()) {
-                Matrix previousInputWeight = new DMatrix(layerWidth, getPreviousLayerTotalWidth(), layerDepth, initialization);
+                Matrix previousInputWeight = getMatrixPrecision().getNewMatrix(layerWidth, getPreviousLayerTotalWidth(), layerDepth, initialization);
                 previousInputWeight.setName("JoinedInputWeight");
                 weights.add(previousInputWeight);
                 registerWeight(previousInputWeight, false, false);
@@ -190,7 +190,7 @@ public class JoinLayer extends AbstractExecutionLayer {
                 layerDepth = entry.getValue().getLayerDepth();
             }
             else if (layerHeight != entry.getValue().getLayerHeight() || layerDepth != entry.getValue().getLayerDepth()) throw new MatrixException("All inputs must have same height and depth.");
-            Matrix input = new DMatrix(entry.getValue().getLayerWidth(), layerHeight, layerDepth, Initialization.ONE);
+            Matrix input = getMatrixPrecision().getNewMatrix(entry.getValue().getLayerWidth(), layerHeight, layerDepth, Initialization.ONE);
             input.setName("Input" + entry.getValue().getLayerIndex());
             inputs.put(inputIndex++, input);
         }
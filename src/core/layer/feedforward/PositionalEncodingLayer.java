@@ -132,7 +132,7 @@ public class PositionalEncodingLayer extends AbstractExecutionLayer {
         int previousLayerHeight = getDefaultPreviousLayer().getLayerHeight();
         int previousLayerDepth = getDefaultPreviousLayer().getLayerDepth();
 
-        positionalEncodingMatrix = new DMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
+        positionalEncodingMatrix = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
         registerConstantMatrix(positionalEncodingMatrix);
         registerStopGradient(positionalEncodingMatrix);
 
@@ -166,7 +166,7 @@ public class PositionalEncodingLayer extends AbstractExecutionLayer {
      * @return input matrix for procedure construction.
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
-        input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
+        input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         return new TreeMap<>() {{ put(0, input); }};
     }
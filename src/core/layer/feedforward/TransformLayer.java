@@ -69,9 +69,9 @@ public class TransformLayer extends AbstractExecutionLayer {
          * @param regulateDirectWeights if true direct weights are regulated.
          */
         TransformWeightSet(Initialization initialization, int previousLayerWidth, int previousLayerHeight, int layerWidth, int layerHeight, int previousLayerDepth, boolean regulateDirectWeights) {
-            weight0 = new DMatrix(previousLayerHeight, layerHeight, previousLayerDepth, initialization);
+            weight0 = getMatrixPrecision().getNewMatrix(previousLayerHeight, layerHeight, previousLayerDepth, initialization);
             weight0.setName("Weight0");
-            weight1 = new DMatrix(layerWidth, previousLayerWidth, previousLayerDepth);
+            weight1 = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, previousLayerDepth);
             weight1.setName("Weight0");
 
             weights.add(weight0);
@@ -200,7 +200,7 @@ public class TransformLayer extends AbstractExecutionLayer {
      * @return input matrix for procedure construction.
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
-        input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
+        input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         return new TreeMap<>() {{ put(0, input); }};
     }
@@ -11,11 +11,11 @@ import core.network.NeuralNetworkException;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.*;
+import utils.random.RandomProvider;
 
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.HashSet;
-import java.util.Random;
 import java.util.TreeMap;
 
 /**
@@ -66,9 +66,9 @@ public abstract class AbstractNormalization extends AbstractExecutionLayer {
          * @param previousLayerDepth depth of previous layer.
          */
         AbstractNormalizationWeightSet(int previousLayerWidth, int previousLayerHeight, int previousLayerDepth) {
-            gamma = new DMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth, (row, col) -> new Random().nextGaussian() * 0.1);
+            gamma = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth, (row, col) -> RandomProvider.nextGaussian() * 0.1);
             gamma.setName("Gamma");
-            beta = new DMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
+            beta = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
             beta.setName("Beta");
 
             weights.add(gamma);
@@ -92,8 +92,8 @@ public abstract class AbstractNormalization extends AbstractExecutionLayer {
          *
          */
         public void reinitialize() {
-            gamma.initialize((row, col) -> new Random().nextGaussian() * 0.1);
-            beta.initialize((row, col) -> new Random().nextGaussian() * 0.1);
+            gamma.initialize((row, col) -> RandomProvider.nextGaussian() * 0.1);
+            beta.initialize((row, col) -> RandomProvider.nextGaussian() * 0.1);
         }
 
         /**
@@ -173,7 +173,7 @@ public abstract class AbstractNormalization extends AbstractExecutionLayer {
      */
     public void initializeDefaultParams() {
         super.initializeDefaultParams();
-        epsilonMatrix = new DMatrix(10E-8);
+        epsilonMatrix = getMatrixPrecision().getNewMatrix(10E-8);
         epsilonMatrix.setName("Epsilon");
         registerConstantMatrix(epsilonMatrix);
         registerStopGradient(epsilonMatrix);
@@ -228,7 +228,7 @@ public abstract class AbstractNormalization extends AbstractExecutionLayer {
      * @return input matrix for procedure construction.
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
-        input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
+        input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         return new TreeMap<>() {{ put(0, input); }};
     }
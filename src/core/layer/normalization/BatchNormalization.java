@@ -12,12 +12,12 @@ import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.*;
 import utils.procedure.node.Node;
+import utils.random.RandomProvider;
 import utils.sampling.Sequence;
 
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Map;
-import java.util.Random;
 import java.util.TreeMap;
 
 /**
@@ -67,9 +67,9 @@ public class BatchNormalization extends AbstractExecutionLayer {
          * @param previousLayerDepth depth of previous layer.
          */
         BatchNormalizationWeightSet(int previousLayerWidth, int previousLayerHeight, int previousLayerDepth) {
-            gamma = new DMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth, (row, col) -> new Random().nextGaussian() * 0.1);
+            gamma = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth, (row, col) -> RandomProvider.nextGaussian() * 0.1);
             gamma.setName("Gamma");
-            beta = new DMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
+            beta = getMatrixPrecision().getNewMatrix(previousLayerWidth, previousLayerHeight, previousLayerDepth);
             beta.setName("Beta");
 
             weights.add(gamma);
@@ -93,7 +93,7 @@ public class BatchNormalization extends AbstractExecutionLayer {
          *
          */
         public void reinitialize() {
-            gamma.initialize((row, col) -> new Random().nextGaussian() * 0.1);
+            gamma.initialize((row, col) -> RandomProvider.nextGaussian() * 0.1);
             beta.reset();
         }
 
@@ -203,7 +203,7 @@ public class BatchNormalization extends AbstractExecutionLayer {
      */
     public void initializeDefaultParams() {
         super.initializeDefaultParams();
-        epsilonMatrix = new DMatrix(10E-8);
+        epsilonMatrix = getMatrixPrecision().getNewMatrix(10E-8);
         epsilonMatrix.setName("Epsilon");
         registerConstantMatrix(epsilonMatrix);
         registerStopGradient(epsilonMatrix);
@@ -272,7 +272,7 @@ public class BatchNormalization extends AbstractExecutionLayer {
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
         inputMap = new TreeMap<>();
-        Matrix input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
+        Matrix input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), getDefaultPreviousLayer().getLayerHeight(), getDefaultPreviousLayer().getLayerDepth(), Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         inputMap.put(0, input);
         return new TreeMap<>() {{ put(0, input); }};
@@ -82,7 +82,7 @@ public class WeightNormalization extends AbstractExecutionLayer {
     public void initializeDefaultParams() {
         super.initializeDefaultParams();
         g = 1;
-        gMatrix = new DMatrix(g);
+        gMatrix = getMatrixPrecision().getNewMatrix(g);
         gMatrix.setName("g");
         registerConstantMatrix(gMatrix);
         registerStopGradient(gMatrix);
@@ -148,9 +148,9 @@ public class WeightNormalization extends AbstractExecutionLayer {
      * @throws DynamicParamException  throws exception if parameter (params) setting fails.
      */
     protected void defineProcedure() throws MatrixException, DynamicParamException {
-        input = new DMatrix(1, 1, 1);
+        input = getMatrixPrecision().getNewMatrix(1, 1, 1);
         registerConstantMatrix(input);
-        templateProcedure = new ProcedureFactory().getProcedure(this);
+        templateProcedure = new ProcedureFactory(isFuseExpressions()).getProcedure(this);
     }
 
     /**
@@ -164,12 +164,55 @@ public class WeightNormalization extends AbstractExecutionLayer {
         for (NeuralNetworkLayer nextLayer : getNextLayers().values()) {
             for (Matrix normalizedWeight : nextLayer.getNormalizedWeights()) {
                 input = normalizedWeight;
-                Procedure procedure = new ProcedureFactory().getProcedure(this);
+                Procedure procedure = new ProcedureFactory(isFuseExpressions()).getProcedure(this);
                 procedures.put(normalizedWeight, procedure);
             }
         }
     }
 
+    /**
+     * Returns number of procedure nodes removed by fusing chains of element wise expressions.
+     *
+     * @return number of procedure nodes removed by fusing chains of element wise expressions.
+     */
+    public int getNumberOfFusedNodes() {
+        int numberOfFusedNodes = 0;
+        if (procedures != null) for (Procedure procedure : procedures.values()) numberOfFusedNodes += procedure.getNumberOfFusedNodes();
+        return numberOfFusedNodes;
+    }
+
+    /**
+     * Returns planned peak bytes per sample held in buffers of layer procedures when buffers are released according to memory plan.
+     *
+     * @return planned peak bytes per sample.
+     */
+    public long getPlannedPeakBytes() {
+        long plannedPeakBytes = 0;
+        if (procedures != null) for (Procedure procedure : procedures.values()) plannedPeakBytes += procedure.getPlannedPeakBytes();
+        return plannedPeakBytes;
+    }
+
+    /**
+     * Returns actual peak bytes held in buffers of layer procedures during execution.
+     *
+     * @return actual peak bytes.
+     */
+    public long getPeakBytes() {
+        long peakBytes = 0;
+        if (procedures != null) for (Procedure procedure : procedures.values()) peakBytes += procedure.getPeakBytes();
+        return peakBytes;
+    }
+
+    /**
+     * Releases off-heap memory reserved by procedures of layer.
+     *
+     */
+    public void releaseMemory() {
+        super.releaseMemory();
+        if (templateProcedure != null) templateProcedure.close();
+        if (procedures != null) for (Procedure procedure : procedures.values()) procedure.close();
+    }
+
     /**
      * Builds forward procedure and implicitly builds backward procedure.
      *
@@ -21,10 +21,12 @@ public abstract class AbstractRecurrentLayer extends AbstractExecutionLayer {
      * Parameter name types for abstract recurrent layer.
      *     - truncateSteps: number of sequence steps taken in backpropagation phase (default -1 i.e. not used).<br>
      *     - reversedInput: if true layer input is reversed otherwise not. Default value false.<br>
+     *     - checkpointSteps: interval of sequence steps of which intermediate results are kept for backpropagation phase. Other steps are recalculated during backpropagation (default 0 i.e. not used).<br>
      *
      */
     private final static String paramNameTypes = "(truncateSteps:INT), " +
-            "(reversedInput:BOOLEAN)";
+            "(reversedInput:BOOLEAN), " +
+            "(checkpointSteps:INT)";
 
     /**
      * Limits number of backward propagation sequence steps.
@@ -38,6 +40,12 @@ public abstract class AbstractRecurrentLayer extends AbstractExecutionLayer {
      */
     private boolean reversedInput;
 
+    /**
+     * Interval of sequence steps of which intermediate results are kept for backward propagation.
+     *
+     */
+    private int checkpointSteps;
+
     /**
      * Constructor for abstract recurrent layer.
      *
@@ -59,6 +67,7 @@ public abstract class AbstractRecurrentLayer extends AbstractExecutionLayer {
         super.initializeDefaultParams();
         truncateSteps = -1;
         reversedInput = false;
+        checkpointSteps = 0;
     }
 
     /**
@@ -76,6 +85,7 @@ public abstract class AbstractRecurrentLayer extends AbstractExecutionLayer {
      * Supported parameters are:<br>
      *     - truncateSteps: number of sequence steps taken in backpropagation phase (default -1 i.e. not used).<br>
      *     - reversedInput: if true layer input is reversed otherwise not. Default value false.<br>
+     *     - checkpointSteps: interval of sequence steps of which intermediate results are kept for backpropagation phase. Other steps are recalculated during backpropagation (default 0 i.e. not used).<br>
      *
      * @param params parameters used for abstract recurrent layer.
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
@@ -88,6 +98,10 @@ public abstract class AbstractRecurrentLayer extends AbstractExecutionLayer {
             if (truncateSteps < 0) throw new NeuralNetworkException("Truncate steps cannot be less than 0.");
         }
         if (params.hasParam("reversedInput")) reversedInput = params.getValueAsBoolean("reversedInput");
+        if (params.hasParam("checkpointSteps")) {
+            checkpointSteps = params.getValueAsInteger("checkpointSteps");
+            if (checkpointSteps < 0) throw new NeuralNetworkException("Checkpoint steps cannot be less than 0.");
+        }
     }
 
     /**
@@ -113,13 +127,22 @@ public abstract class AbstractRecurrentLayer extends AbstractExecutionLayer {
         return truncateSteps;
     }
 
+    /**
+     * Returns interval of steps of which intermediate results are kept for gradient calculation. 0 means that intermediate results of all steps are kept.
+     *
+     * @return interval of checkpoint steps.
+     */
+    protected int getCheckpointSteps() {
+        return checkpointSteps;
+    }
+
     /**
      * Returns layer details as string.
      *
      * @return layer details as string.
      */
     protected String getLayerDetailsByName() {
-        return "Reversed input: " + (isReversedInput() ? "Yes" : "No");
+        return "Reversed input: " + (isReversedInput() ? "Yes" : "No") + (getCheckpointSteps() > 1 ? ", Checkpoint steps: " + getCheckpointSteps() : "");
     }
 
 }
@@ -128,25 +128,25 @@ public class GRULayer extends AbstractRecurrentLayer {
          * @param regulateRecurrentWeights if true recurrent weight are regulated.
          */
         GRUWeightSet(Initialization initialization, int previousLayerWidth, int layerWidth, boolean regulateDirectWeights, boolean regulateRecurrentWeights) {
-            Wz = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            Wz = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             Wz.setName("Wz");
-            Wr = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            Wr = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             Wr.setName("Wr");
-            Wh = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            Wh = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             Wh.setName("Wh");
 
-            Uz = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            Uz = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             Uz.setName("Uz");
-            Ur = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            Ur = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             Ur.setName("Ur");
-            Uh = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            Uh = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             Uh.setName("Uh");
 
-            bz = new DMatrix(layerWidth, 1, 1);
+            bz = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             bz.setName("bz");
-            br = new DMatrix(layerWidth, 1, 1);
+            br = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             br.setName("br");
-            bh = new DMatrix(layerWidth, 1, 1);
+            bh = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             bh.setName("bh");
 
             weights.add(Wz);
@@ -173,7 +173,7 @@ public class GRULayer extends AbstractRecurrentLayer {
             registerWeight(br, false, false);
             registerWeight(bh, false, false);
 
-            ones = (ones == null) ? new DMatrix(layerWidth, 1, 1, Initialization.ONE) : ones;
+            ones = (ones == null) ? getMatrixPrecision().getNewMatrix(layerWidth, 1, 1, Initialization.ONE) : ones;
             ones.setName("1");
             registerConstantMatrix(ones);
             registerStopGradient(ones);
@@ -344,10 +344,10 @@ public class GRULayer extends AbstractRecurrentLayer {
      * @return input matrix for procedure construction.
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
-        input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
+        input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         if (resetPreviousInput) {
-            previousOutput = new DMatrix(getLayerWidth(), 1, 1);
+            previousOutput = getMatrixPrecision().getNewMatrix(getLayerWidth(), 1, 1);
         }
         return new TreeMap<>() {{ put(0, input); }};
     }
@@ -142,31 +142,31 @@ public class LSTMLayer extends AbstractRecurrentLayer {
          * @param regulateRecurrentWeights if true recurrent weight are regulated.
          */
         LSTMWeightSet(Initialization initialization, int previousLayerWidth, int layerWidth, boolean regulateDirectWeights, boolean regulateRecurrentWeights) {
-            Wi = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            Wi = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             Wi.setName("Wi");
-            Wf = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            Wf = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             Wf.setName("Wf");
-            Wo = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            Wo = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             Wo.setName("Wo");
-            Ws = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            Ws = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             Ws.setName("Ws");
 
-            Ui = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            Ui = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             Ui.setName("Ui");
-            Uf = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            Uf = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             Uf.setName("Uf");
-            Uo = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            Uo = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             Uo.setName("Uo");
-            Us = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            Us = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             Us.setName("Us");
 
-            bi = new DMatrix(layerWidth, 1, 1);
+            bi = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             bi.setName("bi");
-            bf = new DMatrix(layerWidth, 1, 1);
+            bf = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             bf.setName("bf");
-            bo = new DMatrix(layerWidth, 1, 1);
+            bo = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             bo.setName("bo");
-            bs = new DMatrix(layerWidth, 1, 1);
+            bs = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             bs.setName("bs");
 
             weights.add(Wi);
@@ -408,11 +408,11 @@ public class LSTMLayer extends AbstractRecurrentLayer {
      * @return input matrix for procedure construction.
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
-        input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
+        input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         if (resetPreviousInput) {
-            previousOutput = new DMatrix(getLayerWidth(), 1, 1);
-            previousCellState = new DMatrix(getLayerWidth(), 1, 1);
+            previousOutput = getMatrixPrecision().getNewMatrix(getLayerWidth(), 1, 1);
+            previousCellState = getMatrixPrecision().getNewMatrix(getLayerWidth(), 1, 1);
         }
         return new TreeMap<>() {{ put(0, input); }};
     }
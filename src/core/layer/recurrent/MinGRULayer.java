@@ -107,19 +107,19 @@ public class MinGRULayer extends AbstractRecurrentLayer {
          * @param regulateRecurrentWeights if true recurrent weight are regulated.
          */
         MinGRUWeightSet(Initialization initialization, int previousLayerWidth, int layerWidth, boolean regulateDirectWeights, boolean regulateRecurrentWeights) {
-            Wf = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            Wf = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             Wf.setName("Wf");
-            Wh = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            Wh = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             Wh.setName("Wh");
 
-            Uf = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            Uf = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             Uf.setName("Uf");
-            Uh = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            Uh = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             Uh.setName("Uh");
 
-            bf = new DMatrix(layerWidth, 1, 1);
+            bf = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             bf.setName("bf");
-            bh = new DMatrix(layerWidth, 1, 1);
+            bh = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             bh.setName("bh");
 
             weights.add(Wf);
@@ -140,7 +140,7 @@ public class MinGRULayer extends AbstractRecurrentLayer {
             registerWeight(bf, false, false);
             registerWeight(bh, false, false);
 
-            ones = (ones == null) ? new DMatrix(layerWidth, 1, 1, Initialization.ONE) : ones;
+            ones = (ones == null) ? getMatrixPrecision().getNewMatrix(layerWidth, 1, 1, Initialization.ONE) : ones;
             ones.setName("1");
             registerConstantMatrix(ones);
             registerStopGradient(ones);
@@ -307,10 +307,10 @@ public class MinGRULayer extends AbstractRecurrentLayer {
      * @return input matrix for procedure construction.
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
-        input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
+        input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         if (resetPreviousInput) {
-            previousOutput = new DMatrix(getLayerWidth(), 1, 1);
+            previousOutput = getMatrixPrecision().getNewMatrix(getLayerWidth(), 1, 1);
         }
         return new TreeMap<>() {{ put(0, input); }};
     }
@@ -77,11 +77,11 @@ public class RecurrentLayer extends AbstractRecurrentLayer {
          * @param regulateRecurrentWeights if true recurrent weight are regulated.
          */
         RecurrentWeightSet(Initialization initialization, int previousLayerWidth, int layerWidth, boolean regulateDirectWeights, boolean regulateRecurrentWeights) {
-            weight = new DMatrix(layerWidth, previousLayerWidth, 1, initialization);
+            weight = getMatrixPrecision().getNewMatrix(layerWidth, previousLayerWidth, 1, initialization);
             weight.setName("Weight");
-            recurrentWeight = new DMatrix(layerWidth, layerWidth, 1, initialization);
+            recurrentWeight = getMatrixPrecision().getNewMatrix(layerWidth, layerWidth, 1, initialization);
             recurrentWeight.setName("RecurrentWeight");
-            bias = new DMatrix(layerWidth, 1, 1);
+            bias = getMatrixPrecision().getNewMatrix(layerWidth, 1, 1);
             bias.setName("Bias");
 
             weights.add(weight);
@@ -243,10 +243,10 @@ public class RecurrentLayer extends AbstractRecurrentLayer {
      * @return input matrix for procedure construction.
      */
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
-        input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
+        input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         if (resetPreviousInput) {
-            previousOutput = new DMatrix(getLayerWidth(), 1, 1);
+            previousOutput = getMatrixPrecision().getNewMatrix(getLayerWidth(), 1, 1);
         }
         return new TreeMap<>() {{ put(0, input); }};
     }
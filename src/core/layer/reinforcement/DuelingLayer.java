@@ -73,11 +73,11 @@ public class DuelingLayer extends AbstractExecutionLayer {
          * @param regulateDirectWeights if true direct weights are regulated.
          */
         DuelingWeightSet(Initialization initialization, int previousLayerWidth, int layerWidth, int previousLayerDepth, boolean regulateDirectWeights) {
-            inputWeight = new DMatrix(2 * previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
+            inputWeight = getMatrixPrecision().getNewMatrix(2 * previousLayerWidth, previousLayerWidth, previousLayerDepth, initialization);
             inputWeight.setName("ValueWeight");
-            valueWeight = new DMatrix(1, 2 * previousLayerWidth, previousLayerDepth, initialization);
+            valueWeight = getMatrixPrecision().getNewMatrix(1, 2 * previousLayerWidth, previousLayerDepth, initialization);
             valueWeight.setName("ValueWeight");
-            actionWeight = new DMatrix(layerWidth, 2 * previousLayerWidth, previousLayerDepth, initialization);
+            actionWeight = getMatrixPrecision().getNewMatrix(layerWidth, 2 * previousLayerWidth, previousLayerDepth, initialization);
             actionWeight.setName("ActionWeight");
 
             weights.add(inputWeight);
@@ -211,7 +211,7 @@ public class DuelingLayer extends AbstractExecutionLayer {
     public TreeMap<Integer, Matrix> getInputMatrices(boolean resetPreviousInput) {
         inputs = new TreeMap<>();
 
-        Matrix input = new DMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
+        Matrix input = getMatrixPrecision().getNewMatrix(getDefaultPreviousLayer().getLayerWidth(), 1, 1, Initialization.ONE);
         input.setName("Input" + getDefaultPreviousLayer().getLayerIndex());
         inputs.put(0, input);
 
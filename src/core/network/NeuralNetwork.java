@@ -15,9 +15,11 @@ import core.metrics.RegressionMetric;
 import core.metrics.SingleRegressionMetric;
 import core.optimization.OptimizationType;
 import core.optimization.OptimizerFactory;
+import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.matrix.operation.ComputePool;
 import utils.sampling.Sampler;
 import utils.sampling.Sequence;
 
@@ -258,6 +260,18 @@ public class NeuralNetwork implements Serializable {
      */
     private int verboseCycle;
 
+    /**
+     * If true neural network has quantized weights and it is inference only.
+     *
+     */
+    private boolean isQuantized = false;
+
+    /**
+     * Differences between validation errors of quantized neural network and neural network it was quantized from by output layer.
+     *
+     */
+    private final TreeMap<Integer, Double> quantizationErrorDeltas = new TreeMap<>();
+
     /**
      * Constructor for neural network.<br>
      * Builds neural network based on neural network configuration.<br>
@@ -349,6 +363,22 @@ public class NeuralNetwork implements Serializable {
         setOptimizer(optimization, null);
     }
 
+    /**
+     * Sets parameters of compute pool shared by matrix operations.<br>
+     * <br>
+     * Supported parameters are:<br>
+     *     - parallelism: number of threads in compute pool. If 1 all operations are executed serially. Default value number of available processors.<br>
+     *     - parallelThreshold: minimum workload (number of multiply-add operations) for operation to be executed in parallel. Default value 131072.<br>
+     *
+     * @param params parameters for compute pool.
+     * @throws NeuralNetworkException throws neural network exception if neural network is started.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public void setComputePool(String params) throws NeuralNetworkException, DynamicParamException {
+        checkStarted();
+        ComputePool.setParams(new DynamicParam(params, ComputePool.paramNameTypes));
+    }
+
     /**
      * Returns input layers.
      *
@@ -527,7 +557,8 @@ public class NeuralNetwork implements Serializable {
     }
 
     /**
-     * Stops neural network.
+     * Stops neural network.<br>
+     * Releases off-heap memory reserved by neural network layers.<br>
      *
      */
     public void stop() {
@@ -545,6 +576,8 @@ public class NeuralNetwork implements Serializable {
         }
         catch (InterruptedException ignored) {
         }
+
+        for (NeuralNetworkLayer neuralNetworkLayer : neuralNetworkLayers.values()) neuralNetworkLayer.releaseMemory();
     }
 
     /**
@@ -806,6 +839,7 @@ public class NeuralNetwork implements Serializable {
      */
     public void train(Sampler trainingSampler, boolean reset, boolean waitToComplete) throws NeuralNetworkException {
         checkNotStarted();
+        if (isQuantized) throw new NeuralNetworkException("Quantized neural network is inference only.");
         waitToComplete();
         if (trainingSampler != null) this.trainingSampler = trainingSampler;
         if (this.trainingSampler == null) throw new NeuralNetworkException("Training sampler is not set.");
@@ -1364,6 +1398,76 @@ public class NeuralNetwork implements Serializable {
         return neuralNetwork;
     }
 
+    /**
+     * Returns started inference only copy of neural network with weights of feedforward, dense and convolution layers quantized to 8-bit integers.<br>
+     * If validation sampler is set this and quantized neural network are validated with it and difference of their validation errors is recorded.<br>
+     *
+     * @return quantized copy of this neural network.
+     * @throws NeuralNetworkException throws exception if quantization or validation fails.
+     * @throws IOException throws exception if copying of neural network fails.
+     * @throws ClassNotFoundException throws exception if copying of neural network fails.
+     * @throws MatrixException throws exception if matrix operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public NeuralNetwork quantize() throws NeuralNetworkException, IOException, ClassNotFoundException, MatrixException, DynamicParamException {
+        return quantize(null);
+    }
+
+    /**
+     * Returns started inference only copy of neural network with weights of feedforward, dense and convolution layers quantized to 8-bit integers.<br>
+     * This and quantized neural network are validated with validation sampler and difference of their validation errors is recorded.<br>
+     *
+     * @param validationSampler validation sampler. If null current validation sampler is used if set.
+     * @return quantized copy of this neural network.
+     * @throws NeuralNetworkException throws exception if quantization or validation fails.
+     * @throws IOException throws exception if copying of neural network fails.
+     * @throws ClassNotFoundException throws exception if copying of neural network fails.
+     * @throws MatrixException throws exception if matrix operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public NeuralNetwork quantize(Sampler validationSampler) throws NeuralNetworkException, IOException, ClassNotFoundException, MatrixException, DynamicParamException {
+        checkNotStarted();
+        waitToComplete();
+        if (validationSampler != null) this.validationSampler = validationSampler;
+        NeuralNetwork quantizedNeuralNetwork = copy();
+        quantizedNeuralNetwork.isQuantized = true;
+        for (NeuralNetworkLayer neuralNetworkLayer : quantizedNeuralNetwork.neuralNetworkLayers.values()) neuralNetworkLayer.quantize();
+        quantizedNeuralNetwork.start();
+        if (this.validationSampler != null) {
+            validate();
+            quantizedNeuralNetwork.validate(this.validationSampler);
+            for (Map.Entry<Integer, Metric> entry : validationMetrics.entrySet()) {
+                quantizedNeuralNetwork.quantizationErrorDeltas.put(entry.getKey(), quantizedNeuralNetwork.validationMetrics.get(entry.getKey()).getLastError() - entry.getValue().getLastError());
+            }
+            if (verboseValidation) {
+                StringBuilder errorDeltas = new StringBuilder("[ ");
+                for (Double errorDelta : quantizedNeuralNetwork.quantizationErrorDeltas.values()) errorDeltas.append(String.format("%.4f", errorDelta)).append(" ");
+                errorDeltas.append("]");
+                System.out.println((neuralNetworkName != null ? neuralNetworkName + ": " : "") + "Quantization validation error delta: " + errorDeltas);
+            }
+        }
+        return quantizedNeuralNetwork;
+    }
+
+    /**
+     * Returns true if neural network has quantized weights and is inference only.
+     *
+     * @return true if neural network has quantized weights and is inference only.
+     */
+    public boolean isQuantized() {
+        return isQuantized;
+    }
+
+    /**
+     * Returns differences between validation errors of quantized neural network and neural network it was quantized from by output layer.<br>
+     * Differences are recorded only if validation sampler was set at quantization.<br>
+     *
+     * @return differences between validation errors by output layer.
+     */
+    public TreeMap<Integer, Double> getQuantizationErrorDeltas() {
+        return quantizationErrorDeltas;
+    }
+
     /**
      * Reinitializes neural network.
      *
@@ -1425,6 +1529,7 @@ public class NeuralNetwork implements Serializable {
             totalNumberOfParameters += neuralNetworkLayer.getNumberOfParameters();
         }
         System.out.println("Total number of parameters: " + totalNumberOfParameters);
+        if (getNumberOfFusedNodes() > 0) System.out.println("Total number of fused nodes: " + getNumberOfFusedNodes());
         System.out.println("Apply early stopping: " + (!earlyStoppingMap.isEmpty() ? "Yes" : "No"));
         System.out.println();
         for (NeuralNetworkLayer neuralNetworkLayer : neuralNetworkLayers.values()) {
@@ -1433,6 +1538,19 @@ public class NeuralNetwork implements Serializable {
         }
     }
 
+    /**
+     * Returns total number of procedure nodes removed by fusing chains of element wise expressions of neural network layers.
+     *
+     * @return total number of procedure nodes removed by fusing chains of element wise expressions.
+     * @throws NeuralNetworkException throws exception if neural network is not started.
+     */
+    public int getNumberOfFusedNodes() throws NeuralNetworkException {
+        checkNotStarted();
+        int totalNumberOfFusedNodes = 0;
+        for (NeuralNetworkLayer neuralNetworkLayer : neuralNetworkLayers.values()) totalNumberOfFusedNodes += neuralNetworkLayer.getNumberOfFusedNodes();
+        return totalNumberOfFusedNodes;
+    }
+
     /**
      * Prints expression chains of neural network.
      *
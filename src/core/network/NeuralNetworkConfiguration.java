@@ -12,6 +12,8 @@ import core.loss.LossFunctionType;
 import utils.configurable.DynamicParamException;
 import utils.matrix.Initialization;
 import utils.matrix.MatrixException;
+import utils.matrix.MatrixPrecision;
+import utils.random.RandomProvider;
 
 import java.util.TreeMap;
 
@@ -63,6 +65,24 @@ public class NeuralNetworkConfiguration {
      */
     private int neuralNetworkLayerIndexCount = 0;
 
+    /**
+     * Precision of matrices used by neural network layers. Default precision is double.
+     *
+     */
+    private MatrixPrecision matrixPrecision = MatrixPrecision.DOUBLE;
+
+    /**
+     * If true chains of element wise expressions of layer procedures are fused into fused expressions.
+     *
+     */
+    private boolean fuseExpressions = false;
+
+    /**
+     * Global random seed. If null random seed is not set.
+     *
+     */
+    private Long randomSeed = null;
+
     /**
      * Default constructor for neural network configuration.
      *
@@ -70,6 +90,64 @@ public class NeuralNetworkConfiguration {
     public NeuralNetworkConfiguration() {
     }
 
+    /**
+     * Sets precision of matrices (weights, inputs, states and optimizer parameters) used by neural network layers.<br>
+     * Single precision (FLOAT) halves memory footprint of neural network compared to double precision (DOUBLE).<br>
+     *
+     * @param matrixPrecision matrix precision.
+     */
+    public void setMatrixPrecision(MatrixPrecision matrixPrecision) {
+        this.matrixPrecision = matrixPrecision;
+    }
+
+    /**
+     * Returns precision of matrices used by neural network layers.
+     *
+     * @return matrix precision.
+     */
+    public MatrixPrecision getMatrixPrecision() {
+        return matrixPrecision;
+    }
+
+    /**
+     * Sets if chains of element wise expressions (add, subtract, multiply and unary function) of layer procedures are fused into fused expressions.<br>
+     * Fused expression calculates chain in single pass without storing intermediate results and gradients as nodes.<br>
+     *
+     * @param fuseExpressions if true chains of element wise expressions are fused.
+     */
+    public void setFuseExpressions(boolean fuseExpressions) {
+        this.fuseExpressions = fuseExpressions;
+    }
+
+    /**
+     * Returns true if chains of element wise expressions of layer procedures are fused otherwise false.
+     *
+     * @return true if chains of element wise expressions of layer procedures are fused otherwise false.
+     */
+    public boolean isFuseExpressions() {
+        return fuseExpressions;
+    }
+
+    /**
+     * Sets global random seed used for weight initialization, dropout, noise, sampling and random pooling.<br>
+     * Seed is applied immediately and therefore must be set before layers are added to get reproducible initialization.<br>
+     *
+     * @param randomSeed global random seed.
+     */
+    public void setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+        RandomProvider.setSeed(randomSeed);
+    }
+
+    /**
+     * Returns global random seed.
+     *
+     * @return global random seed or null if random seed is not set.
+     */
+    public Long getRandomSeed() {
+        return randomSeed;
+    }
+
     /**
      * Adds input layer to neural network.
      *
@@ -466,7 +544,11 @@ public class NeuralNetworkConfiguration {
 
         checkLayerCompatibility(neuralNetworkLayers);
 
-        for (NeuralNetworkLayer neuralNetworkLayer : neuralNetworkLayers.values()) neuralNetworkLayer.initializeDimensions();
+        for (NeuralNetworkLayer neuralNetworkLayer : neuralNetworkLayers.values()) {
+            neuralNetworkLayer.setMatrixPrecision(matrixPrecision);
+            neuralNetworkLayer.setFuseExpressions(fuseExpressions);
+            neuralNetworkLayer.initializeDimensions();
+        }
     }
 
     /**
@@ -131,20 +131,22 @@ public class AMSGrad extends AbstractOptimizer {
     public void optimize(Matrix matrix, Matrix matrixGradient) throws MatrixException, DynamicParamException {
         // mt = β1*mt − 1 + (1 − β1)*gt
         Matrix mM = getParameterMatrix(m, matrix);
-        mM = mM.multiply(beta1).add(matrixGradient.multiply(1 - beta1));
-        setParameterMatrix(m, matrix, mM);
+        mM.lerpBy(matrixGradient, 1 - beta1);
 
         // vt = β2*vt − 1 + (1 − β2)*g2t
         Matrix vM = getParameterMatrix(v, matrix);
-        Matrix vM_temp = vM.multiply(beta2).add(matrixGradient.power(2).multiply(1 - beta2));
+        Matrix vM_temp = vM.multiply(beta2);
+        vM_temp.addProductBy(matrixGradient, matrixGradient, 1 - beta2);
 
         // vt = max(vt, vt-1)
-        vM = vM_temp.max(v.get(matrix));
+        vM = vM_temp.max(vM);
         setParameterMatrix(v, matrix, vM);
 
         // θt+1 = θt − η / (√^vt + ϵ) * mt
         double epsilon = 10E-8;
-        matrix.subtractBy(mM.divide(vM.add(epsilon).apply(UnaryFunctionType.SQRT)).multiply(learningRate));
+        Matrix vM_root = vM.add(epsilon);
+        vM_root.apply(UnaryFunctionType.SQRT, true);
+        matrix.axpyBy(-learningRate, mM.divide(vM_root));
     }
 
 }
@@ -8,9 +8,9 @@ package core.optimization;
 import utils.configurable.Configurable;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
-import utils.matrix.DMatrix;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.matrix.MatrixPrecision;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -94,7 +94,7 @@ public abstract class AbstractOptimizer implements Configurable, Optimizer, Seri
      */
     protected Matrix getParameterMatrix(HashMap<Matrix, Matrix> parameterMatrices, Matrix matrix) {
         Matrix parameterMatrix = parameterMatrices.get(matrix);
-        if (parameterMatrix == null)  parameterMatrices.put(matrix, parameterMatrix = new DMatrix(matrix.getRows(), matrix.getColumns(), matrix.getDepth()));
+        if (parameterMatrix == null)  parameterMatrices.put(matrix, parameterMatrix = MatrixPrecision.getPrecision(matrix).getNewMatrix(matrix.getRows(), matrix.getColumns(), matrix.getDepth()));
         return parameterMatrix;
     }
 
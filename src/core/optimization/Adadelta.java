@@ -119,16 +119,16 @@ public class Adadelta extends AbstractOptimizer {
      */
     public void optimize(Matrix matrix, Matrix matrixGradient) throws MatrixException, DynamicParamException {
         Matrix mEg2 = getParameterMatrix(eg2, matrix);
-        mEg2 = mEg2.multiply(gamma).add(matrixGradient.power(2).multiply(1 - gamma));
-        setParameterMatrix(eg2, matrix, mEg2);
+        mEg2.multiplyBy(gamma);
+        mEg2.addProductBy(matrixGradient, matrixGradient, 1 - gamma);
 
         final double epsilon = 10E-8;
         Matrix mEd2 = getParameterMatrix(ed2, matrix);
         Matrix Ed = mEd2.add(epsilon).apply(UnaryFunctionType.SQRT).divide(mEg2.add(epsilon).apply(UnaryFunctionType.SQRT)).multiply(matrixGradient);
-        matrix.subtractBy(Ed.multiply(learningRate));
+        matrix.axpyBy(-learningRate, Ed);
 
-        mEd2 = mEd2.multiply(gamma).add(Ed.power(2).multiply(1 - gamma));
-        setParameterMatrix(ed2, matrix, mEd2);
+        mEd2.multiplyBy(gamma);
+        mEd2.addProductBy(Ed, Ed, 1 - gamma);
     }
 
 }
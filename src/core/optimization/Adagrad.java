@@ -102,10 +102,12 @@ public class Adagrad extends AbstractOptimizer {
     public void optimize(Matrix matrix, Matrix matrixGradient) throws MatrixException, DynamicParamException {
         Matrix dM2Sum = getParameterMatrix(m2Sum, matrix);
 
-        dM2Sum.addBy(matrixGradient.multiply(matrixGradient));
+        dM2Sum.fmaBy(matrixGradient, matrixGradient);
 
         double epsilon = 10E-8;
-        matrix.subtractBy(matrixGradient.divide(dM2Sum.add(epsilon).apply(UnaryFunctionType.SQRT)).multiply(learningRate));
+        Matrix dM2SumRoot = dM2Sum.add(epsilon);
+        dM2SumRoot.apply(UnaryFunctionType.SQRT, true);
+        matrix.axpyBy(-learningRate, matrixGradient.divide(dM2SumRoot));
     }
 
 }
@@ -141,23 +141,21 @@ public class Adamax extends AbstractOptimizer {
 
         // mt = β1*mt − 1 + (1 − β1)*gt
         Matrix mM = getParameterMatrix(m, matrix);
-        mM = mM.multiply(beta1).add(matrixGradient.multiply(1 - beta1));
-        setParameterMatrix(m, matrix, mM);
+        mM.lerpBy(matrixGradient, 1 - beta1);
 
         // vt = max (β2*vt, abs(gt))
         Matrix vM = getParameterMatrix(v, matrix);
         vM = (vM.multiply(beta2)).max(matrixGradient.apply(UnaryFunctionType.ABS));
         setParameterMatrix(v, matrix, vM);
 
-        // mt = mt / (1 − βt1)
-        Matrix mM_hat = mM.divide(1 - Math.pow(beta1, iteration));
-
         // vt = vt / (1 − βt2)
         Matrix vM_hat = vM.divide(1 - Math.pow(beta2, iteration));
 
-        // θt+1 = θt − η / (√^vt + ϵ) * mt
+        // θt+1 = θt − η / (√^vt + ϵ) * mt / (1 − βt1)
         double epsilon = 10E-8;
-        matrix.subtractBy(mM_hat.divide(vM_hat.add(epsilon).apply(UnaryFunctionType.SQRT)).multiply(learningRate));
+        vM_hat.addBy(epsilon);
+        vM_hat.apply(UnaryFunctionType.SQRT, true);
+        matrix.axpyBy(-learningRate / (1 - Math.pow(beta1, iteration)), mM.divide(vM_hat));
     }
 
 }
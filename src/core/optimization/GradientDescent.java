@@ -88,7 +88,7 @@ public class GradientDescent extends AbstractOptimizer {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public void optimize(Matrix matrix, Matrix matrixGradient) throws MatrixException {
-        matrix.subtractBy(matrixGradient.multiply(learningRate));
+        matrix.axpyBy(-learningRate, matrixGradient);
     }
 
 }
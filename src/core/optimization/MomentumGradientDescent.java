@@ -109,13 +109,12 @@ public class MomentumGradientDescent extends AbstractOptimizer {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public void optimize(Matrix matrix, Matrix matrixGradient) throws MatrixException {
-        // θt+1=θt+μtvt−εt∇f(θt)
-        Matrix dMPrev = getParameterMatrix(dPrev, matrix);
-        dMPrev = dMPrev.multiply(mu).subtract(matrixGradient.multiply(learningRate));
-
         // vt+1=μtvt−εt∇f(θt)
-        setParameterMatrix(dPrev, matrix, dMPrev);
+        Matrix dMPrev = getParameterMatrix(dPrev, matrix);
+        dMPrev.multiplyBy(mu);
+        dMPrev.axpyBy(-learningRate, matrixGradient);
 
+        // θt+1=θt+μtvt−εt∇f(θt)
         matrix.addBy(dMPrev);
     }
 
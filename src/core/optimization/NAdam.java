@@ -142,23 +142,26 @@ public class NAdam extends AbstractOptimizer {
 
         // mt = β1*mt − 1 + (1 − β1)*gt
         Matrix mM = getParameterMatrix(m, matrix);
-        mM = mM.multiply(beta1).add(matrixGradient.multiply(1 - beta1));
-        setParameterMatrix(m, matrix, mM);
+        mM.lerpBy(matrixGradient, 1 - beta1);
 
         // vt = β2*vt − 1 + (1 − β2)*g2t
         Matrix vM = getParameterMatrix(v, matrix);
-        vM = vM.multiply(beta2).add(matrixGradient.power(2).multiply(1 - beta2));
-        setParameterMatrix(v, matrix, vM);
-
-        // mt = mt / (1 − βt1)
-        Matrix mM_hat = mM.divide(1 - Math.pow(beta1, iteration));
+        vM.multiplyBy(beta2);
+        vM.addProductBy(matrixGradient, matrixGradient, 1 - beta2);
 
         // vt = vt / (1 − βt2)
         Matrix vM_hat = vM.divide(1 - Math.pow(beta2, iteration));
 
+        // β1 * mt / (1 − βt1) + (1 − β1) * gt / (1 − βt1)
+        double beta1Correction = 1 - Math.pow(beta1, iteration);
+        Matrix mM_nesterov = matrixGradient.multiply((1 - beta1) / beta1Correction);
+        mM_nesterov.axpyBy(beta1 / beta1Correction, mM);
+
         // θt+1 = θt − η / (√^vt+ϵ) * (β1 * mt + (1 − β1) * gt / (1 − βt1))
         double epsilon = 10E-8;
-        matrix.subtractBy(mM_hat.multiply(beta1).add(matrixGradient.multiply((1 - beta1) / (1 - Math.pow(beta1, iteration)))).divide(vM_hat.add(epsilon).apply(UnaryFunctionType.SQRT)).multiply(learningRate));
+        vM_hat.addBy(epsilon);
+        vM_hat.apply(UnaryFunctionType.SQRT, true);
+        matrix.axpyBy(-learningRate, mM_nesterov.divide(vM_hat));
     }
 
 }
@@ -121,8 +121,8 @@ public class NesterovAcceleratedGradient extends AbstractOptimizer {
 
         // vt=μvt−1−ϵ∇f(θt−1+μvt−1)
         Matrix vMPrev = getParameterMatrix(vPrev, matrix);
-        vMPrev = vMPrev.multiply(mu).subtract(dMPrev.add(vMPrev.multiply(mu)).multiply(learningRate));
-        setParameterMatrix(vPrev, matrix, vMPrev);
+        vMPrev.multiplyBy(mu);
+        vMPrev.axpyBy(-learningRate, dMPrev.add(vMPrev));
 
         matrix.addBy(vMPrev);
     }
@@ -148,27 +148,30 @@ public class RAdam extends AbstractOptimizer {
         iterations.put(matrix, iteration = iterations.getOrDefault(matrix, 0) + 1);
 
         Matrix mM = m.get(matrix);
-        mM = mM == null ? matrixGradient.multiply(1 - beta1) : mM.multiply(beta1).add(matrixGradient.multiply(1 - beta1));
-        setParameterMatrix(m, matrix, mM);
+        if (mM == null) setParameterMatrix(m, matrix, mM = matrixGradient.multiply(1 - beta1));
+        else mM.lerpBy(matrixGradient, 1 - beta1);
 
         Matrix vM = v.get(matrix);
-        vM = vM == null ? matrixGradient.power(2).multiply(1 - beta2) : vM.multiply(beta2).add(matrixGradient.power(2).multiply(1 - beta2));
-        setParameterMatrix(v, matrix, vM);
+        if (vM == null) setParameterMatrix(v, matrix, vM = matrixGradient.power(2).multiply(1 - beta2));
+        else {
+            vM.multiplyBy(beta2);
+            vM.addProductBy(matrixGradient, matrixGradient, 1 - beta2);
+        }
 
         double beta1Iteration = Math.pow(beta1, iteration);
         double beta2Iteration = Math.pow(beta2, iteration);
 
-        Matrix mMhat = mM.divide(1 - beta1Iteration);
-
         double stepSize = learningRate;
         double pt = pinf - 2 * iteration * beta2Iteration / (1 - beta2Iteration);
         if (pt > 4) {
             stepSize *=  Math.sqrt((1 - beta2Iteration) * ((pt - 4) * (pt - 2) * pinf) / ((pinf - 4) * (pinf - 2) * pt));
             double epsilon = 10E-8;
-            matrix.subtractBy(mMhat.divide(vM.apply(UnaryFunctionType.SQRT).add(epsilon)).multiply(stepSize));
+            Matrix vMRoot = vM.apply(UnaryFunctionType.SQRT);
+            vMRoot.addBy(epsilon);
+            matrix.axpyBy(-stepSize / (1 - beta1Iteration), mM.divide(vMRoot));
         }
         else {
-            matrix.subtractBy(mMhat.multiply(stepSize));
+            matrix.axpyBy(-stepSize / (1 - beta1Iteration), mM);
         }
     }
 
@@ -113,11 +113,13 @@ public class RMSProp extends AbstractOptimizer {
     public void optimize(Matrix matrix, Matrix matrixGradient) throws MatrixException, DynamicParamException {
         Matrix mEg2 = getParameterMatrix(eg2, matrix);
 
-        mEg2 = mEg2.multiply(gamma).add(matrixGradient.power(2).multiply(1 - gamma));
-        setParameterMatrix(eg2, matrix, mEg2);
+        mEg2.multiplyBy(gamma);
+        mEg2.addProductBy(matrixGradient, matrixGradient, 1 - gamma);
 
         double epsilon = 10E-8;
-        matrix.subtractBy(matrixGradient.divide(mEg2.add(epsilon).apply(UnaryFunctionType.SQRT)).multiply(learningRate));
+        Matrix mEg2Root = mEg2.add(epsilon);
+        mEg2Root.apply(UnaryFunctionType.SQRT, true);
+        matrix.axpyBy(-learningRate, matrixGradient.divide(mEg2Root));
     }
 
 }
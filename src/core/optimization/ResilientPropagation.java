@@ -77,7 +77,7 @@ public class ResilientPropagation extends AbstractOptimizer {
      */
     public void optimize(Matrix matrix, Matrix matrixGradient) throws MatrixException, DynamicParamException {
         Matrix WPrev = wPrev.get(matrix);
-        if (WPrev == null) wPrev.put(matrix, WPrev = new DMatrix(matrix.getRows(), matrix.getColumns(), matrix.getDepth()));
+        if (WPrev == null) wPrev.put(matrix, WPrev = MatrixPrecision.getPrecision(matrix).getNewMatrix(matrix.getRows(), matrix.getColumns(), matrix.getDepth()));
 
         Matrix dMPrev = dPrev.computeIfAbsent(matrix, k -> matrixGradient);
         Matrix dWDir = dMPrev.sgnmul(matrixGradient);
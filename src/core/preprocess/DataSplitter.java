@@ -7,9 +7,9 @@ package core.preprocess;
 
 import core.network.NeuralNetworkException;
 import utils.matrix.Matrix;
+import utils.random.RandomProvider;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 
 /**
@@ -50,7 +50,7 @@ public class DataSplitter {
         ArrayList<Integer> itemList = new ArrayList<>();
         int rowAmount = data.get(0).size();
         for (int index = 0; index < rowAmount; index++) itemList.add(index);
-        if (randomize) Collections.shuffle(itemList);
+        if (randomize) RandomProvider.shuffle(itemList);
         int trainIndex = 0;
         int testIndex = 0;
         for (int index = 0; index < rowAmount; index++) {
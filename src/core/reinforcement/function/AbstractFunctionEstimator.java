@@ -11,11 +11,11 @@ import utils.configurable.Configurable;
 import utils.configurable.DynamicParamException;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.HashSet;
-import java.util.Random;
 
 /**
  * Implements abstract function estimator containing memory management operations and agent handling.<br>
@@ -62,12 +62,6 @@ public abstract class AbstractFunctionEstimator implements Configurable, Functio
      */
     protected final int numberOfActions;
 
-    /**
-     * Random function for abstract function estimator policy.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Constructor for abstract function estimator.
      *
@@ -216,7 +210,7 @@ public abstract class AbstractFunctionEstimator implements Configurable, Functio
         double valueSum = 0;
         for (Integer action : availableActions) valueSum += stateValues.getValue(action, 0, 0);
 
-        double threshold = valueSum * random.nextDouble();
+        double threshold = valueSum * RandomProvider.nextDouble();
 
         valueSum = 0;
         for (Integer action : availableActions) {
@@ -8,10 +8,10 @@ package core.reinforcement.memory;
 import core.reinforcement.agent.State;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
+import utils.random.RandomProvider;
 
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.Random;
 import java.util.TreeSet;
 
 /**
@@ -44,12 +44,6 @@ public class PriorityMemory extends AbstractMemory implements Serializable {
             "(applyImportanceSamplingWeights:BOOLEAN), " +
             "(applyUniformSampling:BOOLEAN)";
 
-    /**
-     * Random number generator.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Capacity of prioritized replay memory.
      *
@@ -231,7 +225,7 @@ public class PriorityMemory extends AbstractMemory implements Serializable {
                 beta = Math.min(beta + betaStepSize, 1);
                 double maxWeight = Double.MIN_VALUE;
                 for (int sampleIndex = 0; sampleIndex < batchSize; sampleIndex++) {
-                    double prioritySum = segment * ((double)sampleIndex + random.nextDouble());
+                    double prioritySum = segment * ((double)sampleIndex + RandomProvider.nextDouble());
                     State state = searchTree.getState(prioritySum);
                     if (state != null) {
                         sampledStates.add(state);
@@ -247,7 +241,7 @@ public class PriorityMemory extends AbstractMemory implements Serializable {
             else {
                 int maxSampleIndex = Math.min(searchTree.size(), batchSize);
                 while (sampledStates.size() < maxSampleIndex) {
-                    State state = searchTree.getState(totalPriority * random.nextDouble());
+                    State state = searchTree.getState(totalPriority * RandomProvider.nextDouble());
                     if (state != null) sampledStates.add(state);
                 }
             }
@@ -9,8 +9,8 @@ import core.reinforcement.agent.AgentException;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
-import java.util.Random;
 import java.util.TreeSet;
 
 /**
@@ -27,12 +27,6 @@ public class EntropyGreedyPolicy extends GreedyPolicy {
      */
     private final static String paramNameTypes = "(entropyFactor:DOUBLE)";
 
-    /**
-     * Random function for entropy greedy policy.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Factor for controlling randomness of policy.
      *
@@ -136,11 +130,11 @@ public class EntropyGreedyPolicy extends GreedyPolicy {
                 usedEntropy = averageEntropy;
             }
             else usedEntropy = entropy;
-            boolean randomChoice = Math.random() < Math.max(minThreshold, usedEntropy * entropyFactor);
+            boolean randomChoice = RandomProvider.nextDouble() < Math.max(minThreshold, usedEntropy * entropyFactor);
             if (randomChoice) {
                 AbstractExecutablePolicy.ActionValueTuple[] actionValueTupleArray = new AbstractExecutablePolicy.ActionValueTuple[stateValueSet.size()];
                 actionValueTupleArray = stateValueSet.toArray(actionValueTupleArray);
-                return actionValueTupleArray[random.nextInt(actionValueTupleArray.length)].action();
+                return actionValueTupleArray[RandomProvider.nextInt(actionValueTupleArray.length)].action();
             }
             else return super.getAction(stateValueSet);
         }
@@ -8,6 +8,7 @@ package core.reinforcement.policy.executablepolicy;
 import core.reinforcement.agent.AgentException;
 import utils.configurable.DynamicParamException;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
 import java.util.Objects;
 import java.util.TreeSet;
@@ -54,7 +55,7 @@ public class EntropyNoisyNextBestPolicy extends AbstractExecutablePolicy {
      * @throws AgentException throws exception if policy fails to choose valid action.
      */
     protected int getAction(TreeSet<ActionValueTuple> stateValueSet) throws AgentException {
-        if (stateValueSet.size() > 1 && Math.random() < getActionEntropy(stateValueSet)) stateValueSet.pollLast();
+        if (stateValueSet.size() > 1 && RandomProvider.nextDouble() < getActionEntropy(stateValueSet)) stateValueSet.pollLast();
         if (stateValueSet.isEmpty()) throw new AgentException("Noisy next best policy failed to choose valid action.");
         else {
             ActionValueTuple actionValueTuple = stateValueSet.pollLast();
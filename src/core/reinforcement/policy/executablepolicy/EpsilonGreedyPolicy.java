@@ -9,8 +9,8 @@ import core.reinforcement.agent.AgentException;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
-import java.util.Random;
 import java.util.TreeSet;
 
 /**
@@ -32,12 +32,6 @@ public class EpsilonGreedyPolicy extends GreedyPolicy {
             "(epsilonDecayRate:DOUBLE), " +
             "(epsilonDecayByUpdateCount:BOOLEAN)";
 
-    /**
-     * Random function for epsilon greedy policy.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Current epsilon value for epsilon greedy policy defining balance between exploration and exploitation.
      *
@@ -158,10 +152,10 @@ public class EpsilonGreedyPolicy extends GreedyPolicy {
     protected int getAction(TreeSet<ActionValueTuple> stateValueSet) throws AgentException {
         if (stateValueSet.isEmpty()) throw new AgentException("Noisy next best policy failed to choose valid action.");
         else {
-            if (Math.random() < epsilon) {
+            if (RandomProvider.nextDouble() < epsilon) {
                 ActionValueTuple[] actionValueTupleArray = new ActionValueTuple[stateValueSet.size()];
                 actionValueTupleArray = stateValueSet.toArray(actionValueTupleArray);
-                return actionValueTupleArray[random.nextInt(actionValueTupleArray.length)].action();
+                return actionValueTupleArray[RandomProvider.nextInt(actionValueTupleArray.length)].action();
             }
             else return super.getAction(stateValueSet);
         }
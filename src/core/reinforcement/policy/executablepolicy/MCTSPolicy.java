@@ -11,6 +11,7 @@ import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.AbstractMatrix;
 import utils.matrix.Matrix;
+import utils.random.RandomProvider;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -392,7 +393,7 @@ public class MCTSPolicy implements ExecutablePolicy, Serializable {
             HashMap<Integer, Double> dirichletDistribution = new HashMap<>();
             double cumulativeValue = 0;
             for (Integer action : availableActions) {
-                double gammaValue = AbstractMatrix.sampleGamma(shape, 1, random);
+                double gammaValue = AbstractMatrix.sampleGamma(shape, 1);
                 cumulativeValue += gammaValue;
                 dirichletDistribution.put(action, gammaValue);
             }
@@ -477,12 +478,6 @@ public class MCTSPolicy implements ExecutablePolicy, Serializable {
      */
     private Stack<State> stateStack = new Stack<>();
 
-    /**
-     * Random number generator.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Reset count.
      *
@@ -8,8 +8,8 @@ package core.reinforcement.policy.executablepolicy;
 import core.reinforcement.agent.AgentException;
 import utils.configurable.DynamicParamException;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
-import java.util.Random;
 import java.util.TreeSet;
 
 /**
@@ -18,12 +18,6 @@ import java.util.TreeSet;
  */
 public class MultinomialPolicy extends AbstractExecutablePolicy {
 
-    /**
-     * Random function for multinomial policy.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Constructor for multinomial policy.
      *
@@ -65,7 +59,7 @@ public class MultinomialPolicy extends AbstractExecutablePolicy {
         double valueSum = 0;
         for (ActionValueTuple actionValueTuple : stateValueSet) valueSum += actionValueTuple.value();
 
-        double threshold = valueSum * random.nextDouble();
+        double threshold = valueSum * RandomProvider.nextDouble();
 
         valueSum = 0;
         for (ActionValueTuple actionValueTuple : stateValueSet) {
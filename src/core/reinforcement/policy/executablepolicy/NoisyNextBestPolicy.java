@@ -9,6 +9,7 @@ import core.reinforcement.agent.AgentException;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
 import java.util.Objects;
 import java.util.TreeSet;
@@ -132,7 +133,7 @@ public class NoisyNextBestPolicy extends AbstractExecutablePolicy {
      * @throws AgentException throws exception if policy fails to choose valid action.
      */
     protected int getAction(TreeSet<ActionValueTuple> stateValueSet) throws AgentException {
-        if (stateValueSet.size() > 1 && Math.random() < explorationNoise) stateValueSet.pollLast();
+        if (stateValueSet.size() > 1 && RandomProvider.nextDouble() < explorationNoise) stateValueSet.pollLast();
         if (stateValueSet.isEmpty()) throw new AgentException("Noisy next best policy failed to choose valid action.");
         else {
             ActionValueTuple actionValueTuple = stateValueSet.pollLast();
@@ -9,9 +9,9 @@ import core.reinforcement.agent.AgentException;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
 import java.util.Objects;
-import java.util.Random;
 import java.util.TreeSet;
 
 /**
@@ -28,12 +28,6 @@ public class NoisyPolicy extends AbstractExecutablePolicy {
      */
     private final static String paramNameTypes = "(noiseAmplitude:DOUBLE)";
 
-    /**
-     * Random function for noisy policy.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Amplitude of noise.
      *
@@ -119,7 +113,7 @@ public class NoisyPolicy extends AbstractExecutablePolicy {
         result.clear();
         for (ActionValueTuple actionValueTuple : stateValueSet) {
             double value = actionValueTuple.value();
-            value += noiseAmplitude * random.nextGaussian();
+            value += noiseAmplitude * RandomProvider.nextGaussian();
             value = Math.min(1, value);
             value = Math.max(-1, value);
             result.add(new ActionValueTuple(actionValueTuple.action(), value));
@@ -7,8 +7,8 @@ import utils.matrix.DMatrix;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 import utils.matrix.UnaryFunction;
+import utils.random.RandomProvider;
 
-import java.util.Random;
 import java.util.TreeSet;
 
 /**
@@ -79,17 +79,11 @@ public class OUNoisePolicy extends AbstractExecutablePolicy {
      */
     private Matrix state;
 
-    /**
-     * Random generator.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Gaussian random function.
      *
      */
-    private final UnaryFunction gaussianRandomFunction = new UnaryFunction((value) -> value * random.nextGaussian());
+    private final UnaryFunction gaussianRandomFunction = new UnaryFunction((value) -> value * RandomProvider.nextGaussian());
 
     /**
      * Constructor for OUNoise policy.
@@ -9,9 +9,9 @@ import core.reinforcement.agent.AgentException;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
 import java.util.Objects;
-import java.util.Random;
 import java.util.TreeSet;
 
 /**
@@ -31,12 +31,6 @@ public class SampledPolicy extends AbstractExecutablePolicy {
             "(thresholdMin:DOUBLE), " +
             "(thresholdDecay:DOUBLE)";
 
-    /**
-     * Random function for sampled policy.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Current threshold
      *
@@ -140,7 +134,7 @@ public class SampledPolicy extends AbstractExecutablePolicy {
     protected int getAction(TreeSet<ActionValueTuple> stateValueSet) throws AgentException {
         double lowValue = stateValueSet.first().value();
         double highValue = stateValueSet.last().value();
-        double thresholdValue = highValue - (highValue - lowValue) * thresholdCurrent * random.nextDouble();
+        double thresholdValue = highValue - (highValue - lowValue) * thresholdCurrent * RandomProvider.nextDouble();
         while (!stateValueSet.isEmpty()) {
             ActionValueTuple actionValueTuple = stateValueSet.pollFirst();
             if (Objects.requireNonNull(actionValueTuple).value() >= thresholdValue) return actionValueTuple.action();
@@ -0,0 +1,112 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package demo;
+
+import utils.configurable.DynamicParamException;
+import utils.matrix.*;
+
+/**
+ * Benchmarks matrix dot operation for layer sizes used by demos.<br>
+ * Compares element accessor based reference implementation against dot operation of dense matrix and reports throughput as GFLOP/s.<br>
+ *
+ */
+public class DotMatrixBenchmark {
+
+    /**
+     * Default constructor for dot matrix benchmark.
+     *
+     */
+    public DotMatrixBenchmark() {
+    }
+
+    /**
+     * Main function for dot matrix benchmark.
+     *
+     * @param args arguments
+     */
+    public static void main(String [] args) {
+
+        try {
+            // Layer sizes used by demos: forward pass (weight x input), weight gradient (output gradient x input.T) and input gradient (weight.T x output gradient).
+            benchmark("Simple dense 20x2 forward", 20, 2, 1, false);
+            benchmark("MNIST dense 100x784 forward", 100, 784, 1, false);
+            benchmark("MNIST dense 100x784 weight gradient", 100, 1, 784, false);
+            benchmark("MNIST dense 100x784 input gradient", 784, 100, 1, true);
+            benchmark("MNIST dense 10x100 forward", 10, 100, 1, false);
+            benchmark("Text sequence recurrent 128x128 forward", 128, 128, 1, false);
+            benchmark("Square 256x256x256", 256, 256, 256, false);
+        }
+        catch (Exception exception) {
+            exception.printStackTrace();
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Runs benchmark for given matrix sizes.
+     *
+     * @param name name of benchmark.
+     * @param rows number of rows in first matrix.
+     * @param inner number of columns in first matrix and rows in second matrix.
+     * @param columns number of columns in second matrix.
+     * @param firstTransposed if true first matrix is used as transposed.
+     * @throws MatrixException throws exception if matrix operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    private static void benchmark(String name, int rows, int inner, int columns, boolean firstTransposed) throws MatrixException, DynamicParamException {
+        Matrix first = firstTransposed ? new DMatrix(inner, rows, 1, Initialization.RANDOM).transpose() : new DMatrix(rows, inner, 1, Initialization.RANDOM);
+        Matrix second = new DMatrix(inner, columns, 1, Initialization.RANDOM);
+
+        double flops = 2.0 * rows * inner * columns;
+        int iterations = (int)Math.max(10, Math.min(100000, 2E9 / flops));
+
+        Matrix referenceResult = referenceDot(first, second);
+        Matrix result = first.dot(second);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (Math.abs(referenceResult.getValue(row, column, 0) - result.getValue(row, column, 0)) > 1E-9) throw new MatrixException("Dot result mismatch in benchmark: " + name);
+            }
+        }
+
+        long referenceTime = 0;
+        long kernelTime = 0;
+        for (int round = 0; round < 2; round++) {
+            long startTime = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) referenceDot(first, second);
+            referenceTime = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) first.dot(second);
+            kernelTime = System.nanoTime() - startTime;
+        }
+
+        double referenceGFlops = flops * iterations / referenceTime;
+        double kernelGFlops = flops * iterations / kernelTime;
+        System.out.printf("%-45s reference: %8.3f GFLOP/s, kernel: %8.3f GFLOP/s, speedup: %6.2fx%n", name, referenceGFlops, kernelGFlops, kernelGFlops / referenceGFlops);
+    }
+
+    /**
+     * Calculates dot product using element accessors.
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @return result matrix.
+     */
+    private static Matrix referenceDot(Matrix first, Matrix second) {
+        int rows = first.getRows();
+        int inner = first.getColumns();
+        int columns = second.getColumns();
+        Matrix result = new DMatrix(rows, columns, 1);
+        for (int row = 0; row < rows; row++) {
+            for (int innerIndex = 0; innerIndex < inner; innerIndex++) {
+                for (int column = 0; column < columns; column++) {
+                    result.setValue(row, column, 0, result.getValue(row, column, 0) + first.getValue(row, innerIndex, 0) * second.getValue(innerIndex, column, 0));
+                }
+            }
+        }
+        return result;
+    }
+
+}
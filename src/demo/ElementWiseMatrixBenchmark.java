@@ -0,0 +1,101 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package demo;
+
+import utils.configurable.DynamicParamException;
+import utils.matrix.*;
+import utils.matrix.operation.VectorKernel;
+
+/**
+ * Benchmarks element wise matrix operations with and without vectorized kernels.<br>
+ * Vectorized kernels require module jdk.incubator.vector (run with --add-modules jdk.incubator.vector).<br>
+ *
+ */
+public class ElementWiseMatrixBenchmark {
+
+    /**
+     * Defines element wise operation benchmarked.
+     *
+     */
+    private interface ElementWiseOperation {
+
+        /**
+         * Executes operation.
+         *
+         * @param first first matrix.
+         * @param second second matrix.
+         * @return result matrix.
+         * @throws MatrixException throws exception if matrix operation fails.
+         * @throws DynamicParamException throws exception if parameter (params) setting fails.
+         */
+        Matrix execute(Matrix first, Matrix second) throws MatrixException, DynamicParamException;
+
+    }
+
+    /**
+     * Default constructor for element wise matrix benchmark.
+     *
+     */
+    public ElementWiseMatrixBenchmark() {
+    }
+
+    /**
+     * Main function for element wise matrix benchmark.
+     *
+     * @param args arguments
+     */
+    public static void main(String [] args) {
+
+        try {
+            System.out.println("Vector API available: " + VectorKernel.isAvailable());
+            Matrix first = new DMatrix(784, 32, 1, Initialization.RANDOM);
+            Matrix second = new DMatrix(784, 32, 1, Initialization.RANDOM);
+            benchmark("Add", first, second, Matrix::add);
+            benchmark("Subtract", first, second, Matrix::subtract);
+            benchmark("Multiply", first, second, Matrix::multiply);
+            benchmark("Divide", first, second, Matrix::divide);
+            benchmark("Power", first, second, (matrix1, matrix2) -> matrix1.power(2.5));
+            benchmark("ReLU", first, second, (matrix1, matrix2) -> matrix1.apply(UnaryFunctionType.RELU));
+            benchmark("Sigmoid", first, second, (matrix1, matrix2) -> matrix1.apply(UnaryFunctionType.SIGMOID));
+            benchmark("Tanh", first, second, (matrix1, matrix2) -> matrix1.apply(UnaryFunctionType.TANH));
+            benchmark("Sqrt", first, second, (matrix1, matrix2) -> matrix1.apply(UnaryFunctionType.SQRT));
+            benchmark("Exp", first, second, (matrix1, matrix2) -> matrix1.apply(UnaryFunctionType.EXP));
+        }
+        catch (Exception exception) {
+            exception.printStackTrace();
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Runs benchmark for operation.
+     *
+     * @param name name of benchmark.
+     * @param first first matrix.
+     * @param second second matrix.
+     * @param operation operation.
+     * @throws MatrixException throws exception if matrix operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    private static void benchmark(String name, Matrix first, Matrix second, ElementWiseOperation operation) throws MatrixException, DynamicParamException {
+        int iterations = 2000;
+        long elementWiseTime = 0;
+        long vectorizedTime = 0;
+        for (int round = 0; round < 2; round++) {
+            VectorKernel.setEnabled(false);
+            long startTime = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) operation.execute(first, second);
+            elementWiseTime = System.nanoTime() - startTime;
+            VectorKernel.setEnabled(true);
+            startTime = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) operation.execute(first, second);
+            vectorizedTime = System.nanoTime() - startTime;
+        }
+        double elements = (double)first.size() * iterations;
+        System.out.printf("%-10s element wise: %8.3f Gelem/s, vectorized: %8.3f Gelem/s, speedup: %6.2fx%n", name, elements / elementWiseTime, elements / vectorizedTime, (double)elementWiseTime / vectorizedTime);
+    }
+
+}
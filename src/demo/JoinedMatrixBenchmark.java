@@ -0,0 +1,117 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package demo;
+
+import utils.configurable.DynamicParamException;
+import utils.matrix.*;
+
+import java.util.ArrayList;
+
+/**
+ * Benchmarks operations with joined (JMatrix) inputs against same operations with single dense (DMatrix) input.<br>
+ * Joined inputs are formed like inputs of join layer by joining number of 64x1 inputs vertically or by joining 64x1 inputs horizontally.<br>
+ *
+ */
+public class JoinedMatrixBenchmark {
+
+    /**
+     * Defines operation benchmarked.
+     *
+     */
+    private interface InputOperation {
+
+        /**
+         * Executes operation.
+         *
+         * @param input input matrix.
+         * @return result matrix.
+         * @throws MatrixException throws exception if matrix operation fails.
+         * @throws DynamicParamException throws exception if parameter (params) setting fails.
+         */
+        Matrix execute(Matrix input) throws MatrixException, DynamicParamException;
+
+    }
+
+    /**
+     * Default constructor for joined matrix benchmark.
+     *
+     */
+    public JoinedMatrixBenchmark() {
+    }
+
+    /**
+     * Main function for joined matrix benchmark.
+     *
+     * @param args arguments
+     */
+    public static void main(String [] args) {
+
+        try {
+            for (int joinedInputs : new int[] { 2, 8, 32 }) {
+                Matrix weight = new DMatrix(64, 64 * joinedInputs, 1, Initialization.RANDOM);
+                Matrix verticalOutputGradient = new DMatrix(64, 1, 1, Initialization.RANDOM);
+                Matrix horizontalWeight = new DMatrix(16, 64, 1, Initialization.RANDOM);
+                Matrix denseVerticalInput = new DMatrix(64 * joinedInputs, 1, 1);
+                Matrix denseHorizontalInput = new DMatrix(64, joinedInputs, 1);
+                Matrix joinedVerticalInput = getJoinedMatrix(joinedInputs, true);
+                Matrix joinedHorizontalInput = getJoinedMatrix(joinedInputs, false);
+                denseVerticalInput.setEqualTo(joinedVerticalInput);
+                denseHorizontalInput.setEqualTo(joinedHorizontalInput);
+
+                System.out.println("Joined inputs: " + joinedInputs);
+                benchmark("Vertical join forward (dot)", denseVerticalInput, joinedVerticalInput, weight::dot);
+                benchmark("Vertical join weight gradient", denseVerticalInput, joinedVerticalInput, input -> verticalOutputGradient.dot(input.transpose()));
+                benchmark("Vertical join sigmoid", denseVerticalInput, joinedVerticalInput, input -> input.apply(UnaryFunctionType.SIGMOID));
+                benchmark("Horizontal join multiply", denseHorizontalInput, joinedHorizontalInput, input -> input.multiply(denseHorizontalInput));
+                benchmark("Horizontal join dot", denseHorizontalInput, joinedHorizontalInput, horizontalWeight::dot);
+            }
+        }
+        catch (Exception exception) {
+            exception.printStackTrace();
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Returns joined matrix formed by random 64x1 matrices.
+     *
+     * @param joinedInputs number of joined matrices.
+     * @param joinedVertically true if matrices are joined vertically otherwise matrices are joined horizontally.
+     * @return joined matrix.
+     * @throws MatrixException throws exception if joining of matrices fails.
+     */
+    private static Matrix getJoinedMatrix(int joinedInputs, boolean joinedVertically) throws MatrixException {
+        ArrayList<Matrix> matrices = new ArrayList<>();
+        for (int index = 0; index < joinedInputs; index++) matrices.add(new DMatrix(64, 1, 1, Initialization.RANDOM));
+        return new JMatrix(matrices, joinedVertically);
+    }
+
+    /**
+     * Runs benchmark for operation with dense and joined input.
+     *
+     * @param name name of benchmark.
+     * @param denseInput dense input.
+     * @param joinedInput joined input.
+     * @param operation operation.
+     * @throws MatrixException throws exception if matrix operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    private static void benchmark(String name, Matrix denseInput, Matrix joinedInput, InputOperation operation) throws MatrixException, DynamicParamException {
+        int iterations = 2000;
+        long denseTime = 0;
+        long joinedTime = 0;
+        for (int round = 0; round < 2; round++) {
+            long startTime = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) operation.execute(denseInput);
+            denseTime = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) operation.execute(joinedInput);
+            joinedTime = System.nanoTime() - startTime;
+        }
+        System.out.printf("%-35s dense: %10.3f us, joined: %10.3f us, joined overhead: %6.2fx%n", name, denseTime / 1000.0 / iterations, joinedTime / 1000.0 / iterations, (double)joinedTime / denseTime);
+    }
+
+}
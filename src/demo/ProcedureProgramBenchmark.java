@@ -0,0 +1,126 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package demo;
+
+import core.activation.ActivationFunction;
+import core.activation.ActivationFunctionType;
+import core.layer.LayerType;
+import core.loss.LossFunctionType;
+import core.network.NeuralNetwork;
+import core.network.NeuralNetworkConfiguration;
+import core.network.NeuralNetworkException;
+import core.optimization.OptimizationType;
+import utils.configurable.DynamicParamException;
+import utils.matrix.*;
+import utils.procedure.ProcedureProgram;
+import utils.random.RandomProvider;
+import utils.sampling.BasicSampler;
+
+import java.util.HashMap;
+
+/**
+ * Benchmarks training of feedforward and LSTM layer procedures executed by compiled procedure programs against execution by walking chains of expressions.<br>
+ * Each network is trained with same seed and data for both execution modes so that both modes calculate same results.<br>
+ *
+ */
+public class ProcedureProgramBenchmark {
+
+    /**
+     * Number of training iterations per measurement.
+     *
+     */
+    private static final int iterations = 200;
+
+    /**
+     * Default constructor for procedure program benchmark.
+     *
+     */
+    public ProcedureProgramBenchmark() {
+    }
+
+    /**
+     * Main function for procedure program benchmark.
+     *
+     * @param args arguments
+     */
+    public static void main(String [] args) {
+
+        try {
+            for (int width : new int[] { 16, 64 }) {
+                benchmark("Feedforward width " + width, LayerType.FEEDFORWARD, width);
+                benchmark("LSTM width " + width, LayerType.LSTM, width);
+            }
+        }
+        catch (Exception exception) {
+            exception.printStackTrace();
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Runs benchmark for layer type with procedure programs disabled and enabled.
+     *
+     * @param name name of benchmark.
+     * @param layerType layer type.
+     * @param width width of layer.
+     * @throws NeuralNetworkException throws exception if neural network operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private static void benchmark(String name, LayerType layerType, int width) throws NeuralNetworkException, DynamicParamException, MatrixException {
+        long chainTime = 0;
+        long programTime = 0;
+        for (int round = 0; round < 2; round++) {
+            chainTime = train(layerType, width, false);
+            programTime = train(layerType, width, true);
+        }
+        ProcedureProgram.setEnabled(true);
+        System.out.printf("%-25s chain: %10.3f ms, program: %10.3f ms, speedup: %6.2fx%n", name, chainTime / 1000000.0 / iterations, programTime / 1000000.0 / iterations, (double)chainTime / programTime);
+    }
+
+    /**
+     * Trains neural network and returns training time.
+     *
+     * @param layerType layer type.
+     * @param width width of layer.
+     * @param executeProgram if true procedures are executed by compiled programs.
+     * @return training time in nanoseconds.
+     * @throws NeuralNetworkException throws exception if neural network operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private static long train(LayerType layerType, int width, boolean executeProgram) throws NeuralNetworkException, DynamicParamException, MatrixException {
+        RandomProvider.setSeed(1);
+        ProcedureProgram.setEnabled(executeProgram);
+        int inputSize = 16;
+        int outputSize = 4;
+        HashMap<Integer, Matrix> inputs = new HashMap<>();
+        HashMap<Integer, Matrix> outputs = new HashMap<>();
+        for (int index = 0; index < 1024; index++) {
+            inputs.put(index, new DMatrix(inputSize, 1, 1, Initialization.RANDOM));
+            outputs.put(index, new DMatrix(outputSize, 1, 1, Initialization.RANDOM));
+        }
+
+        NeuralNetworkConfiguration neuralNetworkConfiguration = new NeuralNetworkConfiguration();
+        neuralNetworkConfiguration.addInputLayer("width = " + inputSize + ", height = 1, depth = 1");
+        neuralNetworkConfiguration.addHiddenLayer(layerType, "width = " + width);
+        neuralNetworkConfiguration.addHiddenLayer(LayerType.FEEDFORWARD, new ActivationFunction(ActivationFunctionType.TANH), "width = " + outputSize);
+        neuralNetworkConfiguration.addOutputLayer(LossFunctionType.MEAN_SQUARED_ERROR);
+        neuralNetworkConfiguration.connectLayersSerially();
+        NeuralNetwork neuralNetwork = new NeuralNetwork(neuralNetworkConfiguration);
+        neuralNetwork.setOptimizer(OptimizationType.ADAM);
+        neuralNetwork.start();
+        neuralNetwork.setTrainingData(new BasicSampler(new HashMap<>() {{ put(0, inputs); }}, new HashMap<>() {{ put(0, outputs); }}, "randomOrder = false, shuffleSamples = false, sampleSize = 32, numberOfIterations = " + iterations));
+
+        long startTime = System.nanoTime();
+        neuralNetwork.train(false, false);
+        neuralNetwork.waitToComplete();
+        long trainingTime = System.nanoTime() - startTime;
+        neuralNetwork.stop();
+        return trainingTime;
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package demo;
+
+import core.activation.ActivationFunction;
+import core.activation.ActivationFunctionType;
+import core.layer.LayerType;
+import core.loss.LossFunctionType;
+import core.network.NeuralNetwork;
+import core.network.NeuralNetworkConfiguration;
+import core.network.NeuralNetworkException;
+import core.optimization.OptimizationType;
+import utils.configurable.DynamicParamException;
+import utils.matrix.*;
+import utils.matrix.operation.ComputePool;
+import utils.procedure.ProcedureProgram;
+import utils.random.RandomProvider;
+import utils.sampling.BasicSampler;
+
+import java.util.HashMap;
+
+/**
+ * Benchmarks training of convolutional and feedforward layers with independent samples of procedure programs executed one at a time and in parallel.<br>
+ * Each network is trained with same seed and data for both execution modes. Results differ only by order in which gradients of parameters are summed.<br>
+ *
+ */
+public class SampleParallelismBenchmark {
+
+    /**
+     * Number of training iterations per measurement.
+     *
+     */
+    private static final int iterations = 20;
+
+    /**
+     * Default constructor for sample parallelism benchmark.
+     *
+     */
+    public SampleParallelismBenchmark() {
+    }
+
+    /**
+     * Main function for sample parallelism benchmark.
+     *
+     * @param args arguments
+     */
+    public static void main(String [] args) {
+
+        try {
+            System.out.println("Compute pool parallelism: " + ComputePool.getParallelism());
+            for (int batchSize : new int[] { 16, 64 }) {
+                benchmark("Convolution batch " + batchSize, LayerType.CONVOLUTION, "filters = 8, filterSize = 3", batchSize);
+                benchmark("Feedforward batch " + batchSize, LayerType.FEEDFORWARD, "width = 256", batchSize);
+            }
+        }
+        catch (Exception exception) {
+            exception.printStackTrace();
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Runs benchmark for layer type with sample parallelism disabled and enabled.
+     *
+     * @param name name of benchmark.
+     * @param layerType layer type.
+     * @param params parameters of layer.
+     * @param batchSize number of samples per training iteration.
+     * @throws NeuralNetworkException throws exception if neural network operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private static void benchmark(String name, LayerType layerType, String params, int batchSize) throws NeuralNetworkException, DynamicParamException, MatrixException {
+        long serialTime = 0;
+        long parallelTime = 0;
+        for (int round = 0; round < 2; round++) {
+            serialTime = train(layerType, params, batchSize, false);
+            parallelTime = train(layerType, params, batchSize, true);
+        }
+        ProcedureProgram.setParallelSamples(true);
+        System.out.printf("%-25s serial: %10.3f ms, parallel: %10.3f ms, speedup: %6.2fx%n", name, serialTime / 1000000.0 / iterations, parallelTime / 1000000.0 / iterations, (double)serialTime / parallelTime);
+    }
+
+    /**
+     * Trains neural network and returns training time.
+     *
+     * @param layerType layer type.
+     * @param params parameters of layer.
+     * @param batchSize number of samples per training iteration.
+     * @param parallelSamples if true independent samples are executed in parallel.
+     * @return training time in nanoseconds.
+     * @throws NeuralNetworkException throws exception if neural network operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private static long train(LayerType layerType, String params, int batchSize, boolean parallelSamples) throws NeuralNetworkException, DynamicParamException, MatrixException {
+        RandomProvider.setSeed(1);
+        ProcedureProgram.setParallelSamples(parallelSamples);
+        int inputSize = 16;
+        int outputSize = 4;
+        HashMap<Integer, Matrix> inputs = new HashMap<>();
+        HashMap<Integer, Matrix> outputs = new HashMap<>();
+        for (int index = 0; index < 256; index++) {
+            inputs.put(index, new DMatrix(inputSize, inputSize, 1, Initialization.RANDOM));
+            outputs.put(index, new DMatrix(outputSize, 1, 1, Initialization.RANDOM));
+        }
+
+        NeuralNetworkConfiguration neuralNetworkConfiguration = new NeuralNetworkConfiguration();
+        neuralNetworkConfiguration.addInputLayer("width = " + inputSize + ", height = " + inputSize + ", depth = 1");
+        neuralNetworkConfiguration.addHiddenLayer(layerType, params);
+        neuralNetworkConfiguration.addHiddenLayer(LayerType.FEEDFORWARD, new ActivationFunction(ActivationFunctionType.TANH), "width = " + outputSize);
+        neuralNetworkConfiguration.addOutputLayer(LossFunctionType.MEAN_SQUARED_ERROR);
+        neuralNetworkConfiguration.connectLayersSerially();
+        NeuralNetwork neuralNetwork = new NeuralNetwork(neuralNetworkConfiguration);
+        neuralNetwork.setOptimizer(OptimizationType.ADAM);
+        neuralNetwork.start();
+        neuralNetwork.setTrainingData(new BasicSampler(new HashMap<>() {{ put(0, inputs); }}, new HashMap<>() {{ put(0, outputs); }}, "randomOrder = false, shuffleSamples = false, sampleSize = " + batchSize + ", numberOfIterations = " + iterations));
+
+        long startTime = System.nanoTime();
+        neuralNetwork.train(false, false);
+        neuralNetwork.waitToComplete();
+        long trainingTime = System.nanoTime() - startTime;
+        neuralNetwork.stop();
+        return trainingTime;
+    }
+
+}
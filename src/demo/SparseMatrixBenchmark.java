@@ -0,0 +1,115 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package demo;
+
+import utils.configurable.DynamicParamException;
+import utils.matrix.*;
+
+import java.util.Random;
+
+/**
+ * Benchmarks operations with sparse (SMatrix) inputs against same operations with dense (DMatrix) inputs.<br>
+ * Inputs are sized and filled like MNIST samples having about 19% non-zero values.<br>
+ *
+ */
+public class SparseMatrixBenchmark {
+
+    /**
+     * Defines operation benchmarked.
+     *
+     */
+    private interface InputOperation {
+
+        /**
+         * Executes operation.
+         *
+         * @param input input matrix.
+         * @return result matrix.
+         * @throws MatrixException throws exception if matrix operation fails.
+         * @throws DynamicParamException throws exception if parameter (params) setting fails.
+         */
+        Matrix execute(Matrix input) throws MatrixException, DynamicParamException;
+
+    }
+
+    /**
+     * Default constructor for sparse matrix benchmark.
+     *
+     */
+    public SparseMatrixBenchmark() {
+    }
+
+    /**
+     * Main function for sparse matrix benchmark.
+     *
+     * @param args arguments
+     */
+    public static void main(String [] args) {
+
+        try {
+            Random random = new Random(1);
+            Matrix denseInput = new DMatrix(784, 1, 1);
+            Matrix sparseInput = new SMatrix(784, 1, 1);
+            Matrix denseImage = new DMatrix(28, 28, 1);
+            Matrix sparseImage = new SMatrix(28, 28, 1);
+            for (int index = 0; index < 784; index++) {
+                if (random.nextDouble() < 0.19) {
+                    double value = random.nextDouble();
+                    denseInput.setValue(index, 0, 0, value);
+                    sparseInput.setValue(index, 0, 0, value);
+                    denseImage.setValue(index % 28, index / 28, 0, value);
+                    sparseImage.setValue(index % 28, index / 28, 0, value);
+                }
+            }
+            Matrix weight = new DMatrix(100, 784, 1, Initialization.RANDOM);
+            Matrix outputGradient = new DMatrix(100, 1, 1, Initialization.RANDOM);
+            Matrix filter = new DMatrix(3, 3, 8, Initialization.RANDOM);
+            for (Matrix image : new Matrix[] { denseImage, sparseImage }) {
+                image.setFilterRowSize(3);
+                image.setFilterColumnSize(3);
+                image.setFilterDepth(8);
+                image.setStride(1);
+                image.setDilation(1);
+            }
+
+            benchmark("Dense 100x784 forward", denseInput, sparseInput, weight::dot);
+            benchmark("Dense 100x784 weight gradient", denseInput, sparseInput, input -> outputGradient.dot(input.transpose()));
+            benchmark("Multiply", denseInput, sparseInput, input -> input.multiply(denseInput));
+            benchmark("ReLU", denseInput, sparseInput, input -> input.apply(UnaryFunctionType.RELU));
+            benchmark("Convolution 28x28 3x3x8", denseImage, sparseImage, input -> input.crosscorrelate(filter));
+        }
+        catch (Exception exception) {
+            exception.printStackTrace();
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Runs benchmark for operation with dense and sparse input.
+     *
+     * @param name name of benchmark.
+     * @param denseInput dense input.
+     * @param sparseInput sparse input.
+     * @param operation operation.
+     * @throws MatrixException throws exception if matrix operation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    private static void benchmark(String name, Matrix denseInput, Matrix sparseInput, InputOperation operation) throws MatrixException, DynamicParamException {
+        int iterations = 5000;
+        long denseTime = 0;
+        long sparseTime = 0;
+        for (int round = 0; round < 2; round++) {
+            long startTime = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) operation.execute(denseInput);
+            denseTime = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            for (int iteration = 0; iteration < iterations; iteration++) operation.execute(sparseInput);
+            sparseTime = System.nanoTime() - startTime;
+        }
+        System.out.printf("%-35s dense: %10.3f us, sparse: %10.3f us, speedup: %6.2fx%n", name, denseTime / 1000.0 / iterations, sparseTime / 1000.0 / iterations, (double)denseTime / sparseTime);
+    }
+
+}
@@ -6,6 +6,13 @@
  *  - Simple demo that applies feedforward neural network.<br>
  *  - Text sequence, time series and music demos that apply recurrent neural network.<br>
  *  - Maze, Tic Tac Toe and travelling salesman problem (TSP) demos that apply reinforcement learning.<br>
+ *  - Dot matrix benchmark that measures matrix multiplication throughput for demo layer sizes.<br>
+ *  - Element wise matrix benchmark that compares vectorized and element wise unary and binary operations.<br>
+ *  - Sparse matrix benchmark that compares operations with sparse and dense MNIST sized inputs.<br>
+ *  - Joined matrix benchmark that compares operations with joined and single dense inputs of join layer.<br>
+ *  - Procedure program benchmark that compares training of feedforward and LSTM layers executed by compiled procedure programs and by chains of expressions.<br>
+ *  - Expression fusion benchmark that compares training of GRU and LSTM layers with and without fused element wise expressions.<br>
+ *  - Sample parallelism benchmark that compares training of convolutional and feedforward layers with samples executed one at a time and in parallel.<br>
  *
  */
 package demo;
\ No newline at end of file
@@ -5,9 +5,11 @@
 
 package utils.matrix;
 
+import utils.random.RandomProvider;
+
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.Random;
+import java.util.Arrays;
 
 /**
  * Implements abstract mask that implements common operations for masking.<br>
@@ -48,12 +50,6 @@ public abstract class AbstractMask implements Cloneable, Serializable, Mask {
      */
     private double probability = 0;
 
-    /**
-     * Random function for mask class.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Constructor for abstract mask.
      *
@@ -220,6 +216,138 @@ public abstract class AbstractMask implements Cloneable, Serializable, Mask {
         return getMask(row, column, depth);
     }
 
+    /**
+     * Returns first unmasked row starting from given row at specific column and depth.
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @return first unmasked row or number of rows in mask if all remaining rows are masked.
+     */
+    public int getNextUnmaskedRow(int row, int column, int depth) {
+        int rows = getRows();
+        while (row < rows && getMask(row, column, depth)) row++;
+        return Math.min(row, rows);
+    }
+
+    /**
+     * Returns first masked row starting from given row at specific column and depth.
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @return first masked row or number of rows in mask if none of remaining rows are masked.
+     */
+    public int getNextMaskedRow(int row, int column, int depth) {
+        int rows = getRows();
+        while (row < rows && !getMask(row, column, depth)) row++;
+        return Math.min(row, rows);
+    }
+
+    /**
+     * Resets values at masked entries to zero. Values are expected to be stored contiguously in column major order starting from given offset.
+     *
+     * @param values values.
+     * @param offset offset of first value.
+     */
+    public void resetMaskedValues(double[] values, int offset) {
+        int rows = getRows();
+        int columns = getColumns();
+        int totalDepth = getDepth();
+        for (int depth = 0; depth < totalDepth; depth++) {
+            for (int column = 0; column < columns; column++) {
+                int columnOffset = offset + (depth * columns + column) * rows;
+                int row = getNextMaskedRow(0, column, depth);
+                while (row < rows) {
+                    int runEnd = getNextUnmaskedRow(row, column, depth);
+                    Arrays.fill(values, columnOffset + row, columnOffset + runEnd, 0);
+                    row = getNextMaskedRow(runEnd, column, depth);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns number of masked entries.
+     *
+     * @return number of masked entries.
+     */
+    public int getMaskedCount() {
+        int rows = getRows();
+        int columns = getColumns();
+        int totalDepth = getDepth();
+        int maskedCount = 0;
+        for (int depth = 0; depth < totalDepth; depth++) {
+            for (int column = 0; column < columns; column++) {
+                for (int row = 0; row < rows; row++) {
+                    if (getMask(row, column, depth)) maskedCount++;
+                }
+            }
+        }
+        return maskedCount;
+    }
+
+    /**
+     * Applies logical and with other mask. Entry remains masked only if it is masked in both masks.
+     *
+     * @param other other mask.
+     * @throws MatrixException throws exception if dimensions of masks are not matching.
+     */
+    public void and(Mask other) throws MatrixException {
+        checkDimensions(other);
+        int rows = getRows();
+        int columns = getColumns();
+        int totalDepth = getDepth();
+        for (int depth = 0; depth < totalDepth; depth++) {
+            for (int column = 0; column < columns; column++) {
+                for (int row = 0; row < rows; row++) {
+                    if (getMask(row, column, depth) && !other.getMask(row, column, depth)) setMask(row, column, depth, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies logical or with other mask. Entry becomes masked if it is masked in either mask.
+     *
+     * @param other other mask.
+     * @throws MatrixException throws exception if dimensions of masks are not matching.
+     */
+    public void or(Mask other) throws MatrixException {
+        checkDimensions(other);
+        int rows = getRows();
+        int columns = getColumns();
+        int totalDepth = getDepth();
+        for (int depth = 0; depth < totalDepth; depth++) {
+            for (int column = 0; column < columns; column++) {
+                for (int row = 0; row < rows; row++) {
+                    if (!getMask(row, column, depth) && other.getMask(row, column, depth)) setMask(row, column, depth, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that dimensions of other mask are matching with dimensions of this mask.
+     *
+     * @param other other mask.
+     * @throws MatrixException throws exception if dimensions of masks are not matching.
+     */
+    protected void checkDimensions(Mask other) throws MatrixException {
+        if (getRows() != other.getRows() || getColumns() != other.getColumns() || getDepth() != other.getDepth()) throw new MatrixException("Incompatible mask sizes: " + getRows() + "x" + getColumns() + "x" + getDepth() + " by " + other.getRows() + "x" + other.getColumns() + "x" + other.getDepth());
+    }
+
+    /**
+     * Returns base array index of specific column and depth for non-transposed mask.
+     *
+     * @param column column.
+     * @param depth depth.
+     * @return base array index.
+     */
+    protected int getColumnIndex(int column, int depth) {
+        return depth * getPureRows() * getPureColumns() + column * getPureRows();
+    }
+
     /**
      * Sets bernoulli probability to mask specific row and column.
      *
@@ -246,7 +374,7 @@ public abstract class AbstractMask implements Cloneable, Serializable, Mask {
      * @return true with defined masking probability.
      */
     private boolean isMaskedByProbability() {
-        return random.nextDouble() > probability;
+        return RandomProvider.nextDouble() > probability;
     }
 
     /**
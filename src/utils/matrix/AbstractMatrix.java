@@ -8,10 +8,12 @@ package utils.matrix;
 import utils.configurable.DynamicParamException;
 import utils.matrix.operation.*;
 import utils.procedure.ProcedureFactory;
+import utils.random.RandomProvider;
 
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Implements abstract matrix that implements common operations for matrices.<br>
@@ -161,12 +163,6 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      */
     private transient ProcedureFactory procedureFactory = null;
 
-    /**
-     * Random function for matrix class.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Constructor for matrix.
      *
@@ -325,6 +321,42 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
         }
     }
 
+    /**
+     * Returns array index of value at row 0, column 0 and depth 0 taking into account slicing.
+     *
+     * @return array offset.
+     */
+    public int getArrayOffset() {
+        return getArrayIndex(0, 0, 0);
+    }
+
+    /**
+     * Returns distance in array between values of two consecutive rows.
+     *
+     * @return row stride of array.
+     */
+    public int getArrayRowStride() {
+        return isScalar() ? 0 : !isTransposed() ? 1 : getPureRows();
+    }
+
+    /**
+     * Returns distance in array between values of two consecutive columns.
+     *
+     * @return column stride of array.
+     */
+    public int getArrayColumnStride() {
+        return isScalar() ? 0 : !isTransposed() ? getPureRows() : 1;
+    }
+
+    /**
+     * Returns distance in array between values of two consecutive depths.
+     *
+     * @return depth stride of array.
+     */
+    public int getArrayDepthStride() {
+        return isScalar() ? 0 : getPureRows() * getPureColumns();
+    }
+
     /**
      * Returns value from uniform distribution within -range to +range.
      *
@@ -332,7 +364,7 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      * @return random value drawn from the distribution.
      */
     private double uniform(double range) {
-        return (2 * random.nextDouble()- 1)  * range;
+        return (2 * RandomProvider.nextDouble()- 1)  * range;
     }
 
     /**
@@ -342,7 +374,7 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      * @return random value drawn from the distribution.
      */
     private double normal(double standardDeviation) {
-        return random.nextGaussian() * standardDeviation;
+        return RandomProvider.nextGaussian() * standardDeviation;
     }
 
     /**
@@ -365,7 +397,7 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
         switch (initialization) {
             case ZERO -> initialize((Initializer & Serializable) (row, column) -> 0);
             case ONE -> initialize((Initializer & Serializable) (row, column) -> 1);
-            case RANDOM -> initialize((Initializer & Serializable) (row, column) -> random.nextDouble());
+            case RANDOM -> initialize((Initializer & Serializable) (row, column) -> RandomProvider.nextDouble());
             case IDENTITY -> initialize((Initializer & Serializable) (row, column) -> (row == column) ? 1 : 0);
             case NORMAL_XAVIER -> initialize((Initializer & Serializable) (row, column) -> normal(Math.sqrt(2 / (double) (getRows() + getColumns()))));
             case UNIFORM_XAVIER -> initialize((Initializer & Serializable) (row, column) -> uniform(Math.sqrt(6 / (double) (getRows() + getColumns()))));
@@ -854,11 +886,11 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
      */
     private Matrix add(Matrix other, boolean inplace) throws MatrixException {
-        if (!hasProcedureFactory() && !other.hasProcedureFactory()) return applyBi (other, new BinaryFunction((MatrixBinaryOperation & Serializable) Double::sum), inplace);
+        if (!hasProcedureFactory() && !other.hasProcedureFactory()) return applyBi (other, new BinaryFunction(BinaryFunctionType.ADD, (MatrixBinaryOperation & Serializable) Double::sum), inplace);
         else {
             ProcedureFactory.synchronize(this, other);
             int expressionLock = getProcedureFactory().startExpression();
-            Matrix result = applyBi (other, new BinaryFunction((MatrixBinaryOperation & Serializable) Double::sum), inplace);
+            Matrix result = applyBi (other, new BinaryFunction(BinaryFunctionType.ADD, (MatrixBinaryOperation & Serializable) Double::sum), inplace);
             ProcedureFactory.synchronize(this, other, result);
             getProcedureFactory().createAddExpression(expressionLock, this, other, result);
             return result;
@@ -971,11 +1003,11 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
      */
     private Matrix subtract(Matrix other, boolean inplace) throws MatrixException {
-        if (!hasProcedureFactory() && !other.hasProcedureFactory()) return applyBi (other, new BinaryFunction((MatrixBinaryOperation & Serializable) (value1, value2) -> value1 - value2), inplace);
+        if (!hasProcedureFactory() && !other.hasProcedureFactory()) return applyBi (other, new BinaryFunction(BinaryFunctionType.SUBTRACT, (MatrixBinaryOperation & Serializable) (value1, value2) -> value1 - value2), inplace);
         else {
             ProcedureFactory.synchronize(this, other);
             int expressionLock = getProcedureFactory().startExpression();
-            Matrix result = applyBi (other, new BinaryFunction((MatrixBinaryOperation & Serializable) (value1, value2) -> value1 - value2), inplace);
+            Matrix result = applyBi (other, new BinaryFunction(BinaryFunctionType.SUBTRACT, (MatrixBinaryOperation & Serializable) (value1, value2) -> value1 - value2), inplace);
             ProcedureFactory.synchronize(this, other, result);
             getProcedureFactory().createSubtractExpression(expressionLock, this, other, result);
             return result;
@@ -1088,11 +1120,11 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
      */
     private Matrix multiply(Matrix other, boolean inplace) throws MatrixException {
-        if (!hasProcedureFactory() && !other.hasProcedureFactory()) return applyBi (other, new BinaryFunction((MatrixBinaryOperation & Serializable) (value1, value2) -> value1 * value2), inplace);
+        if (!hasProcedureFactory() && !other.hasProcedureFactory()) return applyBi (other, new BinaryFunction(BinaryFunctionType.MULTIPLY, (MatrixBinaryOperation & Serializable) (value1, value2) -> value1 * value2), inplace);
         else {
             ProcedureFactory.synchronize(this, other);
             int expressionLock = getProcedureFactory().startExpression();
-            Matrix result = applyBi (other, new BinaryFunction((MatrixBinaryOperation & Serializable) (value1, value2) -> value1 * value2), inplace);
+            Matrix result = applyBi (other, new BinaryFunction(BinaryFunctionType.MULTIPLY, (MatrixBinaryOperation & Serializable) (value1, value2) -> value1 * value2), inplace);
             ProcedureFactory.synchronize(this, other, result);
             getProcedureFactory().createMultiplyExpression(expressionLock, this, other, result);
             return result;
@@ -1195,6 +1227,72 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
         setValue(row, column, depth, getValue(row, column, depth) * value);
     }
 
+    /**
+     * Adds other matrix scaled by alpha to this matrix in place (this = this + alpha * other).<br>
+     * Masked elements of this matrix are left unchanged.<br>
+     *
+     * @param alpha scale of other matrix.
+     * @param other other matrix.
+     * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
+     */
+    public void axpyBy(double alpha, Matrix other) throws MatrixException {
+        if (hasProcedureFactory() || other.hasProcedureFactory()) addBy(other.multiply(alpha));
+        else applyFused(1, alpha, other, null);
+    }
+
+    /**
+     * Adds element wise product of first and second matrix to this matrix in place (this = this + first * second).<br>
+     * Masked elements of this matrix are left unchanged.<br>
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @throws MatrixException throws MatrixException if this, first and second matrix are not of equal dimensions.
+     */
+    public void fmaBy(Matrix first, Matrix second) throws MatrixException {
+        addProductBy(first, second, 1);
+    }
+
+    /**
+     * Interpolates this matrix linearly towards other matrix in place (this = this + weight * (other - this)).<br>
+     * Masked elements of this matrix are left unchanged.<br>
+     *
+     * @param other other matrix.
+     * @param weight interpolation weight where 0 keeps this matrix and 1 replaces it with other matrix.
+     * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
+     */
+    public void lerpBy(Matrix other, double weight) throws MatrixException {
+        if (hasProcedureFactory() || other.hasProcedureFactory()) addBy(other.subtract(this).multiply(weight));
+        else applyFused(1 - weight, weight, other, null);
+    }
+
+    /**
+     * Adds scaled element wise product of first and second matrix to this matrix in place (this = this + scale * first * second).<br>
+     * Masked elements of this matrix are left unchanged.<br>
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @param scale scale of product.
+     * @throws MatrixException throws MatrixException if this, first and second matrix are not of equal dimensions.
+     */
+    public void addProductBy(Matrix first, Matrix second, double scale) throws MatrixException {
+        if (hasProcedureFactory() || first.hasProcedureFactory() || second.hasProcedureFactory()) addBy(scale == 1 ? first.multiply(second) : first.multiply(second).multiply(scale));
+        else applyFused(1, scale, first, second);
+    }
+
+    /**
+     * Applies fused operation this = beta * this + alpha * first * second in place.<br>
+     * Operations recorded by procedure factory are decomposed into recordable operations by callers.<br>
+     *
+     * @param beta scale of this matrix.
+     * @param alpha scale of first and second matrix product.
+     * @param first first matrix.
+     * @param second second matrix or null if operation has only first matrix.
+     * @throws MatrixException throws MatrixException if this, first and second matrix are not of equal dimensions.
+     */
+    private void applyFused(double beta, double alpha, Matrix first, Matrix second) throws MatrixException {
+        new FusedMatrixOperation(getRows(), getColumns(), getDepth(), beta, alpha).apply(this, first, second);
+    }
+
     /**
      * Divides this matrix element wise with other matrix.<br>
      * Applies masking element wise if this or other matrix is masked.<br>
@@ -1205,11 +1303,11 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
      */
     private Matrix divide(Matrix other, boolean inplace) throws MatrixException {
-        if (!hasProcedureFactory() && !other.hasProcedureFactory()) return applyBi (other, new BinaryFunction((MatrixBinaryOperation & Serializable) (value1, value2) -> value1 / value2), inplace);
+        if (!hasProcedureFactory() && !other.hasProcedureFactory()) return applyBi (other, new BinaryFunction(BinaryFunctionType.DIVIDE, (MatrixBinaryOperation & Serializable) (value1, value2) -> value1 / value2), inplace);
         else {
             ProcedureFactory.synchronize(this, other);
             int expressionLock = getProcedureFactory().startExpression();
-            Matrix result = applyBi (other, new BinaryFunction((MatrixBinaryOperation & Serializable) (value1, value2) -> value1 / value2), inplace);
+            Matrix result = applyBi (other, new BinaryFunction(BinaryFunctionType.DIVIDE, (MatrixBinaryOperation & Serializable) (value1, value2) -> value1 / value2), inplace);
             ProcedureFactory.synchronize(this, other, result);
             getProcedureFactory().createDivideExpression(expressionLock, this, other, result);
             return result;
@@ -1424,7 +1522,8 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
     }
 
     /**
-     * Calculates sum or mean.
+     * Calculates sum or mean.<br>
+     * Unmasked matrices of equal dimensions are reduced in parallel with pairwise tree reduction.<br>
      *
      * @param matrices matrices.
      * @param asMean if true returns mean otherwise sum.
@@ -1432,6 +1531,10 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      * @throws MatrixException throws exception if row or column vectors are incorrectly provided.
      */
     public static Matrix count(TreeMap<Integer, Matrix> matrices, boolean asMean) throws MatrixException {
+        if (SampleStatisticsMatrixOperation.isApplicable(matrices.values())) {
+            Matrix firstMatrix = matrices.firstEntry().getValue();
+            return new SampleStatisticsMatrixOperation(firstMatrix.getRows(), firstMatrix.getColumns(), firstMatrix.getDepth()).applySum(matrices.values(), asMean);
+        }
         Matrix result = null;
         for (Matrix matrix : matrices.values()) {
             if (result == null) result = matrix.getNewMatrix();
@@ -1676,7 +1779,8 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
     }
 
     /**
-     * Calculates variance.
+     * Calculates variance.<br>
+     * Unmasked matrices of equal dimensions are reduced in parallel in single pass with Welford's algorithm.<br>
      *
      * @param matrices matrices.
      * @param mean matrix containing mean values for variance calculation.
@@ -1686,6 +1790,10 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      */
     private static Matrix applyVariance(TreeMap<Integer, Matrix> matrices, Matrix mean) throws MatrixException, DynamicParamException {
         if (mean == null) throw new MatrixException("Mean matrix is not defined");
+        if (isSampleStatisticsApplicable(matrices, mean)) {
+            Matrix firstMatrix = matrices.firstEntry().getValue();
+            return new SampleStatisticsMatrixOperation(firstMatrix.getRows(), firstMatrix.getColumns(), firstMatrix.getDepth()).applyVariance(matrices.values(), mean, false);
+        }
         Matrix result = null;
         for (Matrix matrix : matrices.values()) {
             if (result == null) result = matrix.getNewMatrix();
@@ -1694,6 +1802,19 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
         return result == null ? null : result.divide(matrices.size());
     }
 
+    /**
+     * Checks if variance and standard deviation of matrices can be calculated with sample statistics matrix operation.
+     *
+     * @param matrices matrices.
+     * @param mean matrix containing mean values.
+     * @return true if sample statistics matrix operation is applicable otherwise false.
+     */
+    private static boolean isSampleStatisticsApplicable(TreeMap<Integer, Matrix> matrices, Matrix mean) {
+        if (mean.getMask() != null || !SampleStatisticsMatrixOperation.isApplicable(matrices.values())) return false;
+        Matrix firstMatrix = matrices.firstEntry().getValue();
+        return mean.getRows() == firstMatrix.getRows() && mean.getColumns() == firstMatrix.getColumns() && mean.getDepth() == firstMatrix.getDepth();
+    }
+
     /**
      * Takes standard deviation of elements of this matrix.<br>
      * Applies masking element wise if this matrix is masked.<br>
@@ -1788,7 +1909,8 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
     }
 
     /**
-     * Calculates standard deviation.
+     * Calculates standard deviation.<br>
+     * Unmasked matrices of equal dimensions are reduced in parallel in single pass with Welford's algorithm.<br>
      *
      * @param matrices matrices.
      * @param mean matrix containing mean values for variance calculation.
@@ -1798,6 +1920,10 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      */
     private static Matrix applyStandardDeviation(TreeMap<Integer, Matrix> matrices, Matrix mean) throws MatrixException, DynamicParamException {
         if (mean == null) throw new MatrixException("Mean matrix is not defined");
+        if (isSampleStatisticsApplicable(matrices, mean)) {
+            Matrix firstMatrix = matrices.firstEntry().getValue();
+            return new SampleStatisticsMatrixOperation(firstMatrix.getRows(), firstMatrix.getColumns(), firstMatrix.getDepth()).applyVariance(matrices.values(), mean, true);
+        }
         Matrix result = null;
         for (Matrix matrix : matrices.values()) {
             if (result == null) result = matrix.getNewMatrix();
@@ -1858,7 +1984,10 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public Matrix exponentialMovingAverage(Matrix currentExponentialAverage, double momentum) throws MatrixException {
-        return currentExponentialAverage == null ? this : currentExponentialAverage.multiply(momentum).add(multiply(1 - momentum));
+        if (currentExponentialAverage == null) return this;
+        Matrix result = currentExponentialAverage.copy();
+        result.lerpBy(this, 1 - momentum);
+        return result;
     }
 
     /**
@@ -2038,7 +2167,7 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      * @return result of drop out.
      */
     public Matrix noise(double noise, boolean inplace) throws MatrixException {
-        return apply(new UnaryFunction(value -> value + noise * (1 - 2 * random.nextDouble())), inplace);
+        return apply(new UnaryFunction(value -> value + noise * (1 - 2 * RandomProvider.nextDouble())), inplace);
     }
 
     /**
@@ -2399,9 +2528,10 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
         if (numberOfTrials < 1 || probability < 0) return 0;
         if (probability > 1) return numberOfTrials;
 
+        final RandomGenerator randomGenerator = RandomProvider.get();
         int numberOfSuccessfulTrials = 0;
         for (int trial = 0; trial < numberOfTrials; trial++) {
-            if (Math.random() < probability) numberOfSuccessfulTrials++;
+            if (randomGenerator.nextDouble() < probability) numberOfSuccessfulTrials++;
         }
         return numberOfSuccessfulTrials;
     }
@@ -2455,23 +2585,23 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
      *
      * @param shape shape (alpha) parameter
      * @param scale scale (beta) parameter
-     * @param random random function
      * @return random variable from gamma distribution
      */
-    public static double sampleGamma(double shape, double scale, Random random) {
+    public static double sampleGamma(double shape, double scale) {
+        final RandomGenerator randomGenerator = RandomProvider.get();
         if (shape > 1) {
             double d = shape - 1 / (double)3;
             double c = 1 / Math.sqrt(9 * d);
             while (true) {
-                double gaussian = random.nextGaussian();
+                double gaussian = randomGenerator.nextGaussian();
                 if (gaussian > - 1 / c) {
-                    double uniform = random.nextDouble();
+                    double uniform = randomGenerator.nextDouble();
                     double V = Math.pow(1 + c * gaussian, 3);
                     if (Math.log(uniform) < 0.5 * Math.pow(gaussian, 2) + d - d * V + d * Math.log(V)) return d * V / scale;
                 }
             }
         }
-        else return sampleGamma(shape + 1, scale, random) * Math.pow(random.nextDouble(), 1 / shape);
+        else return sampleGamma(shape + 1, scale) * Math.pow(randomGenerator.nextDouble(), 1 / shape);
     }
 
     /**
@@ -2653,100 +2783,86 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
     }
 
     /**
-     * Calculates convolution between this matrix and filter matrix.
+     * Calculates convolution between this matrix and filter matrix with fast Fourier transform.
      *
      * @param filter filter matrix.
-     * @return calculated value of convolution.
+     * @return calculated result of convolution.
      * @throws MatrixException throws exception if matrix operation fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    public Matrix winogradConvolve(Matrix filter) throws MatrixException, DynamicParamException {
-        if (!hasProcedureFactory() && !filter.hasProcedureFactory()) return applyWinogradConvolve(filter);
-        else {
-            ProcedureFactory.synchronize(this, filter);
-            int expressionLock = getProcedureFactory().startExpression();
-            Matrix result = applyWinogradConvolve(filter);
-            ProcedureFactory.synchronize(this, filter, result);
-            getProcedureFactory().createWinogradConvolveExpression(expressionLock, this, filter, result, getStride(), getDilation());
-            return result;
-        }
+    public Matrix fftConvolve(Matrix filter) throws MatrixException {
+        return fftConvolve(filter, true);
     }
 
     /**
-     * Calculates Winograd convolution between this matrix and filter matrix.
+     * Calculates crosscorrelation between this matrix and filter matrix with fast Fourier transform.
      *
      * @param filter filter matrix.
-     * @return result matrix.
+     * @return calculated result of crosscorrelation.
      * @throws MatrixException throws exception if matrix operation fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    private Matrix applyWinogradConvolve(Matrix filter) throws MatrixException, DynamicParamException {
-        return new WinogradConvolutionMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getFilterDepth()).apply(this, filter);
+    public Matrix fftCrosscorrelate(Matrix filter) throws MatrixException {
+        return fftConvolve(filter, false);
     }
 
     /**
-     * Calculates convolution between this matrix and filter matrix.
+     * Calculates convolution or crosscorrelation between this matrix and filter matrix with fast Fourier transform.
      *
      * @param filter filter matrix.
-     * @param A A matrix
-     * @param AT A transposed matrix
-     * @param C C matrix
-     * @param CT C transposed matrix
-     * @param G G matrix
-     * @param GT G transposed matrix
-     * @return calculated value of convolution.
+     * @param asConvolution if true operation is calculated as convolution otherwise as crosscorrelation.
+     * @return calculated result of operation.
      * @throws MatrixException throws exception if matrix operation fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    public Matrix winogradConvolve(Matrix filter, Matrix A, Matrix AT, Matrix C, Matrix CT, Matrix G, Matrix GT) throws MatrixException, DynamicParamException {
-        if (!hasProcedureFactory() && !filter.hasProcedureFactory()) return applyWinogradConvolve(filter, A, AT, C, CT, G, GT);
+    private Matrix fftConvolve(Matrix filter, boolean asConvolution) throws MatrixException {
+        if (!hasProcedureFactory() && !filter.hasProcedureFactory()) return applyFFTConvolve(filter, asConvolution);
         else {
             ProcedureFactory.synchronize(this, filter);
             int expressionLock = getProcedureFactory().startExpression();
-            Matrix result = applyWinogradConvolve(filter, A, AT, C, CT, G, GT);
+            Matrix result = applyFFTConvolve(filter, asConvolution);
             ProcedureFactory.synchronize(this, filter, result);
-            getProcedureFactory().createWinogradConvolveExpression(expressionLock, this, filter, result, getStride(), getDilation());
+            getProcedureFactory().createFFTConvolveExpression(expressionLock, this, filter, result, getStride(), getDilation(), getIsDepthSeparable(), asConvolution);
             return result;
         }
     }
 
     /**
-     * Calculates Winograd convolution between this matrix and filter matrix.
+     * Calculates convolution or crosscorrelation between this matrix and filter matrix with fast Fourier transform.
      *
      * @param filter filter matrix.
-     * @param A A matrix
-     * @param AT A transposed matrix
-     * @param C C matrix
-     * @param CT C transposed matrix
-     * @param G G matrix
-     * @param GT G transposed matrix
+     * @param asConvolution if true operation is calculated as convolution otherwise as crosscorrelation.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    private Matrix applyWinogradConvolve(Matrix filter, Matrix A, Matrix AT, Matrix C, Matrix CT, Matrix G, Matrix GT) throws MatrixException {
-        return new WinogradConvolutionMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getFilterDepth(), A, AT, C, CT, G, GT).apply(this, filter);
+    private Matrix applyFFTConvolve(Matrix filter, boolean asConvolution) throws MatrixException {
+        return new FFTConvolutionMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getFilterDepth(), getDepth(), filter.getRows(), filter.getColumns(), getDilation(), getStride(), getIsDepthSeparable(), asConvolution).apply(this, filter);
     }
 
     /**
-     * Calculates convolution between this matrix and filter matrix.
+     * Calculates Winograd convolution between this matrix and filter matrix using F(4x4, 3x3) transform.
      *
-     * @param preprocessedFilter preprocessed filter matrix.
-     * @param A A matrix
-     * @param AT A transposed matrix
-     * @param C C matrix
-     * @param CT C transposed matrix
-     * @return calculated value of convolution.
+     * @param filter filter matrix.
+     * @return calculated value of Winograd convolution.
      * @throws MatrixException throws exception if matrix operation fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    public Matrix winogradConvolve(Matrix preprocessedFilter, Matrix A, Matrix AT, Matrix C, Matrix CT) throws MatrixException, DynamicParamException {
-        Matrix result = getNewMatrix(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getDepth());
-        if (!hasProcedureFactory() && !preprocessedFilter.hasProcedureFactory()) return applyWinogradConvolve(preprocessedFilter, A, AT, C, CT);
+    public Matrix winogradConvolve(Matrix filter) throws MatrixException {
+        return winogradConvolve(filter, 4);
+    }
+
+    /**
+     * Calculates Winograd convolution between this matrix and filter matrix.
+     *
+     * @param filter filter matrix.
+     * @param tileSize output tile size of Winograd transform (2 or 4).
+     * @return calculated value of Winograd convolution.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix winogradConvolve(Matrix filter, int tileSize) throws MatrixException {
+        if (!hasProcedureFactory() && !filter.hasProcedureFactory()) return applyWinogradConvolve(filter, tileSize);
         else {
-            ProcedureFactory.synchronize(this, preprocessedFilter, result);
+            ProcedureFactory.synchronize(this, filter);
             int expressionLock = getProcedureFactory().startExpression();
-            applyWinogradConvolve(preprocessedFilter, A, AT, C, CT);
-            getProcedureFactory().createWinogradConvolveExpression(expressionLock, this, preprocessedFilter, result, getStride(), getDilation());
+            Matrix result = applyWinogradConvolve(filter, tileSize);
+            ProcedureFactory.synchronize(this, filter, result);
+            getProcedureFactory().createWinogradConvolveExpression(expressionLock, this, filter, result, tileSize);
             return result;
         }
     }
@@ -2754,26 +2870,34 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
     /**
      * Calculates Winograd convolution between this matrix and filter matrix.
      *
-     * @param preprocessedFilter preprocessed filter matrix.
-     * @param A A matrix
-     * @param AT A transposed matrix
-     * @param C C matrix
-     * @param CT C transposed matrix
+     * @param filter filter matrix.
+     * @param tileSize output tile size of Winograd transform.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    private Matrix applyWinogradConvolve(Matrix preprocessedFilter, Matrix A, Matrix AT, Matrix C, Matrix CT) throws MatrixException {
-        return new WinogradConvolutionMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getFilterDepth(), A, AT, C, CT).apply(this, preprocessedFilter);
+    private Matrix applyWinogradConvolve(Matrix filter, int tileSize) throws MatrixException {
+        if (filter.getRows() != 3 || filter.getColumns() != 3) throw new MatrixException("Winograd convolution requires 3x3 filter.");
+        return new WinogradConvolutionMatrixOperation(getRows() - filter.getRows() + 1, getColumns() - filter.getColumns() + 1, getFilterDepth(), getDepth(), tileSize).apply(this, filter);
     }
 
     /**
      * Calculates max pooling operation for this matrix.
      *
-     * @param maxPos maximum positions for each row and col value.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    public Matrix maxPool(HashMap<Integer, Integer> maxPos) throws MatrixException {
+    public Matrix maxPool() throws MatrixException {
+        return maxPool(null);
+    }
+
+    /**
+     * Calculates max pooling operation for this matrix.
+     *
+     * @param maxPos buffer for maximum positions. Stores input row and column for each result row, column and depth. If null buffer is allocated by operation.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix maxPool(int[] maxPos) throws MatrixException {
         if (!hasProcedureFactory()) return applyMaxPool(maxPos);
         else {
             int expressionLock = getProcedureFactory().startExpression();
@@ -2787,22 +2911,33 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
     /**
      * Calculates max pooling operation for matrix and returns max arguments.
      *
-     * @param maxPos maximum position for each result row and column value.
+     * @param maxPos buffer for maximum positions.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    private Matrix applyMaxPool(HashMap<Integer, Integer> maxPos) throws MatrixException {
-        return new MaxPoolMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getDepth(), getFilterRowSize(), getFilterColumnSize(), getDilation(), getStride()).apply(this, maxPos);
+    private Matrix applyMaxPool(int[] maxPos) throws MatrixException {
+        MaxPoolMatrixOperation maxPoolMatrixOperation = new MaxPoolMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getDepth(), getFilterRowSize(), getFilterColumnSize(), getDilation(), getStride());
+        return maxPoolMatrixOperation.apply(this, maxPos != null ? maxPos : new int[maxPoolMatrixOperation.getPositionSize()]);
     }
 
     /**
      * Calculates random pooling operation for this matrix.
      *
-     * @param inputPos input positions for each row and col value.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    public Matrix randomPool(HashMap<Integer, Integer> inputPos) throws MatrixException {
+    public Matrix randomPool() throws MatrixException {
+        return randomPool(null);
+    }
+
+    /**
+     * Calculates random pooling operation for this matrix.
+     *
+     * @param inputPos buffer for input positions. Stores input row and column for each result row, column and depth. If null buffer is allocated by operation.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix randomPool(int[] inputPos) throws MatrixException {
         if (!hasProcedureFactory()) return applyRandomPool(inputPos);
         else {
             int expressionLock = getProcedureFactory().startExpression();
@@ -2816,22 +2951,33 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
     /**
      * Calculates random pooling operation for matrix and returns input positions.
      *
-     * @param inputPos input position for each result row and column value.
+     * @param inputPos buffer for input positions.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private Matrix applyRandomPool(int[] inputPos) throws MatrixException {
+        RandomPoolMatrixOperation randomPoolMatrixOperation = new RandomPoolMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getDepth(), getFilterRowSize(), getFilterColumnSize(), getDilation(), getStride());
+        return randomPoolMatrixOperation.apply(this, inputPos != null ? inputPos : new int[randomPoolMatrixOperation.getPositionSize()]);
+    }
+
+    /**
+     * Calculates cyclic pooling operation for this matrix.
+     *
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    private Matrix applyRandomPool(HashMap<Integer, Integer> inputPos) throws MatrixException {
-        return new RandomPoolMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getDepth(), getFilterRowSize(), getFilterColumnSize(), getDilation(), getStride()).apply(this, inputPos);
+    public Matrix cyclicPool() throws MatrixException {
+        return cyclicPool(null);
     }
 
     /**
      * Calculates cyclic pooling operation for this matrix.
      *
-     * @param inputPos input positions for each row and col value.
+     * @param inputPos buffer for input positions. Stores input row and column for each result row, column and depth. If null buffer is allocated by operation.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    public Matrix cyclicPool(HashMap<Integer, Integer> inputPos) throws MatrixException {
+    public Matrix cyclicPool(int[] inputPos) throws MatrixException {
         if (!hasProcedureFactory()) return applyCyclicPool(inputPos);
         else {
             int expressionLock = getProcedureFactory().startExpression();
@@ -2845,12 +2991,13 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
     /**
      * Calculates cyclic pooling operation for matrix and returns input positions.
      *
-     * @param inputPos input position for each result row and column value.
+     * @param inputPos buffer for input positions.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    private Matrix applyCyclicPool(HashMap<Integer, Integer> inputPos) throws MatrixException {
-        return new CyclicPoolMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getDepth(), getFilterRowSize(), getFilterColumnSize(), getDilation(), getStride()).apply(this, inputPos);
+    private Matrix applyCyclicPool(int[] inputPos) throws MatrixException {
+        CyclicPoolMatrixOperation cyclicPoolMatrixOperation = new CyclicPoolMatrixOperation(getRows() - getFilterRowSize() + 1, getColumns() - getFilterColumnSize() + 1, getDepth(), getFilterRowSize(), getFilterColumnSize(), getDilation(), getStride());
+        return cyclicPoolMatrixOperation.apply(this, inputPos != null ? inputPos : new int[cyclicPoolMatrixOperation.getPositionSize()]);
     }
 
     /**
@@ -2917,6 +3064,8 @@ public abstract class AbstractMatrix implements Cloneable, Serializable, Matrix
     public void setMask(Mask newMask) throws MatrixException {
         if (getRows() != newMask.getRows() || getColumns() != newMask.getColumns() || getDepth() != newMask.getDepth()) throw new MatrixException("Dimensions of new mask are not matching with matrix dimensions.");
         if ((this instanceof DMatrix) && !((newMask instanceof DMask))) throw new MatrixException("New mask is of type DMask which is not matching type of matrix (DMatrix)");
+        if ((this instanceof FMatrix) && !((newMask instanceof DMask))) throw new MatrixException("New mask is of type DMask which is not matching type of matrix (FMatrix)");
+        if ((this instanceof OMatrix) && !((newMask instanceof DMask))) throw new MatrixException("New mask is of type DMask which is not matching type of matrix (OMatrix)");
         if ((this instanceof SMatrix) && !((newMask instanceof SMask))) throw new MatrixException("New mask is of type SMask which is not matching type of matrix (SMatrix)");
         mask = newMask;
     }
@@ -0,0 +1,123 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix;
+
+import utils.matrix.operation.VectorKernel;
+
+import java.util.Arrays;
+
+/**
+ * Implements batched matrix which stacks samples of mini-batch along column axis of single dense matrix.<br>
+ * Sample at batch index b occupies columns b * sample columns ... (b + 1) * sample columns - 1 so that data of each sample is contiguous block of matrix data.<br>
+ * Allows matrix operations such as dot product to be executed for whole mini-batch as single operation.<br>
+ * Batched matrix supports samples with depth one.<br>
+ *
+ */
+public class BMatrix extends DMatrix {
+
+    /**
+     * Number of samples in batch.
+     *
+     */
+    private final int batchSize;
+
+    /**
+     * Constructor for batched matrix.<br>
+     * Stacks samples into batched matrix. Samples must have equal dimensions.<br>
+     *
+     * @param samples samples.
+     * @throws MatrixException throws exception if samples are not defined or their dimensions are not matching.
+     */
+    public BMatrix(Matrix[] samples) throws MatrixException {
+        super(samples[0].getRows(), samples[0].getColumns() * samples.length, 1, stack(samples), false, false, false);
+        batchSize = samples.length;
+    }
+
+    /**
+     * Constructor for batched matrix.<br>
+     * Data of matrix whose columns consist of given number of samples is referenced if matrix is contiguous dense matrix otherwise data is copied.<br>
+     *
+     * @param matrix matrix.
+     * @param batchSize number of samples in matrix.
+     * @throws MatrixException throws exception if depth of matrix is not one or its columns cannot be split to given number of samples.
+     */
+    public BMatrix(Matrix matrix, int batchSize) throws MatrixException {
+        super(matrix.getRows(), matrix.getColumns(), 1, getMatrixData(matrix, batchSize), false, false, false);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Stacks data of samples into single array.
+     *
+     * @param samples samples.
+     * @return stacked data of samples.
+     * @throws MatrixException throws exception if samples are not defined or their dimensions are not matching.
+     */
+    private static double[] stack(Matrix[] samples) throws MatrixException {
+        if (samples.length == 0) throw new MatrixException("Batched matrix must contain at least one sample.");
+        final int rows = samples[0].getRows();
+        final int columns = samples[0].getColumns();
+        final int sampleSize = rows * columns;
+        final double[] data = new double[sampleSize * samples.length];
+        for (int sampleIndex = 0; sampleIndex < samples.length; sampleIndex++) {
+            final Matrix sample = samples[sampleIndex];
+            if (sample.getRows() != rows || sample.getColumns() != columns || sample.getDepth() != 1) throw new MatrixException("Sample of size: " + sample.getRows() + "x" + sample.getColumns() + "x" + sample.getDepth() + " cannot be stacked into batch of samples of size: " + rows + "x" + columns + "x1");
+            final int offset = sampleIndex * sampleSize;
+            if (sample instanceof DMatrix dSample && VectorKernel.isContiguous(dSample, rows, columns, 1)) System.arraycopy(dSample.getMatrixData(), dSample.getArrayOffset(), data, offset, sampleSize);
+            else {
+                for (int column = 0; column < columns; column++) {
+                    for (int row = 0; row < rows; row++) data[offset + column * rows + row] = sample.getValue(row, column, 0);
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Returns data of matrix for batched matrix.
+     *
+     * @param matrix matrix.
+     * @param batchSize number of samples in matrix.
+     * @return data of matrix.
+     * @throws MatrixException throws exception if depth of matrix is not one or its columns cannot be split to given number of samples.
+     */
+    private static double[] getMatrixData(Matrix matrix, int batchSize) throws MatrixException {
+        if (batchSize < 1 || matrix.getColumns() % batchSize != 0) throw new MatrixException("Matrix with " + matrix.getColumns() + " columns cannot be split into " + batchSize + " samples.");
+        if (matrix.getDepth() != 1) throw new MatrixException("Batched matrix must have depth of one.");
+        if (matrix instanceof DMatrix dMatrix && dMatrix.getArrayOffset() == 0 && VectorKernel.isContiguous(dMatrix, matrix.getRows(), matrix.getColumns(), 1)) return dMatrix.getMatrixData();
+        return stack(new Matrix[] { matrix });
+    }
+
+    /**
+     * Returns number of samples in batch.
+     *
+     * @return number of samples in batch.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns number of columns of each sample.
+     *
+     * @return number of columns of each sample.
+     */
+    public int getSampleColumns() {
+        return getColumns() / batchSize;
+    }
+
+    /**
+     * Returns copy of sample at given batch index.
+     *
+     * @param batchIndex batch index of sample.
+     * @return sample.
+     */
+    public Matrix getSample(int batchIndex) {
+        final int sampleSize = getRows() * getSampleColumns();
+        return new DMatrix(getRows(), getSampleColumns(), 1, Arrays.copyOfRange(getMatrixData(), batchIndex * sampleSize, (batchIndex + 1) * sampleSize), false, false, false);
+    }
+
+}
@@ -74,6 +74,19 @@ public class BinaryFunction implements Serializable {
         this.derivative = null;
     }
 
+    /**
+     * Constructor for binary function of known type without derivative.<br>
+     * Type allows matrix operations to identify function and apply vectorized implementation for it.<br>
+     *
+     * @param binaryFunctionType type of function.
+     * @param function function.
+     */
+    public BinaryFunction(BinaryFunctionType binaryFunctionType, Matrix.MatrixBinaryOperation function) {
+        this.binaryFunctionType = binaryFunctionType;
+        this.function = function;
+        this.derivative = null;
+    }
+
     /**
      * Constructor for binary function.
      *
@@ -82,7 +95,7 @@ public class BinaryFunction implements Serializable {
      * @throws MatrixException throws exception if custom function is attempted to be created with this constructor.
      */
     public BinaryFunction(BinaryFunctionType binaryFunctionType) throws MatrixException, DynamicParamException {
-        this (binaryFunctionType, null);
+        this (binaryFunctionType, (String)null);
     }
 
     /**
@@ -184,6 +197,22 @@ public class BinaryFunction implements Serializable {
                 function = (Matrix.MatrixBinaryOperation & Serializable) (value, constant) -> 0;
                 derivative = (Matrix.MatrixBinaryOperation & Serializable) (value, constant) -> 0;
             }
+            case ADD -> {
+                function = (Matrix.MatrixBinaryOperation & Serializable) Double::sum;
+                derivative = (Matrix.MatrixBinaryOperation & Serializable) (value, constant) -> 1;
+            }
+            case SUBTRACT -> {
+                function = (Matrix.MatrixBinaryOperation & Serializable) (value, constant) -> value - constant;
+                derivative = (Matrix.MatrixBinaryOperation & Serializable) (value, constant) -> 1;
+            }
+            case MULTIPLY -> {
+                function = (Matrix.MatrixBinaryOperation & Serializable) (value, constant) -> value * constant;
+                derivative = (Matrix.MatrixBinaryOperation & Serializable) (value, constant) -> constant;
+            }
+            case DIVIDE -> {
+                function = (Matrix.MatrixBinaryOperation & Serializable) (value, constant) -> value / constant;
+                derivative = (Matrix.MatrixBinaryOperation & Serializable) (value, constant) -> 1 / constant;
+            }
             case CUSTOM -> throw new MatrixException("Custom function cannot defined with this constructor.");
             default -> throw new MatrixException("Unknown binary function.");
         }
@@ -131,6 +131,30 @@ public enum BinaryFunctionType {
      */
     COS_SIM,
 
+    /**
+     * Element wise addition
+     *
+     */
+    ADD,
+
+    /**
+     * Element wise subtraction
+     *
+     */
+    SUBTRACT,
+
+    /**
+     * Element wise multiplication
+     *
+     */
+    MULTIPLY,
+
+    /**
+     * Element wise division
+     *
+     */
+    DIVIDE,
+
     /**
      * Custom (user definable) function
      *
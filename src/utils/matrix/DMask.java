@@ -7,15 +7,23 @@ package utils.matrix;
 
 /**
  * Implements dense mask for dense matrices.<br>
+ * Mask entries are bit packed into long words in same order as values of dense matrix.<br>
+ * Searches for masked and unmasked runs and logical operations between masks proceed one word (64 entries) at a time.<br>
  *
  */
 public class DMask extends AbstractMask {
 
     /**
-     * Defines mask data structure using 2-dimensional row column array.
+     * Number of mask entries packed into single word.
      *
      */
-    private boolean[] mask;
+    private static final int wordSize = Long.SIZE;
+
+    /**
+     * Defines mask data structure as bit packed words. Entry at array index i is stored at bit i % 64 of word i / 64.
+     *
+     */
+    private long[] mask;
 
     /**
      * Constructor for dense mask.
@@ -38,7 +46,7 @@ public class DMask extends AbstractMask {
      */
     public DMask(int rows, int columns, int depth, boolean isTransposed) {
         super(rows, columns, depth, isTransposed);
-        mask = new boolean[rows * columns * depth];
+        mask = new long[getWordCount(rows * columns * depth)];
     }
 
     /**
@@ -47,16 +55,26 @@ public class DMask extends AbstractMask {
      * @param rows defines number of rows in mask.
      * @param columns defines number of columns in mask.
      * @param depth defines depth of mask.
-     * @param data clones mask data from given mask data.
+     * @param data clones mask data from given mask words.
      * @param probability probability of masking.
      * @param isTransposed is true mask is transposed otherwise false.
      * @throws MatrixException throws exception if masking probability is not between 0 and 1.
      */
-    private DMask(int rows, int columns, int depth, boolean[] data, double probability, boolean isTransposed) throws MatrixException {
+    private DMask(int rows, int columns, int depth, long[] data, double probability, boolean isTransposed) throws MatrixException {
         super(rows, columns, depth, isTransposed, probability);
         mask = data.clone();
     }
 
+    /**
+     * Returns number of words needed to store mask entries.
+     *
+     * @param size number of mask entries.
+     * @return number of words.
+     */
+    private static int getWordCount(int size) {
+        return (size + wordSize - 1) / wordSize;
+    }
+
     /**
      * Returns new mask of same dimensions.
      *
@@ -94,7 +112,9 @@ public class DMask extends AbstractMask {
      * @param value defines if specific row and column is masked (true) or not (false).
      */
     public void setMask(int row, int column, int depth, boolean value) {
-        mask[getArrayIndex(row, column, depth)] = value;
+        int index = getArrayIndex(row, column, depth);
+        if (value) mask[index / wordSize] |= 1L << index;
+        else mask[index / wordSize] &= ~(1L << index);
     }
 
     /**
@@ -106,7 +126,195 @@ public class DMask extends AbstractMask {
      * @return if specific row and column is masked (true) or not (false).
      */
     public boolean getMask(int row, int column, int depth) {
-        return mask[getArrayIndex(row, column, depth)];
+        int index = getArrayIndex(row, column, depth);
+        return (mask[index / wordSize] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns first unmasked row starting from given row at specific column and depth.<br>
+     * For non-transposed mask rows of column are consecutive entries and search proceeds word at a time.<br>
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @return first unmasked row or number of rows in mask if all remaining rows are masked.
+     */
+    public int getNextUnmaskedRow(int row, int column, int depth) {
+        if (isTransposed()) return super.getNextUnmaskedRow(row, column, depth);
+        int rows = getRows();
+        if (row >= rows) return rows;
+        int columnIndex = getColumnIndex(column, depth);
+        return findNext(columnIndex + row, columnIndex + rows, false) - columnIndex;
+    }
+
+    /**
+     * Returns first masked row starting from given row at specific column and depth.<br>
+     * For non-transposed mask rows of column are consecutive entries and search proceeds word at a time.<br>
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @return first masked row or number of rows in mask if none of remaining rows are masked.
+     */
+    public int getNextMaskedRow(int row, int column, int depth) {
+        if (isTransposed()) return super.getNextMaskedRow(row, column, depth);
+        int rows = getRows();
+        if (row >= rows) return rows;
+        int columnIndex = getColumnIndex(column, depth);
+        return findNext(columnIndex + row, columnIndex + rows, true) - columnIndex;
+    }
+
+    /**
+     * Finds first array index within range having given mask value.
+     *
+     * @param fromIndex start index (inclusive).
+     * @param toIndex end index (exclusive).
+     * @param value mask value searched for.
+     * @return first array index having given mask value or end index if no such index was found.
+     */
+    private int findNext(int fromIndex, int toIndex, boolean value) {
+        int wordIndex = fromIndex / wordSize;
+        long word = (value ? mask[wordIndex] : ~mask[wordIndex]) & (-1L << fromIndex);
+        while (word == 0) {
+            if (++wordIndex * wordSize >= toIndex) return toIndex;
+            word = value ? mask[wordIndex] : ~mask[wordIndex];
+        }
+        return Math.min(wordIndex * wordSize + Long.numberOfTrailingZeros(word), toIndex);
+    }
+
+    /**
+     * Sets mask value for array index range.
+     *
+     * @param fromIndex start index (inclusive).
+     * @param toIndex end index (exclusive).
+     * @param value if true sets mask otherwise unsets mask.
+     */
+    private void setRange(int fromIndex, int toIndex, boolean value) {
+        if (fromIndex >= toIndex) return;
+        int firstWordIndex = fromIndex / wordSize;
+        int lastWordIndex = (toIndex - 1) / wordSize;
+        long firstWordMask = -1L << fromIndex;
+        long lastWordMask = -1L >>> -toIndex;
+        for (int wordIndex = firstWordIndex; wordIndex <= lastWordIndex; wordIndex++) {
+            long wordMask = (wordIndex == firstWordIndex ? firstWordMask : -1L) & (wordIndex == lastWordIndex ? lastWordMask : -1L);
+            if (value) mask[wordIndex] |= wordMask;
+            else mask[wordIndex] &= ~wordMask;
+        }
+    }
+
+    /**
+     * Sets mask value for row mask.
+     *
+     * @param row row of mask to be set.
+     * @param value if true sets row mask otherwise unsets mask.
+     */
+    public void setRowMask(int row, boolean value) {
+        if (!isTransposed()) super.setRowMask(row, value);
+        else {
+            int totalDepth = getDepth();
+            for (int depth = 0; depth < totalDepth; depth++) {
+                int columnIndex = getColumnIndex(row, depth);
+                setRange(columnIndex, columnIndex + getPureRows(), value);
+            }
+        }
+    }
+
+    /**
+     * Sets mask value for column mask.
+     *
+     * @param column column of mask to be set.
+     * @param value if true sets column mask otherwise unsets mask.
+     */
+    public void setColumnMask(int column, boolean value) {
+        if (isTransposed()) super.setColumnMask(column, value);
+        else {
+            int totalDepth = getDepth();
+            for (int depth = 0; depth < totalDepth; depth++) {
+                int columnIndex = getColumnIndex(column, depth);
+                setRange(columnIndex, columnIndex + getPureRows(), value);
+            }
+        }
+    }
+
+    /**
+     * Sets mask value for depth mask.
+     *
+     * @param depth depth of mask to be set.
+     * @param value if true sets depth mask otherwise unsets mask.
+     */
+    public void setDepthMask(int depth, boolean value) {
+        int columnIndex = getColumnIndex(0, depth);
+        setRange(columnIndex, columnIndex + getPureRows() * getPureColumns(), value);
+    }
+
+    /**
+     * Resets values at masked entries to zero. Values are expected to be stored contiguously in column major order starting from given offset.<br>
+     * For non-transposed mask masked entries are located word at a time.<br>
+     *
+     * @param values values.
+     * @param offset offset of first value.
+     */
+    public void resetMaskedValues(double[] values, int offset) {
+        if (isTransposed()) {
+            super.resetMaskedValues(values, offset);
+            return;
+        }
+        for (int wordIndex = 0; wordIndex < mask.length; wordIndex++) {
+            long word = mask[wordIndex];
+            while (word != 0) {
+                values[offset + wordIndex * wordSize + Long.numberOfTrailingZeros(word)] = 0;
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Returns number of masked entries.
+     *
+     * @return number of masked entries.
+     */
+    public int getMaskedCount() {
+        int maskedCount = 0;
+        for (long word : mask) maskedCount += Long.bitCount(word);
+        return maskedCount;
+    }
+
+    /**
+     * Applies logical and with other mask. Entry remains masked only if it is masked in both masks.
+     *
+     * @param other other mask.
+     * @throws MatrixException throws exception if dimensions of masks are not matching.
+     */
+    public void and(Mask other) throws MatrixException {
+        if (!hasSameLayout(other)) super.and(other);
+        else {
+            long[] otherMask = ((DMask)other).mask;
+            for (int wordIndex = 0; wordIndex < mask.length; wordIndex++) mask[wordIndex] &= otherMask[wordIndex];
+        }
+    }
+
+    /**
+     * Applies logical or with other mask. Entry becomes masked if it is masked in either mask.
+     *
+     * @param other other mask.
+     * @throws MatrixException throws exception if dimensions of masks are not matching.
+     */
+    public void or(Mask other) throws MatrixException {
+        if (!hasSameLayout(other)) super.or(other);
+        else {
+            long[] otherMask = ((DMask)other).mask;
+            for (int wordIndex = 0; wordIndex < mask.length; wordIndex++) mask[wordIndex] |= otherMask[wordIndex];
+        }
+    }
+
+    /**
+     * Checks if other mask is dense mask with same dimensions and same word layout as this mask.
+     *
+     * @param other other mask.
+     * @return true if other mask has same word layout otherwise false.
+     */
+    private boolean hasSameLayout(Mask other) {
+        return other instanceof DMask otherMask && otherMask.isTransposed() == isTransposed() && otherMask.getPureRows() == getPureRows() && otherMask.getPureColumns() == getPureColumns() && otherMask.getPureDepth() == getPureDepth();
     }
 
     /**
@@ -114,7 +322,7 @@ public class DMask extends AbstractMask {
      *
      */
     public void reset() {
-        mask = new boolean[getRows() * getColumns() * getDepth()];
+        mask = new long[getWordCount(getRows() * getColumns() * getDepth())];
     }
 
 }
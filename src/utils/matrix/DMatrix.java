@@ -55,7 +55,7 @@ public class DMatrix extends AbstractMatrix {
      */
     public DMatrix(int rows, int columns, int depth) {
         super(rows, columns, depth);
-        matrix = new double[rows * columns * depth];
+        matrix = MatrixPool.allocateDouble(rows * columns * depth);
     }
 
     /**
@@ -68,7 +68,7 @@ public class DMatrix extends AbstractMatrix {
      */
     public DMatrix(int rows, int columns, int depth, boolean isScalar) {
         super(rows, columns, depth, isScalar);
-        matrix = new double[rows * columns * depth];
+        matrix = MatrixPool.allocateDouble(rows * columns * depth);
     }
 
     /**
@@ -83,7 +83,7 @@ public class DMatrix extends AbstractMatrix {
      */
     public DMatrix(int rows, int columns, int depth, boolean isScalar, boolean isTransposed, boolean canBeSliced) {
         super(rows, columns, depth, isScalar, isTransposed, canBeSliced);
-        matrix = new double[rows * columns * depth];
+        matrix = MatrixPool.allocateDouble(rows * columns * depth);
     }
 
     /**
@@ -366,6 +366,16 @@ public class DMatrix extends AbstractMatrix {
         matrix = new double[getPureRows() * getPureColumns() * getPureDepth()];
     }
 
+    /**
+     * Returns matrix data as 1-dimensional row column array.<br>
+     * Array is referenced and not copied. Use array offset and strides to locate values taking into account slicing and transposing.<br>
+     *
+     * @return matrix data.
+     */
+    public double[] getMatrixData() {
+        return matrix;
+    }
+
     /**
      * Sets value of matrix at specific row and column.
      *
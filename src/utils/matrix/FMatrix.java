@@ -0,0 +1,449 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Implements single precision dense matrix.<br>
+ * Dense matrix assumes full array data structure including storage of zero values.<br>
+ * Values are stored as floats which halves memory footprint and memory traffic compared to double precision dense matrix.<br>
+ * Values are converted to double when read and rounded to float when written.<br>
+ *
+ */
+public class FMatrix extends AbstractMatrix {
+
+    /**
+     * Defines matrix data structure using 1-dimensional row column array of float values.
+     *
+     */
+    private float[] matrix;
+
+    /**
+     * Constructor for single precision scalar matrix (size 1x1x1).
+     *
+     * @param scalarValue value for matrix.
+     */
+    public FMatrix(double scalarValue) {
+        super(1, 1, 1,true);
+        matrix = new float[1];
+        matrix[0] = (float)scalarValue;
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param mask defines mask of matrix.
+     * @throws MatrixException throws exception if new mask dimensions or mask type are not matching with this mask.
+     */
+    public FMatrix(int rows, int columns, int depth, Mask mask) throws MatrixException {
+        this(rows, columns, depth);
+        if (mask != null) setMask(mask);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     */
+    public FMatrix(int rows, int columns, int depth) {
+        super(rows, columns, depth);
+        matrix = MatrixPool.allocateFloat(rows * columns * depth);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     */
+    public FMatrix(int rows, int columns, int depth, boolean isScalar) {
+        super(rows, columns, depth, isScalar);
+        matrix = MatrixPool.allocateFloat(rows * columns * depth);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param isTransposed if true matrix is transposed and if false not transposed.
+     * @param canBeSliced if true matrix can be slides otherwise cannot be sliced.
+     */
+    public FMatrix(int rows, int columns, int depth, boolean isScalar, boolean isTransposed, boolean canBeSliced) {
+        super(rows, columns, depth, isScalar, isTransposed, canBeSliced);
+        matrix = MatrixPool.allocateFloat(rows * columns * depth);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param initialization type of initialization defined in class Init.
+     * @param inputs applied in convolutional initialization defined as channels * filter size * filter size.
+     * @param outputs applied in convolutional initialization defined as filters * filter size * filter size.
+     */
+    public FMatrix(int rows, int columns, int depth, Initialization initialization, int inputs, int outputs) {
+        this(rows, columns, depth);
+        initialize(initialization, inputs, outputs);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param initialization type of initialization defined in class Init.
+     * @param inputs applied in convolutional initialization defined as channels * filter size * filter size.
+     * @param outputs applied in convolutional initialization defined as filters * filter size * filter size.
+     */
+    public FMatrix(int rows, int columns, int depth, boolean isScalar, Initialization initialization, int inputs, int outputs) {
+        this(rows, columns, depth, isScalar);
+        initialize(initialization, inputs, outputs);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param initialization type of initialization defined in class Init.
+     */
+    public FMatrix(int rows, int columns, int depth, Initialization initialization) {
+        this(rows, columns, depth);
+        initialize(initialization);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param initialization type of initialization defined in class Init.
+     */
+    public FMatrix(int rows, int columns, int depth, boolean isScalar, Initialization initialization) {
+        this(rows, columns, depth, isScalar);
+        initialize(initialization);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param initializer initializer.
+     */
+    public FMatrix(int rows, int columns, int depth, Matrix.Initializer initializer) {
+        this(rows, columns, depth);
+        initialize(initializer);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param initializer initializer.
+     */
+    public FMatrix(int rows, int columns, int depth, boolean isScalar, Matrix.Initializer initializer) {
+        this(rows, columns, depth, isScalar);
+        initialize(initializer);
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param data clones matrix data from given matrix data.
+     */
+    public FMatrix(int rows, int columns, int depth, float[] data) {
+        super(rows, columns, depth);
+        matrix = data;
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param data clones matrix data from given matrix data.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     */
+    public FMatrix(int rows, int columns, int depth, float[] data, boolean isScalar) {
+        super(rows, columns, depth, isScalar);
+        matrix = data;
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param data matrix data.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param isTransposed if true matrix is transposed and if false not transposed.
+     */
+    public FMatrix(int rows, int columns, int depth, float[] data, boolean isScalar, boolean isTransposed) {
+        super(rows, columns, depth, isScalar, isTransposed);
+        matrix = data;
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param data matrix data.
+     * @param copyData if true matrix data is copied and if false referenced.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param isTransposed if true matrix is transposed and if false not transposed.
+     */
+    public FMatrix(int rows, int columns, int depth, float[] data, boolean copyData, boolean isScalar, boolean isTransposed) {
+        super(rows, columns, depth, isScalar, isTransposed);
+        matrix = copyData ? data.clone() : data;
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param data matrix data.
+     * @param copyData if true matrix data is copied and if false referenced.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param isTransposed if true matrix is transposed and if false not transposed.
+     * @param canBeSliced if true matrix can be slides otherwise cannot be sliced.
+     */
+    public FMatrix(int rows, int columns, int depth, float[] data, boolean copyData, boolean isScalar, boolean isTransposed, boolean canBeSliced) {
+        super(rows, columns, depth, isScalar, isTransposed, canBeSliced);
+        matrix = copyData ? data.clone() : data;
+    }
+
+    /**
+     * Constructor for single precision dense matrix.
+     *
+     * @param other matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public FMatrix(Matrix other) throws MatrixException {
+        this(other.getRows(), other.getColumns(), other.getDepth());
+        setEqualTo(other);
+    }
+
+    /**
+     * Creates new matrix with object full copy of this matrix.
+     *
+     * @return newly created copy of matrix.
+     */
+    public Matrix copy() {
+        Matrix newMatrix = new FMatrix(getPureRows(), getPureColumns(), getPureDepth(), matrix, true, isScalar(), isTransposed());
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Creates new matrix with object full copy of this matrix.
+     *
+     * @param canBeSliced if true matrix can be slides otherwise cannot be sliced.
+     * @return newly created copy of matrix.
+     */
+    public Matrix copy(boolean canBeSliced) {
+        Matrix newMatrix = new FMatrix(getPureRows(), getPureColumns(), getPureDepth(), matrix, true, isScalar(), isTransposed(), canBeSliced);
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Redimensions matrix assuming new dimensions are matching.
+     *
+     * @param newRows new row size
+     * @param newColumns new column size
+     * @param newDepth new depth size.
+     * @return redimensioned matrix.
+     * @throws MatrixException throws exception if redimensioning fails.
+     */
+    public Matrix redimension(int newRows, int newColumns, int newDepth) throws MatrixException {
+        return redimension(newRows, newColumns, newDepth, true);
+    }
+
+    /**
+     * Redimensions matrix assuming new dimensions are matching.
+     *
+     * @param newRows new row size
+     * @param newColumns new column size
+     * @param newDepth new depth size.
+     * @param copyData if true matrix data is copied and if false referenced.
+     * @return redimensioned matrix.
+     * @throws MatrixException throws exception if redimensioning fails.
+     */
+    public Matrix redimension(int newRows, int newColumns, int newDepth, boolean copyData) throws MatrixException {
+        if (newRows * newColumns * newDepth != getPureRows() * getPureColumns() * getPureDepth()) throw new MatrixException("Matrix of size: " + getPureRows() + "x" + getPureColumns() + "x" + getPureDepth() + " cannot be redimensioned to size: " + newRows + "x" + newColumns + "x" + newDepth);
+        Matrix newMatrix = new FMatrix(newRows, newColumns, newDepth, matrix, copyData, isScalar(), isTransposed());
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Transposes matrix.
+     *
+     * @return transposed matrix.
+     */
+    protected Matrix applyTranspose() {
+        Matrix newMatrix = new FMatrix(getPureRows(), getPureColumns(), getPureDepth(), matrix, isScalar(), true);
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Checks if data of other matrix is equal to data of this matrix
+     *
+     * @param other matrix to be compared.
+     * @return true is data of this and other matrix are equal otherwise false.
+     * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
+     */
+    public boolean equals(Matrix other) throws MatrixException {
+        if (other instanceof FMatrix otherFMatrix) {
+            if (other.getRows() != getRows() || other.getColumns() != getColumns() || other.getDepth() != getDepth()) {
+                throw new MatrixException("Incompatible target matrix size: " + other.getRows() + "x" + other.getColumns() + "x" + other.getDepth());
+            }
+            return otherFMatrix.isEqual(matrix);
+        }
+        else return super.equals(other);
+    }
+
+    /**
+     * Checks if matrix data equals to data of this matrix.
+     *
+     * @return true if matrix data and data of this matrix are equal otherwise returns false.
+     */
+    private boolean isEqual(float[] matrixData) {
+        return Arrays.equals(matrix, matrixData);
+    }
+
+    /**
+     * Returns sub-matrices within matrix.
+     *
+     * @return sub-matrices within matrix.
+     */
+    public ArrayList<Matrix> getSubMatrices() {
+        ArrayList<Matrix> matrices = new ArrayList<>();
+        matrices.add(this);
+        return matrices;
+    }
+
+    /**
+     * Resets matrix leaving dimensions same.
+     *
+     */
+    public void resetMatrix() {
+        matrix = new float[getPureRows() * getPureColumns() * getPureDepth()];
+    }
+
+    /**
+     * Returns matrix data as 1-dimensional row column array.<br>
+     * Array is referenced and not copied. Use array offset and strides to locate values taking into account slicing and transposing.<br>
+     *
+     * @return matrix data.
+     */
+    public float[] getMatrixData() {
+        return matrix;
+    }
+
+    /**
+     * Sets value of matrix at specific row and column.
+     *
+     * @param row row of value to be set.
+     * @param column column of value to be set.
+     * @param depth depth of value to be set.
+     * @param value new value to be set.
+     */
+    public void setValue(int row, int column, int depth, double value) {
+        matrix[getArrayIndex(row, column, depth)] = (float)value;
+    }
+
+    /**
+     * Returns value of matrix at specific row and column.
+     *
+     * @param row row of value to be returned.
+     * @param column column of value to be returned.
+     * @param depth depth of value to be returned.
+     * @return value of row and column.
+     */
+    public double getValue(int row, int column, int depth) {
+        return matrix[getArrayIndex(row, column, depth)];
+    }
+
+    /**
+     * Returns matrix of given size (rows x columns)
+     *
+     * @param rows rows
+     * @param columns columns
+     * @param depth depth
+     * @return new matrix
+     * @throws MatrixException throws exception if new mask dimensions or mask type are not matching with this mask.
+     */
+    public Matrix getNewMatrix(int rows, int columns, int depth) throws MatrixException {
+        return new FMatrix(rows, columns, depth, getMask() != null ? getNewMask(rows, columns, depth) : null);
+    }
+
+    /**
+     * Returns constant matrix
+     *
+     * @param constant constant
+     * @return new matrix
+     */
+    public Matrix getNewMatrix(double constant) {
+        return new FMatrix(constant);
+    }
+
+    /**
+     * Returns new mask for this matrix.
+     *
+     * @return mask of this matrix.
+     */
+    protected Mask getNewMask() {
+        return new DMask(getTotalRows(), getTotalColumns(), getTotalDepth());
+    }
+
+    /**
+     * Returns new mask for this matrix.
+     *
+     * @param rows rows
+     * @param columns columns
+     * @param depth depth
+     * @return mask of this matrix.
+     */
+    protected Mask getNewMask(int rows, int columns, int depth) {
+        return new DMask(rows, columns, depth);
+    }
+
+}
@@ -24,10 +24,17 @@ public class JMatrix extends AbstractMatrix {
     private final ArrayList<Matrix> matrices = new ArrayList<>();
 
     /**
-     * Hash map of matrix position offsets.
+     * Sub-matrix at each row (joined vertically) or column (joined horizontally) position of joined matrix.<br>
+     * Allows constant time lookup of sub-matrix for element access.<br>
      *
      */
-    private final TreeMap<Integer, Matrix> matrixPositionOffsets = new TreeMap<>();
+    private final Matrix[] positionMatrices;
+
+    /**
+     * Start row (joined vertically) or start column (joined horizontally) of sub-matrix at each position of joined matrix.
+     *
+     */
+    private final int[] positionOffsets;
 
     /**
      * True when matrices are joined vertically otherwise indicates that matrices are joined horizontally.
@@ -70,6 +77,8 @@ public class JMatrix extends AbstractMatrix {
         this.matrices.addAll(matrices);
         this.joinedVertically = joinedVertically;
 
+        positionMatrices = new Matrix[joinedVertically ? getTotalRows() : getTotalColumns()];
+        positionOffsets = new int[positionMatrices.length];
         if (joinedVertically) {
             int totalRows = 0;
             int columns = -1;
@@ -77,7 +86,7 @@ public class JMatrix extends AbstractMatrix {
                 int matrixTotalColumns = matrix.getTotalColumns();
                 if (columns == -1) columns = matrixTotalColumns;
                 else if (columns != matrixTotalColumns) throw new MatrixException("Number of columns in matrices are not matching.");
-                matrixPositionOffsets.put(totalRows, matrix);
+                setPositions(matrix, totalRows, matrix.getTotalRows());
                 totalRows += matrix.getTotalRows();
             }
         }
@@ -88,12 +97,26 @@ public class JMatrix extends AbstractMatrix {
                 int matrixTotalRows = matrix.getTotalRows();
                 if (rows == -1) rows = matrixTotalRows;
                 else if (rows != matrixTotalRows) throw new MatrixException("Number of rows in matrices are not matching.");
-                matrixPositionOffsets.put(totalColumns, matrix);
+                setPositions(matrix, totalColumns, matrix.getTotalColumns());
                 totalColumns += matrix.getTotalColumns();
             }
         }
     }
 
+    /**
+     * Sets sub-matrix and its start position for positions covered by sub-matrix.
+     *
+     * @param matrix sub-matrix.
+     * @param startPosition start row or column of sub-matrix in joined matrix.
+     * @param size number of rows or columns of sub-matrix.
+     */
+    private void setPositions(Matrix matrix, int startPosition, int size) {
+        for (int position = startPosition; position < startPosition + size; position++) {
+            positionMatrices[position] = matrix;
+            positionOffsets[position] = startPosition;
+        }
+    }
+
     /**
      * Creates new matrix with object full copy of this matrix.
      *
@@ -186,6 +209,63 @@ public class JMatrix extends AbstractMatrix {
         return new ArrayList<>(matrices);
     }
 
+    /**
+     * Returns dense copy of joined matrix.<br>
+     * Values are copied sub-matrix by sub-matrix and contiguous columns of dense sub-matrices are copied as blocks.<br>
+     *
+     * @return dense copy of joined matrix.
+     */
+    public Matrix getDenseMatrix() {
+        Matrix denseMatrix = MatrixPrecision.getPrecision(matrices.get(0)).getNewMatrix(getRows(), getColumns(), getDepth());
+        if (getRows() != getTotalRows() || getColumns() != getTotalColumns() || getDepth() != getTotalDepth()) {
+            for (int depth = 0; depth < getDepth(); depth++) {
+                for (int column = 0; column < getColumns(); column++) {
+                    for (int row = 0; row < getRows(); row++) denseMatrix.setValue(row, column, depth, getValue(row, column, depth));
+                }
+            }
+            return denseMatrix;
+        }
+        int startPosition = 0;
+        for (Matrix matrix : matrices) {
+            if (joinedVertically) copySubMatrix(matrix, denseMatrix, startPosition, 0);
+            else copySubMatrix(matrix, denseMatrix, 0, startPosition);
+            startPosition += joinedVertically ? matrix.getRows() : matrix.getColumns();
+        }
+        return denseMatrix;
+    }
+
+    /**
+     * Copies sub-matrix to dense matrix starting from given row and column.
+     *
+     * @param subMatrix sub-matrix.
+     * @param denseMatrix dense matrix.
+     * @param startRow start row of sub-matrix in dense matrix.
+     * @param startColumn start column of sub-matrix in dense matrix.
+     */
+    private void copySubMatrix(Matrix subMatrix, Matrix denseMatrix, int startRow, int startColumn) {
+        int rows = subMatrix.getRows();
+        int columns = subMatrix.getColumns();
+        int totalDepth = subMatrix.getDepth();
+        if (subMatrix instanceof DMatrix subDMatrix && denseMatrix instanceof DMatrix denseDMatrix && !subMatrix.isScalar() && subDMatrix.getArrayRowStride() == 1) {
+            double[] subData = subDMatrix.getMatrixData();
+            double[] denseData = denseDMatrix.getMatrixData();
+            for (int depth = 0; depth < totalDepth; depth++) {
+                for (int column = 0; column < columns; column++) {
+                    int subIndex = subDMatrix.getArrayOffset() + depth * subDMatrix.getArrayDepthStride() + column * subDMatrix.getArrayColumnStride();
+                    int denseIndex = denseDMatrix.getArrayOffset() + depth * denseDMatrix.getArrayDepthStride() + (startColumn + column) * denseDMatrix.getArrayColumnStride() + startRow;
+                    System.arraycopy(subData, subIndex, denseData, denseIndex, rows);
+                }
+            }
+        }
+        else {
+            for (int depth = 0; depth < totalDepth; depth++) {
+                for (int column = 0; column < columns; column++) {
+                    for (int row = 0; row < rows; row++) denseMatrix.setValue(startRow + row, startColumn + column, depth, subMatrix.getValue(row, column, depth));
+                }
+            }
+        }
+    }
+
     /**
      * Resets matrix leaving dimensions same.
      *
@@ -214,16 +294,8 @@ public class JMatrix extends AbstractMatrix {
     public void setValue(int row, int column, int depth, double value) {
         int realRow = getSliceStartRow() + row;
         int realColumn = getSliceStartColumn() + column;
-        if (joinedVertically) {
-            int startRow = matrixPositionOffsets.floorKey(realRow);
-            Matrix matrix = matrixPositionOffsets.get(startRow);
-            matrix.setValue(realRow - startRow, realColumn, depth, value);
-        }
-        else {
-            int startColumn = matrixPositionOffsets.floorKey(realColumn);
-            Matrix matrix = matrixPositionOffsets.get(startColumn);
-            matrix.setValue(realRow, realColumn - startColumn, depth, value);
-        }
+        if (joinedVertically) positionMatrices[realRow].setValue(realRow - positionOffsets[realRow], realColumn, depth, value);
+        else positionMatrices[realColumn].setValue(realRow, realColumn - positionOffsets[realColumn], depth, value);
     }
 
     /**
@@ -237,16 +309,8 @@ public class JMatrix extends AbstractMatrix {
     public double getValue(int row, int column, int depth) {
         int realRow = getSliceStartRow() + row;
         int realColumn = getSliceStartColumn() + column;
-        if (joinedVertically) {
-            int startRow = matrixPositionOffsets.floorKey(realRow);
-            Matrix matrix = matrixPositionOffsets.get(startRow);
-            return matrix.getValue(realRow - startRow, realColumn, depth);
-        }
-        else {
-            int startColumn = matrixPositionOffsets.floorKey(realColumn);
-            Matrix matrix = matrixPositionOffsets.get(startColumn);
-            return matrix.getValue(realRow, realColumn - startColumn, depth);
-        }
+        if (joinedVertically) return positionMatrices[realRow].getValue(realRow - positionOffsets[realRow], realColumn, depth);
+        else return positionMatrices[realColumn].getValue(realRow, realColumn - positionOffsets[realColumn], depth);
     }
 
     /**
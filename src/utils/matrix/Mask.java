@@ -128,6 +128,57 @@ public interface Mask {
      */
     boolean getMask(int row, int column, int depth);
 
+    /**
+     * Returns first unmasked row starting from given row at specific column and depth.
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @return first unmasked row or number of rows in mask if all remaining rows are masked.
+     */
+    int getNextUnmaskedRow(int row, int column, int depth);
+
+    /**
+     * Returns first masked row starting from given row at specific column and depth.
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @return first masked row or number of rows in mask if none of remaining rows are masked.
+     */
+    int getNextMaskedRow(int row, int column, int depth);
+
+    /**
+     * Resets values at masked entries to zero. Values are expected to be stored contiguously in column major order starting from given offset.
+     *
+     * @param values values.
+     * @param offset offset of first value.
+     */
+    void resetMaskedValues(double[] values, int offset);
+
+    /**
+     * Returns number of masked entries.
+     *
+     * @return number of masked entries.
+     */
+    int getMaskedCount();
+
+    /**
+     * Applies logical and with other mask. Entry remains masked only if it is masked in both masks.
+     *
+     * @param other other mask.
+     * @throws MatrixException throws exception if dimensions of masks are not matching.
+     */
+    void and(Mask other) throws MatrixException;
+
+    /**
+     * Applies logical or with other mask. Entry becomes masked if it is masked in either mask.
+     *
+     * @param other other mask.
+     * @throws MatrixException throws exception if dimensions of masks are not matching.
+     */
+    void or(Mask other) throws MatrixException;
+
     /**
      * Sets masking for this mask with given bernoulli probability.
      *
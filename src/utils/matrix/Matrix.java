@@ -9,7 +9,6 @@ import utils.configurable.DynamicParamException;
 import utils.procedure.ProcedureFactory;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 /**
  * Interface that defines matrix with extensive set of matrix operations and masking for matrix.<br>
@@ -574,6 +573,47 @@ public interface Matrix {
      */
     void multiplyByValue(int row, int column, int depth, double value);
 
+    /**
+     * Adds other matrix scaled by alpha to this matrix in place (this = this + alpha * other).<br>
+     * Masked elements of this matrix are left unchanged.<br>
+     *
+     * @param alpha scale of other matrix.
+     * @param other other matrix.
+     * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
+     */
+    void axpyBy(double alpha, Matrix other) throws MatrixException;
+
+    /**
+     * Adds element wise product of first and second matrix to this matrix in place (this = this + first * second).<br>
+     * Masked elements of this matrix are left unchanged.<br>
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @throws MatrixException throws MatrixException if this, first and second matrix are not of equal dimensions.
+     */
+    void fmaBy(Matrix first, Matrix second) throws MatrixException;
+
+    /**
+     * Interpolates this matrix linearly towards other matrix in place (this = this + weight * (other - this)).<br>
+     * Masked elements of this matrix are left unchanged.<br>
+     *
+     * @param other other matrix.
+     * @param weight interpolation weight where 0 keeps this matrix and 1 replaces it with other matrix.
+     * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
+     */
+    void lerpBy(Matrix other, double weight) throws MatrixException;
+
+    /**
+     * Adds scaled element wise product of first and second matrix to this matrix in place (this = this + scale * first * second).<br>
+     * Masked elements of this matrix are left unchanged.<br>
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @param scale scale of product.
+     * @throws MatrixException throws MatrixException if this, first and second matrix are not of equal dimensions.
+     */
+    void addProductBy(Matrix first, Matrix second, double scale) throws MatrixException;
+
     /**
      * Divides this matrix element wise with other matrix.<br>
      * Applies masking element wise if this or other matrix is masked.<br>
@@ -1263,71 +1303,92 @@ public interface Matrix {
     Matrix crosscorrelate(Matrix filter) throws MatrixException;
 
     /**
-     * Calculates Winograd convolution between this matrix and filter matrix.
+     * Calculates convolution between this matrix and filter matrix with fast Fourier transform.
+     *
+     * @param filter filter matrix.
+     * @return calculated value of convolution.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    Matrix fftConvolve(Matrix filter) throws MatrixException;
+
+    /**
+     * Calculates crosscorrelation between this matrix and filter matrix with fast Fourier transform.
+     *
+     * @param filter filter matrix.
+     * @return calculated value of crosscorrelation.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    Matrix fftCrosscorrelate(Matrix filter) throws MatrixException;
+
+    /**
+     * Calculates Winograd convolution between this matrix and filter matrix using F(4x4, 3x3) transform.
      *
      * @param filter filter matrix.
      * @return calculated value of Winograd convolution.
      * @throws MatrixException throws exception if matrix operation fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    Matrix winogradConvolve(Matrix filter) throws MatrixException, DynamicParamException;
+    Matrix winogradConvolve(Matrix filter) throws MatrixException;
 
     /**
-     * Calculates convolution between this matrix and filter matrix.
+     * Calculates Winograd convolution between this matrix and filter matrix.
      *
      * @param filter filter matrix.
-     * @param A A matrix
-     * @param AT A transposed matrix
-     * @param C C matrix
-     * @param CT C transposed matrix
-     * @param G G matrix
-     * @param GT G transposed matrix
-     * @return calculated value of convolution.
+     * @param tileSize output tile size of Winograd transform (2 or 4).
+     * @return calculated value of Winograd convolution.
      * @throws MatrixException throws exception if matrix operation fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    Matrix winogradConvolve(Matrix filter, Matrix A, Matrix AT, Matrix C, Matrix CT, Matrix G, Matrix GT) throws MatrixException, DynamicParamException;
+    Matrix winogradConvolve(Matrix filter, int tileSize) throws MatrixException;
 
     /**
-     * Calculates convolution between this matrix and filter matrix.
+     * Calculates max pooling operation for this matrix.
      *
-     * @param preprocessedFilter preprocessed filter matrix.
-     * @param A A matrix
-     * @param AT A transposed matrix
-     * @param C C matrix
-     * @param CT C transposed matrix
-     * @return calculated value of convolution.
+     * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    Matrix winogradConvolve(Matrix preprocessedFilter, Matrix A, Matrix AT, Matrix C, Matrix CT) throws MatrixException, DynamicParamException;
+    Matrix maxPool() throws MatrixException;
 
     /**
      * Calculates max pooling operation for this matrix.
      *
-     * @param maxPos maximum positions for each row and col value.
+     * @param maxPos buffer for maximum positions. Stores input row and column for each result row, column and depth.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    Matrix maxPool(int[] maxPos) throws MatrixException;
+
+    /**
+     * Calculates random pooling operation for this matrix.
+     *
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    Matrix maxPool(HashMap<Integer, Integer> maxPos) throws MatrixException;
+    Matrix randomPool() throws MatrixException;
 
     /**
      * Calculates random pooling operation for this matrix.
      *
-     * @param inputPos input positions for each row and col value.
+     * @param inputPos buffer for input positions. Stores input row and column for each result row, column and depth.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    Matrix randomPool(int[] inputPos) throws MatrixException;
+
+    /**
+     * Calculates cyclic pooling operation for this matrix.
+     *
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    Matrix randomPool(HashMap<Integer, Integer> inputPos) throws MatrixException;
+    Matrix cyclicPool() throws MatrixException;
 
     /**
      * Calculates cyclic pooling operation for this matrix.
      *
-     * @param inputPos input positions for each row and col value.
+     * @param inputPos buffer for input positions. Stores input row and column for each result row, column and depth.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    Matrix cyclicPool(HashMap<Integer, Integer> inputPos) throws MatrixException;
+    Matrix cyclicPool(int[] inputPos) throws MatrixException;
 
     /**
      * Calculates average pooling operation for this matrix.
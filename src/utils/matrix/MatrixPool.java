@@ -0,0 +1,336 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix;
+
+import java.util.*;
+
+/**
+ * Implements pool recycling data arrays of dense matrices (DMatrix and FMatrix) used as temporary results.<br>
+ * Dense matrices allocate their data from pool that is active in calling thread. Free arrays are kept per array length so that matrices of same shape reuse same arrays.<br>
+ * Pool is meant to be active only while expressions are calculated so that only their results and gradients are allocated from pool.<br>
+ * Array returns to pool only when matrix holding it is explicitly released. Released matrix and matrices sharing its data must not be accessed after release.<br>
+ * Arrays that are never released are not recycled and are garbage collected as usual.<br>
+ * Pool collects metrics of allocation requests, hits (requests served from pool) and bytes saved by hits.<br>
+ *
+ */
+public class MatrixPool {
+
+    /**
+     * If true pooling is enabled.
+     *
+     */
+    private static volatile boolean enabled = true;
+
+    /**
+     * Pool active in current thread.
+     *
+     */
+    private static final ThreadLocal<MatrixPool> activePool = new ThreadLocal<>();
+
+    /**
+     * Free double arrays by array length.
+     *
+     */
+    private final HashMap<Integer, ArrayDeque<double[]>> freeDoubleArrays = new HashMap<>();
+
+    /**
+     * Free float arrays by array length.
+     *
+     */
+    private final HashMap<Integer, ArrayDeque<float[]>> freeFloatArrays = new HashMap<>();
+
+    /**
+     * Arrays allocated from pool and not released yet. Arrays are weakly referenced so that arrays that are never released can be garbage collected.
+     *
+     */
+    private final WeakHashMap<Object, Boolean> allocatedArrays = new WeakHashMap<>();
+
+    /**
+     * Number of allocation requests.
+     *
+     */
+    private long requestCount = 0;
+
+    /**
+     * Number of allocation requests served from pool.
+     *
+     */
+    private long hitCount = 0;
+
+    /**
+     * Number of bytes served from pool instead of new allocation.
+     *
+     */
+    private long bytesSaved = 0;
+
+    /**
+     * Number of bytes returned to pool.
+     *
+     */
+    private long bytesReleased = 0;
+
+    /**
+     * Default constructor for matrix pool.
+     *
+     */
+    public MatrixPool() {
+    }
+
+    /**
+     * Sets if pooling is enabled.
+     *
+     * @param enabled if true pooling is enabled otherwise dense matrices always allocate new arrays.
+     */
+    public static void setEnabled(boolean enabled) {
+        MatrixPool.enabled = enabled;
+    }
+
+    /**
+     * Returns true if pooling is enabled.
+     *
+     * @return true if pooling is enabled otherwise false.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns pool active in current thread.
+     *
+     * @return pool active in current thread or null if no pool is active.
+     */
+    public static MatrixPool getActive() {
+        return activePool.get();
+    }
+
+    /**
+     * Sets pool active in current thread.
+     *
+     * @param pool pool to be activated or null if no pool is active.
+     * @return previously active pool.
+     */
+    public static MatrixPool setActive(MatrixPool pool) {
+        MatrixPool previousPool = activePool.get();
+        if (pool == null) activePool.remove();
+        else activePool.set(pool);
+        return previousPool;
+    }
+
+    /**
+     * Allocates zero initialized double array from pool active in current thread or as new array if no pool is active.
+     *
+     * @param size array length.
+     * @return double array.
+     */
+    static double[] allocateDouble(int size) {
+        MatrixPool pool = enabled ? activePool.get() : null;
+        return pool != null ? pool.getDoubleArray(size) : new double[size];
+    }
+
+    /**
+     * Allocates zero initialized float array from pool active in current thread or as new array if no pool is active.
+     *
+     * @param size array length.
+     * @return float array.
+     */
+    static float[] allocateFloat(int size) {
+        MatrixPool pool = enabled ? activePool.get() : null;
+        return pool != null ? pool.getFloatArray(size) : new float[size];
+    }
+
+    /**
+     * Returns zero initialized double array from pool.
+     *
+     * @param size array length.
+     * @return double array.
+     */
+    private synchronized double[] getDoubleArray(int size) {
+        requestCount++;
+        ArrayDeque<double[]> freeArrays = freeDoubleArrays.get(size);
+        double[] array = freeArrays != null ? freeArrays.pollLast() : null;
+        if (array != null) {
+            hitCount++;
+            bytesSaved += (long)size * Double.BYTES;
+            Arrays.fill(array, 0);
+        }
+        else array = new double[size];
+        allocatedArrays.put(array, Boolean.TRUE);
+        return array;
+    }
+
+    /**
+     * Returns zero initialized float array from pool.
+     *
+     * @param size array length.
+     * @return float array.
+     */
+    private synchronized float[] getFloatArray(int size) {
+        requestCount++;
+        ArrayDeque<float[]> freeArrays = freeFloatArrays.get(size);
+        float[] array = freeArrays != null ? freeArrays.pollLast() : null;
+        if (array != null) {
+            hitCount++;
+            bytesSaved += (long)size * Float.BYTES;
+            Arrays.fill(array, 0);
+        }
+        else array = new float[size];
+        allocatedArrays.put(array, Boolean.TRUE);
+        return array;
+    }
+
+    /**
+     * Returns data array of matrix back to pool.<br>
+     * Matrix is returned only if its data array is allocated from pool and not released yet. Matrix and other matrices sharing its data must not be accessed after release.<br>
+     *
+     * @param matrix matrix.
+     * @return true if data array of matrix was returned to pool otherwise false.
+     */
+    public synchronized boolean release(Matrix matrix) {
+        Object array = getData(matrix);
+        if (array == null || allocatedArrays.remove(array) == null) return false;
+        addFreeArray(array);
+        return true;
+    }
+
+    /**
+     * Returns data arrays of matrices back to pool except arrays shared with retained matrices.<br>
+     * Arrays are returned only if they are allocated from pool and not released yet. Released matrices must not be accessed after release.<br>
+     *
+     * @param releasedMatrices matrices to be released.
+     * @param retainedMatrices matrices that remain in use and whose data must be kept.
+     */
+    public synchronized void release(Collection<Matrix> releasedMatrices, Collection<Matrix> retainedMatrices) {
+        Set<Object> retainedArrays = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Matrix retainedMatrix : retainedMatrices) {
+            Object array = getData(retainedMatrix);
+            if (array != null) retainedArrays.add(array);
+        }
+        for (Matrix releasedMatrix : releasedMatrices) {
+            Object array = getData(releasedMatrix);
+            if (array != null && !retainedArrays.contains(array) && allocatedArrays.remove(array) != null) addFreeArray(array);
+        }
+    }
+
+    /**
+     * Adds array to free arrays of pool.
+     *
+     * @param array double or float array.
+     */
+    private void addFreeArray(Object array) {
+        if (array instanceof double[] doubleArray) {
+            freeDoubleArrays.computeIfAbsent(doubleArray.length, size -> new ArrayDeque<>()).add(doubleArray);
+            bytesReleased += (long)doubleArray.length * Double.BYTES;
+        }
+        else if (array instanceof float[] floatArray) {
+            freeFloatArrays.computeIfAbsent(floatArray.length, size -> new ArrayDeque<>()).add(floatArray);
+            bytesReleased += (long)floatArray.length * Float.BYTES;
+        }
+    }
+
+    /**
+     * Checks if matrices share same data array.
+     *
+     * @param matrix matrix.
+     * @param otherMatrix other matrix.
+     * @return true if matrices are same or share same data array otherwise false.
+     */
+    public static boolean isSharingData(Matrix matrix, Matrix otherMatrix) {
+        if (matrix == otherMatrix) return true;
+        Object array = getData(matrix);
+        return array != null && array == getData(otherMatrix);
+    }
+
+    /**
+     * Returns data array of matrix.
+     *
+     * @param matrix matrix.
+     * @return data array of matrix or null if matrix is not pooled type.
+     */
+    private static Object getData(Matrix matrix) {
+        if (matrix instanceof DMatrix dMatrix) return dMatrix.getMatrixData();
+        if (matrix instanceof FMatrix fMatrix) return fMatrix.getMatrixData();
+        return null;
+    }
+
+    /**
+     * Clears free arrays of pool. Metrics are kept.
+     *
+     */
+    public synchronized void clear() {
+        freeDoubleArrays.clear();
+        freeFloatArrays.clear();
+        allocatedArrays.clear();
+    }
+
+    /**
+     * Returns number of allocation requests.
+     *
+     * @return number of allocation requests.
+     */
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns number of allocation requests served from pool.
+     *
+     * @return number of allocation requests served from pool.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns share of allocation requests served from pool.
+     *
+     * @return share of allocation requests served from pool between 0 and 1.
+     */
+    public synchronized double getHitRate() {
+        return requestCount > 0 ? (double)hitCount / (double)requestCount : 0;
+    }
+
+    /**
+     * Returns number of bytes served from pool instead of new allocation.
+     *
+     * @return number of bytes served from pool.
+     */
+    public synchronized long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    /**
+     * Returns number of bytes returned to pool.
+     *
+     * @return number of bytes returned to pool.
+     */
+    public synchronized long getBytesReleased() {
+        return bytesReleased;
+    }
+
+    /**
+     * Returns number of bytes held by free arrays of pool.
+     *
+     * @return number of bytes held by free arrays of pool.
+     */
+    public synchronized long getFreeBytes() {
+        long freeBytes = 0;
+        for (ArrayDeque<double[]> freeArrays : freeDoubleArrays.values()) for (double[] array : freeArrays) freeBytes += (long)array.length * Double.BYTES;
+        for (ArrayDeque<float[]> freeArrays : freeFloatArrays.values()) for (float[] array : freeArrays) freeBytes += (long)array.length * Float.BYTES;
+        return freeBytes;
+    }
+
+    /**
+     * Resets metrics of pool.
+     *
+     */
+    public synchronized void resetMetrics() {
+        requestCount = 0;
+        hitCount = 0;
+        bytesSaved = 0;
+        bytesReleased = 0;
+    }
+
+}
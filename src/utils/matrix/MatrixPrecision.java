@@ -0,0 +1,154 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix;
+
+/**
+ * Defines floating point precision and storage of dense matrices.<br>
+ * Creates new dense matrices and converts existing matrices according to precision.<br>
+ *
+ */
+public enum MatrixPrecision {
+
+    /**
+     * Double precision (64-bit) dense matrix (DMatrix).
+     *
+     */
+    DOUBLE,
+
+    /**
+     * Single precision (32-bit) dense matrix (FMatrix).
+     *
+     */
+    FLOAT,
+
+    /**
+     * Double precision (64-bit) dense matrix stored in off-heap memory (OMatrix).<br>
+     *
+     */
+    OFF_HEAP;
+
+    /**
+     * Returns precision of matrix.<br>
+     * Matrices other than single precision or off-heap dense matrices are considered as double precision.<br>
+     *
+     * @param matrix matrix.
+     * @return precision of matrix.
+     */
+    public static MatrixPrecision getPrecision(Matrix matrix) {
+        if (matrix instanceof FMatrix) return FLOAT;
+        if (matrix instanceof OMatrix) return OFF_HEAP;
+        return DOUBLE;
+    }
+
+    /**
+     * Returns new dense matrix.
+     *
+     * @param rows number of rows in matrix.
+     * @param columns number of columns in matrix.
+     * @param depth depth of matrix.
+     * @return new matrix.
+     */
+    public Matrix getNewMatrix(int rows, int columns, int depth) {
+        return switch (this) {
+            case FLOAT -> new FMatrix(rows, columns, depth);
+            case OFF_HEAP -> new OMatrix(rows, columns, depth);
+            default -> new DMatrix(rows, columns, depth);
+        };
+    }
+
+    /**
+     * Returns new dense matrix.
+     *
+     * @param rows number of rows in matrix.
+     * @param columns number of columns in matrix.
+     * @param depth depth of matrix.
+     * @param initialization type of initialization.
+     * @return new matrix.
+     */
+    public Matrix getNewMatrix(int rows, int columns, int depth, Initialization initialization) {
+        return switch (this) {
+            case FLOAT -> new FMatrix(rows, columns, depth, initialization);
+            case OFF_HEAP -> new OMatrix(rows, columns, depth, initialization);
+            default -> new DMatrix(rows, columns, depth, initialization);
+        };
+    }
+
+    /**
+     * Returns new dense matrix.
+     *
+     * @param rows number of rows in matrix.
+     * @param columns number of columns in matrix.
+     * @param depth depth of matrix.
+     * @param initialization type of initialization.
+     * @param inputs applied in convolutional initialization defined as channels * filter size * filter size.
+     * @param outputs applied in convolutional initialization defined as filters * filter size * filter size.
+     * @return new matrix.
+     */
+    public Matrix getNewMatrix(int rows, int columns, int depth, Initialization initialization, int inputs, int outputs) {
+        return switch (this) {
+            case FLOAT -> new FMatrix(rows, columns, depth, initialization, inputs, outputs);
+            case OFF_HEAP -> new OMatrix(rows, columns, depth, initialization, inputs, outputs);
+            default -> new DMatrix(rows, columns, depth, initialization, inputs, outputs);
+        };
+    }
+
+    /**
+     * Returns new dense matrix.
+     *
+     * @param rows number of rows in matrix.
+     * @param columns number of columns in matrix.
+     * @param depth depth of matrix.
+     * @param initializer initializer.
+     * @return new matrix.
+     */
+    public Matrix getNewMatrix(int rows, int columns, int depth, Matrix.Initializer initializer) {
+        return switch (this) {
+            case FLOAT -> new FMatrix(rows, columns, depth, initializer);
+            case OFF_HEAP -> new OMatrix(rows, columns, depth, initializer);
+            default -> new DMatrix(rows, columns, depth, initializer);
+        };
+    }
+
+    /**
+     * Returns new scalar matrix.
+     *
+     * @param scalarValue value of matrix.
+     * @return new matrix.
+     */
+    public Matrix getNewMatrix(double scalarValue) {
+        return switch (this) {
+            case FLOAT -> new FMatrix(scalarValue);
+            case OFF_HEAP -> new OMatrix(scalarValue);
+            default -> new DMatrix(scalarValue);
+        };
+    }
+
+    /**
+     * Converts dense matrix to this precision.<br>
+     * Matrix is returned as such if it is already of this precision, is not dense matrix or is masked.<br>
+     *
+     * @param matrix matrix to be converted.
+     * @return converted matrix.
+     */
+    public Matrix convert(Matrix matrix) {
+        if (getPrecision(matrix) == this || !(matrix instanceof DMatrix || matrix instanceof FMatrix || matrix instanceof OMatrix) || matrix.getMask() != null) return matrix;
+        if (matrix.isScalar()) return getNewMatrix(matrix.getValue(0, 0, 0));
+        int rows = matrix.getRows();
+        int columns = matrix.getColumns();
+        int totalDepth = matrix.getDepth();
+        Matrix convertedMatrix = getNewMatrix(rows, columns, totalDepth);
+        for (int depth = 0; depth < totalDepth; depth++) {
+            for (int column = 0; column < columns; column++) {
+                for (int row = 0; row < rows; row++) {
+                    convertedMatrix.setValue(row, column, depth, matrix.getValue(row, column, depth));
+                }
+            }
+        }
+        convertedMatrix.setName(matrix.getName());
+        return convertedMatrix;
+    }
+
+}
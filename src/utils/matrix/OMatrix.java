@@ -0,0 +1,404 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.util.ArrayList;
+
+/**
+ * Implements off-heap dense matrix.<br>
+ * Off-heap dense matrix stores double precision values in direct buffer outside of garbage collected heap using same layout as dense matrix.<br>
+ * Memory is allocated from off-heap arena active in calling thread or if no arena is active it is released by garbage collector once matrix becomes unreachable.<br>
+ * Matrix is serialized by value and deserialized matrix is allocated outside of any arena.<br>
+ *
+ */
+public class OMatrix extends AbstractMatrix {
+
+    @Serial
+    private static final long serialVersionUID = -6040353186423946392L;
+
+    /**
+     * Defines matrix data structure using 1-dimensional row column off-heap memory segment.
+     *
+     */
+    private transient OffHeapArena.Segment matrix;
+
+    /**
+     * Constructor for scalar matrix (size 1x1x1).
+     *
+     * @param scalarValue value for matrix.
+     */
+    public OMatrix(double scalarValue) {
+        super(1, 1, 1,true);
+        matrix = OffHeapArena.allocate(1);
+        matrix.set(0, scalarValue);
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param mask defines mask of matrix.
+     * @throws MatrixException throws exception if new mask dimensions or mask type are not matching with this mask.
+     */
+    public OMatrix(int rows, int columns, int depth, Mask mask) throws MatrixException {
+        this(rows, columns, depth);
+        if (mask != null) setMask(mask);
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     */
+    public OMatrix(int rows, int columns, int depth) {
+        super(rows, columns, depth);
+        matrix = OffHeapArena.allocate((long)rows * columns * depth);
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     */
+    public OMatrix(int rows, int columns, int depth, boolean isScalar) {
+        super(rows, columns, depth, isScalar);
+        matrix = OffHeapArena.allocate((long)rows * columns * depth);
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param initialization type of initialization defined in class Init.
+     * @param inputs applied in convolutional initialization defined as channels * filter size * filter size.
+     * @param outputs applied in convolutional initialization defined as filters * filter size * filter size.
+     */
+    public OMatrix(int rows, int columns, int depth, Initialization initialization, int inputs, int outputs) {
+        this(rows, columns, depth);
+        initialize(initialization, inputs, outputs);
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param initialization type of initialization defined in class Init.
+     */
+    public OMatrix(int rows, int columns, int depth, Initialization initialization) {
+        this(rows, columns, depth);
+        initialize(initialization);
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param initializer initializer.
+     */
+    public OMatrix(int rows, int columns, int depth, Matrix.Initializer initializer) {
+        this(rows, columns, depth);
+        initialize(initializer);
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param data matrix data copied to off-heap memory.
+     */
+    public OMatrix(int rows, int columns, int depth, double[] data) {
+        this(rows, columns, depth);
+        matrix.copyFrom(data);
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param data matrix data.
+     * @param copyData if true matrix data is copied and if false referenced.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param isTransposed if true matrix is transposed and if false not transposed.
+     */
+    private OMatrix(int rows, int columns, int depth, OffHeapArena.Segment data, boolean copyData, boolean isScalar, boolean isTransposed) {
+        super(rows, columns, depth, isScalar, isTransposed);
+        matrix = copyData ? copyOf(data) : data;
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param data matrix data.
+     * @param copyData if true matrix data is copied and if false referenced.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param isTransposed if true matrix is transposed and if false not transposed.
+     * @param canBeSliced if true matrix can be slides otherwise cannot be sliced.
+     */
+    private OMatrix(int rows, int columns, int depth, OffHeapArena.Segment data, boolean copyData, boolean isScalar, boolean isTransposed, boolean canBeSliced) {
+        super(rows, columns, depth, isScalar, isTransposed, canBeSliced);
+        matrix = copyData ? copyOf(data) : data;
+    }
+
+    /**
+     * Constructor for off-heap dense matrix.
+     *
+     * @param other matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public OMatrix(Matrix other) throws MatrixException {
+        this(other.getRows(), other.getColumns(), other.getDepth());
+        setEqualTo(other);
+    }
+
+    /**
+     * Copies off-heap memory segment into newly allocated off-heap memory segment.
+     *
+     * @param data off-heap memory segment to be copied.
+     * @return copied off-heap memory segment.
+     */
+    private static OffHeapArena.Segment copyOf(OffHeapArena.Segment data) {
+        OffHeapArena.Segment newData = OffHeapArena.allocate(data.size());
+        newData.copyFrom(data);
+        return newData;
+    }
+
+    /**
+     * Creates new matrix with object full copy of this matrix.
+     *
+     * @return newly created copy of matrix.
+     */
+    public Matrix copy() {
+        Matrix newMatrix = new OMatrix(getPureRows(), getPureColumns(), getPureDepth(), matrix, true, isScalar(), isTransposed());
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Creates new matrix with object full copy of this matrix.
+     *
+     * @param canBeSliced if true matrix can be slides otherwise cannot be sliced.
+     * @return newly created copy of matrix.
+     */
+    public Matrix copy(boolean canBeSliced) {
+        Matrix newMatrix = new OMatrix(getPureRows(), getPureColumns(), getPureDepth(), matrix, true, isScalar(), isTransposed(), canBeSliced);
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Redimensions matrix assuming new dimensions are matching.
+     *
+     * @param newRows new row size
+     * @param newColumns new column size
+     * @param newDepth new depth size.
+     * @return redimensioned matrix.
+     * @throws MatrixException throws exception if redimensioning fails.
+     */
+    public Matrix redimension(int newRows, int newColumns, int newDepth) throws MatrixException {
+        return redimension(newRows, newColumns, newDepth, true);
+    }
+
+    /**
+     * Redimensions matrix assuming new dimensions are matching.
+     *
+     * @param newRows new row size
+     * @param newColumns new column size
+     * @param newDepth new depth size.
+     * @param copyData if true matrix data is copied and if false referenced.
+     * @return redimensioned matrix.
+     * @throws MatrixException throws exception if redimensioning fails.
+     */
+    public Matrix redimension(int newRows, int newColumns, int newDepth, boolean copyData) throws MatrixException {
+        if (newRows * newColumns * newDepth != getPureRows() * getPureColumns() * getPureDepth()) throw new MatrixException("Matrix of size: " + getPureRows() + "x" + getPureColumns() + "x" + getPureDepth() + " cannot be redimensioned to size: " + newRows + "x" + newColumns + "x" + newDepth);
+        Matrix newMatrix = new OMatrix(newRows, newColumns, newDepth, matrix, copyData, isScalar(), isTransposed());
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Transposes matrix.
+     *
+     * @return transposed matrix.
+     */
+    protected Matrix applyTranspose() {
+        Matrix newMatrix = new OMatrix(getPureRows(), getPureColumns(), getPureDepth(), matrix, false, isScalar(), true);
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Checks if data of other matrix is equal to data of this matrix
+     *
+     * @param other matrix to be compared.
+     * @return true is data of this and other matrix are equal otherwise false.
+     * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
+     */
+    public boolean equals(Matrix other) throws MatrixException {
+        if (other instanceof OMatrix otherOMatrix) {
+            if (other.getRows() != getRows() || other.getColumns() != getColumns() || other.getDepth() != getDepth()) {
+                throw new MatrixException("Incompatible target matrix size: " + other.getRows() + "x" + other.getColumns() + "x" + other.getDepth());
+            }
+            return otherOMatrix.isEqual(matrix);
+        }
+        else return super.equals(other);
+    }
+
+    /**
+     * Checks if matrix data equals to data of this matrix.
+     *
+     * @return true if matrix data and data of this matrix are equal otherwise returns false.
+     */
+    private boolean isEqual(OffHeapArena.Segment matrixData) {
+        return matrix.contentEquals(matrixData);
+    }
+
+    /**
+     * Returns sub-matrices within matrix.
+     *
+     * @return sub-matrices within matrix.
+     */
+    public ArrayList<Matrix> getSubMatrices() {
+        ArrayList<Matrix> matrices = new ArrayList<>();
+        matrices.add(this);
+        return matrices;
+    }
+
+    /**
+     * Resets matrix leaving dimensions same.
+     *
+     */
+    public void resetMatrix() {
+        matrix = OffHeapArena.allocate((long)getPureRows() * getPureColumns() * getPureDepth());
+    }
+
+    /**
+     * Sets value of matrix at specific row and column.
+     *
+     * @param row row of value to be set.
+     * @param column column of value to be set.
+     * @param depth depth of value to be set.
+     * @param value new value to be set.
+     */
+    public void setValue(int row, int column, int depth, double value) {
+        matrix.set(getArrayIndex(row, column, depth), value);
+    }
+
+    /**
+     * Returns value of matrix at specific row and column.
+     *
+     * @param row row of value to be returned.
+     * @param column column of value to be returned.
+     * @param depth depth of value to be returned.
+     * @return value of row and column.
+     */
+    public double getValue(int row, int column, int depth) {
+        return matrix.get(getArrayIndex(row, column, depth));
+    }
+
+    /**
+     * Returns matrix of given size (rows x columns)
+     *
+     * @param rows rows
+     * @param columns columns
+     * @param depth depth
+     * @return new matrix
+     * @throws MatrixException throws exception if new mask dimensions or mask type are not matching with this mask.
+     */
+    public Matrix getNewMatrix(int rows, int columns, int depth) throws MatrixException {
+        return new OMatrix(rows, columns, depth, getMask() != null ? getNewMask(rows, columns, depth) : null);
+    }
+
+    /**
+     * Returns constant matrix
+     *
+     * @param constant constant
+     * @return new matrix
+     */
+    public Matrix getNewMatrix(double constant) {
+        return new OMatrix(constant);
+    }
+
+    /**
+     * Returns new mask for this matrix.
+     *
+     * @return mask of this matrix.
+     */
+    protected Mask getNewMask() {
+        return new DMask(getTotalRows(), getTotalColumns(), getTotalDepth());
+    }
+
+    /**
+     * Returns new mask for this matrix.
+     *
+     * @param rows rows
+     * @param columns columns
+     * @param depth depth
+     * @return mask of this matrix.
+     */
+    protected Mask getNewMask(int rows, int columns, int depth) {
+        return new DMask(rows, columns, depth);
+    }
+
+    /**
+     * Writes matrix data as values since off-heap memory segment is not serializable.
+     *
+     * @param objectOutputStream object output stream.
+     * @throws IOException throws exception if writing of matrix fails.
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream objectOutputStream) throws IOException {
+        objectOutputStream.defaultWriteObject();
+        long size = matrix.size();
+        objectOutputStream.writeLong(size);
+        for (int index = 0; index < size; index++) objectOutputStream.writeDouble(matrix.get(index));
+    }
+
+    /**
+     * Reads matrix data into off-heap memory segment allocated outside of any arena.
+     *
+     * @param objectInputStream object input stream.
+     * @throws IOException throws exception if reading of matrix fails.
+     * @throws ClassNotFoundException throws exception if class of serialized object cannot be found.
+     */
+    @Serial
+    private void readObject(ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+        objectInputStream.defaultReadObject();
+        long size = objectInputStream.readLong();
+        OffHeapArena previousArena = OffHeapArena.setActive(null);
+        try {
+            matrix = OffHeapArena.allocate(size);
+        }
+        finally {
+            OffHeapArena.setActive(previousArena);
+        }
+        for (int index = 0; index < size; index++) matrix.set(index, objectInputStream.readDouble());
+    }
+
+}
@@ -0,0 +1,329 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Implements arena owning off-heap memory of off-heap matrices (OMatrix).<br>
+ * Off-heap memory is allocated as direct byte buffers which are available on all supported Java versions without additional modules.<br>
+ * Arena keeps two generations of memory. Reset of arena releases previous generation and makes current generation previous one.<br>
+ * This way matrices produced by latest execution (such as layer outputs and dependencies carried over to next execution) remain valid until arena has been reset twice.<br>
+ * Buffers of released generation are recycled for allocations of next generation. Accessing matrix whose memory has been released throws IllegalStateException.<br>
+ * Arena does not free native memory itself. Direct buffers are returned to operating system by garbage collector once they become unreachable (after release or closing of arena).<br>
+ * Native memory in use is therefore bounded by -XX:MaxDirectMemorySize rather than by arena lifecycle.<br>
+ * <br>
+ * Off-heap matrices are allocated from arena that is active in calling thread. If no arena is active memory is managed by garbage collector and released when matrix becomes unreachable.<br>
+ *
+ */
+public class OffHeapArena {
+
+    /**
+     * Implements memory segment holding values of off-heap matrix.
+     *
+     */
+    static final class Segment {
+
+        /**
+         * Buffer holding values.
+         *
+         */
+        private final DoubleBuffer buffer;
+
+        /**
+         * Generation owning buffer or null if buffer is managed by garbage collector.
+         *
+         */
+        private final Generation generation;
+
+        /**
+         * Constructor for segment.
+         *
+         * @param buffer buffer holding values.
+         * @param generation generation owning buffer or null if buffer is managed by garbage collector.
+         */
+        private Segment(DoubleBuffer buffer, Generation generation) {
+            this.buffer = buffer;
+            this.generation = generation;
+        }
+
+        /**
+         * Checks that memory of segment has not been released.
+         *
+         * @throws IllegalStateException throws exception if memory of segment has been released.
+         */
+        private void checkAlive() {
+            if (generation != null && generation.released) throw new IllegalStateException("Off-heap memory has been released.");
+        }
+
+        /**
+         * Returns number of values in segment.
+         *
+         * @return number of values in segment.
+         */
+        int size() {
+            return buffer.capacity();
+        }
+
+        /**
+         * Returns value at given index.
+         *
+         * @param index index of value.
+         * @return value at given index.
+         */
+        double get(int index) {
+            checkAlive();
+            return buffer.get(index);
+        }
+
+        /**
+         * Sets value at given index.
+         *
+         * @param index index of value.
+         * @param value value to be set.
+         */
+        void set(int index, double value) {
+            checkAlive();
+            buffer.put(index, value);
+        }
+
+        /**
+         * Copies values of other segment into this segment.
+         *
+         * @param other other segment.
+         */
+        void copyFrom(Segment other) {
+            checkAlive();
+            other.checkAlive();
+            buffer.duplicate().put(other.buffer.duplicate());
+        }
+
+        /**
+         * Copies values of array into this segment.
+         *
+         * @param data array of values.
+         */
+        void copyFrom(double[] data) {
+            checkAlive();
+            buffer.duplicate().put(data, 0, buffer.capacity());
+        }
+
+        /**
+         * Checks if values of other segment are equal to values of this segment.
+         *
+         * @param other other segment.
+         * @return true if values are equal otherwise false.
+         */
+        boolean contentEquals(Segment other) {
+            checkAlive();
+            other.checkAlive();
+            return buffer.mismatch(other.buffer) == -1;
+        }
+
+    }
+
+    /**
+     * Implements generation of memory allocated by arena.
+     *
+     */
+    private static final class Generation {
+
+        /**
+         * Buffers allocated for generation.
+         *
+         */
+        private final ArrayList<DoubleBuffer> buffers = new ArrayList<>();
+
+        /**
+         * Number of bytes allocated for generation.
+         *
+         */
+        private long bytes = 0;
+
+        /**
+         * If true memory of generation has been released.
+         *
+         */
+        private boolean released = false;
+
+    }
+
+    /**
+     * Byte size of single matrix value.
+     *
+     */
+    private static final long valueSize = Double.BYTES;
+
+    /**
+     * Arena active in current thread.
+     *
+     */
+    private static final ThreadLocal<OffHeapArena> activeArena = new ThreadLocal<>();
+
+    /**
+     * Current generation of memory.
+     *
+     */
+    private Generation currentGeneration = null;
+
+    /**
+     * Previous generation of memory.
+     *
+     */
+    private Generation previousGeneration = null;
+
+    /**
+     * Buffers of released generation available for recycling by capacity.
+     *
+     */
+    private final HashMap<Integer, ArrayDeque<DoubleBuffer>> freeBuffers = new HashMap<>();
+
+    /**
+     * If true arena is closed.
+     *
+     */
+    private boolean closed = false;
+
+    /**
+     * Default constructor for off-heap arena.
+     *
+     */
+    public OffHeapArena() {
+    }
+
+    /**
+     * Returns arena active in current thread.
+     *
+     * @return arena active in current thread or null if no arena is active.
+     */
+    public static OffHeapArena getActive() {
+        return activeArena.get();
+    }
+
+    /**
+     * Sets arena active in current thread.
+     *
+     * @param arena arena to be activated or null if no arena is active.
+     * @return previously active arena.
+     */
+    public static OffHeapArena setActive(OffHeapArena arena) {
+        OffHeapArena previousArena = activeArena.get();
+        if (arena == null) activeArena.remove();
+        else activeArena.set(arena);
+        return previousArena;
+    }
+
+    /**
+     * Allocates zero initialized memory for matrix values from arena active in current thread.<br>
+     * If no arena is active memory is released by garbage collector once it becomes unreachable.<br>
+     *
+     * @param size number of values.
+     * @return memory segment.
+     * @throws IllegalStateException throws exception if active arena is closed.
+     * @throws ArithmeticException throws exception if size exceeds maximum size of direct buffer.
+     */
+    static Segment allocate(long size) {
+        OffHeapArena arena = activeArena.get();
+        return arena != null ? arena.allocateSegment(size) : new Segment(allocateBuffer(size), null);
+    }
+
+    /**
+     * Allocates zero initialized direct buffer in native byte order.
+     *
+     * @param size number of values.
+     * @return direct buffer.
+     * @throws ArithmeticException throws exception if size exceeds maximum size of direct buffer.
+     */
+    private static DoubleBuffer allocateBuffer(long size) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(size * valueSize)).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+
+    /**
+     * Allocates zero initialized memory for matrix values from current generation.<br>
+     * Buffer of released generation is recycled if one with matching size is available.<br>
+     *
+     * @param size number of values.
+     * @return memory segment.
+     * @throws IllegalStateException throws exception if arena is closed.
+     */
+    private synchronized Segment allocateSegment(long size) {
+        if (closed) throw new IllegalStateException("Off-heap arena is closed.");
+        if (currentGeneration == null) currentGeneration = new Generation();
+        ArrayDeque<DoubleBuffer> buffers = freeBuffers.get((int)size);
+        DoubleBuffer buffer = buffers != null ? buffers.poll() : null;
+        if (buffer != null) for (int index = 0; index < size; index++) buffer.put(index, 0);
+        else buffer = allocateBuffer(size);
+        currentGeneration.buffers.add(buffer);
+        currentGeneration.bytes += size * valueSize;
+        return new Segment(buffer, currentGeneration);
+    }
+
+    /**
+     * Releases generation and optionally makes its buffers available for recycling.
+     *
+     * @param generation generation to be released.
+     * @param recycle if true buffers of generation are made available for recycling.
+     */
+    private void release(Generation generation, boolean recycle) {
+        if (generation == null) return;
+        generation.released = true;
+        if (recycle) for (DoubleBuffer buffer : generation.buffers) freeBuffers.computeIfAbsent(buffer.capacity(), capacity -> new ArrayDeque<>()).add(buffer);
+        generation.buffers.clear();
+    }
+
+    /**
+     * Resets arena by releasing previous generation of memory.<br>
+     * Buffers not recycled since last reset are left for garbage collector.<br>
+     * Reset is omitted if nothing has been allocated since last reset.<br>
+     *
+     */
+    public synchronized void reset() {
+        if (currentGeneration == null) return;
+        freeBuffers.clear();
+        release(previousGeneration, true);
+        previousGeneration = currentGeneration;
+        currentGeneration = null;
+    }
+
+    /**
+     * Closes arena and marks all memory owned by it as released.<br>
+     * Matrices allocated from arena become inaccessible and further allocations from arena fail.<br>
+     * Native memory of buffers is freed by garbage collector once buffers become unreachable.<br>
+     *
+     */
+    public synchronized void close() {
+        release(previousGeneration, false);
+        release(currentGeneration, false);
+        freeBuffers.clear();
+        previousGeneration = null;
+        currentGeneration = null;
+        closed = true;
+    }
+
+    /**
+     * Returns true if arena is closed.
+     *
+     * @return true if arena is closed otherwise false.
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns number of bytes currently owned by arena.
+     *
+     * @return number of bytes currently owned by arena.
+     */
+    public synchronized long getAllocatedBytes() {
+        return (currentGeneration != null ? currentGeneration.bytes : 0) + (previousGeneration != null ? previousGeneration.bytes : 0);
+    }
+
+}
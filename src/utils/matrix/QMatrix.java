@@ -0,0 +1,422 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Implements quantized dense matrix.<br>
+ * Values are stored as 8-bit integers with asymmetric affine quantization value = scale * (quantized value - zero point).<br>
+ * Scale and zero point are defined either per row of each depth slice or per depth slice (channel).<br>
+ * Range of each quantization group includes zero so that zero value is represented exactly.<br>
+ * Matrix is intended for inference and it takes one eighth of memory of double precision dense matrix.<br>
+ * New matrices created from quantized matrix are double precision dense matrices.<br>
+ *
+ */
+public class QMatrix extends AbstractMatrix {
+
+    /**
+     * Minimum quantized value.
+     *
+     */
+    private static final int minQuantizedValue = Byte.MIN_VALUE;
+
+    /**
+     * Maximum quantized value.
+     *
+     */
+    private static final int maxQuantizedValue = Byte.MAX_VALUE;
+
+    /**
+     * Defines matrix data structure using 1-dimensional row column array of quantized values.
+     *
+     */
+    private byte[] matrix;
+
+    /**
+     * Scales of quantization groups.
+     *
+     */
+    private final float[] scales;
+
+    /**
+     * Zero points of quantization groups.
+     *
+     */
+    private final int[] zeroPoints;
+
+    /**
+     * If true matrix is quantized per row of each depth slice otherwise per depth slice.
+     *
+     */
+    private final boolean perRow;
+
+    /**
+     * Sums of quantized values of each row of each depth slice.
+     *
+     */
+    private transient int[] rowSums;
+
+    /**
+     * Constructor for quantized dense matrix.<br>
+     * Quantizes values of given matrix.<br>
+     *
+     * @param other matrix to be quantized.
+     * @param perRow if true matrix is quantized per row of each depth slice otherwise per depth slice.
+     */
+    public QMatrix(Matrix other, boolean perRow) {
+        super(other.getRows(), other.getColumns(), other.getDepth(), other.isScalar());
+        this.perRow = perRow;
+        matrix = new byte[getPureRows() * getPureColumns() * getPureDepth()];
+        final int groups = perRow ? getPureRows() * getPureDepth() : getPureDepth();
+        scales = new float[groups];
+        zeroPoints = new int[groups];
+        quantize(other);
+    }
+
+    /**
+     * Constructor for quantized dense matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth defines depth of matrix.
+     * @param data quantized matrix data.
+     * @param scales scales of quantization groups.
+     * @param zeroPoints zero points of quantization groups.
+     * @param perRow if true matrix is quantized per row of each depth slice otherwise per depth slice.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     */
+    private QMatrix(int rows, int columns, int depth, byte[] data, float[] scales, int[] zeroPoints, boolean perRow, boolean isScalar) {
+        super(rows, columns, depth, isScalar);
+        this.matrix = data;
+        this.scales = scales;
+        this.zeroPoints = zeroPoints;
+        this.perRow = perRow;
+    }
+
+    /**
+     * Quantizes values of other matrix into this matrix.<br>
+     * Scale and zero point of each quantization group are defined by range of values in group.<br>
+     *
+     * @param other other matrix.
+     */
+    private void quantize(Matrix other) {
+        final double[] minValues = new double[scales.length];
+        final double[] maxValues = new double[scales.length];
+        for (int depth = 0; depth < getPureDepth(); depth++) {
+            for (int column = 0; column < getPureColumns(); column++) {
+                for (int row = 0; row < getPureRows(); row++) {
+                    final int group = getGroup(row, depth);
+                    final double value = other.getValue(row, column, depth);
+                    minValues[group] = Math.min(minValues[group], value);
+                    maxValues[group] = Math.max(maxValues[group], value);
+                }
+            }
+        }
+        for (int group = 0; group < scales.length; group++) {
+            final double scale = (maxValues[group] - minValues[group]) / (maxQuantizedValue - minQuantizedValue);
+            scales[group] = scale > 0 ? (float)scale : 1;
+            zeroPoints[group] = clamp(Math.round(minQuantizedValue - minValues[group] / scales[group]));
+        }
+        for (int depth = 0; depth < getPureDepth(); depth++) {
+            for (int column = 0; column < getPureColumns(); column++) {
+                for (int row = 0; row < getPureRows(); row++) setValue(row, column, depth, other.getValue(row, column, depth));
+            }
+        }
+    }
+
+    /**
+     * Clamps value into range of quantized values.
+     *
+     * @param value value.
+     * @return clamped value.
+     */
+    private static int clamp(long value) {
+        return (int)Math.max(minQuantizedValue, Math.min(maxQuantizedValue, value));
+    }
+
+    /**
+     * Creates new matrix with object full copy of this matrix.
+     *
+     * @return newly created copy of matrix.
+     */
+    public Matrix copy() {
+        Matrix newMatrix = new QMatrix(getPureRows(), getPureColumns(), getPureDepth(), matrix.clone(), scales.clone(), zeroPoints.clone(), perRow, isScalar());
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Creates new matrix with object full copy of this matrix.<br>
+     * Quantized matrix cannot be sliced.<br>
+     *
+     * @param canBeSliced if true matrix can be slides otherwise cannot be sliced.
+     * @return newly created copy of matrix.
+     */
+    public Matrix copy(boolean canBeSliced) {
+        return copy();
+    }
+
+    /**
+     * Redimensions matrix assuming new dimensions are matching.<br>
+     * Redimensioned matrix is double precision dense matrix.<br>
+     *
+     * @param newRows new row size
+     * @param newColumns new column size
+     * @param newDepth new depth size.
+     * @return redimensioned matrix.
+     * @throws MatrixException throws exception if redimensioning fails.
+     */
+    public Matrix redimension(int newRows, int newColumns, int newDepth) throws MatrixException {
+        return redimension(newRows, newColumns, newDepth, true);
+    }
+
+    /**
+     * Redimensions matrix assuming new dimensions are matching.<br>
+     * Redimensioned matrix is double precision dense matrix and its data is always copied.<br>
+     *
+     * @param newRows new row size
+     * @param newColumns new column size
+     * @param newDepth new depth size.
+     * @param copyData if true matrix data is copied and if false referenced.
+     * @return redimensioned matrix.
+     * @throws MatrixException throws exception if redimensioning fails.
+     */
+    public Matrix redimension(int newRows, int newColumns, int newDepth, boolean copyData) throws MatrixException {
+        if (newRows * newColumns * newDepth != getPureRows() * getPureColumns() * getPureDepth()) throw new MatrixException("Matrix of size: " + getPureRows() + "x" + getPureColumns() + "x" + getPureDepth() + " cannot be redimensioned to size: " + newRows + "x" + newColumns + "x" + newDepth);
+        Matrix newMatrix = new DMatrix(newRows, newColumns, newDepth, getDequantizedData(), isScalar(), isTransposed());
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Transposes matrix.<br>
+     * Transposed matrix is double precision dense matrix.<br>
+     *
+     * @return transposed matrix.
+     */
+    protected Matrix applyTranspose() {
+        Matrix newMatrix = new DMatrix(getPureRows(), getPureColumns(), getPureDepth(), getDequantizedData(), isScalar(), true);
+        super.setParameters(newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * Returns dequantized matrix data as 1-dimensional row column array.
+     *
+     * @return dequantized matrix data.
+     */
+    private double[] getDequantizedData() {
+        final double[] data = new double[matrix.length];
+        for (int depth = 0; depth < getPureDepth(); depth++) {
+            for (int column = 0; column < getPureColumns(); column++) {
+                for (int row = 0; row < getPureRows(); row++) {
+                    final int index = getArrayIndex(row, column, depth);
+                    data[index] = getValue(row, column, depth);
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Checks if data of other matrix is equal to data of this matrix
+     *
+     * @param other matrix to be compared.
+     * @return true is data of this and other matrix are equal otherwise false.
+     * @throws MatrixException throws MatrixException if this and other matrix are not of equal dimensions.
+     */
+    public boolean equals(Matrix other) throws MatrixException {
+        if (other instanceof QMatrix otherQMatrix) {
+            if (other.getRows() != getRows() || other.getColumns() != getColumns() || other.getDepth() != getDepth()) {
+                throw new MatrixException("Incompatible target matrix size: " + other.getRows() + "x" + other.getColumns() + "x" + other.getDepth());
+            }
+            return otherQMatrix.isEqual(matrix, scales, zeroPoints);
+        }
+        else return super.equals(other);
+    }
+
+    /**
+     * Checks if quantized matrix data equals to data of this matrix.
+     *
+     * @param matrixData quantized matrix data.
+     * @param otherScales scales of quantization groups.
+     * @param otherZeroPoints zero points of quantization groups.
+     * @return true if matrix data and data of this matrix are equal otherwise returns false.
+     */
+    private boolean isEqual(byte[] matrixData, float[] otherScales, int[] otherZeroPoints) {
+        return Arrays.equals(matrix, matrixData) && Arrays.equals(scales, otherScales) && Arrays.equals(zeroPoints, otherZeroPoints);
+    }
+
+    /**
+     * Returns sub-matrices within matrix.
+     *
+     * @return sub-matrices within matrix.
+     */
+    public ArrayList<Matrix> getSubMatrices() {
+        ArrayList<Matrix> matrices = new ArrayList<>();
+        matrices.add(this);
+        return matrices;
+    }
+
+    /**
+     * Resets matrix leaving dimensions and quantization parameters same.
+     *
+     */
+    public void resetMatrix() {
+        matrix = new byte[getPureRows() * getPureColumns() * getPureDepth()];
+        for (int depth = 0; depth < getPureDepth(); depth++) {
+            for (int column = 0; column < getPureColumns(); column++) {
+                for (int row = 0; row < getPureRows(); row++) matrix[getArrayIndex(row, column, depth)] = (byte)zeroPoints[getGroup(row, depth)];
+            }
+        }
+        rowSums = null;
+    }
+
+    /**
+     * Returns quantized matrix data as 1-dimensional row column array.<br>
+     * Array is referenced and not copied. Use array offset and strides to locate values.<br>
+     *
+     * @return quantized matrix data.
+     */
+    public byte[] getMatrixData() {
+        return matrix;
+    }
+
+    /**
+     * Returns true if matrix is quantized per row of each depth slice and false if matrix is quantized per depth slice.
+     *
+     * @return true if matrix is quantized per row of each depth slice and false if matrix is quantized per depth slice.
+     */
+    public boolean isPerRow() {
+        return perRow;
+    }
+
+    /**
+     * Returns quantization group of row and depth.
+     *
+     * @param row row.
+     * @param depth depth.
+     * @return quantization group.
+     */
+    private int getGroup(int row, int depth) {
+        return perRow ? depth * getPureRows() + row : depth;
+    }
+
+    /**
+     * Returns quantization scale of row and depth.
+     *
+     * @param row row.
+     * @param depth depth.
+     * @return quantization scale.
+     */
+    public double getScale(int row, int depth) {
+        return scales[getGroup(row, depth)];
+    }
+
+    /**
+     * Returns quantization zero point of row and depth.
+     *
+     * @param row row.
+     * @param depth depth.
+     * @return quantization zero point.
+     */
+    public int getZeroPoint(int row, int depth) {
+        return zeroPoints[getGroup(row, depth)];
+    }
+
+    /**
+     * Returns sums of quantized values of each row of each depth slice. Sum of row and depth is located at index depth * rows + row.<br>
+     * Sums are calculated once and cached until matrix is changed.<br>
+     *
+     * @return sums of quantized values of rows.
+     */
+    public int[] getRowSums() {
+        if (rowSums != null) return rowSums;
+        final int[] newRowSums = new int[getPureRows() * getPureDepth()];
+        for (int depth = 0; depth < getPureDepth(); depth++) {
+            for (int column = 0; column < getPureColumns(); column++) {
+                for (int row = 0; row < getPureRows(); row++) newRowSums[depth * getPureRows() + row] += matrix[getArrayIndex(row, column, depth)];
+            }
+        }
+        rowSums = newRowSums;
+        return rowSums;
+    }
+
+    /**
+     * Sets value of matrix at specific row and column.<br>
+     * Value is quantized with scale and zero point of its quantization group and clamped into range of quantized values.<br>
+     *
+     * @param row row of value to be set.
+     * @param column column of value to be set.
+     * @param depth depth of value to be set.
+     * @param value new value to be set.
+     */
+    public void setValue(int row, int column, int depth, double value) {
+        final int group = getGroup(row, depth);
+        matrix[getArrayIndex(row, column, depth)] = (byte)clamp(Math.round(value / scales[group]) + zeroPoints[group]);
+        rowSums = null;
+    }
+
+    /**
+     * Returns dequantized value of matrix at specific row and column.
+     *
+     * @param row row of value to be returned.
+     * @param column column of value to be returned.
+     * @param depth depth of value to be returned.
+     * @return value of row and column.
+     */
+    public double getValue(int row, int column, int depth) {
+        final int group = getGroup(row, depth);
+        return scales[group] * (matrix[getArrayIndex(row, column, depth)] - zeroPoints[group]);
+    }
+
+    /**
+     * Returns double precision dense matrix of given size (rows x columns)
+     *
+     * @param rows rows
+     * @param columns columns
+     * @param depth depth
+     * @return new matrix
+     * @throws MatrixException throws exception if new mask dimensions or mask type are not matching with this mask.
+     */
+    public Matrix getNewMatrix(int rows, int columns, int depth) throws MatrixException {
+        return new DMatrix(rows, columns, depth, getMask() != null ? getNewMask(rows, columns, depth) : null);
+    }
+
+    /**
+     * Returns double precision constant matrix
+     *
+     * @param constant constant
+     * @return new matrix
+     */
+    public Matrix getNewMatrix(double constant) {
+        return new DMatrix(constant);
+    }
+
+    /**
+     * Returns new mask for this matrix.
+     *
+     * @return mask of this matrix.
+     */
+    protected Mask getNewMask() {
+        return new DMask(getTotalRows(), getTotalColumns(), getTotalDepth());
+    }
+
+    /**
+     * Returns new mask for this matrix.
+     *
+     * @param rows rows
+     * @param columns columns
+     * @param depth depth
+     * @return mask of this matrix.
+     */
+    protected Mask getNewMask(int rows, int columns, int depth) {
+        return new DMask(rows, columns, depth);
+    }
+
+}
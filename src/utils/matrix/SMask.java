@@ -5,19 +5,32 @@
 
 package utils.matrix;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 /**
  * Implements sparse mask for sparse matrices.<br>
+ * Mask stores array indices of masked entries in ascending order. Searches for masked and unmasked runs proceed by binary search and logical operations between masks by merging index arrays.<br>
  *
  */
 public class SMask extends AbstractMask {
 
     /**
-     * Hash map to store mask information.
+     * Initial capacity of index array.
      *
      */
-    private HashMap<Integer, Boolean> mask = new HashMap<>();
+    private static final int initialCapacity = 8;
+
+    /**
+     * Array indices of masked entries in ascending order.
+     *
+     */
+    private int[] mask = new int[initialCapacity];
+
+    /**
+     * Number of masked entries.
+     *
+     */
+    private int size = 0;
 
     /**
      * Constructor for sparse mask.
@@ -47,14 +60,17 @@ public class SMask extends AbstractMask {
      *
      * @param rows defines number of rows in mask.
      * @param columns defines number of columns in mask.
-     * @param data mask data.
+     * @param depth defines depth of mask.
+     * @param data array indices of masked entries.
+     * @param size number of masked entries.
      * @param probability probability of masking.
      * @param isTransposed is true mask is transposed otherwise false.
      * @throws MatrixException throws exception if masking probability is not between 0 and 1.
      */
-    private SMask(int rows, int columns, int depth, HashMap<Integer, Boolean> data, double probability, boolean isTransposed) throws MatrixException {
+    private SMask(int rows, int columns, int depth, int[] data, int size, double probability, boolean isTransposed) throws MatrixException {
         super(rows, columns, depth, isTransposed, probability);
-        mask.putAll(data);
+        mask = Arrays.copyOf(data, Math.max(size, initialCapacity));
+        this.size = size;
     }
 
     /**
@@ -73,7 +89,7 @@ public class SMask extends AbstractMask {
      * @throws MatrixException throws exception if masking probability is not between 0 and 1.
      */
     public Mask applyCopy() throws MatrixException {
-        return new SMask(getPureRows(), getPureColumns(), getPureDepth(), mask, getProbability(), isTransposed());
+        return new SMask(getPureRows(), getPureColumns(), getPureDepth(), mask, size, getProbability(), isTransposed());
     }
 
     /**
@@ -83,7 +99,7 @@ public class SMask extends AbstractMask {
      * @throws MatrixException throws exception if masking probability is not between 0 and 1.
      */
     protected Mask applyTranspose() throws MatrixException {
-        return new SMask(getPureRows(), getPureColumns(), getPureDepth(), mask, getProbability(), !isTransposed());
+        return new SMask(getPureRows(), getPureColumns(), getPureDepth(), mask, size, getProbability(), !isTransposed());
     }
 
     /**
@@ -91,10 +107,20 @@ public class SMask extends AbstractMask {
      *
      * @param row row of value to be set.
      * @param column column of value to be set.
+     * @param depth depth of value to be set.
      * @param value defines if specific row and column is masked (true) or not (false).
      */
     public void setMask(int row, int column, int depth, boolean value) {
-        mask.put(getArrayIndex(row, column, depth), value);
+        int index = getArrayIndex(row, column, depth);
+        if (size == 0 || index > mask[size - 1]) {
+            if (value) insert(size, index);
+            return;
+        }
+        int position = Arrays.binarySearch(mask, 0, size, index);
+        if (position >= 0) {
+            if (!value) remove(position);
+        }
+        else if (value) insert(-(position + 1), index);
     }
 
     /**
@@ -106,8 +132,147 @@ public class SMask extends AbstractMask {
      * @return if specific row and column if masked (true) or not (false).
      */
     public boolean getMask(int row, int column, int depth) {
-        if (mask == null) return false;
-        return mask.getOrDefault(getArrayIndex(row, column, depth), false);
+        return size > 0 && Arrays.binarySearch(mask, 0, size, getArrayIndex(row, column, depth)) >= 0;
+    }
+
+    /**
+     * Inserts array index of masked entry at position of index array.
+     *
+     * @param position position.
+     * @param index array index.
+     */
+    private void insert(int position, int index) {
+        if (size == mask.length) mask = Arrays.copyOf(mask, 2 * size);
+        if (position < size) System.arraycopy(mask, position, mask, position + 1, size - position);
+        mask[position] = index;
+        size++;
+    }
+
+    /**
+     * Removes array index at position of index array.
+     *
+     * @param position position.
+     */
+    private void remove(int position) {
+        System.arraycopy(mask, position + 1, mask, position, size - position - 1);
+        size--;
+    }
+
+    /**
+     * Returns position of first array index that is equal to or greater than given array index.
+     *
+     * @param index array index.
+     * @return position of first array index equal to or greater than given array index.
+     */
+    private int getPosition(int index) {
+        int position = Arrays.binarySearch(mask, 0, size, index);
+        return position >= 0 ? position : -(position + 1);
+    }
+
+    /**
+     * Returns first unmasked row starting from given row at specific column and depth.<br>
+     * For non-transposed mask rows of column are consecutive array indices and search skips over consecutive masked indices.<br>
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @return first unmasked row or number of rows in mask if all remaining rows are masked.
+     */
+    public int getNextUnmaskedRow(int row, int column, int depth) {
+        if (isTransposed()) return super.getNextUnmaskedRow(row, column, depth);
+        int rows = getRows();
+        if (row >= rows) return rows;
+        int columnIndex = getColumnIndex(column, depth);
+        int index = columnIndex + row;
+        for (int position = getPosition(index); position < size && mask[position] == index; position++) index++;
+        return Math.min(index - columnIndex, rows);
+    }
+
+    /**
+     * Returns first masked row starting from given row at specific column and depth.<br>
+     * For non-transposed mask rows of column are consecutive array indices and search is done by binary search.<br>
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @return first masked row or number of rows in mask if none of remaining rows are masked.
+     */
+    public int getNextMaskedRow(int row, int column, int depth) {
+        if (isTransposed()) return super.getNextMaskedRow(row, column, depth);
+        int rows = getRows();
+        if (row >= rows) return rows;
+        int columnIndex = getColumnIndex(column, depth);
+        int position = getPosition(columnIndex + row);
+        return position < size ? Math.min(mask[position] - columnIndex, rows) : rows;
+    }
+
+    /**
+     * Returns number of masked entries.
+     *
+     * @return number of masked entries.
+     */
+    public int getMaskedCount() {
+        return size;
+    }
+
+    /**
+     * Applies logical and with other mask. Entry remains masked only if it is masked in both masks.
+     *
+     * @param other other mask.
+     * @throws MatrixException throws exception if dimensions of masks are not matching.
+     */
+    public void and(Mask other) throws MatrixException {
+        if (!hasSameLayout(other)) super.and(other);
+        else {
+            SMask otherMask = (SMask)other;
+            int newSize = 0;
+            for (int position = 0, otherPosition = 0; position < size && otherPosition < otherMask.size;) {
+                if (mask[position] < otherMask.mask[otherPosition]) position++;
+                else if (mask[position] > otherMask.mask[otherPosition]) otherPosition++;
+                else {
+                    mask[newSize++] = mask[position++];
+                    otherPosition++;
+                }
+            }
+            size = newSize;
+        }
+    }
+
+    /**
+     * Applies logical or with other mask. Entry becomes masked if it is masked in either mask.
+     *
+     * @param other other mask.
+     * @throws MatrixException throws exception if dimensions of masks are not matching.
+     */
+    public void or(Mask other) throws MatrixException {
+        if (!hasSameLayout(other)) super.or(other);
+        else {
+            SMask otherMask = (SMask)other;
+            int[] newMask = new int[Math.max(size + otherMask.size, initialCapacity)];
+            int newSize = 0;
+            int position = 0;
+            int otherPosition = 0;
+            while (position < size || otherPosition < otherMask.size) {
+                if (otherPosition == otherMask.size || (position < size && mask[position] < otherMask.mask[otherPosition])) newMask[newSize++] = mask[position++];
+                else if (position == size || mask[position] > otherMask.mask[otherPosition]) newMask[newSize++] = otherMask.mask[otherPosition++];
+                else {
+                    newMask[newSize++] = mask[position++];
+                    otherPosition++;
+                }
+            }
+            mask = newMask;
+            size = newSize;
+        }
+    }
+
+    /**
+     * Checks if other mask is sparse mask with same dimensions and same index layout as this mask.
+     *
+     * @param other other mask.
+     * @return true if other mask has same index layout otherwise false.
+     */
+    private boolean hasSameLayout(Mask other) {
+        return other instanceof SMask otherMask && otherMask.isTransposed() == isTransposed() && otherMask.getPureRows() == getPureRows() && otherMask.getPureColumns() == getPureColumns() && otherMask.getPureDepth() == getPureDepth();
     }
 
     /**
@@ -115,7 +280,8 @@ public class SMask extends AbstractMask {
      *
      */
     public void reset() {
-        mask = new HashMap<>();
+        mask = new int[initialCapacity];
+        size = 0;
     }
 
 }
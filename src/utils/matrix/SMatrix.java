@@ -6,6 +6,7 @@
 package utils.matrix;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -13,15 +14,58 @@ import java.util.Map;
  * Implements sparse matrix.<br>
  * Sparse matrix optimizes matrix memory usage by storing only non-zero values.<br>
  * This matrix type is useful when input sample is expected to contain mostly zero values.<br>
+ * <br>
+ * Non-zero values are stored as primitive arrays of array indices and values sorted by array index (sorted coordinate format).<br>
+ * Array index is column major within each depth so non-zero values are ordered column by column (row by row for transposed matrix), but there is no separate column pointer array.<br>
+ * Column and depth of value are derived from its array index when values are iterated.<br>
+ * Values are looked up by binary search. Values set in ascending array index order are appended in constant time while setting value elsewhere shifts following values and takes linear time.<br>
+ * Matrix with many non-zero values in arbitrary order should be constructed in bulk from arrays of array indices and values.<br>
  *
  */
 public class SMatrix extends AbstractMatrix {
 
     /**
-     * Matrix data structure as hash map.
+     * Defines consumer of non-zero values of sparse matrix.
      *
      */
-    private HashMap<Integer, Double> matrix = new HashMap<>();
+    public interface NonZeroConsumer {
+
+        /**
+         * Consumes non-zero value.
+         *
+         * @param row row of value.
+         * @param column column of value.
+         * @param depth depth of value.
+         * @param value value.
+         * @throws MatrixException throws exception if matrix operation fails.
+         */
+        void accept(int row, int column, int depth, double value) throws MatrixException;
+
+    }
+
+    /**
+     * Initial capacity of index and value arrays.
+     *
+     */
+    private static final int initialCapacity = 8;
+
+    /**
+     * Array indices of non-zero values in ascending order.
+     *
+     */
+    private int[] indices = new int[initialCapacity];
+
+    /**
+     * Non-zero values in order of array indices.
+     *
+     */
+    private double[] values = new double[initialCapacity];
+
+    /**
+     * Number of non-zero values.
+     *
+     */
+    private int size = 0;
 
     /**
      * Constructor for scalar matrix (size 1x1).
@@ -165,11 +209,7 @@ public class SMatrix extends AbstractMatrix {
      */
     public SMatrix(int rows, int columns, int depth, HashMap<Integer, Double> data) {
         this(rows, columns, depth);
-        for (Map.Entry<Integer, Double> entry : data.entrySet()) {
-            int index = entry.getKey();
-            double value = entry.getValue();
-            matrix.put(index, value);
-        }
+        putAll(data);
     }
 
     /**
@@ -183,11 +223,24 @@ public class SMatrix extends AbstractMatrix {
      */
     public SMatrix(int rows, int columns, int depth, boolean isScalar, HashMap<Integer, Double> data) {
         this(rows, columns, depth, isScalar);
-        for (Map.Entry<Integer, Double> entry : data.entrySet()) {
-            int index = entry.getKey();
-            double value = entry.getValue();
-            matrix.put(index, value);
-        }
+        putAll(data);
+    }
+
+    /**
+     * Constructor for sparse matrix constructing non-zero values in bulk.<br>
+     * Array indices may be given in any order and they are sorted in O(n log n) time. Zero values are omitted.<br>
+     * Array index of value at row, column and depth is row + column * rows + depth * rows * columns.<br>
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth depth of matrix.
+     * @param indices array indices of values.
+     * @param values values.
+     * @throws MatrixException throws exception if lengths of arrays are not matching, array index is out of bounds or array index is given more than once.
+     */
+    public SMatrix(int rows, int columns, int depth, int[] indices, double[] values) throws MatrixException {
+        this(rows, columns, depth);
+        putAll(indices, values);
     }
 
     /**
@@ -201,7 +254,7 @@ public class SMatrix extends AbstractMatrix {
      */
     public SMatrix(int rows, int columns, int depth, HashMap<Integer, Double> data, boolean isTransposed) {
         super(rows, columns, depth, false, isTransposed);
-        matrix.putAll(data);
+        putAll(data);
     }
 
     /**
@@ -215,7 +268,7 @@ public class SMatrix extends AbstractMatrix {
      */
     public SMatrix(int rows, int columns, int depth, boolean isScalar, boolean isTransposed, HashMap<Integer, Double> data) {
         super(rows, columns, depth, isScalar, isTransposed);
-        matrix.putAll(data);
+        putAll(data);
     }
 
     /**
@@ -230,7 +283,104 @@ public class SMatrix extends AbstractMatrix {
      */
     public SMatrix(int rows, int columns, int depth, boolean isScalar, boolean isTransposed, boolean canBeSliced, HashMap<Integer, Double> data) {
         super(rows, columns, depth, isScalar, isTransposed, canBeSliced);
-        matrix.putAll(data);
+        putAll(data);
+    }
+
+    /**
+     * Constructor for sparse matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth depth of matrix.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param isTransposed if true matrix is transposed and if false not transposed.
+     * @param indices array indices of non-zero values in ascending order copied to matrix.
+     * @param values non-zero values copied to matrix.
+     * @param size number of non-zero values.
+     */
+    private SMatrix(int rows, int columns, int depth, boolean isScalar, boolean isTransposed, int[] indices, double[] values, int size) {
+        super(rows, columns, depth, isScalar, isTransposed);
+        setData(indices, values, size);
+    }
+
+    /**
+     * Constructor for sparse matrix.
+     *
+     * @param rows defines number of rows in matrix.
+     * @param columns defines number of columns in matrix.
+     * @param depth depth of matrix.
+     * @param isScalar true if matrix is scalar (size 1x1).
+     * @param isTransposed if true matrix is transposed and if false not transposed.
+     * @param canBeSliced if true matrix can be slides otherwise cannot be sliced.
+     * @param indices array indices of non-zero values in ascending order copied to matrix.
+     * @param values non-zero values copied to matrix.
+     * @param size number of non-zero values.
+     */
+    private SMatrix(int rows, int columns, int depth, boolean isScalar, boolean isTransposed, boolean canBeSliced, int[] indices, double[] values, int size) {
+        super(rows, columns, depth, isScalar, isTransposed, canBeSliced);
+        setData(indices, values, size);
+    }
+
+    /**
+     * Sets non-zero values of matrix by copying them from hash map of array indices and values.
+     *
+     * @param data matrix data.
+     */
+    private void putAll(HashMap<Integer, Double> data) {
+        int[] newIndices = new int[Math.max(initialCapacity, data.size())];
+        double[] newValues = new double[newIndices.length];
+        int newSize = 0;
+        for (Map.Entry<Integer, Double> entry : data.entrySet()) {
+            if (entry.getValue() != 0) newIndices[newSize++] = entry.getKey();
+        }
+        Arrays.sort(newIndices, 0, newSize);
+        for (int position = 0; position < newSize; position++) newValues[position] = data.get(newIndices[position]);
+        indices = newIndices;
+        values = newValues;
+        size = newSize;
+    }
+
+    /**
+     * Sets non-zero values of matrix by copying them from arrays of array indices and values in any order.<br>
+     * Array indices are sorted together with their positions packed into single primitive key so that sorting does not box values.<br>
+     *
+     * @param indices array indices of values.
+     * @param values values.
+     * @throws MatrixException throws exception if lengths of arrays are not matching, array index is out of bounds or array index is given more than once.
+     */
+    private void putAll(int[] indices, double[] values) throws MatrixException {
+        if (indices.length != values.length) throw new MatrixException("Number of array indices " + indices.length + " is not matching with number of values " + values.length);
+        int totalSize = getPureRows() * getPureColumns() * getPureDepth();
+        long[] keys = new long[indices.length];
+        int numberOfKeys = 0;
+        for (int position = 0; position < indices.length; position++) {
+            if (indices[position] < 0 || indices[position] >= totalSize) throw new MatrixException("Array index " + indices[position] + " is out of bounds for matrix of size " + totalSize);
+            if (values[position] != 0) keys[numberOfKeys++] = ((long)indices[position] << 32) | position;
+        }
+        Arrays.sort(keys, 0, numberOfKeys);
+        int[] newIndices = new int[Math.max(initialCapacity, numberOfKeys)];
+        double[] newValues = new double[newIndices.length];
+        for (int position = 0; position < numberOfKeys; position++) {
+            newIndices[position] = (int)(keys[position] >>> 32);
+            newValues[position] = values[(int)keys[position]];
+            if (position > 0 && newIndices[position] == newIndices[position - 1]) throw new MatrixException("Array index " + newIndices[position] + " is given more than once.");
+        }
+        this.indices = newIndices;
+        this.values = newValues;
+        size = numberOfKeys;
+    }
+
+    /**
+     * Sets non-zero values of matrix by copying them from index and value arrays.
+     *
+     * @param indices array indices of non-zero values in ascending order.
+     * @param values non-zero values.
+     * @param size number of non-zero values.
+     */
+    private void setData(int[] indices, double[] values, int size) {
+        this.indices = Arrays.copyOf(indices, Math.max(initialCapacity, size));
+        this.values = Arrays.copyOf(values, this.indices.length);
+        this.size = size;
     }
 
     /**
@@ -239,7 +389,7 @@ public class SMatrix extends AbstractMatrix {
      * @return newly created copy of matrix.
      */
     public Matrix copy() {
-        Matrix newMatrix = new SMatrix(getPureRows(), getPureColumns(), getPureDepth(), isScalar(), isTransposed(), matrix);
+        Matrix newMatrix = new SMatrix(getPureRows(), getPureColumns(), getPureDepth(), isScalar(), isTransposed(), indices, values, size);
         super.setParameters(newMatrix);
         return newMatrix;
     }
@@ -251,7 +401,7 @@ public class SMatrix extends AbstractMatrix {
      * @return newly created copy of matrix.
      */
     public Matrix copy(boolean canBeSliced) {
-        Matrix newMatrix = new SMatrix(getPureRows(), getPureColumns(), getPureDepth(), isScalar(), isTransposed(), canBeSliced, matrix);
+        Matrix newMatrix = new SMatrix(getPureRows(), getPureColumns(), getPureDepth(), isScalar(), isTransposed(), canBeSliced, indices, values, size);
         super.setParameters(newMatrix);
         return newMatrix;
     }
@@ -267,7 +417,7 @@ public class SMatrix extends AbstractMatrix {
      */
     public Matrix redimension(int newRows, int newColumns, int newDepth) throws MatrixException {
         if (newRows * newColumns * newDepth != getPureRows() * getPureColumns() * getPureDepth()) throw new MatrixException("Matrix of size: " + getPureRows() + "x" + getPureColumns() + "x" + getPureDepth() + " cannot be redimensioned to size: " + newRows + "x" + newColumns + "x" + newDepth);
-        Matrix newMatrix = new SMatrix(newRows, newColumns, newDepth, isScalar(), isTransposed(), matrix);
+        Matrix newMatrix = new SMatrix(newRows, newColumns, newDepth, isScalar(), isTransposed(), indices, values, size);
         super.setParameters(newMatrix);
         return newMatrix;
     }
@@ -291,7 +441,7 @@ public class SMatrix extends AbstractMatrix {
      * @return transposed matrix.
      */
     protected Matrix applyTranspose() {
-        Matrix newMatrix = new SMatrix(getPureRows(), getPureColumns(), getPureDepth(), isScalar(), true, matrix);
+        Matrix newMatrix = new SMatrix(getPureRows(), getPureColumns(), getPureDepth(), isScalar(), true, indices, values, size);
         super.setParameters(newMatrix);
         return newMatrix;
     }
@@ -312,7 +462,9 @@ public class SMatrix extends AbstractMatrix {
      *
      */
     public void resetMatrix() {
-        matrix = new HashMap<>();
+        indices = new int[initialCapacity];
+        values = new double[initialCapacity];
+        size = 0;
     }
 
     /**
@@ -324,7 +476,17 @@ public class SMatrix extends AbstractMatrix {
      * @param value new value to be set.
      */
     public void setValue(int row, int column, int depth, double value) {
-        if (value != 0) matrix.put(getArrayIndex(row, column, depth), value);
+        int index = getArrayIndex(row, column, depth);
+        if (size == 0 || index > indices[size - 1]) {
+            if (value != 0) insert(size, index, value);
+            return;
+        }
+        int position = Arrays.binarySearch(indices, 0, size, index);
+        if (position >= 0) {
+            if (value != 0) values[position] = value;
+            else remove(position);
+        }
+        else if (value != 0) insert(-(position + 1), index, value);
     }
 
     /**
@@ -336,7 +498,92 @@ public class SMatrix extends AbstractMatrix {
      * @return value of row and column.
      */
     public double getValue(int row, int column, int depth) {
-        return matrix.getOrDefault(getArrayIndex(row, column, depth), (double)0);
+        if (size == 0) return 0;
+        int position = Arrays.binarySearch(indices, 0, size, getArrayIndex(row, column, depth));
+        return position >= 0 ? values[position] : 0;
+    }
+
+    /**
+     * Inserts non-zero value at position of index and value arrays.
+     *
+     * @param position position.
+     * @param index array index of value.
+     * @param value value.
+     */
+    private void insert(int position, int index, double value) {
+        if (size == indices.length) {
+            indices = Arrays.copyOf(indices, 2 * size);
+            values = Arrays.copyOf(values, 2 * size);
+        }
+        if (position < size) {
+            System.arraycopy(indices, position, indices, position + 1, size - position);
+            System.arraycopy(values, position, values, position + 1, size - position);
+        }
+        indices[position] = index;
+        values[position] = value;
+        size++;
+    }
+
+    /**
+     * Removes value at position of index and value arrays.
+     *
+     * @param position position.
+     */
+    private void remove(int position) {
+        System.arraycopy(indices, position + 1, indices, position, size - position - 1);
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        size--;
+    }
+
+    /**
+     * Returns number of non-zero values stored in matrix.
+     *
+     * @return number of non-zero values stored in matrix.
+     */
+    public int getNonZeroCount() {
+        return size;
+    }
+
+    /**
+     * Iterates non-zero values of matrix in array index order taking into account transposing and slicing.<br>
+     * For non-transposed matrix values are iterated column by column and for transposed matrix row by row.<br>
+     *
+     * @param nonZeroConsumer consumer of non-zero values.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public void forEachNonZero(NonZeroConsumer nonZeroConsumer) throws MatrixException {
+        if (isScalar()) {
+            if (size > 0) nonZeroConsumer.accept(0, 0, 0, values[0]);
+            return;
+        }
+        final int pureRows = getPureRows();
+        final int pureColumns = getPureColumns();
+        final int depthSize = pureRows * pureColumns;
+        final int rows = getRows();
+        final int columns = getColumns();
+        final int totalDepth = getDepth();
+        final int sliceStartRow = getSliceStartRow();
+        final int sliceStartColumn = getSliceStartColumn();
+        final int sliceStartDepth = getSliceStartDepth();
+        int pureDepth = 0;
+        int pureColumn = 0;
+        int columnStart = 0;
+        int columnEnd = 0;
+        for (int position = 0; position < size; position++) {
+            int index = indices[position];
+            if (index >= columnEnd) {
+                // Column and depth are resolved only when index moves to next column as indices are in ascending order.
+                pureDepth = index / depthSize;
+                pureColumn = (index - pureDepth * depthSize) / pureRows;
+                columnStart = pureDepth * depthSize + pureColumn * pureRows;
+                columnEnd = columnStart + pureRows;
+            }
+            int pureRow = index - columnStart;
+            int depth = pureDepth - sliceStartDepth;
+            int row = !isTransposed() ? pureRow - sliceStartRow : pureColumn - sliceStartColumn;
+            int column = !isTransposed() ? pureColumn - sliceStartColumn : pureRow - sliceStartRow;
+            if (row >= 0 && row < rows && column >= 0 && column < columns && depth >= 0 && depth < totalDepth) nonZeroConsumer.accept(row, column, depth, values[position]);
+        }
     }
 
     /**
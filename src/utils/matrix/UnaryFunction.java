@@ -361,6 +361,33 @@ public class UnaryFunction implements Serializable {
         return unaryFunctionType;
     }
 
+    /**
+     * Returns threshold value for ReLU function.
+     *
+     * @return threshold value for ReLU function.
+     */
+    public double getRELUThreshold() {
+        return RELUThreshold;
+    }
+
+    /**
+     * Returns alpha value for ReLU function.
+     *
+     * @return alpha value for ReLU function.
+     */
+    public double getRELUAlpha() {
+        return RELUAlpha;
+    }
+
+    /**
+     * Returns maximum value for ReLU function.
+     *
+     * @return maximum value for ReLU function.
+     */
+    public double getRELUMaxValue() {
+        return RELUMaxValue;
+    }
+
     /**
      * Returns Softmax tau.
      *
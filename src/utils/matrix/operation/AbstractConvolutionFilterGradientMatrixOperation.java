@@ -5,6 +5,7 @@
 
 package utils.matrix.operation;
 
+import utils.matrix.DMatrix;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 
@@ -39,7 +40,8 @@ public abstract class AbstractConvolutionFilterGradientMatrixOperation extends A
     }
 
     /**
-     * Applies matrix operation.
+     * Applies matrix operation.<br>
+     * Unmasked operation with large enough workload is lowered to matrix multiplication.<br>
      *
      * @param outputGradient output gradient.
      * @param first first matrix.
@@ -47,8 +49,49 @@ public abstract class AbstractConvolutionFilterGradientMatrixOperation extends A
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public Matrix apply(Matrix outputGradient, Matrix first) throws MatrixException {
+        Matrix result = outputGradient.getNewMatrix(getFilterRows(), getFilterColumns(), getIsDepthSeparable() ? getInputDepth() : getInputDepth() * getDepth());
+        if (isLowered(outputGradient, first)) return applyLowered(outputGradient, first, result);
+        return applySynchronized(outputGradient, first, result);
+    }
+
+    /**
+     * Applies matrix operation through state of operation used by generic operation path.<br>
+     * Synchronized as operation may be applied concurrently for different samples.<br>
+     *
+     * @param outputGradient output gradient.
+     * @param first first matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private synchronized Matrix applySynchronized(Matrix outputGradient, Matrix first, Matrix result) throws MatrixException {
         this.first = first;
-        return applyMatrixOperation(outputGradient, null, outputGradient.getNewMatrix(getFilterRows(), getFilterColumns(), getIsDepthSeparable() ? getInputDepth() : getInputDepth() * getDepth()));
+        return applyMatrixOperation(outputGradient, null, result);
+    }
+
+    /**
+     * Applies operation lowered to matrix multiplication.<br>
+     * Output gradient (filters x output positions) is multiplied by transposed column matrix of input (output positions x input depths and filter taps).<br>
+     * Depth separable operation multiplies output gradient and column matrix of each depth separately.<br>
+     *
+     * @param outputGradient output gradient.
+     * @param first first matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private Matrix applyLowered(Matrix outputGradient, Matrix first, Matrix result) throws MatrixException {
+        final DMatrix gradient = getDenseMatrix(outputGradient);
+        final DMatrix input = getDenseMatrix(first);
+        final DMatrix filterGradient = getDenseMatrix(result);
+        final int[][] taps = getTaps();
+        if (getIsDepthSeparable()) {
+            for (int depth = 0; depth < getDepth(); depth++) {
+                setFilterMatrix(dot(getPositionMatrix(gradient, depth, 1), getColumnMatrix(input, depth, 1, taps, true)), taps, depth, filterGradient);
+            }
+        }
+        else setFilterMatrix(dot(getPositionMatrix(gradient, 0, getDepth()), getColumnMatrix(input, 0, getInputDepth(), taps, true)), taps, 0, filterGradient);
+        return setResult(filterGradient, result);
     }
 
     /**
@@ -5,6 +5,7 @@
 
 package utils.matrix.operation;
 
+import utils.matrix.DMatrix;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 
@@ -39,7 +40,8 @@ public abstract class AbstractConvolutionInputGradientMatrixOperation extends Ab
     }
 
     /**
-     * Applies matrix operation.
+     * Applies matrix operation.<br>
+     * Unmasked operation with large enough workload is lowered to matrix multiplication.<br>
      *
      * @param outputGradient output gradient.
      * @param filter filter matrix.
@@ -47,8 +49,59 @@ public abstract class AbstractConvolutionInputGradientMatrixOperation extends Ab
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public Matrix apply(Matrix outputGradient, Matrix filter) throws MatrixException {
+        Matrix result = outputGradient.getNewMatrix(getInputRows(), getInputColumns(), getInputDepth());
+        if (isLowered(outputGradient, filter)) return applyLowered(outputGradient, filter, result);
+        return applySynchronized(outputGradient, filter, result);
+    }
+
+    /**
+     * Applies matrix operation through state of operation used by generic operation path.<br>
+     * Synchronized as operation may be applied concurrently for different samples.<br>
+     *
+     * @param outputGradient output gradient.
+     * @param filter filter matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private synchronized Matrix applySynchronized(Matrix outputGradient, Matrix filter, Matrix result) throws MatrixException {
         this.filter = filter;
-        return applyMatrixOperation(outputGradient, null, outputGradient.getNewMatrix(getInputRows(), getInputColumns(), getInputDepth()));
+        return applyMatrixOperation(outputGradient, null, result);
+    }
+
+    /**
+     * Applies operation lowered to matrix multiplication.<br>
+     * Transposed filter matrix (input depths and filter taps x filters) is multiplied by output gradient (filters x output positions) and resulting column matrix is added back to input positions (col2im).<br>
+     * Depth separable operation multiplies filter and output gradient of each depth separately.<br>
+     *
+     * @param outputGradient output gradient.
+     * @param filter filter matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private Matrix applyLowered(Matrix outputGradient, Matrix filter, Matrix result) throws MatrixException {
+        final DMatrix gradient = getDenseMatrix(outputGradient);
+        final DMatrix filterMatrix = getDenseMatrix(filter);
+        final DMatrix inputGradient = getDenseMatrix(result);
+        final int[][] taps = getTaps();
+        if (getIsDepthSeparable()) {
+            for (int depth = 0; depth < getDepth(); depth++) {
+                addColumnMatrix(dot(getFilterMatrix(filterMatrix, taps, depth, true), getPositionMatrix(gradient, depth, 1)), depth, taps, inputGradient);
+            }
+        }
+        else addColumnMatrix(dot(getFilterMatrix(filterMatrix, taps, 0, true), getPositionMatrix(gradient, 0, getDepth())), 0, taps, inputGradient);
+        return setResult(inputGradient, result);
+    }
+
+    /**
+     * Returns true if depth slices of operation write to separate parts of result matrix.<br>
+     * Non depth separable input gradient accumulates every filter into every input depth.<br>
+     *
+     * @return true if convolution is depth separable otherwise false.
+     */
+    protected boolean hasIndependentDepthSlices() {
+        return getIsDepthSeparable();
     }
 
     /**
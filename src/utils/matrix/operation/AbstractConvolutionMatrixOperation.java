@@ -5,8 +5,11 @@
 
 package utils.matrix.operation;
 
+import utils.matrix.DMatrix;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.matrix.QMatrix;
+import utils.matrix.SMatrix;
 
 /**
  * Implements abstract convolution matrix operation.
@@ -26,12 +29,6 @@ public abstract class AbstractConvolutionMatrixOperation extends AbstractConvolu
      */
     private transient Matrix filter;
 
-    /**
-     * Value of convolution.
-     *
-     */
-    private transient double convolutionValue = 0;
-
     /**
      * Constructor for abstract convolution matrix operation.
      *
@@ -51,7 +48,10 @@ public abstract class AbstractConvolutionMatrixOperation extends AbstractConvolu
     }
 
     /**
-     * Applies matrix operation.
+     * Applies matrix operation.<br>
+     * Unmasked sparse input is convolved by scattering its non-zero values to result.<br>
+     * Unmasked filter quantized per depth slice is applied with 32-bit integer accumulation.<br>
+     * Other unmasked operations with large enough workload are lowered to matrix multiplication.<br>
      *
      * @param first first matrix.
      * @param filter filter matrix.
@@ -59,9 +59,150 @@ public abstract class AbstractConvolutionMatrixOperation extends AbstractConvolu
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public Matrix apply(Matrix first, Matrix filter) throws MatrixException {
+        if (first instanceof SMatrix sparseFirst && !hasMask(first, filter)) return applySparse(sparseFirst, filter, first.getNewMatrix(getRows(), getColumns(), getDepth()));
+        if (filter instanceof QMatrix quantizedFilter && !quantizedFilter.isPerRow() && !hasMask(first, filter)) return applyQuantized(first, quantizedFilter, first.getNewMatrix(getRows(), getColumns(), getDepth()));
+        if (isLowered(first, filter)) return applyLowered(first, filter, first.getNewMatrix(getRows(), getColumns(), getDepth()));
+        return applySynchronized(first, filter, first.getNewMatrix(getRows(), getColumns(), getDepth()));
+    }
+
+    /**
+     * Applies matrix operation through state of operation used by generic operation path.<br>
+     * Synchronized as operation may be applied concurrently for different samples.<br>
+     *
+     * @param first first matrix.
+     * @param filter filter matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private synchronized Matrix applySynchronized(Matrix first, Matrix filter, Matrix result) throws MatrixException {
         this.first = first;
         this.filter = filter;
-        return applyMatrixOperation(first, null, first.getNewMatrix(getRows(), getColumns(), getDepth()));
+        return applyMatrixOperation(first, null, result);
+    }
+
+    /**
+     * Applies operation with quantized filter using 32-bit integer accumulation.<br>
+     * Input is quantized per depth slice. For each filter and input depth products of quantized filter taps and input values are accumulated as integer,<br>
+     * corrected by zero points of filter and input and scaled by product of their scales before adding to result.<br>
+     *
+     * @param first first matrix.
+     * @param filter filter matrix quantized per depth slice.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private Matrix applyQuantized(Matrix first, QMatrix filter, Matrix result) throws MatrixException {
+        final QMatrix input = first instanceof QMatrix quantizedFirst && !quantizedFirst.isPerRow() ? quantizedFirst : new QMatrix(first, false);
+        final DMatrix output = getDenseMatrix(result);
+        final byte[] inputData = input.getMatrixData();
+        final byte[] filterData = filter.getMatrixData();
+        final double[] outputData = output.getMatrixData();
+        final int[][] taps = getTaps();
+        final int tapCount = taps[0].length;
+        final int depthCount = getIsDepthSeparable() ? 1 : getInputDepth();
+        final int positionRows = getPositionRows();
+        final int positions = positionRows * getPositionColumns();
+        final long workload = (long)positions * tapCount * getDepth() * depthCount;
+        ComputePool.execute(getDepth(), workload, (startDepth, endDepth) -> {
+            final int[] filterValues = new int[tapCount];
+            final int[] tapOffsets = new int[tapCount];
+            for (int depth = startDepth; depth < endDepth; depth++) {
+                final int outputOffset = output.getArrayOffset() + depth * output.getArrayDepthStride();
+                for (int depthIndex = 0; depthIndex < depthCount; depthIndex++) {
+                    final int inputDepth = getIsDepthSeparable() ? depth : depthIndex;
+                    final int filterDepth = getIsDepthSeparable() ? depth : getFilterPosition(depthIndex, depth);
+                    int filterSum = 0;
+                    for (int tap = 0; tap < tapCount; tap++) {
+                        filterValues[tap] = filterData[filter.getArrayOffset() + filterDepth * filter.getArrayDepthStride() + taps[0][tap] * filter.getArrayRowStride() + taps[1][tap] * filter.getArrayColumnStride()];
+                        filterSum += filterValues[tap];
+                        tapOffsets[tap] = input.getArrayOffset() + inputDepth * input.getArrayDepthStride() + taps[0][tap] * input.getArrayRowStride() + taps[1][tap] * input.getArrayColumnStride();
+                    }
+                    final int filterZeroPoint = filter.getZeroPoint(0, filterDepth);
+                    final int inputZeroPoint = input.getZeroPoint(0, inputDepth);
+                    final double scale = filter.getScale(0, filterDepth) * input.getScale(0, inputDepth);
+                    final long zeroPointProduct = (long)tapCount * filterZeroPoint * inputZeroPoint - (long)inputZeroPoint * filterSum;
+                    for (int position = 0; position < positions; position++) {
+                        final int row = (position % positionRows) * getStride();
+                        final int column = (position / positionRows) * getStride();
+                        final int inputOffset = row * input.getArrayRowStride() + column * input.getArrayColumnStride();
+                        int product = 0;
+                        int inputSum = 0;
+                        for (int tap = 0; tap < tapCount; tap++) {
+                            final int inputValue = inputData[inputOffset + tapOffsets[tap]];
+                            product += filterValues[tap] * inputValue;
+                            inputSum += inputValue;
+                        }
+                        outputData[outputOffset + row * output.getArrayRowStride() + column * output.getArrayColumnStride()] += scale * (product - (long)filterZeroPoint * inputSum + zeroPointProduct);
+                    }
+                }
+            }
+        });
+        return setResult(output, result);
+    }
+
+    /**
+     * Applies operation lowered to matrix multiplication.<br>
+     * Filter matrix (filters x input depths and filter taps) is multiplied by column matrix of input (input depths and filter taps x output positions).<br>
+     * Depth separable operation multiplies filter and column matrix of each depth separately.<br>
+     *
+     * @param first first matrix.
+     * @param filter filter matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private Matrix applyLowered(Matrix first, Matrix filter, Matrix result) throws MatrixException {
+        final DMatrix input = getDenseMatrix(first);
+        final DMatrix filterMatrix = getDenseMatrix(filter);
+        final DMatrix output = getDenseMatrix(result);
+        final int[][] taps = getTaps();
+        if (getIsDepthSeparable()) {
+            for (int depth = 0; depth < getDepth(); depth++) {
+                setPositionMatrix(dot(getFilterMatrix(filterMatrix, taps, depth, false), getColumnMatrix(input, depth, 1, taps, false)), depth, output);
+            }
+        }
+        else setPositionMatrix(dot(getFilterMatrix(filterMatrix, taps, 0, false), getColumnMatrix(input, 0, getInputDepth(), taps, false)), 0, output);
+        return setResult(output, result);
+    }
+
+    /**
+     * Applies operation to sparse input.<br>
+     * Each non-zero input value is multiplied by filter values and added to every result position whose receptive field covers input value.<br>
+     * Workload is proportional to number of non-zero input values instead of size of result.<br>
+     *
+     * @param first sparse input matrix.
+     * @param filter filter matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private Matrix applySparse(SMatrix first, Matrix filter, Matrix result) throws MatrixException {
+        final int rows = getRows();
+        final int columns = getColumns();
+        final int totalDepth = getDepth();
+        first.forEachNonZero((inputRow, inputColumn, inputDepth, inputValue) -> {
+            if (inputRow >= getInputRows() || inputColumn >= getInputColumns() || inputDepth >= (getIsDepthSeparable() ? totalDepth : getInputDepth())) return;
+            for (int filterRow = 0; filterRow < getFilterRows(); filterRow += getDilation()) {
+                int currentFilterRow = getFilterRow(filterRow);
+                int row = inputRow - currentFilterRow;
+                if (row < 0 || row >= rows || row % getStride() != 0) continue;
+                for (int filterColumn = 0; filterColumn < getFilterColumns(); filterColumn += getDilation()) {
+                    int currentFilterColumn = getFilterColumn(filterColumn);
+                    int column = inputColumn - currentFilterColumn;
+                    if (column < 0 || column >= columns || column % getStride() != 0) continue;
+                    if (getIsDepthSeparable()) {
+                        result.addByValue(row, column, inputDepth, inputValue * filter.getValue(currentFilterRow, currentFilterColumn, inputDepth));
+                    }
+                    else {
+                        for (int depth = 0; depth < totalDepth; depth++) {
+                            result.addByValue(row, column, depth, inputValue * filter.getValue(currentFilterRow, currentFilterColumn, getFilterPosition(inputDepth, depth)));
+                        }
+                    }
+                }
+            }
+        });
+        return result;
     }
 
     /**
@@ -81,13 +222,13 @@ public abstract class AbstractConvolutionMatrixOperation extends AbstractConvolu
         if (getIsDepthSeparable()) {
             double inputValue = first.getValue(inputRow, inputColumn, depth);
             double filterValue = filter.getValue(filterRow, filterColumn, depth);
-            convolutionValue += inputValue * filterValue;
+            result.addByValue(row, column, depth, inputValue * filterValue);
         }
         else {
             for (int inputDepth = 0; inputDepth < getInputDepth(); inputDepth++) {
                 double inputValue = first.getValue(inputRow, inputColumn, inputDepth);
                 double filterValue = filter.getValue(filterRow, filterColumn, getFilterPosition(inputDepth, depth));
-                convolutionValue += inputValue * filterValue;
+                result.addByValue(row, column, depth, inputValue * filterValue);
             }
         }
     }
@@ -109,27 +250,4 @@ public abstract class AbstractConvolutionMatrixOperation extends AbstractConvolu
         applyOperation(row, column, depth, inputRow, inputColumn, filterRow, filterColumn, value, result);
     }
 
-    /**
-     * Starts convolutional operation
-     *
-     * @param row current row.
-     * @param column current column.
-     * @param depth current depth.
-     */
-    protected void startOperation(int row, int column, int depth) {
-        convolutionValue = 0;
-    }
-
-    /**
-     * Finishes convolutional operation
-     *
-     * @param row current row.
-     * @param column current column.
-     * @param depth current depth.
-     * @param result result matrix.
-     */
-    protected void finishOperation(int row, int column, int depth, Matrix result) {
-        result.setValue(row, column, depth, convolutionValue);
-    }
-
 }
@@ -5,14 +5,31 @@
 
 package utils.matrix.operation;
 
+import utils.matrix.DMatrix;
 import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
 
 /**
- * Implements abstract convolution operation.
+ * Implements abstract convolution operation.<br>
+ * Unmasked operations are split by depth slices across shared compute pool when workload exceeds parallel threshold.<br>
+ * Unmasked operations with large enough workload are lowered to matrix multiplication (im2col / col2im).<br>
+ * Lowered operation gathers input values covered by filter at each output position into columns of column matrix and computes operation as single blocked matrix multiplication per input sample.<br>
  *
  */
 public abstract class AbstractConvolutionOperation extends AbstractConvolutionalOperation {
 
+    /**
+     * If true operations are lowered to matrix multiplication when workload reaches lowering threshold.
+     *
+     */
+    private static volatile boolean loweringEnabled = true;
+
+    /**
+     * Minimum number of multiply-add operations for lowered execution.
+     *
+     */
+    private static final long loweringThreshold = 4096;
+
     /**
      * If true convolution is depth separable
      *
@@ -46,6 +63,24 @@ public abstract class AbstractConvolutionOperation extends AbstractConvolutional
         this.asConvolution = asConvolution && (filterRowSize > 1 || filterColumnSize > 1);
     }
 
+    /**
+     * Sets if operations are lowered to matrix multiplication when workload reaches lowering threshold.
+     *
+     * @param loweringEnabled if true operations are lowered otherwise operations are always applied directly.
+     */
+    public static void setLoweringEnabled(boolean loweringEnabled) {
+        AbstractConvolutionOperation.loweringEnabled = loweringEnabled;
+    }
+
+    /**
+     * Checks if operations are lowered to matrix multiplication when workload reaches lowering threshold.
+     *
+     * @return true if lowering is enabled otherwise false.
+     */
+    public static boolean isLoweringEnabled() {
+        return loweringEnabled;
+    }
+
     /**
      * Returns if convolution is depth separable.
      *
@@ -107,4 +142,358 @@ public abstract class AbstractConvolutionOperation extends AbstractConvolutional
     protected void finishOperation(int row, int column, int depth, Matrix result) {
     }
 
+    /**
+     * Returns true if depth slices of operation write to separate parts of result matrix.<br>
+     * If false depth slices are calculated into partial result matrices that are summed together in fixed order.<br>
+     *
+     * @return true if depth slices of operation write to separate parts of result matrix otherwise false.
+     */
+    protected boolean hasIndependentDepthSlices() {
+        return true;
+    }
+
+    /**
+     * Checks if operation is lowered to matrix multiplication.<br>
+     * Operation is lowered if lowering is enabled, matrices are not masked and operation has at least lowering threshold multiply-add operations.<br>
+     * Smaller operations are applied directly since cost of lowering is not amortized.<br>
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @return true if operation is lowered otherwise false.
+     */
+    protected boolean isLowered(Matrix first, Matrix second) {
+        if (!loweringEnabled || hasMask(first, second)) return false;
+        long workload = (long)getPositionRows() * getPositionColumns() * getTapCount() * getDepth() * (getIsDepthSeparable() ? 1 : getInputDepth());
+        return workload >= loweringThreshold;
+    }
+
+    /**
+     * Returns number of filter taps applied at each output position.
+     *
+     * @return number of filter taps.
+     */
+    protected int getTapCount() {
+        return ((getFilterRows() - 1) / getDilation() + 1) * ((getFilterColumns() - 1) / getDilation() + 1);
+    }
+
+    /**
+     * Returns number of output rows visited by operation.
+     *
+     * @return number of output rows visited by operation.
+     */
+    protected int getPositionRows() {
+        return (getRows() + getStride() - 1) / getStride();
+    }
+
+    /**
+     * Returns number of output columns visited by operation.
+     *
+     * @return number of output columns visited by operation.
+     */
+    protected int getPositionColumns() {
+        return (getColumns() + getStride() - 1) / getStride();
+    }
+
+    /**
+     * Returns filter rows (index 0) and filter columns (index 1) of filter taps applied at each output position.<br>
+     * Taps are ordered as they are applied by direct operation.<br>
+     *
+     * @return filter rows and filter columns of filter taps.
+     */
+    protected int[][] getTaps() {
+        int[][] taps = new int[2][getTapCount()];
+        int tap = 0;
+        for (int filterRow = 0; filterRow < getFilterRows(); filterRow += getDilation()) {
+            for (int filterColumn = 0; filterColumn < getFilterColumns(); filterColumn += getDilation()) {
+                taps[0][tap] = getFilterRow(filterRow);
+                taps[1][tap] = getFilterColumn(filterColumn);
+                tap++;
+            }
+        }
+        return taps;
+    }
+
+    /**
+     * Returns matrix as dense matrix. Other than dense matrices are copied into new dense matrix.
+     *
+     * @param matrix matrix.
+     * @return dense matrix.
+     */
+    protected static DMatrix getDenseMatrix(Matrix matrix) {
+        if (matrix instanceof DMatrix dMatrix && !matrix.isScalar()) return dMatrix;
+        DMatrix denseMatrix = new DMatrix(matrix.getRows(), matrix.getColumns(), matrix.getDepth());
+        for (int depth = 0; depth < matrix.getDepth(); depth++) {
+            for (int column = 0; column < matrix.getColumns(); column++) {
+                for (int row = 0; row < matrix.getRows(); row++) denseMatrix.setValue(row, column, depth, matrix.getValue(row, column, depth));
+            }
+        }
+        return denseMatrix;
+    }
+
+    /**
+     * Copies values of dense matrix to result matrix if result matrix is not same matrix.
+     *
+     * @param denseMatrix dense matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     */
+    protected static Matrix setResult(DMatrix denseMatrix, Matrix result) {
+        if (denseMatrix == result) return result;
+        for (int depth = 0; depth < result.getDepth(); depth++) {
+            for (int column = 0; column < result.getColumns(); column++) {
+                for (int row = 0; row < result.getRows(); row++) result.setValue(row, column, depth, denseMatrix.getValue(row, column, depth));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns array offsets of output positions relative to first element of matrix.<br>
+     * Output positions are ordered column major and include only positions visited with stride.<br>
+     *
+     * @param matrix matrix.
+     * @return array offsets of output positions.
+     */
+    protected int[] getPositionOffsets(DMatrix matrix) {
+        final int positionRows = getPositionRows();
+        final int[] positionOffsets = new int[positionRows * getPositionColumns()];
+        for (int position = 0; position < positionOffsets.length; position++) {
+            positionOffsets[position] = (position % positionRows) * getStride() * matrix.getArrayRowStride() + (position / positionRows) * getStride() * matrix.getArrayColumnStride();
+        }
+        return positionOffsets;
+    }
+
+    /**
+     * Returns array offsets of combinations of input depth and filter tap (input depth major) relative to first element of matrix.
+     *
+     * @param matrix matrix.
+     * @param startDepth first input depth.
+     * @param depthCount number of input depths.
+     * @param taps filter rows and filter columns of filter taps.
+     * @return array offsets of combinations of input depth and filter tap.
+     */
+    protected int[] getTapOffsets(DMatrix matrix, int startDepth, int depthCount, int[][] taps) {
+        final int tapCount = taps[0].length;
+        final int[] tapOffsets = new int[depthCount * tapCount];
+        for (int depth = 0; depth < depthCount; depth++) {
+            for (int tap = 0; tap < tapCount; tap++) {
+                tapOffsets[depth * tapCount + tap] = matrix.getArrayOffset() + (startDepth + depth) * matrix.getArrayDepthStride() + taps[0][tap] * matrix.getArrayRowStride() + taps[1][tap] * matrix.getArrayColumnStride();
+            }
+        }
+        return tapOffsets;
+    }
+
+    /**
+     * Lowers input into column matrix (im2col).<br>
+     * Column matrix has row for each combination of input depth and filter tap (input depth major) and column for each output position.<br>
+     * If transposed positions are rows and combinations of input depth and filter tap are columns.<br>
+     *
+     * @param input input matrix.
+     * @param startDepth first input depth lowered.
+     * @param depthCount number of input depths lowered.
+     * @param taps filter rows and filter columns of filter taps.
+     * @param transposed if true column matrix is returned as transposed.
+     * @return column matrix.
+     */
+    protected DMatrix getColumnMatrix(DMatrix input, int startDepth, int depthCount, int[][] taps, boolean transposed) {
+        final double[] inputData = input.getMatrixData();
+        final int[] positionOffsets = getPositionOffsets(input);
+        final int[] tapOffsets = getTapOffsets(input, startDepth, depthCount, taps);
+        final int positions = positionOffsets.length;
+        final int lowered = tapOffsets.length;
+        final DMatrix columnMatrix = transposed ? new DMatrix(positions, lowered, 1) : new DMatrix(lowered, positions, 1);
+        final double[] columnData = columnMatrix.getMatrixData();
+        if (transposed) {
+            for (int loweredRow = 0; loweredRow < lowered; loweredRow++) {
+                final int tapOffset = tapOffsets[loweredRow];
+                final int columnIndex = loweredRow * positions;
+                for (int position = 0; position < positions; position++) columnData[columnIndex + position] = inputData[tapOffset + positionOffsets[position]];
+            }
+        }
+        else {
+            for (int position = 0; position < positions; position++) {
+                final int positionOffset = positionOffsets[position];
+                final int columnIndex = position * lowered;
+                for (int loweredRow = 0; loweredRow < lowered; loweredRow++) columnData[columnIndex + loweredRow] = inputData[positionOffset + tapOffsets[loweredRow]];
+            }
+        }
+        return columnMatrix;
+    }
+
+    /**
+     * Adds column matrix back to input positions (col2im).<br>
+     * Column matrix has row for each combination of input depth and filter tap (input depth major) and column for each output position.<br>
+     *
+     * @param columnMatrix column matrix.
+     * @param startDepth first input depth of result added to.
+     * @param taps filter rows and filter columns of filter taps.
+     * @param result result matrix of input size.
+     */
+    protected void addColumnMatrix(DMatrix columnMatrix, int startDepth, int[][] taps, DMatrix result) {
+        final double[] columnData = columnMatrix.getMatrixData();
+        final double[] resultData = result.getMatrixData();
+        final int[] positionOffsets = getPositionOffsets(result);
+        final int[] tapOffsets = getTapOffsets(result, startDepth, columnMatrix.getRows() / taps[0].length, taps);
+        final int lowered = tapOffsets.length;
+        for (int position = 0; position < positionOffsets.length; position++) {
+            final int positionOffset = positionOffsets[position];
+            final int columnIndex = columnMatrix.getArrayOffset() + position * columnMatrix.getArrayColumnStride();
+            for (int loweredRow = 0; loweredRow < lowered; loweredRow++) {
+                resultData[positionOffset + tapOffsets[loweredRow]] += columnData[columnIndex + loweredRow * columnMatrix.getArrayRowStride()];
+            }
+        }
+    }
+
+    /**
+     * Gathers values at output positions of given depths into matrix having row for each depth and column for each output position.
+     *
+     * @param matrix matrix of output size.
+     * @param startDepth first depth gathered.
+     * @param depthCount number of depths gathered.
+     * @return matrix of gathered values.
+     */
+    protected DMatrix getPositionMatrix(DMatrix matrix, int startDepth, int depthCount) {
+        final double[] data = matrix.getMatrixData();
+        final int[] positionOffsets = getPositionOffsets(matrix);
+        final DMatrix positionMatrix = new DMatrix(depthCount, positionOffsets.length, 1);
+        final double[] positionData = positionMatrix.getMatrixData();
+        for (int depth = 0; depth < depthCount; depth++) {
+            final int depthOffset = matrix.getArrayOffset() + (startDepth + depth) * matrix.getArrayDepthStride();
+            for (int position = 0; position < positionOffsets.length; position++) positionData[position * depthCount + depth] = data[depthOffset + positionOffsets[position]];
+        }
+        return positionMatrix;
+    }
+
+    /**
+     * Scatters matrix having row for each depth and column for each output position to output positions of result.
+     *
+     * @param positionMatrix matrix of values by depth and output position.
+     * @param startDepth first depth of result scattered to.
+     * @param result result matrix of output size.
+     */
+    protected void setPositionMatrix(DMatrix positionMatrix, int startDepth, DMatrix result) {
+        final double[] positionData = positionMatrix.getMatrixData();
+        final double[] resultData = result.getMatrixData();
+        final int[] positionOffsets = getPositionOffsets(result);
+        for (int depth = 0; depth < positionMatrix.getRows(); depth++) {
+            final int depthOffset = result.getArrayOffset() + (startDepth + depth) * result.getArrayDepthStride();
+            for (int position = 0; position < positionOffsets.length; position++) {
+                resultData[depthOffset + positionOffsets[position]] = positionData[positionMatrix.getArrayOffset() + depth * positionMatrix.getArrayRowStride() + position * positionMatrix.getArrayColumnStride()];
+            }
+        }
+    }
+
+    /**
+     * Returns filter as matrix having row for each filter and column for each combination of input depth and filter tap (input depth major).<br>
+     * For depth separable operation returns filter of given depth as matrix having single row and column for each filter tap.<br>
+     * If transposed combinations of input depth and filter tap are rows and filters are columns.<br>
+     *
+     * @param filter filter matrix.
+     * @param taps filter rows and filter columns of filter taps.
+     * @param separableDepth depth of filter for depth separable operation.
+     * @param transposed if true filter matrix is returned as transposed.
+     * @return filter matrix.
+     */
+    protected DMatrix getFilterMatrix(DMatrix filter, int[][] taps, int separableDepth, boolean transposed) {
+        final int tapCount = taps[0].length;
+        final int filterCount = getIsDepthSeparable() ? 1 : getDepth();
+        final int depthCount = getIsDepthSeparable() ? 1 : getInputDepth();
+        final DMatrix filterMatrix = transposed ? new DMatrix(depthCount * tapCount, filterCount, 1) : new DMatrix(filterCount, depthCount * tapCount, 1);
+        for (int filterIndex = 0; filterIndex < filterCount; filterIndex++) {
+            for (int inputDepth = 0; inputDepth < depthCount; inputDepth++) {
+                final int filterDepth = getIsDepthSeparable() ? separableDepth : getFilterPosition(inputDepth, filterIndex);
+                for (int tap = 0; tap < tapCount; tap++) {
+                    final double value = filter.getValue(taps[0][tap], taps[1][tap], filterDepth);
+                    if (transposed) filterMatrix.setValue(inputDepth * tapCount + tap, filterIndex, 0, value);
+                    else filterMatrix.setValue(filterIndex, inputDepth * tapCount + tap, 0, value);
+                }
+            }
+        }
+        return filterMatrix;
+    }
+
+    /**
+     * Sets filter shaped result from matrix having row for each filter and column for each combination of input depth and filter tap (input depth major).<br>
+     * For depth separable operation sets filter of given depth from matrix having single row and column for each filter tap.<br>
+     *
+     * @param filterMatrix filter matrix.
+     * @param taps filter rows and filter columns of filter taps.
+     * @param separableDepth depth of filter for depth separable operation.
+     * @param result result matrix of filter size.
+     */
+    protected void setFilterMatrix(DMatrix filterMatrix, int[][] taps, int separableDepth, DMatrix result) {
+        final int tapCount = taps[0].length;
+        final int depthCount = filterMatrix.getColumns() / tapCount;
+        for (int filterIndex = 0; filterIndex < filterMatrix.getRows(); filterIndex++) {
+            for (int inputDepth = 0; inputDepth < depthCount; inputDepth++) {
+                final int filterDepth = getIsDepthSeparable() ? separableDepth : getFilterPosition(inputDepth, filterIndex);
+                for (int tap = 0; tap < tapCount; tap++) {
+                    result.setValue(taps[0][tap], taps[1][tap], filterDepth, filterMatrix.getValue(filterIndex, inputDepth * tapCount + tap, 0));
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies first matrix by second matrix with blocked matrix multiplication.
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    protected static DMatrix dot(DMatrix first, DMatrix second) throws MatrixException {
+        return (DMatrix)new DotMatrixOperation(first.getRows(), second.getRows(), second.getColumns(), 1).apply(first, second);
+    }
+
+    /**
+     * Applies matrix operation.<br>
+     * Unmasked operation is split by depth slices across compute pool.<br>
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    protected Matrix applyMatrixOperation(Matrix first, Matrix second, Matrix result) throws MatrixException {
+        final int totalDepth = getDepth();
+        final long workload = (long)getRows() * getColumns() * totalDepth * getFilterRows() * getFilterColumns() * (getIsDepthSeparable() ? 1 : getInputDepth());
+        if (hasMask(first, second) || !ComputePool.isParallel(totalDepth, workload)) return super.applyMatrixOperation(first, second, result);
+        if (hasIndependentDepthSlices()) ComputePool.execute(totalDepth, workload, (startDepth, endDepth) -> applyDepthSlices(first, result, startDepth, endDepth));
+        else {
+            final int numberOfPartitions = Math.min(totalDepth, ComputePool.getParallelism());
+            final Matrix[] partialResults = new Matrix[numberOfPartitions];
+            ComputePool.execute(numberOfPartitions, workload, (startPartition, endPartition) -> {
+                for (int partition = startPartition; partition < endPartition; partition++) {
+                    partialResults[partition] = result.getNewMatrix();
+                    applyDepthSlices(first, partialResults[partition], partition * totalDepth / numberOfPartitions, (partition + 1) * totalDepth / numberOfPartitions);
+                }
+            });
+            for (Matrix partialResult : partialResults) result.addBy(partialResult);
+        }
+        return result;
+    }
+
+    /**
+     * Applies operation for range of depth slices.
+     *
+     * @param first first matrix.
+     * @param result result matrix.
+     * @param startDepth start depth.
+     * @param endDepth end depth (exclusive).
+     */
+    private void applyDepthSlices(Matrix first, Matrix result, int startDepth, int endDepth) {
+        final int rows = getRows();
+        final int columns = getColumns();
+        final boolean provideValue = getProvideValue();
+        for (int depth = startDepth; depth < endDepth; depth++) {
+            for (int column = 0; column < columns; column += getStride()) {
+                for (int row = 0; row < rows; row += getStride()) {
+                    apply(row, column, depth, provideValue ? first.getValue(row, column, depth) : 0, result);
+                }
+            }
+        }
+    }
+
 }
@@ -122,7 +122,7 @@ public abstract class AbstractConvolutionalOperation extends AbstractMatrixOpera
      *
      * @return dilation.
      */
-    private int getDilation() {
+    protected int getDilation() {
         return dilation;
     }
 
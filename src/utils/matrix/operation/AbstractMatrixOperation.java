@@ -5,6 +5,7 @@
 
 package utils.matrix.operation;
 
+import utils.matrix.Mask;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 
@@ -166,12 +167,18 @@ public abstract class AbstractMatrixOperation implements MatrixOperation, Serial
             }
         }
         else {
+            final int stride = getStride();
+            final Mask firstMask = first.getMask();
+            final Mask secondMask = second != null ? second.getMask() : null;
             for (int depth = 0; depth < totalDepth; depth++) {
-                for (int column = 0; column < columns; column += getStride()) {
-                    for (int row = 0; row < rows; row += getStride()) {
-                        if (!hasMaskAt(row, column, depth, first, second)) {
+                for (int column = 0; column < columns; column += stride) {
+                    int row = getNextUnmaskedRow(0, column, depth, firstMask, secondMask, rows);
+                    while (row < rows) {
+                        final int runEnd = getNextMaskedRow(row, column, depth, firstMask, secondMask, rows);
+                        for (row = (row + stride - 1) / stride * stride; row < runEnd; row += stride) {
                             applyMask(row, column, depth, provideValue ? first.getValue(row, column, depth) : 0, result);
                         }
+                        row = getNextUnmaskedRow(runEnd, column, depth, firstMask, secondMask, rows);
                     }
                 }
             }
@@ -179,6 +186,70 @@ public abstract class AbstractMatrixOperation implements MatrixOperation, Serial
         return result;
     }
 
+    /**
+     * Returns first row starting from given row that is unmasked in both masks at specific column and depth.
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @param firstMask first mask or null if first matrix is not masked.
+     * @param secondMask second mask or null if second matrix is not masked.
+     * @param rows number of rows for operation.
+     * @return first unmasked row or number of rows for operation if all remaining rows are masked.
+     */
+    private int getNextUnmaskedRow(int row, int column, int depth, Mask firstMask, Mask secondMask, int rows) {
+        while (row < rows) {
+            int nextRow = getNextUnmaskedRow(row, column, depth, firstMask);
+            if (nextRow < rows) nextRow = getNextUnmaskedRow(nextRow, column, depth, secondMask);
+            if (nextRow == row) return row;
+            row = nextRow;
+        }
+        return rows;
+    }
+
+    /**
+     * Returns first row starting from given row that is masked in either mask at specific column and depth.
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @param firstMask first mask or null if first matrix is not masked.
+     * @param secondMask second mask or null if second matrix is not masked.
+     * @param rows number of rows for operation.
+     * @return first masked row or number of rows for operation if none of remaining rows are masked.
+     */
+    private int getNextMaskedRow(int row, int column, int depth, Mask firstMask, Mask secondMask, int rows) {
+        return Math.min(rows, Math.min(getNextMaskedRow(row, column, depth, firstMask), getNextMaskedRow(row, column, depth, secondMask)));
+    }
+
+    /**
+     * Returns first unmasked row of mask starting from given row. Rows outside of mask are considered unmasked.
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @param mask mask or null if matrix is not masked.
+     * @return first unmasked row.
+     */
+    private int getNextUnmaskedRow(int row, int column, int depth, Mask mask) {
+        return mask == null || row >= mask.getRows() ? row : mask.getNextUnmaskedRow(row, column, depth);
+    }
+
+    /**
+     * Returns first masked row of mask starting from given row. Rows outside of mask are considered unmasked.
+     *
+     * @param row row where search starts from.
+     * @param column column of search.
+     * @param depth depth of search.
+     * @param mask mask or null if matrix is not masked.
+     * @return first masked row or Integer.MAX_VALUE if none of remaining rows are masked.
+     */
+    private int getNextMaskedRow(int row, int column, int depth, Mask mask) {
+        if (mask == null || row >= mask.getRows()) return Integer.MAX_VALUE;
+        int nextRow = mask.getNextMaskedRow(row, column, depth);
+        return nextRow < mask.getRows() ? nextRow : Integer.MAX_VALUE;
+    }
+
     /**
      * Checks if first matrix and optionally second matrix are masked.
      *
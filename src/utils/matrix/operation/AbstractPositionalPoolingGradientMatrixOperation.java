@@ -8,8 +8,6 @@ package utils.matrix.operation;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 
-import java.util.HashMap;
-
 /**
  * Implements abstract positional pooling gradient matrix operation.
  *
@@ -29,10 +27,10 @@ public abstract class AbstractPositionalPoolingGradientMatrixOperation extends A
     private final int inputGradientColumnSize;
 
     /**
-     * Input position for each resulting row and column.
+     * Input row and column for each resulting row, column and depth.
      *
      */
-    private transient HashMap<Integer, Integer> inputPos;
+    private transient int[] inputPos;
 
     /**
      * Constructor for abstract positional pooling gradient matrix operation.
@@ -54,12 +52,12 @@ public abstract class AbstractPositionalPoolingGradientMatrixOperation extends A
      * Applies matrix operation.
      *
      * @param outputGradient output gradient.
-     * @param inputPos input positions.
+     * @param inputPos input positions recorded by pooling operation.
      * @return input gradient.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-
-    public Matrix apply(Matrix outputGradient, HashMap<Integer, Integer> inputPos) throws MatrixException {
+    public Matrix apply(Matrix outputGradient, int[] inputPos) throws MatrixException {
+        if (inputPos.length < 2 * getRows() * getColumns() * getDepth()) throw new MatrixException("Input position buffer size " + inputPos.length + " is smaller than required size " + 2 * getRows() * getColumns() * getDepth() + ".");
         this.inputPos = inputPos;
         return applyMatrixOperation(outputGradient, null, outputGradient.getNewMatrix(inputGradientRowSize, inputGradientColumnSize, getDepth()));
     }
@@ -75,7 +73,7 @@ public abstract class AbstractPositionalPoolingGradientMatrixOperation extends A
      */
     public void apply(int row, int column, int depth, double value, Matrix result) {
         final int position = 2 * (depth * getRows() * getColumns() + column * getRows() + row);
-        result.addByValue(inputPos.get(position), inputPos.get(position + 1), depth, value);
+        result.addByValue(inputPos[position], inputPos[position + 1], depth, value);
     }
 
 }
@@ -8,8 +8,6 @@ package utils.matrix.operation;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 
-import java.util.HashMap;
-
 /**
  * Implements abstract positional pooling matrix operation.
  *
@@ -23,10 +21,10 @@ public abstract class AbstractPositionalPoolingMatrixOperation extends AbstractC
     private transient Matrix first;
 
     /**
-     * Input position for each resulting row and column.
+     * Input row and column for each resulting row, column and depth.
      *
      */
-    private transient HashMap<Integer, Integer> inputPos;
+    private transient int[] inputPos;
 
     /**
      * Constructor for abstract positional pooling matrix operation.
@@ -43,15 +41,26 @@ public abstract class AbstractPositionalPoolingMatrixOperation extends AbstractC
         super(rows, columns, depth, depth, filterRowSize, filterColumnSize, dilation, stride, false);
     }
 
+    /**
+     * Returns size of input position buffer required by operation.<br>
+     * Buffer stores input row and column for each resulting row, column and depth.<br>
+     *
+     * @return size of input position buffer.
+     */
+    public int getPositionSize() {
+        return 2 * getRows() * getColumns() * getDepth();
+    }
+
     /**
      * Applies matrix operation.
      *
      * @param first first matrix.
-     * @param inputPos first positions.
+     * @param inputPos buffer for input positions. Buffer can be reused between operations.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    public Matrix apply(Matrix first, HashMap<Integer, Integer> inputPos) throws MatrixException {
+    public Matrix apply(Matrix first, int[] inputPos) throws MatrixException {
+        if (inputPos.length < getPositionSize()) throw new MatrixException("Input position buffer size " + inputPos.length + " is smaller than required size " + getPositionSize() + ".");
         this.first = first;
         this.inputPos = inputPos;
         return applyMatrixOperation(first, null, first.getNewMatrix(getRows(), getColumns(), getDepth()));
@@ -75,8 +84,8 @@ public abstract class AbstractPositionalPoolingMatrixOperation extends AbstractC
      */
     protected void finishOperation(int row, int column, int depth) {
         final int position = 2 * (depth * getRows() * getColumns() + column * getRows() + row);
-        inputPos.put(position, getInputRow());
-        inputPos.put(position + 1, getInputColumn());
+        inputPos[position] = getInputRow();
+        inputPos[position + 1] = getInputColumn();
     }
 
     /**
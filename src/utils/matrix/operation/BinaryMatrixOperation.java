@@ -8,7 +8,8 @@ package utils.matrix.operation;
 import utils.matrix.*;
 
 /**
- * Implements matrix binary operation.
+ * Implements matrix binary operation.<br>
+ * Supported functions of unmasked dense matrices are applied with vectorized kernel when available.<br>
  *
  */
 public class BinaryMatrixOperation extends AbstractMatrixOperation {
@@ -86,8 +87,6 @@ public class BinaryMatrixOperation extends AbstractMatrixOperation {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public Matrix applyFunction(Matrix first, Matrix second, boolean inplace) throws MatrixException {
-        this.second = second;
-        asFunction = true;
         switch (binaryFunctionType) {
             case DIRECT_GRADIENT -> {
                 return second;
@@ -110,7 +109,13 @@ public class BinaryMatrixOperation extends AbstractMatrixOperation {
                 return first.multiply(second).divide(norm_output * norm_target);
             }
             default -> {
-                return applyMatrixOperation(first, second, inplace ? first : !first.isScalar() ? first.getNewMatrix() : second.getNewMatrix());
+                Matrix result = inplace ? first : !first.isScalar() ? first.getNewMatrix() : second.getNewMatrix();
+                if ((!inplace || !hasMask(first, second)) && result.getDepth() == getDepth() && VectorKernel.applyBinary(binaryFunctionType, matrixBinaryOperation, first, second, result)) return result;
+                if (binaryFunctionType == BinaryFunctionType.MULTIPLY && !inplace && !hasMask(first, second)) {
+                    if (first instanceof SMatrix sparseFirst && hasOperationDimensions(first)) return applySparse(sparseFirst, second, result);
+                    if (second instanceof SMatrix sparseSecond && hasOperationDimensions(second)) return applySparse(sparseSecond, first, result);
+                }
+                return applySynchronized(first, second, result, true);
             }
         }
     }
@@ -124,8 +129,6 @@ public class BinaryMatrixOperation extends AbstractMatrixOperation {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public Matrix applyGradient(Matrix first, Matrix second) throws MatrixException {
-        this.second = second;
-        asFunction = false;
         switch (binaryFunctionType) {
             case DIRECT_GRADIENT -> {
                 return second.multiply(minusOneMatrix);
@@ -150,7 +153,7 @@ public class BinaryMatrixOperation extends AbstractMatrixOperation {
                 return first.divide(norm_multiply).subtract(second.divide(Math.pow(norm_output, 2)).multiply(cos_sim));
             }
             default -> {
-                return applyMatrixOperation(first, second, first.getNewMatrix());
+                return applySynchronized(first, second, first.getNewMatrix(), false);
             }
         }
     }
@@ -168,6 +171,48 @@ public class BinaryMatrixOperation extends AbstractMatrixOperation {
         return outputGradient.multiply(applyGradient(first, second));
     }
 
+    /**
+     * Applies matrix operation through state of operation used by generic operation path.<br>
+     * Synchronized as operation may be applied concurrently for different samples.<br>
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @param result result matrix.
+     * @param asFunction if true operation is applied as function otherwise as gradient.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private synchronized Matrix applySynchronized(Matrix first, Matrix second, Matrix result, boolean asFunction) throws MatrixException {
+        this.second = second;
+        this.asFunction = asFunction;
+        return applyMatrixOperation(first, second, result);
+    }
+
+    /**
+     * Checks if matrix has dimensions of operation.
+     *
+     * @param matrix matrix.
+     * @return true if matrix has dimensions of operation otherwise false.
+     */
+    private boolean hasOperationDimensions(Matrix matrix) {
+        return !matrix.isScalar() && matrix.getRows() == getRows() && matrix.getColumns() == getColumns() && matrix.getDepth() == getDepth();
+    }
+
+    /**
+     * Multiplies non-zero values of sparse matrix by corresponding values of other matrix.<br>
+     * Rest of result matrix remains zero.<br>
+     *
+     * @param sparse sparse matrix.
+     * @param other other matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private Matrix applySparse(SMatrix sparse, Matrix other, Matrix result) throws MatrixException {
+        sparse.forEachNonZero((row, column, depth, value) -> result.setValue(row, column, depth, value * other.getValue(row, column, depth)));
+        return result;
+    }
+
     /**
      * Applies operation.
      *
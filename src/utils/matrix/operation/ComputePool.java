@@ -0,0 +1,250 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.configurable.DynamicParam;
+import utils.configurable.DynamicParamException;
+import utils.matrix.MatrixException;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implements shared compute pool for matrix operations.<br>
+ * Splits range of work units (such as rows or depth slices) into tasks executed by fork join pool.<br>
+ * Operations with workload below parallel threshold are executed serially in calling thread.<br>
+ *
+ */
+public class ComputePool {
+
+    /**
+     * Parameter name types for compute pool.
+     *     - parallelism: number of threads in compute pool. If 1 all operations are executed serially. Default value number of available processors.<br>
+     *     - parallelThreshold: minimum workload (number of multiply-add operations) for operation to be executed in parallel. Default value 131072.<br>
+     *
+     */
+    public final static String paramNameTypes = "(parallelism:INT), " +
+            "(parallelThreshold:INT)";
+
+    /**
+     * Defines interface for task executing range of work units.
+     *
+     */
+    public interface RangeTask {
+
+        /**
+         * Executes work units from start (inclusive) to end (exclusive).
+         *
+         * @param start start of range.
+         * @param end end of range (exclusive).
+         * @throws MatrixException throws exception if matrix operation fails.
+         */
+        void execute(int start, int end) throws MatrixException;
+
+    }
+
+    /**
+     * Number of threads in compute pool.
+     *
+     */
+    private static int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Minimum workload for operation to be executed in parallel.
+     *
+     */
+    private static int parallelThreshold = 131072;
+
+    /**
+     * Fork join pool executing operations.
+     *
+     */
+    private static ForkJoinPool forkJoinPool = null;
+
+    /**
+     * Default constructor for compute pool.
+     *
+     */
+    private ComputePool() {
+    }
+
+    /**
+     * Sets parameters used for compute pool.<br>
+     * <br>
+     * Supported parameters are:<br>
+     *     - parallelism: number of threads in compute pool. If 1 all operations are executed serially. Default value number of available processors.<br>
+     *     - parallelThreshold: minimum workload (number of multiply-add operations) for operation to be executed in parallel. Default value 131072.<br>
+     *
+     * @param params parameters used for compute pool.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public static void setParams(DynamicParam params) throws DynamicParamException {
+        if (params.hasParam("parallelism")) setParallelism(params.getValueAsInteger("parallelism"));
+        if (params.hasParam("parallelThreshold")) setParallelThreshold(params.getValueAsInteger("parallelThreshold"));
+    }
+
+    /**
+     * Sets number of threads in compute pool.<br>
+     * Existing pool is shut down and new pool is created when needed.<br>
+     *
+     * @param parallelism number of threads in compute pool.
+     * @throws DynamicParamException throws exception if parallelism is less than 1.
+     */
+    public static synchronized void setParallelism(int parallelism) throws DynamicParamException {
+        if (parallelism < 1) throw new DynamicParamException("Parallelism of compute pool must be at least 1.");
+        if (ComputePool.parallelism == parallelism) return;
+        ComputePool.parallelism = parallelism;
+        if (forkJoinPool != null) forkJoinPool.shutdown();
+        forkJoinPool = null;
+    }
+
+    /**
+     * Returns number of threads in compute pool.
+     *
+     * @return number of threads in compute pool.
+     */
+    public static int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets minimum workload for operation to be executed in parallel.
+     *
+     * @param parallelThreshold minimum workload for operation to be executed in parallel.
+     * @throws DynamicParamException throws exception if parallel threshold is negative.
+     */
+    public static void setParallelThreshold(int parallelThreshold) throws DynamicParamException {
+        if (parallelThreshold < 0) throw new DynamicParamException("Parallel threshold of compute pool cannot be negative.");
+        ComputePool.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Returns minimum workload for operation to be executed in parallel.
+     *
+     * @return minimum workload for operation to be executed in parallel.
+     */
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Checks if operation should be executed in parallel.
+     *
+     * @param units number of work units that can be executed independently.
+     * @param workload total workload of operation as number of multiply-add operations.
+     * @return true if operation should be executed in parallel otherwise false.
+     */
+    public static boolean isParallel(int units, long workload) {
+        return parallelism > 1 && units > 1 && workload >= parallelThreshold;
+    }
+
+    /**
+     * Returns fork join pool and creates it if needed.
+     *
+     * @return fork join pool.
+     */
+    private static synchronized ForkJoinPool getForkJoinPool() {
+        if (forkJoinPool == null) forkJoinPool = new ForkJoinPool(parallelism);
+        return forkJoinPool;
+    }
+
+    /**
+     * Executes range of work units.<br>
+     * If workload is below parallel threshold range is executed serially in calling thread otherwise range is split into tasks executed by compute pool.<br>
+     *
+     * @param units number of work units.
+     * @param workload total workload of operation as number of multiply-add operations.
+     * @param rangeTask task executing range of work units.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public static void execute(int units, long workload, RangeTask rangeTask) throws MatrixException {
+        if (!isParallel(units, workload)) {
+            rangeTask.execute(0, units);
+            return;
+        }
+        int minimumUnits = Math.max(1, units / (4 * parallelism));
+        RangeAction rangeAction = new RangeAction(rangeTask, 0, units, minimumUnits);
+        try {
+            if (ForkJoinTask.inForkJoinPool()) rangeAction.invoke();
+            else getForkJoinPool().invoke(rangeAction);
+        }
+        catch (RuntimeException exception) {
+            // Exceptions rethrown by fork join pool may be wrapped more than once.
+            for (Throwable cause = exception.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof MatrixException matrixException) throw matrixException;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Implements recursive action splitting range of work units into halves until range is small enough to be executed.
+     *
+     */
+    private static class RangeAction extends RecursiveAction {
+
+        /**
+         * Task executing range of work units.
+         *
+         */
+        private final RangeTask rangeTask;
+
+        /**
+         * Start of range.
+         *
+         */
+        private final int start;
+
+        /**
+         * End of range (exclusive).
+         *
+         */
+        private final int end;
+
+        /**
+         * Minimum number of work units executed by single task.
+         *
+         */
+        private final int minimumUnits;
+
+        /**
+         * Constructor for range action.
+         *
+         * @param rangeTask task executing range of work units.
+         * @param start start of range.
+         * @param end end of range (exclusive).
+         * @param minimumUnits minimum number of work units executed by single task.
+         */
+        RangeAction(RangeTask rangeTask, int start, int end, int minimumUnits) {
+            this.rangeTask = rangeTask;
+            this.start = start;
+            this.end = end;
+            this.minimumUnits = minimumUnits;
+        }
+
+        /**
+         * Executes range or splits it into two halves.
+         *
+         */
+        protected void compute() {
+            if (end - start <= minimumUnits) {
+                try {
+                    rangeTask.execute(start, end);
+                }
+                catch (MatrixException exception) {
+                    throw new RuntimeException(exception);
+                }
+            }
+            else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new RangeAction(rangeTask, start, middle, minimumUnits), new RangeAction(rangeTask, middle, end, minimumUnits));
+            }
+        }
+
+    }
+
+}
@@ -5,11 +5,23 @@
 
 package utils.matrix.operation;
 
+import utils.matrix.DMatrix;
+import utils.matrix.FMatrix;
+import utils.matrix.JMatrix;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.matrix.QMatrix;
+import utils.matrix.SMatrix;
+
+import java.util.Arrays;
 
 /**
- * Implements dot operation.
+ * Implements dot operation.<br>
+ * Unmasked dense matrices of same precision are multiplied with cache blocked kernel operating directly on matrix data arrays.<br>
+ * Kernel splits rows of large operations across shared compute pool.<br>
+ * Unmasked quantized first matrix is multiplied with 32-bit integer accumulation after quantizing second matrix per depth slice.<br>
+ * Unmasked joined matrices are copied sub-matrix by sub-matrix into dense matrix before multiplication.<br>
+ * Masked matrices and other matrix types are multiplied using element accessors.<br>
  *
  */
 public class DotMatrixOperation extends AbstractMatrixOperation {
@@ -32,6 +44,18 @@ public class DotMatrixOperation extends AbstractMatrixOperation {
      */
     private final int secondRows;
 
+    /**
+     * Number of rows in block processed by dense kernel.
+     *
+     */
+    private static final int blockRows = 256;
+
+    /**
+     * Number of inner dimension elements in block processed by dense kernel.
+     *
+     */
+    private static final int blockInner = 128;
+
     /**
      * Constructor for dot matrix operation.
      *
@@ -54,12 +78,436 @@ public class DotMatrixOperation extends AbstractMatrixOperation {
      * @throws MatrixException throws exception if new mask dimensions or mask type are not matching with this mask.
      */
     public Matrix apply(Matrix first, Matrix second) throws MatrixException {
-        this.first = first;
-        this.second = second;
+        if (first instanceof JMatrix firstJMatrix && first.getMask() == null) first = firstJMatrix.getDenseMatrix();
+        if (second instanceof JMatrix secondJMatrix && second.getMask() == null) second = secondJMatrix.getDenseMatrix();
         if (first.getColumns() != second.getRows() || first.getDepth() != second.getDepth()) {
             throw new MatrixException("Incompatible matrix sizes: " + first.getRows() + "x" + first.getColumns() + "x" + first.getDepth() + " by " + second.getRows() + "x" + second.getColumns() + "x" + second.getDepth());
         }
-        return applyMatrixOperation(first, second, first.getNewMatrix(first.getRows(), second.getColumns(), getDepth()));
+        Matrix result = first.getNewMatrix(first.getRows(), second.getColumns(), getDepth());
+        if (!hasMask(first, second) && first instanceof DMatrix firstDMatrix && second instanceof DMatrix secondDMatrix && result instanceof DMatrix resultDMatrix) {
+            applyDense(firstDMatrix, secondDMatrix, resultDMatrix);
+            return result;
+        }
+        if (!hasMask(first, second) && first instanceof FMatrix firstFMatrix && second instanceof FMatrix secondFMatrix && result instanceof FMatrix resultFMatrix) {
+            applyDense(firstFMatrix, secondFMatrix, resultFMatrix);
+            return result;
+        }
+        if (!hasMask(first, second) && first instanceof QMatrix firstQMatrix && result instanceof DMatrix resultDMatrix) {
+            applyQuantized(firstQMatrix, second instanceof QMatrix secondQMatrix && !secondQMatrix.isPerRow() ? secondQMatrix : new QMatrix(second, false), resultDMatrix);
+            return result;
+        }
+        if (!hasMask(first, second) && first instanceof SMatrix firstSMatrix && second instanceof DMatrix secondDMatrix && result instanceof DMatrix resultDMatrix) {
+            applySparseDense(firstSMatrix, secondDMatrix, resultDMatrix);
+            return result;
+        }
+        if (!hasMask(first, second) && first instanceof DMatrix firstDMatrix && second instanceof SMatrix secondSMatrix && result instanceof DMatrix resultDMatrix) {
+            applyDenseSparse(firstDMatrix, secondSMatrix, resultDMatrix);
+            return result;
+        }
+        return applySynchronized(first, second, result);
+    }
+
+    /**
+     * Applies matrix operation through state of operation used by generic operation path.<br>
+     * Synchronized as operation may be applied concurrently for different samples.<br>
+     *
+     * @param first first matrix.
+     * @param second second matrix.
+     * @param result result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private synchronized Matrix applySynchronized(Matrix first, Matrix second, Matrix result) throws MatrixException {
+        this.first = first;
+        this.second = second;
+        return applyMatrixOperation(first, second, result);
+    }
+
+    /**
+     * Applies dot operation for sparse first matrix and dense second matrix.<br>
+     * Each non-zero value of first matrix is multiplied by corresponding row of second matrix and added to corresponding row of result.<br>
+     *
+     * @param first  first matrix.
+     * @param second second matrix.
+     * @param result result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private void applySparseDense(SMatrix first, DMatrix second, DMatrix result) throws MatrixException {
+        final double[] secondData = second.getMatrixData();
+        final double[] resultData = result.getMatrixData();
+        final int secondRowStride = second.getArrayRowStride();
+        final int secondColumnStride = second.getArrayColumnStride();
+        final int resultRowStride = result.getArrayRowStride();
+        final int resultColumnStride = result.getArrayColumnStride();
+        final int columns = getColumns();
+        first.forEachNonZero((row, inner, depth, value) -> {
+            final int secondIndex = second.getArrayOffset() + depth * second.getArrayDepthStride() + inner * secondRowStride;
+            final int resultIndex = result.getArrayOffset() + depth * result.getArrayDepthStride() + row * resultRowStride;
+            for (int column = 0; column < columns; column++) {
+                resultData[resultIndex + column * resultColumnStride] += value * secondData[secondIndex + column * secondColumnStride];
+            }
+        });
+    }
+
+    /**
+     * Applies dot operation for dense first matrix and sparse second matrix.<br>
+     * Each non-zero value of second matrix is multiplied by corresponding column of first matrix and added to corresponding column of result.<br>
+     *
+     * @param first  first matrix.
+     * @param second second matrix.
+     * @param result result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private void applyDenseSparse(DMatrix first, SMatrix second, DMatrix result) throws MatrixException {
+        final double[] firstData = first.getMatrixData();
+        final double[] resultData = result.getMatrixData();
+        final int firstRowStride = first.getArrayRowStride();
+        final int firstColumnStride = first.getArrayColumnStride();
+        final int resultRowStride = result.getArrayRowStride();
+        final int resultColumnStride = result.getArrayColumnStride();
+        final int rows = getRows();
+        second.forEachNonZero((inner, column, depth, value) -> {
+            final int firstIndex = first.getArrayOffset() + depth * first.getArrayDepthStride() + inner * firstColumnStride;
+            final int resultIndex = result.getArrayOffset() + depth * result.getArrayDepthStride() + column * resultColumnStride;
+            for (int row = 0; row < rows; row++) {
+                resultData[resultIndex + row * resultRowStride] += firstData[firstIndex + row * firstRowStride] * value;
+            }
+        });
+    }
+
+    /**
+     * Applies dot operation to quantized matrices with 32-bit integer accumulation.<br>
+     * Second matrix is quantized per depth slice. Product of quantized values is accumulated as integer and zero points are corrected as<br>
+     * sum((a - za)(b - zb)) = sum(a * b) - zb * sum(a) - za * sum(b) + n * za * zb where sums of rows of first matrix are cached by first matrix.<br>
+     * Corrected sum is finally scaled by product of scales of first and second matrix.<br>
+     *
+     * @param first  first matrix.
+     * @param second second matrix quantized per depth slice.
+     * @param result result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private void applyQuantized(QMatrix first, QMatrix second, DMatrix result) throws MatrixException {
+        final byte[] firstData = first.getMatrixData();
+        final byte[] secondData = second.getMatrixData();
+        final double[] resultData = result.getMatrixData();
+        final int[] firstRowSums = first.getRowSums();
+        final int firstColumnStride = first.getArrayColumnStride();
+        final int secondRowStride = second.getArrayRowStride();
+        final int secondColumnStride = second.getArrayColumnStride();
+        final int resultRowStride = result.getArrayRowStride();
+        final int resultColumnStride = result.getArrayColumnStride();
+        final int rows = getRows();
+        final long workload = (long)rows * secondRows * getColumns() * getDepth();
+        ComputePool.execute(rows, workload, (startRow, endRow) -> {
+            final int[] products = new int[endRow - startRow];
+            for (int depth = 0; depth < getDepth(); depth++) {
+                final int firstOffset = first.getArrayOffset() + depth * first.getArrayDepthStride();
+                final int secondOffset = second.getArrayOffset() + depth * second.getArrayDepthStride();
+                final int resultOffset = result.getArrayOffset() + depth * result.getArrayDepthStride();
+                final int secondZeroPoint = second.getZeroPoint(0, depth);
+                final double secondScale = second.getScale(0, depth);
+                for (int column = 0; column < getColumns(); column++) {
+                    Arrays.fill(products, 0);
+                    int secondSum = 0;
+                    for (int inner = 0; inner < secondRows; inner++) {
+                        final int secondValue = secondData[secondOffset + inner * secondRowStride + column * secondColumnStride];
+                        secondSum += secondValue;
+                        if (secondValue == 0) continue;
+                        final int firstIndex = firstOffset + inner * firstColumnStride;
+                        for (int row = startRow; row < endRow; row++) products[row - startRow] += firstData[firstIndex + row] * secondValue;
+                    }
+                    for (int row = startRow; row < endRow; row++) {
+                        final int firstZeroPoint = first.getZeroPoint(row, depth);
+                        final long product = products[row - startRow] - (long)secondZeroPoint * firstRowSums[depth * rows + row] - (long)firstZeroPoint * secondSum + (long)secondRows * firstZeroPoint * secondZeroPoint;
+                        resultData[resultOffset + row * resultRowStride + column * resultColumnStride] = first.getScale(row, depth) * secondScale * product;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies dot operation directly to data arrays of dense matrices.<br>
+     * Selects loop order based on array strides so that innermost loop runs over consecutive array elements when possible.<br>
+     * Rows of result are split across compute pool when workload exceeds parallel threshold.<br>
+     *
+     * @param first  first matrix.
+     * @param second second matrix.
+     * @param result result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private void applyDense(DMatrix first, DMatrix second, DMatrix result) throws MatrixException {
+        final double[] firstData = first.getMatrixData();
+        final double[] secondData = second.getMatrixData();
+        final double[] resultData = result.getMatrixData();
+        final int firstRowStride = first.getArrayRowStride();
+        final int firstColumnStride = first.getArrayColumnStride();
+        final int secondRowStride = second.getArrayRowStride();
+        final int secondColumnStride = second.getArrayColumnStride();
+        final int resultRowStride = result.getArrayRowStride();
+        final int resultColumnStride = result.getArrayColumnStride();
+        final long workload = (long)getRows() * secondRows * getColumns() * getDepth();
+        ComputePool.execute(getRows(), workload, (startRow, endRow) -> {
+            for (int depth = 0; depth < getDepth(); depth++) {
+                final int firstOffset = first.getArrayOffset() + depth * first.getArrayDepthStride();
+                final int secondOffset = second.getArrayOffset() + depth * second.getArrayDepthStride();
+                final int resultOffset = result.getArrayOffset() + depth * result.getArrayDepthStride();
+                if (firstRowStride == 1 && resultRowStride == 1) {
+                    applyColumnMajor(firstData, firstOffset, firstColumnStride, secondData, secondOffset, secondRowStride, secondColumnStride, resultData, resultOffset, resultColumnStride, startRow, endRow);
+                }
+                else if (firstColumnStride == 1 && secondRowStride == 1) {
+                    applyRowMajor(firstData, firstOffset, firstRowStride, secondData, secondOffset, secondColumnStride, resultData, resultOffset, resultRowStride, resultColumnStride, startRow, endRow);
+                }
+                else {
+                    applyStrided(firstData, firstOffset, firstRowStride, firstColumnStride, secondData, secondOffset, secondRowStride, secondColumnStride, resultData, resultOffset, resultRowStride, resultColumnStride, startRow, endRow);
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies dot operation directly to data arrays of single precision dense matrices.<br>
+     * Uses column major kernel when first and result matrices have consecutive rows in data array otherwise strided kernel.<br>
+     *
+     * @param first  first matrix.
+     * @param second second matrix.
+     * @param result result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private void applyDense(FMatrix first, FMatrix second, FMatrix result) throws MatrixException {
+        final float[] firstData = first.getMatrixData();
+        final float[] secondData = second.getMatrixData();
+        final float[] resultData = result.getMatrixData();
+        final int firstRowStride = first.getArrayRowStride();
+        final int firstColumnStride = first.getArrayColumnStride();
+        final int secondRowStride = second.getArrayRowStride();
+        final int secondColumnStride = second.getArrayColumnStride();
+        final int resultRowStride = result.getArrayRowStride();
+        final int resultColumnStride = result.getArrayColumnStride();
+        final long workload = (long)getRows() * secondRows * getColumns() * getDepth();
+        ComputePool.execute(getRows(), workload, (startRow, endRow) -> {
+            for (int depth = 0; depth < getDepth(); depth++) {
+                final int firstOffset = first.getArrayOffset() + depth * first.getArrayDepthStride();
+                final int secondOffset = second.getArrayOffset() + depth * second.getArrayDepthStride();
+                final int resultOffset = result.getArrayOffset() + depth * result.getArrayDepthStride();
+                if (firstRowStride == 1 && resultRowStride == 1) {
+                    applyColumnMajor(firstData, firstOffset, firstColumnStride, secondData, secondOffset, secondRowStride, secondColumnStride, resultData, resultOffset, resultColumnStride, startRow, endRow);
+                }
+                else {
+                    applyStrided(firstData, firstOffset, firstRowStride, firstColumnStride, secondData, secondOffset, secondRowStride, secondColumnStride, resultData, resultOffset, resultRowStride, resultColumnStride, startRow, endRow);
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies dot operation for first and result matrices having consecutive rows in data array.<br>
+     * Result is accumulated column by column four columns at a time in blocks of rows and inner dimension.<br>
+     *
+     * @param first first matrix data.
+     * @param firstOffset first matrix offset.
+     * @param firstColumnStride first matrix column stride.
+     * @param second second matrix data.
+     * @param secondOffset second matrix offset.
+     * @param secondRowStride second matrix row stride.
+     * @param secondColumnStride second matrix column stride.
+     * @param result result matrix data.
+     * @param resultOffset result matrix offset.
+     * @param resultColumnStride result matrix column stride.
+     * @param startRow first row to be calculated.
+     * @param endRow end row (exclusive) to be calculated.
+     */
+    private void applyColumnMajor(double[] first, int firstOffset, int firstColumnStride, double[] second, int secondOffset, int secondRowStride, int secondColumnStride, double[] result, int resultOffset, int resultColumnStride, int startRow, int endRow) {
+        final int columns = getColumns();
+        for (int innerStart = 0; innerStart < secondRows; innerStart += blockInner) {
+            final int innerEnd = Math.min(innerStart + blockInner, secondRows);
+            for (int rowStart = startRow; rowStart < endRow; rowStart += blockRows) {
+                final int rowEnd = Math.min(rowStart + blockRows, endRow);
+                int column = 0;
+                for (; column + 3 < columns; column += 4) {
+                    final int result0 = resultOffset + column * resultColumnStride;
+                    final int result1 = result0 + resultColumnStride;
+                    final int result2 = result1 + resultColumnStride;
+                    final int result3 = result2 + resultColumnStride;
+                    for (int inner = innerStart; inner < innerEnd; inner++) {
+                        final int firstIndex = firstOffset + inner * firstColumnStride;
+                        final int secondIndex = secondOffset + inner * secondRowStride + column * secondColumnStride;
+                        final double second0 = second[secondIndex];
+                        final double second1 = second[secondIndex + secondColumnStride];
+                        final double second2 = second[secondIndex + 2 * secondColumnStride];
+                        final double second3 = second[secondIndex + 3 * secondColumnStride];
+                        for (int row = rowStart; row < rowEnd; row++) {
+                            final double firstValue = first[firstIndex + row];
+                            result[result0 + row] += firstValue * second0;
+                            result[result1 + row] += firstValue * second1;
+                            result[result2 + row] += firstValue * second2;
+                            result[result3 + row] += firstValue * second3;
+                        }
+                    }
+                }
+                for (; column < columns; column++) {
+                    final int resultIndex = resultOffset + column * resultColumnStride;
+                    for (int inner = innerStart; inner < innerEnd; inner++) {
+                        final int firstIndex = firstOffset + inner * firstColumnStride;
+                        final double secondValue = second[secondOffset + inner * secondRowStride + column * secondColumnStride];
+                        for (int row = rowStart; row < rowEnd; row++) {
+                            result[resultIndex + row] += first[firstIndex + row] * secondValue;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies dot operation for first matrix having consecutive columns and second matrix having consecutive rows in data array.<br>
+     * Each result value is calculated as inner product four columns at a time.<br>
+     *
+     * @param first first matrix data.
+     * @param firstOffset first matrix offset.
+     * @param firstRowStride first matrix row stride.
+     * @param second second matrix data.
+     * @param secondOffset second matrix offset.
+     * @param secondColumnStride second matrix column stride.
+     * @param result result matrix data.
+     * @param resultOffset result matrix offset.
+     * @param resultRowStride result matrix row stride.
+     * @param resultColumnStride result matrix column stride.
+     * @param startRow first row to be calculated.
+     * @param endRow end row (exclusive) to be calculated.
+     */
+    private void applyRowMajor(double[] first, int firstOffset, int firstRowStride, double[] second, int secondOffset, int secondColumnStride, double[] result, int resultOffset, int resultRowStride, int resultColumnStride, int startRow, int endRow) {
+        final int columns = getColumns();
+        for (int row = startRow; row < endRow; row++) {
+            final int firstIndex = firstOffset + row * firstRowStride;
+            final int resultIndex = resultOffset + row * resultRowStride;
+            int column = 0;
+            for (; column + 3 < columns; column += 4) {
+                final int second0 = secondOffset + column * secondColumnStride;
+                final int second1 = second0 + secondColumnStride;
+                final int second2 = second1 + secondColumnStride;
+                final int second3 = second2 + secondColumnStride;
+                double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+                for (int inner = 0; inner < secondRows; inner++) {
+                    final double firstValue = first[firstIndex + inner];
+                    sum0 += firstValue * second[second0 + inner];
+                    sum1 += firstValue * second[second1 + inner];
+                    sum2 += firstValue * second[second2 + inner];
+                    sum3 += firstValue * second[second3 + inner];
+                }
+                result[resultIndex + column * resultColumnStride] += sum0;
+                result[resultIndex + (column + 1) * resultColumnStride] += sum1;
+                result[resultIndex + (column + 2) * resultColumnStride] += sum2;
+                result[resultIndex + (column + 3) * resultColumnStride] += sum3;
+            }
+            for (; column < columns; column++) {
+                final int secondIndex = secondOffset + column * secondColumnStride;
+                double sum = 0;
+                for (int inner = 0; inner < secondRows; inner++) sum += first[firstIndex + inner] * second[secondIndex + inner];
+                result[resultIndex + column * resultColumnStride] += sum;
+            }
+        }
+    }
+
+    /**
+     * Applies dot operation for arbitrary array strides.
+     *
+     * @param first first matrix data.
+     * @param firstOffset first matrix offset.
+     * @param firstRowStride first matrix row stride.
+     * @param firstColumnStride first matrix column stride.
+     * @param second second matrix data.
+     * @param secondOffset second matrix offset.
+     * @param secondRowStride second matrix row stride.
+     * @param secondColumnStride second matrix column stride.
+     * @param result result matrix data.
+     * @param resultOffset result matrix offset.
+     * @param resultRowStride result matrix row stride.
+     * @param resultColumnStride result matrix column stride.
+     * @param startRow first row to be calculated.
+     * @param endRow end row (exclusive) to be calculated.
+     */
+    private void applyStrided(double[] first, int firstOffset, int firstRowStride, int firstColumnStride, double[] second, int secondOffset, int secondRowStride, int secondColumnStride, double[] result, int resultOffset, int resultRowStride, int resultColumnStride, int startRow, int endRow) {
+        final int columns = getColumns();
+        for (int column = 0; column < columns; column++) {
+            final int resultIndex = resultOffset + column * resultColumnStride;
+            for (int inner = 0; inner < secondRows; inner++) {
+                final int firstIndex = firstOffset + inner * firstColumnStride;
+                final double secondValue = second[secondOffset + inner * secondRowStride + column * secondColumnStride];
+                for (int row = startRow; row < endRow; row++) {
+                    result[resultIndex + row * resultRowStride] += first[firstIndex + row * firstRowStride] * secondValue;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies dot operation for single precision first and result matrices having consecutive rows in data array.<br>
+     * Result is accumulated column by column in blocks of rows and inner dimension.<br>
+     *
+     * @param first first matrix data.
+     * @param firstOffset first matrix offset.
+     * @param firstColumnStride first matrix column stride.
+     * @param second second matrix data.
+     * @param secondOffset second matrix offset.
+     * @param secondRowStride second matrix row stride.
+     * @param secondColumnStride second matrix column stride.
+     * @param result result matrix data.
+     * @param resultOffset result matrix offset.
+     * @param resultColumnStride result matrix column stride.
+     * @param startRow first row to be calculated.
+     * @param endRow end row (exclusive) to be calculated.
+     */
+    private void applyColumnMajor(float[] first, int firstOffset, int firstColumnStride, float[] second, int secondOffset, int secondRowStride, int secondColumnStride, float[] result, int resultOffset, int resultColumnStride, int startRow, int endRow) {
+        final int columns = getColumns();
+        for (int innerStart = 0; innerStart < secondRows; innerStart += blockInner) {
+            final int innerEnd = Math.min(innerStart + blockInner, secondRows);
+            for (int rowStart = startRow; rowStart < endRow; rowStart += blockRows) {
+                final int rowEnd = Math.min(rowStart + blockRows, endRow);
+                for (int column = 0; column < columns; column++) {
+                    final int resultIndex = resultOffset + column * resultColumnStride;
+                    for (int inner = innerStart; inner < innerEnd; inner++) {
+                        final int firstIndex = firstOffset + inner * firstColumnStride;
+                        final float secondValue = second[secondOffset + inner * secondRowStride + column * secondColumnStride];
+                        for (int row = rowStart; row < rowEnd; row++) {
+                            result[resultIndex + row] += first[firstIndex + row] * secondValue;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies dot operation for single precision matrices with arbitrary array strides.
+     *
+     * @param first first matrix data.
+     * @param firstOffset first matrix offset.
+     * @param firstRowStride first matrix row stride.
+     * @param firstColumnStride first matrix column stride.
+     * @param second second matrix data.
+     * @param secondOffset second matrix offset.
+     * @param secondRowStride second matrix row stride.
+     * @param secondColumnStride second matrix column stride.
+     * @param result result matrix data.
+     * @param resultOffset result matrix offset.
+     * @param resultRowStride result matrix row stride.
+     * @param resultColumnStride result matrix column stride.
+     * @param startRow first row to be calculated.
+     * @param endRow end row (exclusive) to be calculated.
+     */
+    private void applyStrided(float[] first, int firstOffset, int firstRowStride, int firstColumnStride, float[] second, int secondOffset, int secondRowStride, int secondColumnStride, float[] result, int resultOffset, int resultRowStride, int resultColumnStride, int startRow, int endRow) {
+        final int columns = getColumns();
+        for (int column = 0; column < columns; column++) {
+            final int resultIndex = resultOffset + column * resultColumnStride;
+            for (int inner = 0; inner < secondRows; inner++) {
+                final int firstIndex = firstOffset + inner * firstColumnStride;
+                final float secondValue = second[secondOffset + inner * secondRowStride + column * secondColumnStride];
+                for (int row = startRow; row < endRow; row++) {
+                    result[resultIndex + row * resultRowStride] += first[firstIndex + row * firstRowStride] * secondValue;
+                }
+            }
+        }
     }
 
     /**
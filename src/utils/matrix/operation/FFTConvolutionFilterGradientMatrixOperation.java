@@ -0,0 +1,78 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.DMatrix;
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+
+/**
+ * Implements convolution and crosscorrelation filter gradient matrix operation calculated with fast Fourier transform.<br>
+ * Filter gradient is crosscorrelation of input and output gradient calculated as inverse transform of product of input spectrum and conjugate of output gradient spectrum.<br>
+ * Filter gradients of two input depths are inverse transformed together as real and imaginary part of single transform.<br>
+ * Masked operations are applied directly.<br>
+ *
+ */
+public class FFTConvolutionFilterGradientMatrixOperation extends AbstractConvolutionFilterGradientMatrixOperation {
+
+    /**
+     * Constructor for FFT convolution filter gradient matrix operation.
+     *
+     * @param rows             number of rows for operation.
+     * @param columns          number of columns for operation.
+     * @param depth            depth for operation.
+     * @param inputDepth       input depth.
+     * @param filterRowSize    filter row size
+     * @param filterColumnSize filter column size.
+     * @param dilation         dilation step
+     * @param stride           stride step
+     * @param isDepthSeparable if true convolution is depth separable
+     * @param asConvolution    if true operation is executed as convolution otherwise as crosscorrelation
+     */
+    public FFTConvolutionFilterGradientMatrixOperation(int rows, int columns, int depth, int inputDepth, int filterRowSize, int filterColumnSize, int dilation, int stride, boolean isDepthSeparable, boolean asConvolution) {
+        super(rows, columns, depth, inputDepth, filterRowSize, filterColumnSize, dilation, stride, isDepthSeparable, asConvolution);
+    }
+
+    /**
+     * Applies matrix operation.
+     *
+     * @param outputGradient output gradient.
+     * @param first input matrix.
+     * @return filter gradient.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix apply(Matrix outputGradient, Matrix first) throws MatrixException {
+        if (hasMask(outputGradient, first)) return super.apply(outputGradient, first);
+        final DMatrix gradient = getDenseMatrix(outputGradient);
+        final DMatrix input = getDenseMatrix(first);
+        final Matrix result = outputGradient.getNewMatrix(getFilterRows(), getFilterColumns(), getIsDepthSeparable() ? getInputDepth() : getInputDepth() * getDepth());
+        final DMatrix filterGradient = getDenseMatrix(result);
+        final FourierTransform fourierTransform = new FourierTransform(getInputRows(), getInputColumns());
+        final double[][][] inputSpectra = fourierTransform.getSpectra(input, getInputRows(), getInputColumns(), 1);
+        final double[][][] gradientSpectra = fourierTransform.getSpectra(gradient, getRows(), getColumns(), getStride());
+        final int[][] taps = getTaps();
+        final int depthCount = getIsDepthSeparable() ? 1 : getInputDepth();
+        final long workload = (long)fourierTransform.getRows() * fourierTransform.getColumns() * getDepth() * depthCount;
+        ComputePool.execute(getDepth(), workload, (startDepth, endDepth) -> {
+            for (int depth = startDepth; depth < endDepth; depth++) {
+                for (int pair = 0; pair < (depthCount + 1) / 2; pair++) {
+                    final double[][] filterSpectrum = fourierTransform.getNewSpectrum();
+                    for (int inputDepth = 2 * pair; inputDepth < Math.min(2 * pair + 2, depthCount); inputDepth++) {
+                        FourierTransform.multiplyAdd(inputSpectra[getIsDepthSeparable() ? depth : inputDepth], gradientSpectra[depth], true, inputDepth % 2 == 1, filterSpectrum);
+                    }
+                    fourierTransform.transform(filterSpectrum, true);
+                    for (int inputDepth = 2 * pair; inputDepth < Math.min(2 * pair + 2, depthCount); inputDepth++) {
+                        final double[] values = filterSpectrum[inputDepth % 2];
+                        final int filterDepth = getIsDepthSeparable() ? depth : getFilterPosition(inputDepth, depth);
+                        for (int tap = 0; tap < taps[0].length; tap++) filterGradient.setValue(taps[0][tap], taps[1][tap], filterDepth, values[fourierTransform.getIndex(taps[0][tap], taps[1][tap])]);
+                    }
+                }
+            }
+        });
+        return setResult(filterGradient, result);
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.DMatrix;
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+
+/**
+ * Implements convolution and crosscorrelation input gradient matrix operation calculated with fast Fourier transform.<br>
+ * Input gradient of each input depth is inverse transform of sum of products of output gradient spectra and filter spectra.<br>
+ * Input gradients of two input depths are inverse transformed together as real and imaginary part of single transform.<br>
+ * Masked operations are applied directly.<br>
+ *
+ */
+public class FFTConvolutionInputGradientMatrixOperation extends AbstractConvolutionInputGradientMatrixOperation {
+
+    /**
+     * Constructor for FFT convolution input gradient matrix operation.
+     *
+     * @param rows             number of rows for operation.
+     * @param columns          number of columns for operation.
+     * @param depth            depth for operation.
+     * @param inputDepth       input depth.
+     * @param filterRowSize    filter row size
+     * @param filterColumnSize filter column size.
+     * @param dilation         dilation step
+     * @param stride           stride step
+     * @param isDepthSeparable if true convolution is depth separable
+     * @param asConvolution    if true operation is executed as convolution otherwise as crosscorrelation
+     */
+    public FFTConvolutionInputGradientMatrixOperation(int rows, int columns, int depth, int inputDepth, int filterRowSize, int filterColumnSize, int dilation, int stride, boolean isDepthSeparable, boolean asConvolution) {
+        super(rows, columns, depth, inputDepth, filterRowSize, filterColumnSize, dilation, stride, isDepthSeparable, asConvolution);
+    }
+
+    /**
+     * Applies matrix operation.
+     *
+     * @param outputGradient output gradient.
+     * @param filter filter matrix.
+     * @return input gradient.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix apply(Matrix outputGradient, Matrix filter) throws MatrixException {
+        if (hasMask(outputGradient, filter)) return super.apply(outputGradient, filter);
+        final DMatrix gradient = getDenseMatrix(outputGradient);
+        final DMatrix filterMatrix = getDenseMatrix(filter);
+        final Matrix result = outputGradient.getNewMatrix(getInputRows(), getInputColumns(), getInputDepth());
+        final DMatrix inputGradient = getDenseMatrix(result);
+        final FourierTransform fourierTransform = new FourierTransform(getInputRows(), getInputColumns());
+        final double[][][] gradientSpectra = fourierTransform.getSpectra(gradient, getRows(), getColumns(), getStride());
+        final double[][][] filterSpectra = fourierTransform.getSpectra(filterMatrix, getTaps());
+        final int depthCount = getIsDepthSeparable() ? 1 : getDepth();
+        final int inputDepthCount = getIsDepthSeparable() ? getDepth() : getInputDepth();
+        final long workload = (long)fourierTransform.getRows() * fourierTransform.getColumns() * inputDepthCount * depthCount;
+        ComputePool.execute((inputDepthCount + 1) / 2, workload, (startPair, endPair) -> {
+            for (int pair = startPair; pair < endPair; pair++) {
+                final double[][] inputSpectrum = fourierTransform.getNewSpectrum();
+                for (int inputDepth = 2 * pair; inputDepth < Math.min(2 * pair + 2, inputDepthCount); inputDepth++) {
+                    for (int depth = 0; depth < depthCount; depth++) {
+                        final int outputDepth = getIsDepthSeparable() ? inputDepth : depth;
+                        final int filterDepth = getIsDepthSeparable() ? inputDepth : getFilterPosition(inputDepth, depth);
+                        FourierTransform.multiplyAdd(gradientSpectra[outputDepth], filterSpectra[filterDepth], false, inputDepth % 2 == 1, inputSpectrum);
+                    }
+                }
+                fourierTransform.transform(inputSpectrum, true);
+                for (int inputDepth = 2 * pair; inputDepth < Math.min(2 * pair + 2, inputDepthCount); inputDepth++) {
+                    final double[] values = inputSpectrum[inputDepth % 2];
+                    for (int column = 0; column < getInputColumns(); column++) {
+                        for (int row = 0; row < getInputRows(); row++) inputGradient.setValue(row, column, inputDepth, values[fourierTransform.getIndex(row, column)]);
+                    }
+                }
+            }
+        });
+        return setResult(inputGradient, result);
+    }
+
+}
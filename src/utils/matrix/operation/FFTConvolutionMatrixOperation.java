@@ -0,0 +1,81 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.DMatrix;
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+import utils.matrix.QMatrix;
+
+/**
+ * Implements convolution and crosscorrelation matrix operation calculated with fast Fourier transform.<br>
+ * Each input depth and filter is transformed once and operation is calculated as sum of element wise products of spectra followed by inverse transform per filter.<br>
+ * Results of two filters are inverse transformed together as real and imaginary part of single transform.<br>
+ * Cost of operation is independent of filter size which makes it efficient for large filters and long sequences.<br>
+ * Masked operations and operations with quantized filter are applied directly.<br>
+ *
+ */
+public class FFTConvolutionMatrixOperation extends AbstractConvolutionMatrixOperation {
+
+    /**
+     * Constructor for FFT convolution matrix operation.
+     *
+     * @param rows             number of rows for operation.
+     * @param columns          number of columns for operation.
+     * @param depth            depth for operation.
+     * @param inputDepth       input depth.
+     * @param filterRowSize    filter row size
+     * @param filterColumnSize filter column size.
+     * @param dilation         dilation step
+     * @param stride           stride step
+     * @param isDepthSeparable if true convolution is depth separable
+     * @param asConvolution    if true operation is executed as convolution otherwise as crosscorrelation
+     */
+    public FFTConvolutionMatrixOperation(int rows, int columns, int depth, int inputDepth, int filterRowSize, int filterColumnSize, int dilation, int stride, boolean isDepthSeparable, boolean asConvolution) {
+        super(rows, columns, depth, inputDepth, filterRowSize, filterColumnSize, dilation, stride, isDepthSeparable, asConvolution);
+    }
+
+    /**
+     * Applies matrix operation.
+     *
+     * @param first first matrix.
+     * @param filter filter matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix apply(Matrix first, Matrix filter) throws MatrixException {
+        if (hasMask(first, filter) || filter instanceof QMatrix) return super.apply(first, filter);
+        final DMatrix input = getDenseMatrix(first);
+        final DMatrix filterMatrix = getDenseMatrix(filter);
+        final Matrix result = first.getNewMatrix(getRows(), getColumns(), getDepth());
+        final DMatrix output = getDenseMatrix(result);
+        final FourierTransform fourierTransform = new FourierTransform(getInputRows(), getInputColumns());
+        final double[][][] inputSpectra = fourierTransform.getSpectra(input, getInputRows(), getInputColumns(), 1);
+        final double[][][] filterSpectra = fourierTransform.getSpectra(filterMatrix, getTaps());
+        final int depthCount = getIsDepthSeparable() ? 1 : getInputDepth();
+        final long workload = (long)fourierTransform.getRows() * fourierTransform.getColumns() * getDepth() * depthCount;
+        ComputePool.execute((getDepth() + 1) / 2, workload, (startPair, endPair) -> {
+            for (int pair = startPair; pair < endPair; pair++) {
+                final double[][] outputSpectrum = fourierTransform.getNewSpectrum();
+                for (int depth = 2 * pair; depth < Math.min(2 * pair + 2, getDepth()); depth++) {
+                    for (int inputDepth = 0; inputDepth < depthCount; inputDepth++) {
+                        final int filterDepth = getIsDepthSeparable() ? depth : getFilterPosition(inputDepth, depth);
+                        FourierTransform.multiplyAdd(inputSpectra[getIsDepthSeparable() ? depth : inputDepth], filterSpectra[filterDepth], true, depth % 2 == 1, outputSpectrum);
+                    }
+                }
+                fourierTransform.transform(outputSpectrum, true);
+                for (int depth = 2 * pair; depth < Math.min(2 * pair + 2, getDepth()); depth++) {
+                    final double[] values = outputSpectrum[depth % 2];
+                    for (int column = 0; column < getColumns(); column += getStride()) {
+                        for (int row = 0; row < getRows(); row += getStride()) output.setValue(row, column, depth, values[fourierTransform.getIndex(row, column)]);
+                    }
+                }
+            }
+        });
+        return setResult(output, result);
+    }
+
+}
@@ -0,0 +1,405 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.DMatrix;
+import utils.matrix.MatrixException;
+
+/**
+ * Implements two dimensional radix-2 fast Fourier transform used by FFT convolution operations.<br>
+ * Transformed signal is zero padded to size that is power of two in terms of rows and columns. Spectrum is stored as real part (index 0) and imaginary part (index 1) in column major order.<br>
+ * Transform is computed first for each column and then for each row so that row transforms process whole columns at once.<br>
+ * Real signals are transformed two at a time as real and imaginary part of single complex transform.<br>
+ *
+ */
+class FourierTransform {
+
+    /**
+     * Defines setter of real signal values.
+     *
+     */
+    private interface Signal {
+
+        /**
+         * Sets values of signal into zero padded array in column major order.
+         *
+         * @param signal signal index.
+         * @param values values.
+         */
+        void setValues(int signal, double[] values);
+
+    }
+
+    /**
+     * Number of rows in transform.
+     *
+     */
+    private final int rows;
+
+    /**
+     * Number of columns in transform.
+     *
+     */
+    private final int columns;
+
+    /**
+     * Bit reversed indices for row dimension.
+     *
+     */
+    private final int[] rowIndices;
+
+    /**
+     * Cosine twiddle factors for row dimension.
+     *
+     */
+    private final double[] rowCosines;
+
+    /**
+     * Sine twiddle factors for row dimension.
+     *
+     */
+    private final double[] rowSines;
+
+    /**
+     * Bit reversed indices for column dimension.
+     *
+     */
+    private final int[] columnIndices;
+
+    /**
+     * Cosine twiddle factors for column dimension.
+     *
+     */
+    private final double[] columnCosines;
+
+    /**
+     * Sine twiddle factors for column dimension.
+     *
+     */
+    private final double[] columnSines;
+
+    /**
+     * Constructor for Fourier transform.
+     *
+     * @param minimumRows minimum number of rows in transform.
+     * @param minimumColumns minimum number of columns in transform.
+     */
+    FourierTransform(int minimumRows, int minimumColumns) {
+        rows = getTransformSize(minimumRows);
+        columns = getTransformSize(minimumColumns);
+        rowIndices = getReversedIndices(rows);
+        rowCosines = getTwiddleFactors(rows, true);
+        rowSines = getTwiddleFactors(rows, false);
+        columnIndices = getReversedIndices(columns);
+        columnCosines = getTwiddleFactors(columns, true);
+        columnSines = getTwiddleFactors(columns, false);
+    }
+
+    /**
+     * Returns smallest power of two that is at least given size.
+     *
+     * @param size size.
+     * @return transform size.
+     */
+    static int getTransformSize(int size) {
+        int transformSize = 1;
+        while (transformSize < size) transformSize <<= 1;
+        return transformSize;
+    }
+
+    /**
+     * Returns bit reversed indices for transform of given length.
+     *
+     * @param length transform length.
+     * @return bit reversed indices.
+     */
+    private static int[] getReversedIndices(int length) {
+        int[] reversedIndices = new int[length];
+        int bits = Integer.numberOfTrailingZeros(length);
+        for (int index = 0; index < length; index++) reversedIndices[index] = bits == 0 ? 0 : Integer.reverse(index) >>> (Integer.SIZE - bits);
+        return reversedIndices;
+    }
+
+    /**
+     * Returns twiddle factors for transform of given length.
+     *
+     * @param length transform length.
+     * @param asCosine if true returns cosine factors otherwise sine factors.
+     * @return twiddle factors.
+     */
+    private static double[] getTwiddleFactors(int length, boolean asCosine) {
+        double[] twiddleFactors = new double[Math.max(1, length / 2)];
+        for (int index = 0; index < twiddleFactors.length; index++) {
+            double angle = 2 * Math.PI * index / length;
+            twiddleFactors[index] = asCosine ? Math.cos(angle) : Math.sin(angle);
+        }
+        return twiddleFactors;
+    }
+
+    /**
+     * Returns number of rows in transform.
+     *
+     * @return number of rows in transform.
+     */
+    int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns number of columns in transform.
+     *
+     * @return number of columns in transform.
+     */
+    int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns index of value in spectrum.
+     *
+     * @param row row.
+     * @param column column.
+     * @return index of value in spectrum.
+     */
+    int getIndex(int row, int column) {
+        return row + column * rows;
+    }
+
+    /**
+     * Returns spectra of depth slices of matrix.<br>
+     * Only values at rows and columns that are multiples of stride are included and other values are treated as zeros.<br>
+     *
+     * @param matrix matrix.
+     * @param sliceRows number of rows included from matrix.
+     * @param sliceColumns number of columns included from matrix.
+     * @param stride stride of included values.
+     * @return spectra of depth slices.
+     * @throws MatrixException throws exception if transform fails.
+     */
+    double[][][] getSpectra(DMatrix matrix, int sliceRows, int sliceColumns, int stride) throws MatrixException {
+        final double[] data = matrix.getMatrixData();
+        return getSpectra(matrix.getDepth(), (depth, values) -> {
+            final int depthOffset = matrix.getArrayOffset() + depth * matrix.getArrayDepthStride();
+            for (int column = 0; column < sliceColumns; column += stride) {
+                final int columnOffset = depthOffset + column * matrix.getArrayColumnStride();
+                for (int row = 0; row < sliceRows; row += stride) values[getIndex(row, column)] = data[columnOffset + row * matrix.getArrayRowStride()];
+            }
+        });
+    }
+
+    /**
+     * Returns spectra of filter taps of depth slices of filter. Other filter positions are treated as zeros.
+     *
+     * @param filter filter matrix.
+     * @param taps filter rows and filter columns of filter taps.
+     * @return spectra of filter taps.
+     * @throws MatrixException throws exception if transform fails.
+     */
+    double[][][] getSpectra(DMatrix filter, int[][] taps) throws MatrixException {
+        return getSpectra(filter.getDepth(), (depth, values) -> {
+            for (int tap = 0; tap < taps[0].length; tap++) values[getIndex(taps[0][tap], taps[1][tap])] = filter.getValue(taps[0][tap], taps[1][tap], depth);
+        });
+    }
+
+    /**
+     * Returns spectra of real signals.<br>
+     * Signals are transformed in pairs so that first signal is real part and second signal imaginary part of transformed sequence.<br>
+     * Spectra of signals are separated from transform by using conjugate symmetry of spectrum of real signal.<br>
+     *
+     * @param signalCount number of signals.
+     * @param signal signal setter.
+     * @return spectra of signals.
+     * @throws MatrixException throws exception if transform fails.
+     */
+    private double[][][] getSpectra(int signalCount, Signal signal) throws MatrixException {
+        final double[][][] spectra = new double[signalCount][][];
+        ComputePool.execute((signalCount + 1) / 2, (long)signalCount * rows * columns, (startPair, endPair) -> {
+            for (int pair = startPair; pair < endPair; pair++) {
+                final int first = 2 * pair;
+                final double[][] spectrum = getNewSpectrum();
+                signal.setValues(first, spectrum[0]);
+                if (first + 1 < signalCount) signal.setValues(first + 1, spectrum[1]);
+                transform(spectrum, false);
+                if (first + 1 < signalCount) {
+                    spectra[first] = getNewSpectrum();
+                    spectra[first + 1] = getNewSpectrum();
+                    separate(spectrum, spectra[first], spectra[first + 1]);
+                }
+                else spectra[first] = spectrum;
+            }
+        });
+        return spectra;
+    }
+
+    /**
+     * Separates spectra of two real signals from spectrum of signal having first signal as real part and second signal as imaginary part.
+     *
+     * @param spectrum spectrum of combined signal.
+     * @param first spectrum of first signal.
+     * @param second spectrum of second signal.
+     */
+    private void separate(double[][] spectrum, double[][] first, double[][] second) {
+        final double[] real = spectrum[0];
+        final double[] imaginary = spectrum[1];
+        for (int column = 0; column < columns; column++) {
+            final int mirrorColumn = (columns - column) % columns;
+            for (int row = 0; row < rows; row++) {
+                final int index = getIndex(row, column);
+                final int mirrorIndex = getIndex((rows - row) % rows, mirrorColumn);
+                first[0][index] = 0.5 * (real[index] + real[mirrorIndex]);
+                first[1][index] = 0.5 * (imaginary[index] - imaginary[mirrorIndex]);
+                second[0][index] = 0.5 * (imaginary[index] + imaginary[mirrorIndex]);
+                second[1][index] = 0.5 * (real[mirrorIndex] - real[index]);
+            }
+        }
+    }
+
+    /**
+     * Returns new spectrum with zero values.
+     *
+     * @return new spectrum.
+     */
+    double[][] getNewSpectrum() {
+        return new double[2][rows * columns];
+    }
+
+    /**
+     * Multiplies first spectrum by second spectrum element wise and adds product to result spectrum.<br>
+     * Multiplication by conjugate of second spectrum corresponds to crosscorrelation and multiplication by second spectrum to convolution of signals.<br>
+     * Product added as imaginary is multiplied by imaginary unit so that inverse transform of result has signal of product as its imaginary part. This allows inverse transform of two real signals at once.<br>
+     *
+     * @param first first spectrum.
+     * @param second second spectrum.
+     * @param conjugate if true first spectrum is multiplied by conjugate of second spectrum.
+     * @param asImaginary if true product is added as imaginary part of result.
+     * @param result result spectrum.
+     */
+    static void multiplyAdd(double[][] first, double[][] second, boolean conjugate, boolean asImaginary, double[][] result) {
+        final double[] firstReal = first[0];
+        final double[] firstImaginary = first[1];
+        final double[] secondReal = second[0];
+        final double[] secondImaginary = second[1];
+        final double[] resultReal = asImaginary ? result[1] : result[0];
+        final double[] resultImaginary = asImaginary ? result[0] : result[1];
+        final double sign = conjugate ? -1 : 1;
+        final double imaginarySign = asImaginary ? -1 : 1;
+        for (int index = 0; index < resultReal.length; index++) {
+            final double imaginary = sign * secondImaginary[index];
+            resultReal[index] += firstReal[index] * secondReal[index] - firstImaginary[index] * imaginary;
+            resultImaginary[index] += imaginarySign * (firstReal[index] * imaginary + firstImaginary[index] * secondReal[index]);
+        }
+    }
+
+    /**
+     * Transforms spectrum in place.<br>
+     * Inverse transform is scaled so that inverse of forward transform returns original signal.<br>
+     *
+     * @param spectrum spectrum.
+     * @param inverse if true inverse transform is calculated otherwise forward transform.
+     */
+    void transform(double[][] spectrum, boolean inverse) {
+        final double[] real = spectrum[0];
+        final double[] imaginary = spectrum[1];
+        for (int column = 0; column < columns; column++) transform(real, imaginary, column * rows, rows, 1, rowIndices, rowCosines, rowSines, inverse);
+        transform(real, imaginary, 0, columns, rows, columnIndices, columnCosines, columnSines, inverse);
+        if (inverse) {
+            final double scale = 1 / (double)(rows * columns);
+            for (int index = 0; index < real.length; index++) {
+                real[index] *= scale;
+                imaginary[index] *= scale;
+            }
+        }
+    }
+
+    /**
+     * Calculates one dimensional transform in place.<br>
+     * Each element of transformed sequence is block of consecutive values that are transformed together.<br>
+     *
+     * @param real real part.
+     * @param imaginary imaginary part.
+     * @param offset offset of first element.
+     * @param length number of elements in sequence.
+     * @param blockSize number of values in element.
+     * @param reversedIndices bit reversed indices.
+     * @param cosines cosine twiddle factors.
+     * @param sines sine twiddle factors.
+     * @param inverse if true inverse transform is calculated otherwise forward transform.
+     */
+    private static void transform(double[] real, double[] imaginary, int offset, int length, int blockSize, int[] reversedIndices, double[] cosines, double[] sines, boolean inverse) {
+        if (length < 2) return;
+        for (int index = 0; index < length; index++) {
+            final int reversedIndex = reversedIndices[index];
+            if (reversedIndex <= index) continue;
+            final int first = offset + index * blockSize;
+            final int second = offset + reversedIndex * blockSize;
+            for (int value = 0; value < blockSize; value++) {
+                final double swapReal = real[first + value];
+                final double swapImaginary = imaginary[first + value];
+                real[first + value] = real[second + value];
+                imaginary[first + value] = imaginary[second + value];
+                real[second + value] = swapReal;
+                imaginary[second + value] = swapImaginary;
+            }
+        }
+        final double sign = inverse ? 1 : -1;
+        if (blockSize == 1) {
+            transform(real, imaginary, offset, length, cosines, sines, sign);
+            return;
+        }
+        for (int size = 2; size <= length; size <<= 1) {
+            final int half = size >> 1;
+            final int step = length / size;
+            for (int start = 0; start < length; start += size) {
+                for (int index = 0; index < half; index++) {
+                    final double cosine = cosines[index * step];
+                    final double sine = sign * sines[index * step];
+                    final int even = offset + (start + index) * blockSize;
+                    final int odd = even + half * blockSize;
+                    for (int value = 0; value < blockSize; value++) {
+                        final double oddReal = real[odd + value] * cosine - imaginary[odd + value] * sine;
+                        final double oddImaginary = real[odd + value] * sine + imaginary[odd + value] * cosine;
+                        real[odd + value] = real[even + value] - oddReal;
+                        imaginary[odd + value] = imaginary[even + value] - oddImaginary;
+                        real[even + value] += oddReal;
+                        imaginary[even + value] += oddImaginary;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates butterflies of one dimensional transform in place for sequence of single values.
+     *
+     * @param real real part.
+     * @param imaginary imaginary part.
+     * @param offset offset of first value.
+     * @param length number of values in sequence.
+     * @param cosines cosine twiddle factors.
+     * @param sines sine twiddle factors.
+     * @param sign sign of sine twiddle factors.
+     */
+    private static void transform(double[] real, double[] imaginary, int offset, int length, double[] cosines, double[] sines, double sign) {
+        for (int size = 2; size <= length; size <<= 1) {
+            final int half = size >> 1;
+            final int step = length / size;
+            for (int index = 0; index < half; index++) {
+                final double cosine = cosines[index * step];
+                final double sine = sign * sines[index * step];
+                for (int even = offset + index; even < offset + length; even += size) {
+                    final int odd = even + half;
+                    final double oddReal = real[odd] * cosine - imaginary[odd] * sine;
+                    final double oddImaginary = real[odd] * sine + imaginary[odd] * cosine;
+                    real[odd] = real[even] - oddReal;
+                    imaginary[odd] = imaginary[even] - oddImaginary;
+                    real[even] += oddReal;
+                    imaginary[even] += oddImaginary;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,493 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.DMatrix;
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+import utils.matrix.UnaryFunction;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Implements fused element wise matrix operation that calculates sequence of element wise steps in single pass over its argument matrices.<br>
+ * Operation has registers of which first ones are argument matrices and rest are results of steps. Last step is result of operation.<br>
+ * Elements are processed in fixed size blocks so that intermediate results stay in small register buffers instead of being allocated as matrices.<br>
+ * Register buffers are sized to smaller of block size and operation size and reused by each thread across operations.<br>
+ * Gradient recalculates only intermediate results that are needed by gradients of steps and propagates result gradient backwards through steps into gradients of arguments.<br>
+ * Unary function steps are applied with vectorized kernels where available. Gradient of unary function step is calculated from result of step as in unary function expression.<br>
+ * Operation is applicable to argument matrices with equal dimensions and no masking.<br>
+ *
+ */
+public class FusedElementWiseMatrixOperation extends AbstractMatrixOperation {
+
+    /**
+     * Element wise operations of step.
+     *
+     */
+    public enum Operation {
+
+        /**
+         * Sum of first and second register.
+         *
+         */
+        ADD,
+
+        /**
+         * Difference of first and second register.
+         *
+         */
+        SUBTRACT,
+
+        /**
+         * Product of first and second register.
+         *
+         */
+        MULTIPLY,
+
+        /**
+         * Unary function of first register.
+         *
+         */
+        UNARY_FUNCTION
+
+    }
+
+    /**
+     * Defines step of operation.
+     *
+     * @param operation element wise operation.
+     * @param register1 first register of step.
+     * @param register2 second register of step or -1 if operation is unary function.
+     * @param unaryFunction unary function of step or null if operation is not unary function.
+     */
+    private record Step(Operation operation, int register1, int register2, UnaryFunction unaryFunction) implements Serializable {
+    }
+
+    /**
+     * Implements register buffers reused by thread.
+     *
+     */
+    private static class Scratch {
+
+        /**
+         * Register values.
+         *
+         */
+        private double[][] registers = new double[0][0];
+
+        /**
+         * Register gradients.
+         *
+         */
+        private double[][] gradients = new double[0][0];
+
+        /**
+         * Derivatives of unary function steps.
+         *
+         */
+        private double[] derivatives = new double[0];
+
+        /**
+         * Ensures that buffers hold at least given number of registers of given length.
+         *
+         * @param numberOfRegisters number of registers.
+         * @param length length of register.
+         * @return this scratch.
+         */
+        private Scratch ensureCapacity(int numberOfRegisters, int length) {
+            if (registers.length < numberOfRegisters || derivatives.length < length) {
+                int registerLength = Math.max(length, derivatives.length);
+                registers = new double[Math.max(numberOfRegisters, registers.length)][registerLength];
+                gradients = new double[registers.length][registerLength];
+                derivatives = new double[registerLength];
+            }
+            return this;
+        }
+
+    }
+
+    /**
+     * Number of elements in one block.
+     *
+     */
+    private static final int blockSize = 256;
+
+    /**
+     * Register buffers of thread.
+     *
+     */
+    private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Number of arguments.
+     *
+     */
+    private final int numberOfArguments;
+
+    /**
+     * Steps of operation.
+     *
+     */
+    private final ArrayList<Step> steps = new ArrayList<>();
+
+    /**
+     * Flags telling which steps are recalculated for gradient. Null if flags are not yet resolved.
+     *
+     */
+    private transient boolean[] gradientSteps = null;
+
+    /**
+     * Constructor for fused element wise matrix operation.
+     *
+     * @param rows number of rows for operation.
+     * @param columns number of columns for operation.
+     * @param depth depth for operation.
+     * @param numberOfArguments number of arguments.
+     */
+    public FusedElementWiseMatrixOperation(int rows, int columns, int depth, int numberOfArguments) {
+        super(rows, columns, depth, true);
+        this.numberOfArguments = numberOfArguments;
+    }
+
+    /**
+     * Adds step to operation.
+     *
+     * @param operation element wise operation.
+     * @param register1 first register of step.
+     * @param register2 second register of step or -1 if operation is unary function.
+     * @param unaryFunction unary function of step or null if operation is not unary function.
+     * @return register of step result.
+     * @throws MatrixException throws exception if registers or unary function of step are not defined.
+     */
+    public int addStep(Operation operation, int register1, int register2, UnaryFunction unaryFunction) throws MatrixException {
+        int numberOfRegisters = getNumberOfRegisters();
+        if (register1 < 0 || register1 >= numberOfRegisters) throw new MatrixException("First register of step is not defined.");
+        if (operation == Operation.UNARY_FUNCTION) {
+            if (unaryFunction == null) throw new MatrixException("Unary function of step is not defined.");
+        }
+        else if (register2 < 0 || register2 >= numberOfRegisters) throw new MatrixException("Second register of step is not defined.");
+        steps.add(new Step(operation, register1, register2, unaryFunction));
+        gradientSteps = null;
+        return numberOfRegisters;
+    }
+
+    /**
+     * Returns number of steps.
+     *
+     * @return number of steps.
+     */
+    public int getNumberOfSteps() {
+        return steps.size();
+    }
+
+    /**
+     * Returns number of registers.
+     *
+     * @return number of registers.
+     */
+    private int getNumberOfRegisters() {
+        return numberOfArguments + steps.size();
+    }
+
+    /**
+     * Calculates result of operation.
+     *
+     * @param arguments argument matrices.
+     * @return result of operation.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix applyFunction(Matrix[] arguments) throws MatrixException {
+        final double[][] data = new double[numberOfArguments][];
+        final int[] offsets = new int[numberOfArguments];
+        getData(arguments, data, offsets);
+        final Matrix result = arguments[0].getNewMatrix(getRows(), getColumns(), getDepth());
+        final double[] resultData = getOutputData(result);
+        final int resultOffset = getOutputOffset(result);
+        final int size = getSize();
+        final int resultRegister = getNumberOfRegisters() - 1;
+        ComputePool.execute(getNumberOfBlocks(size), (long)size * steps.size(), (startUnit, endUnit) -> {
+            final double[][] registers = getScratch(size).registers;
+            for (int unit = startUnit; unit < endUnit; unit++) {
+                final int start = unit * blockSize;
+                final int length = Math.min(blockSize, size - start);
+                calculateBlock(data, offsets, start, length, registers, null);
+                System.arraycopy(registers[resultRegister], 0, resultData, resultOffset + start, length);
+            }
+        });
+        return setOutputData(result, resultData);
+    }
+
+    /**
+     * Calculates gradients of arguments.
+     *
+     * @param arguments argument matrices.
+     * @param resultGradient gradient of result.
+     * @param calculateGradients flags telling for which arguments gradient is calculated.
+     * @return gradients of arguments. Gradient is null for arguments for which gradient is not calculated.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix[] applyGradient(Matrix[] arguments, Matrix resultGradient, boolean[] calculateGradients) throws MatrixException {
+        final double[][] data = new double[numberOfArguments + 1][];
+        final int[] offsets = new int[numberOfArguments + 1];
+        getData(arguments, data, offsets);
+        getData(resultGradient, numberOfArguments, data, offsets);
+        final Matrix[] argumentGradients = new Matrix[numberOfArguments];
+        final double[][] argumentGradientData = new double[numberOfArguments][];
+        final int[] argumentGradientOffsets = new int[numberOfArguments];
+        for (int argument = 0; argument < numberOfArguments; argument++) {
+            if (!calculateGradients[argument]) continue;
+            argumentGradients[argument] = arguments[argument].getNewMatrix(getRows(), getColumns(), getDepth());
+            argumentGradientData[argument] = getOutputData(argumentGradients[argument]);
+            argumentGradientOffsets[argument] = getOutputOffset(argumentGradients[argument]);
+        }
+        final boolean[] gradientSteps = getGradientSteps();
+        final int size = getSize();
+        final int resultRegister = getNumberOfRegisters() - 1;
+        ComputePool.execute(getNumberOfBlocks(size), 3L * size * steps.size(), (startUnit, endUnit) -> {
+            final Scratch blockScratch = getScratch(size);
+            final double[][] registers = blockScratch.registers;
+            final double[][] gradients = blockScratch.gradients;
+            for (int unit = startUnit; unit < endUnit; unit++) {
+                final int start = unit * blockSize;
+                final int length = Math.min(blockSize, size - start);
+                calculateBlock(data, offsets, start, length, registers, gradientSteps);
+                for (int register = 0; register < resultRegister; register++) Arrays.fill(gradients[register], 0, length, 0);
+                System.arraycopy(data[numberOfArguments], offsets[numberOfArguments] + start, gradients[resultRegister], 0, length);
+                calculateGradientBlock(length, registers, gradients, blockScratch.derivatives);
+                for (int argument = 0; argument < numberOfArguments; argument++) {
+                    if (argumentGradients[argument] != null) System.arraycopy(gradients[argument], 0, argumentGradientData[argument], argumentGradientOffsets[argument] + start, length);
+                }
+            }
+        });
+        for (int argument = 0; argument < numberOfArguments; argument++) {
+            if (argumentGradients[argument] != null) argumentGradients[argument] = setOutputData(argumentGradients[argument], argumentGradientData[argument]);
+        }
+        return argumentGradients;
+    }
+
+    /**
+     * Returns register buffers of current thread with capacity for this operation.
+     *
+     * @param size number of elements of operation.
+     * @return register buffers of current thread.
+     */
+    private Scratch getScratch(int size) {
+        return scratch.get().ensureCapacity(getNumberOfRegisters(), Math.min(blockSize, size));
+    }
+
+    /**
+     * Returns flags telling which steps are recalculated for gradient.<br>
+     * Step is recalculated if its result is needed for derivative of unary function step or as operand of multiply step or as argument of other recalculated step.<br>
+     *
+     * @return flags telling which steps are recalculated for gradient.
+     */
+    private boolean[] getGradientSteps() {
+        if (gradientSteps != null) return gradientSteps;
+        final boolean[] requiredRegisters = new boolean[getNumberOfRegisters()];
+        final boolean[] newGradientSteps = new boolean[steps.size()];
+        for (int stepIndex = steps.size() - 1; stepIndex >= 0; stepIndex--) {
+            final Step step = steps.get(stepIndex);
+            if (step.operation() == Operation.UNARY_FUNCTION) requiredRegisters[numberOfArguments + stepIndex] = true;
+            if (step.operation() == Operation.MULTIPLY) {
+                requiredRegisters[step.register1()] = true;
+                requiredRegisters[step.register2()] = true;
+            }
+            if (requiredRegisters[numberOfArguments + stepIndex]) {
+                newGradientSteps[stepIndex] = true;
+                requiredRegisters[step.register1()] = true;
+                if (step.register2() != -1) requiredRegisters[step.register2()] = true;
+            }
+        }
+        return gradientSteps = newGradientSteps;
+    }
+
+    /**
+     * Calculates registers of block.
+     *
+     * @param data data arrays of arguments.
+     * @param offsets array offsets of arguments.
+     * @param start start of block.
+     * @param length length of block.
+     * @param registers registers.
+     * @param calculatedSteps flags telling which steps are calculated or null if all steps are calculated.
+     */
+    private void calculateBlock(double[][] data, int[] offsets, int start, int length, double[][] registers, boolean[] calculatedSteps) {
+        for (int argument = 0; argument < numberOfArguments; argument++) System.arraycopy(data[argument], offsets[argument] + start, registers[argument], 0, length);
+        for (int stepIndex = 0; stepIndex < steps.size(); stepIndex++) {
+            if (calculatedSteps != null && !calculatedSteps[stepIndex]) continue;
+            final Step step = steps.get(stepIndex);
+            final double[] value1 = registers[step.register1()];
+            final double[] value2 = step.register2() != -1 ? registers[step.register2()] : null;
+            final double[] result = registers[numberOfArguments + stepIndex];
+            switch (step.operation()) {
+                case ADD -> {
+                    for (int index = 0; index < length; index++) result[index] = value1[index] + value2[index];
+                }
+                case SUBTRACT -> {
+                    for (int index = 0; index < length; index++) result[index] = value1[index] - value2[index];
+                }
+                case MULTIPLY -> {
+                    for (int index = 0; index < length; index++) result[index] = value1[index] * value2[index];
+                }
+                case UNARY_FUNCTION -> VectorKernel.applyUnary(step.unaryFunction(), true, value1, result, length);
+            }
+        }
+    }
+
+    /**
+     * Propagates gradients of block backwards through steps.
+     *
+     * @param length length of block.
+     * @param registers registers.
+     * @param gradients gradients of registers.
+     * @param derivatives buffer for derivatives of unary function steps.
+     */
+    private void calculateGradientBlock(int length, double[][] registers, double[][] gradients, double[] derivatives) {
+        for (int stepIndex = steps.size() - 1; stepIndex >= 0; stepIndex--) {
+            final Step step = steps.get(stepIndex);
+            final double[] resultGradient = gradients[numberOfArguments + stepIndex];
+            final double[] gradient1 = gradients[step.register1()];
+            final double[] gradient2 = step.register2() != -1 ? gradients[step.register2()] : null;
+            switch (step.operation()) {
+                case ADD -> {
+                    for (int index = 0; index < length; index++) gradient1[index] += resultGradient[index];
+                    for (int index = 0; index < length; index++) gradient2[index] += resultGradient[index];
+                }
+                case SUBTRACT -> {
+                    for (int index = 0; index < length; index++) gradient1[index] += resultGradient[index];
+                    for (int index = 0; index < length; index++) gradient2[index] -= resultGradient[index];
+                }
+                case MULTIPLY -> {
+                    final double[] value1 = registers[step.register1()];
+                    final double[] value2 = registers[step.register2()];
+                    for (int index = 0; index < length; index++) gradient1[index] += resultGradient[index] * value2[index];
+                    for (int index = 0; index < length; index++) gradient2[index] += value1[index] * resultGradient[index];
+                }
+                case UNARY_FUNCTION -> {
+                    VectorKernel.applyUnary(step.unaryFunction(), false, registers[numberOfArguments + stepIndex], derivatives, length);
+                    for (int index = 0; index < length; index++) gradient1[index] += resultGradient[index] * derivatives[index];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns number of elements of operation.
+     *
+     * @return number of elements of operation.
+     */
+    private int getSize() {
+        return getRows() * getColumns() * getDepth();
+    }
+
+    /**
+     * Returns number of element blocks.
+     *
+     * @param size number of elements.
+     * @return number of element blocks.
+     */
+    private static int getNumberOfBlocks(int size) {
+        return (size + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * Collects data arrays and array offsets of arguments.
+     *
+     * @param arguments arguments.
+     * @param data data arrays of arguments.
+     * @param offsets array offsets of arguments.
+     * @throws MatrixException throws exception if argument has dimensions not matching operation or is masked.
+     */
+    private void getData(Matrix[] arguments, double[][] data, int[] offsets) throws MatrixException {
+        if (arguments.length != numberOfArguments) throw new MatrixException("Number of arguments " + arguments.length + " is not matching number of arguments of operation " + numberOfArguments);
+        for (int argument = 0; argument < numberOfArguments; argument++) getData(arguments[argument], argument, data, offsets);
+    }
+
+    /**
+     * Collects data array and array offset of matrix.
+     *
+     * @param matrix matrix.
+     * @param index index of matrix in data arrays.
+     * @param data data arrays.
+     * @param offsets array offsets.
+     * @throws MatrixException throws exception if matrix has dimensions not matching operation or is masked.
+     */
+    private void getData(Matrix matrix, int index, double[][] data, int[] offsets) throws MatrixException {
+        if (matrix.getRows() != getRows() || matrix.getColumns() != getColumns() || matrix.getDepth() != getDepth()) throw new MatrixException("Dimensions of matrix " + matrix.getRows() + "x" + matrix.getColumns() + "x" + matrix.getDepth() + " are not matching dimensions of fused operation " + getRows() + "x" + getColumns() + "x" + getDepth());
+        if (matrix.getMask() != null) throw new MatrixException("Fused element wise operation is not applicable to masked matrix.");
+        if (matrix instanceof DMatrix dMatrix && VectorKernel.isContiguous(dMatrix, getRows(), getColumns(), getDepth())) {
+            data[index] = dMatrix.getMatrixData();
+            offsets[index] = dMatrix.getArrayOffset();
+        }
+        else {
+            final double[] values = new double[getSize()];
+            int position = 0;
+            for (int depth = 0; depth < getDepth(); depth++) {
+                for (int column = 0; column < getColumns(); column++) {
+                    for (int row = 0; row < getRows(); row++) values[position++] = matrix.getValue(row, column, depth);
+                }
+            }
+            data[index] = values;
+        }
+    }
+
+    /**
+     * Returns array to which values of output matrix are written.
+     *
+     * @param output output matrix.
+     * @return data array of output matrix if it is contiguous dense matrix otherwise new column major array.
+     */
+    private double[] getOutputData(Matrix output) {
+        return output instanceof DMatrix dOutput && VectorKernel.isContiguous(dOutput, getRows(), getColumns(), getDepth()) ? dOutput.getMatrixData() : new double[getSize()];
+    }
+
+    /**
+     * Returns array offset of output matrix.
+     *
+     * @param output output matrix.
+     * @return array offset of output matrix if it is contiguous dense matrix otherwise zero.
+     */
+    private int getOutputOffset(Matrix output) {
+        return output instanceof DMatrix dOutput && VectorKernel.isContiguous(dOutput, getRows(), getColumns(), getDepth()) ? dOutput.getArrayOffset() : 0;
+    }
+
+    /**
+     * Sets values to output matrix unless values were written directly to its data array.
+     *
+     * @param output output matrix.
+     * @param values values as column major array.
+     * @return output matrix.
+     */
+    private Matrix setOutputData(Matrix output, double[] values) {
+        if (output instanceof DMatrix dOutput && dOutput.getMatrixData() == values) return output;
+        int position = 0;
+        for (int depth = 0; depth < getDepth(); depth++) {
+            for (int column = 0; column < getColumns(); column++) {
+                for (int row = 0; row < getRows(); row++) output.setValue(row, column, depth, values[position++]);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Applies operation.<br>
+     * Operation is applied through applyFunction and applyGradient which evaluate whole fused chain per element.<br>
+     *
+     * @param row    current row.
+     * @param column current column.
+     * @param depth  current depth.
+     * @param value  current value.
+     * @param result result matrix.
+     * @throws MatrixException throws exception as operation cannot be applied through generic element wise path.
+     */
+    public void apply(int row, int column, int depth, double value, Matrix result) throws MatrixException {
+        throw new MatrixException("Fused element wise operation cannot be applied through generic element wise path.");
+    }
+
+}
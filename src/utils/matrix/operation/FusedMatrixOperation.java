@@ -0,0 +1,136 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.*;
+
+/**
+ * Implements fused in place matrix operation target = beta * target + alpha * first * second in single pass over target.<br>
+ * If second matrix is not given operation is target = beta * target + alpha * first.<br>
+ * Unmasked dense matrices of equal dimensions are updated directly on their data arrays. Otherwise operation is applied element wise and masked elements of target are left unchanged.<br>
+ *
+ */
+public class FusedMatrixOperation extends AbstractMatrixOperation {
+
+    /**
+     * Scale of target matrix.
+     *
+     */
+    private final double beta;
+
+    /**
+     * Scale of first and second matrix product.
+     *
+     */
+    private final double alpha;
+
+    /**
+     * First matrix.
+     *
+     */
+    private Matrix first;
+
+    /**
+     * Second matrix.
+     *
+     */
+    private Matrix second;
+
+    /**
+     * Constructor for fused matrix operation.
+     *
+     * @param rows number of rows for operation.
+     * @param columns number of columns for operation.
+     * @param depth depth for operation.
+     * @param beta scale of target matrix.
+     * @param alpha scale of first and second matrix product.
+     */
+    public FusedMatrixOperation(int rows, int columns, int depth, double beta, double alpha) {
+        super(rows, columns, depth, true);
+        this.beta = beta;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Applies matrix operation in place to target matrix.
+     *
+     * @param target target matrix.
+     * @param first first matrix.
+     * @param second second matrix or null if operation has only first matrix.
+     * @throws MatrixException throws exception if dimensions of matrices are not matching.
+     */
+    public void apply(Matrix target, Matrix first, Matrix second) throws MatrixException {
+        checkDimensions(target, first);
+        if (second != null) checkDimensions(target, second);
+        if (applyDense(target, first, second)) return;
+        this.first = first;
+        this.second = second;
+        applyMatrixOperation(target, first, target);
+    }
+
+    /**
+     * Checks that other matrix is either scalar or has same dimensions as target matrix.
+     *
+     * @param target target matrix.
+     * @param other other matrix.
+     * @throws MatrixException throws exception if dimensions of matrices are not matching.
+     */
+    private void checkDimensions(Matrix target, Matrix other) throws MatrixException {
+        if (other.isScalar()) return;
+        if (target.getRows() != other.getRows() || target.getColumns() != other.getColumns() || target.getDepth() != other.getDepth()) {
+            throw new MatrixException("Incompatible matrix sizes: " + target.getRows() + "x" + target.getColumns() + "x" + target.getDepth() + " by " + other.getRows() + "x" + other.getColumns() + "x" + other.getDepth());
+        }
+    }
+
+    /**
+     * Applies operation directly on data arrays if all matrices are unmasked contiguous dense matrices of equal dimensions.
+     *
+     * @param target target matrix.
+     * @param first first matrix.
+     * @param second second matrix or null if operation has only first matrix.
+     * @return true if operation was applied otherwise false.
+     */
+    private boolean applyDense(Matrix target, Matrix first, Matrix second) {
+        if (!(target instanceof DMatrix targetDMatrix) || !(first instanceof DMatrix firstDMatrix)) return false;
+        if (target.getMask() != null || first.getMask() != null || (second != null && second.getMask() != null)) return false;
+        int rows = getRows();
+        int columns = getColumns();
+        int depth = getDepth();
+        if (!VectorKernel.isContiguous(targetDMatrix, rows, columns, depth) || !VectorKernel.isContiguous(firstDMatrix, rows, columns, depth)) return false;
+        double[] targetData = targetDMatrix.getMatrixData();
+        int targetOffset = targetDMatrix.getArrayOffset();
+        double[] firstData = firstDMatrix.getMatrixData();
+        int firstOffset = firstDMatrix.getArrayOffset();
+        int length = rows * columns * depth;
+        if (second == null) {
+            if (beta == 1) for (int index = 0; index < length; index++) targetData[targetOffset + index] += alpha * firstData[firstOffset + index];
+            else for (int index = 0; index < length; index++) targetData[targetOffset + index] = beta * targetData[targetOffset + index] + alpha * firstData[firstOffset + index];
+            return true;
+        }
+        if (!(second instanceof DMatrix secondDMatrix) || !VectorKernel.isContiguous(secondDMatrix, rows, columns, depth)) return false;
+        double[] secondData = secondDMatrix.getMatrixData();
+        int secondOffset = secondDMatrix.getArrayOffset();
+        if (beta == 1) for (int index = 0; index < length; index++) targetData[targetOffset + index] += alpha * firstData[firstOffset + index] * secondData[secondOffset + index];
+        else for (int index = 0; index < length; index++) targetData[targetOffset + index] = beta * targetData[targetOffset + index] + alpha * firstData[firstOffset + index] * secondData[secondOffset + index];
+        return true;
+    }
+
+    /**
+     * Applies operation.<br>
+     * Entries masked in second matrix are left unchanged.<br>
+     *
+     * @param row    current row.
+     * @param column current column.
+     * @param depth  current depth.
+     * @param value  current value.
+     * @param result result matrix.
+     */
+    public void apply(int row, int column, int depth, double value, Matrix result) {
+        if (second == null) result.setValue(row, column, depth, beta * value + alpha * first.getValue(row, column, depth));
+        else if (!second.hasMaskAt(row, column, depth)) result.setValue(row, column, depth, beta * value + alpha * first.getValue(row, column, depth) * second.getValue(row, column, depth));
+    }
+
+}
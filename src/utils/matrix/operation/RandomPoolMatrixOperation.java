@@ -6,8 +6,8 @@
 package utils.matrix.operation;
 
 import utils.matrix.Matrix;
+import utils.random.RandomProvider;
 
-import java.util.Random;
 
 /**
  * Implements random pooling matrix operation.<br>
@@ -28,12 +28,6 @@ public class RandomPoolMatrixOperation extends AbstractPositionalPoolingMatrixOp
      */
     private int randomColumn;
 
-    /**
-     * Random number generator.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Constructor for random pooling matrix operation.
      *
@@ -92,8 +86,8 @@ public class RandomPoolMatrixOperation extends AbstractPositionalPoolingMatrixOp
      * @param depth current depth.
      */
     protected void startOperation(int row, int column, int depth) {
-        randomRow = row + random.nextInt(getFilterRows());
-        randomColumn = column + random.nextInt(getFilterColumns());
+        randomRow = row + RandomProvider.nextInt(getFilterRows());
+        randomColumn = column + RandomProvider.nextInt(getFilterColumns());
     }
 
     /**
@@ -7,8 +7,8 @@ package utils.matrix.operation;
 
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
-import java.util.Random;
 
 /**
  * Implements weight random sampling (choice) matrix operation. Assumes that matrix is distribution summing to 1 with values between 0 and 1.
@@ -46,12 +46,6 @@ public class SampleMatrixOperation extends AbstractMatrixOperation {
      */
     private transient int selectedDepth = -1;
 
-    /**
-     * Random function.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Constructor for sample matrix operation.
      *
@@ -72,7 +66,7 @@ public class SampleMatrixOperation extends AbstractMatrixOperation {
      */
     public int[] sample(Matrix first) throws MatrixException {
         cumulativeValue = 0;
-        thresholdValue = random.nextDouble();
+        thresholdValue = RandomProvider.nextDouble();
         selectedRow = -1;
         selectedColumn = -1;
         selectedDepth = -1;
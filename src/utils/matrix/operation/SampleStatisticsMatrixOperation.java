@@ -0,0 +1,282 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.DMatrix;
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+
+import java.util.Collection;
+
+/**
+ * Implements sum, mean, variance and standard deviation matrix operations over set of samples.<br>
+ * Samples are split into fixed size chunks and elements into fixed size blocks. Each chunk and block is reduced into its own accumulator by compute pool and chunk accumulators are then combined with pairwise tree reduction.<br>
+ * Variance is calculated in single pass with Welford's algorithm. Chunk results are combined with Chan's parallel update and finally shifted to mean given as input.<br>
+ * Chunk and block boundaries depend only on number of samples and elements which makes results independent of number of threads.<br>
+ * Operation is applicable to samples with equal dimensions and no masking.<br>
+ *
+ */
+public class SampleStatisticsMatrixOperation extends AbstractMatrixOperation {
+
+    /**
+     * Number of samples reduced serially into one accumulator.
+     *
+     */
+    private static final int chunkSize = 8;
+
+    /**
+     * Number of elements in one block.
+     *
+     */
+    private static final int blockSize = 1024;
+
+    /**
+     * Constructor for sample statistics matrix operation.
+     *
+     * @param rows number of rows for operation.
+     * @param columns number of columns for operation.
+     * @param depth depth for operation.
+     */
+    public SampleStatisticsMatrixOperation(int rows, int columns, int depth) {
+        super(rows, columns, depth, true);
+    }
+
+    /**
+     * Checks if operation is applicable to samples.
+     *
+     * @param samples samples.
+     * @return true if operation is applicable otherwise false.
+     */
+    public static boolean isApplicable(Collection<Matrix> samples) {
+        if (samples.isEmpty()) return false;
+        Matrix firstSample = samples.iterator().next();
+        for (Matrix sample : samples) {
+            if (sample.getMask() != null || sample.getRows() != firstSample.getRows() || sample.getColumns() != firstSample.getColumns() || sample.getDepth() != firstSample.getDepth()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Calculates sum or mean of samples.
+     *
+     * @param samples samples.
+     * @param asMean if true returns mean otherwise sum.
+     * @return sum or mean of samples.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix applySum(Collection<Matrix> samples, boolean asMean) throws MatrixException {
+        final double[][] data = new double[samples.size()][];
+        final int[] offsets = new int[samples.size()];
+        Matrix firstSample = getData(samples, data, offsets);
+        final int size = getSize();
+        final int numberOfChunks = getNumberOfChunks(data.length);
+        final int numberOfBlocks = getNumberOfBlocks(size);
+        final double[][] sums = new double[numberOfChunks][size];
+        ComputePool.execute(numberOfChunks * numberOfBlocks, (long)data.length * size, (startUnit, endUnit) -> {
+            for (int unit = startUnit; unit < endUnit; unit++) {
+                final int chunk = unit / numberOfBlocks;
+                final int start = (unit % numberOfBlocks) * blockSize;
+                final int end = Math.min(start + blockSize, size);
+                final double[] sum = sums[chunk];
+                for (int sample = chunk * chunkSize; sample < Math.min((chunk + 1) * chunkSize, data.length); sample++) {
+                    final double[] values = data[sample];
+                    final int offset = offsets[sample];
+                    for (int index = start; index < end; index++) sum[index] += values[offset + index];
+                }
+            }
+        });
+        for (int stride = 1; stride < numberOfChunks; stride *= 2) {
+            final int currentStride = stride;
+            final int numberOfPairs = (numberOfChunks - stride + 2 * stride - 1) / (2 * stride);
+            ComputePool.execute(numberOfPairs * numberOfBlocks, (long)numberOfPairs * size, (startUnit, endUnit) -> {
+                for (int unit = startUnit; unit < endUnit; unit++) {
+                    final double[] sum = sums[(unit / numberOfBlocks) * 2 * currentStride];
+                    final double[] otherSum = sums[(unit / numberOfBlocks) * 2 * currentStride + currentStride];
+                    final int start = (unit % numberOfBlocks) * blockSize;
+                    for (int index = start; index < Math.min(start + blockSize, size); index++) sum[index] += otherSum[index];
+                }
+            });
+        }
+        if (asMean) {
+            final double[] sum = sums[0];
+            for (int index = 0; index < size; index++) sum[index] /= data.length;
+        }
+        return getResult(firstSample, sums[0]);
+    }
+
+    /**
+     * Calculates variance or standard deviation of samples.<br>
+     * Standard deviation is calculated from unbiased sample variance.<br>
+     *
+     * @param samples samples.
+     * @param mean mean of samples.
+     * @param asStandardDeviation if true returns standard deviation otherwise variance.
+     * @return variance or standard deviation of samples.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix applyVariance(Collection<Matrix> samples, Matrix mean, boolean asStandardDeviation) throws MatrixException {
+        final double[][] data = new double[samples.size()][];
+        final int[] offsets = new int[samples.size()];
+        Matrix firstSample = getData(samples, data, offsets);
+        final double[] meanData = getData(mean);
+        final int size = getSize();
+        final int numberOfChunks = getNumberOfChunks(data.length);
+        final int numberOfBlocks = getNumberOfBlocks(size);
+        final double[][] means = new double[numberOfChunks][size];
+        final double[][] squaredDeviations = new double[numberOfChunks][size];
+        final int[] counts = new int[numberOfChunks];
+        for (int chunk = 0; chunk < numberOfChunks; chunk++) counts[chunk] = Math.min((chunk + 1) * chunkSize, data.length) - chunk * chunkSize;
+        ComputePool.execute(numberOfChunks * numberOfBlocks, 3L * data.length * size, (startUnit, endUnit) -> {
+            for (int unit = startUnit; unit < endUnit; unit++) {
+                final int chunk = unit / numberOfBlocks;
+                final int start = (unit % numberOfBlocks) * blockSize;
+                final int end = Math.min(start + blockSize, size);
+                final double[] chunkMean = means[chunk];
+                final double[] squaredDeviation = squaredDeviations[chunk];
+                int count = 0;
+                for (int sample = chunk * chunkSize; sample < Math.min((chunk + 1) * chunkSize, data.length); sample++) {
+                    final double[] values = data[sample];
+                    final int offset = offsets[sample];
+                    final double inverseCount = 1 / (double)++count;
+                    for (int index = start; index < end; index++) {
+                        final double value = values[offset + index];
+                        final double delta = value - chunkMean[index];
+                        chunkMean[index] += delta * inverseCount;
+                        squaredDeviation[index] += delta * (value - chunkMean[index]);
+                    }
+                }
+            }
+        });
+        for (int stride = 1; stride < numberOfChunks; stride *= 2) {
+            final int currentStride = stride;
+            final int numberOfPairs = (numberOfChunks - stride + 2 * stride - 1) / (2 * stride);
+            ComputePool.execute(numberOfPairs * numberOfBlocks, 4L * numberOfPairs * size, (startUnit, endUnit) -> {
+                for (int unit = startUnit; unit < endUnit; unit++) {
+                    final int chunk = (unit / numberOfBlocks) * 2 * currentStride;
+                    final int otherChunk = chunk + currentStride;
+                    final double count = counts[chunk];
+                    final double otherCount = counts[otherChunk];
+                    final double totalCount = count + otherCount;
+                    final int start = (unit % numberOfBlocks) * blockSize;
+                    for (int index = start; index < Math.min(start + blockSize, size); index++) {
+                        final double delta = means[otherChunk][index] - means[chunk][index];
+                        means[chunk][index] += delta * otherCount / totalCount;
+                        squaredDeviations[chunk][index] += squaredDeviations[otherChunk][index] + delta * delta * count * otherCount / totalCount;
+                    }
+                }
+            });
+            for (int chunk = 0; chunk + stride < numberOfChunks; chunk += 2 * stride) counts[chunk] += counts[chunk + stride];
+        }
+        final double[] result = squaredDeviations[0];
+        final double[] sampleMean = means[0];
+        final int count = data.length;
+        for (int index = 0; index < size; index++) {
+            final double meanShift = sampleMean[index] - meanData[index];
+            final double squaredDeviation = result[index] + count * meanShift * meanShift;
+            result[index] = asStandardDeviation ? Math.sqrt(squaredDeviation / (count - 1)) : squaredDeviation / count;
+        }
+        return getResult(firstSample, result);
+    }
+
+    /**
+     * Returns number of elements of operation.
+     *
+     * @return number of elements of operation.
+     */
+    private int getSize() {
+        return getRows() * getColumns() * getDepth();
+    }
+
+    /**
+     * Returns number of sample chunks.
+     *
+     * @param numberOfSamples number of samples.
+     * @return number of sample chunks.
+     */
+    private static int getNumberOfChunks(int numberOfSamples) {
+        return (numberOfSamples + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Returns number of element blocks.
+     *
+     * @param size number of elements.
+     * @return number of element blocks.
+     */
+    private static int getNumberOfBlocks(int size) {
+        return Math.max(1, (size + blockSize - 1) / blockSize);
+    }
+
+    /**
+     * Collects data arrays and array offsets of samples.
+     *
+     * @param samples samples.
+     * @param data data arrays of samples.
+     * @param offsets array offsets of samples.
+     * @return first sample.
+     */
+    private Matrix getData(Collection<Matrix> samples, double[][] data, int[] offsets) {
+        int sampleIndex = 0;
+        for (Matrix sample : samples) {
+            if (sample instanceof DMatrix dSample && VectorKernel.isContiguous(dSample, getRows(), getColumns(), getDepth())) {
+                data[sampleIndex] = dSample.getMatrixData();
+                offsets[sampleIndex] = dSample.getArrayOffset();
+            }
+            else data[sampleIndex] = getData(sample);
+            sampleIndex++;
+        }
+        return samples.iterator().next();
+    }
+
+    /**
+     * Returns values of matrix as column major array.
+     *
+     * @param matrix matrix.
+     * @return values of matrix.
+     */
+    private double[] getData(Matrix matrix) {
+        final double[] values = new double[getSize()];
+        int index = 0;
+        for (int depth = 0; depth < getDepth(); depth++) {
+            for (int column = 0; column < getColumns(); column++) {
+                for (int row = 0; row < getRows(); row++) values[index++] = matrix.getValue(row, column, depth);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns result matrix with given values.
+     *
+     * @param firstSample first sample.
+     * @param values values as column major array.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private Matrix getResult(Matrix firstSample, double[] values) throws MatrixException {
+        final Matrix result = firstSample.getNewMatrix();
+        int index = 0;
+        for (int depth = 0; depth < getDepth(); depth++) {
+            for (int column = 0; column < getColumns(); column++) {
+                for (int row = 0; row < getRows(); row++) result.setValue(row, column, depth, values[index++]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies operation.
+     *
+     * @param row    current row.
+     * @param column current column.
+     * @param depth  current depth.
+     * @param value  current value.
+     * @param result result matrix.
+     */
+    public void apply(int row, int column, int depth, double value, Matrix result) {
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+
+/**
+ * Implements fused softmax and cross-entropy (or softmax and negative log likelihood) matrix operation.<br>
+ * Operation is applied to softmax input (logits) of each column and target.<br>
+ * Log probability is calculated directly from logits as x - max(x) - log(sum(exp(x - max(x)))) so that loss stays finite and accurate for arbitrarily small probabilities.<br>
+ * Probabilities (softmax output) are calculated in same pass and returned as output of neural network.<br>
+ * Loss is -w * log(p) element wise where weight w is target for cross-entropy and one for negative log likelihood.<br>
+ * Gradient with respect to logits is calculated directly as p * sum(w) - w per column.<br>
+ * This replaces element wise loss derivative -w / p and its product with softmax Jacobian which is numerically unstable for small probabilities.<br>
+ * Masked elements have zero loss and gradient and are excluded from sum of weights.<br>
+ *
+ */
+public class SoftmaxCrossEntropyMatrixOperation extends AbstractMatrixOperation {
+
+    /**
+     * If true operation is softmax and negative log likelihood otherwise softmax and cross-entropy.
+     *
+     */
+    private final boolean asNegativeLogLikelihood;
+
+    /**
+     * Constructor for fused softmax and cross-entropy matrix operation.
+     *
+     * @param rows number of rows for operation.
+     * @param columns number of columns for operation.
+     * @param depth depth for operation.
+     * @param asNegativeLogLikelihood if true operation is softmax and negative log likelihood otherwise softmax and cross-entropy.
+     */
+    public SoftmaxCrossEntropyMatrixOperation(int rows, int columns, int depth, boolean asNegativeLogLikelihood) {
+        super(rows, columns, depth, true);
+        this.asNegativeLogLikelihood = asNegativeLogLikelihood;
+    }
+
+    /**
+     * Calculates probabilities and loss from logits.<br>
+     * Loss is not calculated if target is not given.<br>
+     *
+     * @param first logits.
+     * @param target target or null if only probabilities are calculated.
+     * @param probabilities matrix to which probabilities (softmax output) are written.
+     * @return loss or null if target is not given.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix applyFunction(Matrix first, Matrix target, Matrix probabilities) throws MatrixException {
+        final Matrix result = target != null ? first.getNewMatrix(getRows(), getColumns(), getDepth()) : null;
+        final boolean hasMask = target != null && hasMask(first, target);
+        for (int depth = 0; depth < getDepth(); depth++) {
+            for (int column = 0; column < getColumns(); column++) {
+                double maxValue = Double.NEGATIVE_INFINITY;
+                for (int row = 0; row < getRows(); row++) maxValue = Math.max(maxValue, first.getValue(row, column, depth));
+                double sumExp = 0;
+                for (int row = 0; row < getRows(); row++) sumExp += Math.exp(first.getValue(row, column, depth) - maxValue);
+                final double logSumExp = maxValue + Math.log(sumExp);
+                for (int row = 0; row < getRows(); row++) {
+                    final double logProbability = first.getValue(row, column, depth) - logSumExp;
+                    probabilities.setValue(row, column, depth, Math.exp(logProbability));
+                    if (result == null || (hasMask && hasMaskAt(row, column, depth, first, target))) continue;
+                    final double weight = getWeight(target, row, column, depth);
+                    if (weight != 0) result.setValue(row, column, depth, -weight * logProbability);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calculates gradient with respect to logits.
+     *
+     * @param first probabilities (softmax output).
+     * @param target target.
+     * @return gradient with respect to logits.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix applyGradient(Matrix first, Matrix target) throws MatrixException {
+        final Matrix result = first.getNewMatrix(getRows(), getColumns(), getDepth());
+        final boolean hasMask = hasMask(first, target);
+        for (int depth = 0; depth < getDepth(); depth++) {
+            for (int column = 0; column < getColumns(); column++) {
+                double weightSum = 0;
+                for (int row = 0; row < getRows(); row++) {
+                    if (!hasMask || !hasMaskAt(row, column, depth, first, target)) weightSum += getWeight(target, row, column, depth);
+                }
+                for (int row = 0; row < getRows(); row++) {
+                    if (hasMask && hasMaskAt(row, column, depth, first, target)) continue;
+                    result.setValue(row, column, depth, first.getValue(row, column, depth) * weightSum - getWeight(target, row, column, depth));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns weight of log probability at given position.
+     *
+     * @param target target.
+     * @param row row.
+     * @param column column.
+     * @param depth depth.
+     * @return weight of log probability.
+     */
+    private double getWeight(Matrix target, int row, int column, int depth) {
+        return asNegativeLogLikelihood ? 1 : target.getValue(row, column, depth);
+    }
+
+    /**
+     * Applies operation.<br>
+     * Operation is applied per column through applyFunction and applyGradient and not element wise.<br>
+     *
+     * @param row    current row.
+     * @param column current column.
+     * @param depth  current depth.
+     * @param value  current value.
+     * @param result result matrix.
+     * @throws MatrixException throws exception as operation cannot be applied element wise.
+     */
+    public void apply(int row, int column, int depth, double value, Matrix result) throws MatrixException {
+        throw new MatrixException("Fused softmax and cross-entropy operation cannot be applied element wise.");
+    }
+
+}
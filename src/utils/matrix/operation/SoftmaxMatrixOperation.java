@@ -7,8 +7,8 @@ package utils.matrix.operation;
 
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.random.RandomProvider;
 
-import java.util.Random;
 
 /**
  * Implements softmax matrix operation.
@@ -28,12 +28,6 @@ public class SoftmaxMatrixOperation extends AbstractMatrixOperation {
      */
     private final boolean gumbelSoftmax;
 
-    /**
-     * Random function.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Constructor for softmax matrix operation.
      *
@@ -180,7 +174,7 @@ public class SoftmaxMatrixOperation extends AbstractMatrixOperation {
     private double getGumbelNoise() {
         // https://blog.evjang.com/2016/11/tutorial-categorical-variational.html
         double epsilon = 10E-20;
-        return -Math.log(-Math.log(random.nextDouble() + epsilon) + epsilon);
+        return -Math.log(-Math.log(RandomProvider.nextDouble() + epsilon) + epsilon);
     }
 
 }
@@ -109,7 +109,7 @@ public class SumMatrixOperation extends AbstractMatrixOperation {
         switch(direction) {
             case 1, 2, 3 -> applyMatrixOperation(first, null, sumValues);
             default -> {
-                sumValues = new DMatrix(applySum(first));
+                sumValues = first.getNewMatrix(applySum(first));
                 return sumValues;
             }
         }
@@ -8,11 +8,13 @@ package utils.matrix.operation;
 import utils.configurable.DynamicParamException;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.matrix.SMatrix;
 import utils.matrix.UnaryFunction;
 import utils.matrix.UnaryFunctionType;
 
 /**
- * Implements matrix unary operation.
+ * Implements matrix unary operation.<br>
+ * Supported functions of unmasked dense matrices are applied with vectorized kernel when available.<br>
  *
  */
 public class UnaryMatrixOperation extends AbstractMatrixOperation {
@@ -93,16 +95,18 @@ public class UnaryMatrixOperation extends AbstractMatrixOperation {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public Matrix applyFunction(Matrix first, boolean inplace) throws MatrixException {
-        asFunction = true;
         switch (unaryFunctionType) {
             case SOFTMAX -> {
                 return softmaxMatrixOperation.applyFunction(first);
             }
             case TRANSPOSE -> {
-                return applyMatrixOperation(first, null, first.getNewMatrix(first.getColumns(), first.getRows(), getDepth()));
+                return applySynchronized(first, first.getNewMatrix(first.getColumns(), first.getRows(), getDepth()), true);
             }
             default -> {
-                return applyMatrixOperation(first, null, inplace ? first : first.getNewMatrix(getRows(), getColumns(), getDepth()));
+                Matrix result = inplace ? first : first.getNewMatrix(getRows(), getColumns(), getDepth());
+                if ((!inplace || !hasMask(first, null)) && VectorKernel.applyUnary(unaryFunction, true, first, result)) return result;
+                if (!inplace && !hasMask(first, null) && first instanceof SMatrix sparseFirst && matrixUnaryOperation.execute(0) == 0) return applySparse(sparseFirst, matrixUnaryOperation, result);
+                return applySynchronized(first, result, true);
             }
         }
     }
@@ -117,7 +121,6 @@ public class UnaryMatrixOperation extends AbstractMatrixOperation {
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
     public Matrix applyGradient(Matrix first, Matrix outputGradient) throws MatrixException, DynamicParamException {
-        asFunction = false;
         switch (unaryFunctionType) {
             case SOFTMAX -> {
                 return softmaxMatrixOperation.applyGradient(first, outputGradient);
@@ -126,11 +129,44 @@ public class UnaryMatrixOperation extends AbstractMatrixOperation {
                 return outputGradient.transpose();
             }
             default -> {
-                return outputGradient.multiply(applyMatrixOperation(first, null, first.getNewMatrix(getRows(), getColumns(), getDepth())));
+                Matrix result = first.getNewMatrix(getRows(), getColumns(), getDepth());
+                if (VectorKernel.applyUnary(unaryFunction, false, first, result)) return outputGradient.multiply(result);
+                if (!hasMask(first, null) && first instanceof SMatrix sparseFirst && matrixGradientUnaryOperation.execute(0) == 0) return outputGradient.multiply(applySparse(sparseFirst, matrixGradientUnaryOperation, result));
+                return outputGradient.multiply(applySynchronized(first, result, false));
             }
         }
     }
 
+    /**
+     * Applies matrix operation through state of operation used by generic operation path.<br>
+     * Synchronized as operation may be applied concurrently for different samples.<br>
+     *
+     * @param first first matrix.
+     * @param result result matrix.
+     * @param asFunction if true operation is applied as function otherwise as gradient.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private synchronized Matrix applySynchronized(Matrix first, Matrix result, boolean asFunction) throws MatrixException {
+        this.asFunction = asFunction;
+        return applyMatrixOperation(first, null, result);
+    }
+
+    /**
+     * Applies operation to non-zero values of sparse matrix.<br>
+     * Applicable only if operation maps zero to zero as rest of result matrix remains zero.<br>
+     *
+     * @param first     sparse matrix.
+     * @param operation operation.
+     * @param result    result matrix.
+     * @return result matrix.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private Matrix applySparse(SMatrix first, Matrix.MatrixUnaryOperation operation, Matrix result) throws MatrixException {
+        first.forEachNonZero((row, column, depth, value) -> result.setValue(row, column, depth, operation.execute(value)));
+        return result;
+    }
+
     /**
      * Applies operation.
      *
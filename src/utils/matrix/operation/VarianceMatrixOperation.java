@@ -113,7 +113,7 @@ public class VarianceMatrixOperation extends AbstractMatrixOperation {
         switch(direction) {
             case 1, 2, 3 -> applyMatrixOperation(first, null, varianceValues);
             default -> {
-                varianceValues = new DMatrix(applyVariance(first));
+                varianceValues = first.getNewMatrix(applyVariance(first));
                 return varianceValues.divide(count);
             }
         }
@@ -0,0 +1,483 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import utils.matrix.*;
+
+/**
+ * Implements SIMD kernels for element wise unary and binary matrix operations.<br>
+ * Kernels operate directly on data arrays of dense matrices whose elements are stored contiguously.<br>
+ * For masked inputs all elements are computed and masked elements of result are reset afterwards. Therefore result of masked operation must not be input matrix itself.<br>
+ * Scalar matrices are broadcast over other operand of binary operation.<br>
+ * Vectorized functions are ReLU, Sigmoid, Tanh, Sqrt and Exp (function and derivative) and add, subtract, multiply, divide and power.<br>
+ * Kernels use incubating vector API (module jdk.incubator.vector). If module is not available at runtime operations fall back to element wise implementation.<br>
+ *
+ */
+public class VectorKernel {
+
+    /**
+     * If true vector API is available at runtime.
+     *
+     */
+    private static final boolean available = checkAvailability();
+
+    /**
+     * If true vectorized kernels are used when available.
+     *
+     */
+    private static volatile boolean enabled = true;
+
+    /**
+     * Default constructor for vector kernel.
+     *
+     */
+    private VectorKernel() {
+    }
+
+    /**
+     * Checks if vector API module is present and can be linked.
+     *
+     * @return true if vector API is available otherwise false.
+     */
+    private static boolean checkAvailability() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return false;
+        try {
+            return Kernels.getLanes() > 1;
+        }
+        catch (LinkageError | RuntimeException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if vector API is available at runtime.
+     *
+     * @return true if vector API is available otherwise false.
+     */
+    public static boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Sets if vectorized kernels are used when available.
+     *
+     * @param enabled if true vectorized kernels are used when available.
+     */
+    public static void setEnabled(boolean enabled) {
+        VectorKernel.enabled = enabled;
+    }
+
+    /**
+     * Checks if vectorized kernels are available and enabled.
+     *
+     * @return true if vectorized kernels are available and enabled otherwise false.
+     */
+    public static boolean isEnabled() {
+        return available && enabled;
+    }
+
+    /**
+     * Checks if unary function is supported by vectorized kernels.
+     *
+     * @param unaryFunctionType unary function type.
+     * @return true if unary function is supported otherwise false.
+     */
+    private static boolean isSupported(UnaryFunctionType unaryFunctionType) {
+        return switch (unaryFunctionType) {
+            case RELU, SIGMOID, TANH, SQRT, EXP -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks if binary function is supported by vectorized kernels.
+     *
+     * @param binaryFunctionType binary function type.
+     * @return true if binary function is supported otherwise false.
+     */
+    private static boolean isSupported(BinaryFunctionType binaryFunctionType) {
+        return switch (binaryFunctionType) {
+            case ADD, SUBTRACT, MULTIPLY, DIVIDE, POW -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks if dense matrix stores elements of given dimensions contiguously in column major order.
+     *
+     * @param matrix matrix.
+     * @param rows number of rows.
+     * @param columns number of columns.
+     * @param depth depth.
+     * @return true if matrix is contiguous otherwise false.
+     */
+    public static boolean isContiguous(DMatrix matrix, int rows, int columns, int depth) {
+        if (matrix.isScalar() || matrix.getRows() != rows || matrix.getColumns() != columns || matrix.getDepth() != depth) return false;
+        if (matrix.getArrayRowStride() != 1) return false;
+        if (columns > 1 && matrix.getArrayColumnStride() != rows) return false;
+        return depth == 1 || matrix.getArrayDepthStride() == rows * columns;
+    }
+
+    /**
+     * Applies unary function with vectorized kernel if function and matrices are supported.<br>
+     * If first matrix is masked result must be new matrix. Masked elements of result are left as zero.<br>
+     *
+     * @param unaryFunction unary function.
+     * @param asFunction if true function is applied otherwise derivative of function.
+     * @param first first matrix.
+     * @param result result matrix.
+     * @return true if operation was applied otherwise false.
+     */
+    public static boolean applyUnary(UnaryFunction unaryFunction, boolean asFunction, Matrix first, Matrix result) {
+        if (!isEnabled() || !isSupported(unaryFunction.getType())) return false;
+        if (!(first instanceof DMatrix firstDMatrix) || !(result instanceof DMatrix resultDMatrix)) return false;
+        int rows = first.getRows();
+        int columns = first.getColumns();
+        int depth = first.getDepth();
+        if (!isContiguous(firstDMatrix, rows, columns, depth) || !isContiguous(resultDMatrix, rows, columns, depth)) return false;
+
+        double[] input = firstDMatrix.getMatrixData();
+        int inputOffset = firstDMatrix.getArrayOffset();
+        double[] output = resultDMatrix.getMatrixData();
+        int outputOffset = resultDMatrix.getArrayOffset();
+        int length = rows * columns * depth;
+        int index = Kernels.applyUnary(unaryFunction, asFunction, input, inputOffset, output, outputOffset, length);
+
+        Matrix.MatrixUnaryOperation operation = asFunction ? unaryFunction.getFunction() : unaryFunction.getDerivative();
+        for (; index < length; index++) output[outputOffset + index] = operation.execute(input[inputOffset + index]);
+        if (first.getMask() != null) first.getMask().resetMaskedValues(output, outputOffset);
+        return true;
+    }
+
+    /**
+     * Applies binary function with vectorized kernel if function and matrices are supported.<br>
+     * If first or second matrix is masked result must be new matrix. Masked elements of result are left as zero.<br>
+     *
+     * @param binaryFunctionType binary function type.
+     * @param operation scalar operation for elements not covered by vector lanes.
+     * @param first first matrix.
+     * @param second second matrix.
+     * @param result result matrix.
+     * @return true if operation was applied otherwise false.
+     */
+    public static boolean applyBinary(BinaryFunctionType binaryFunctionType, Matrix.MatrixBinaryOperation operation, Matrix first, Matrix second, Matrix result) {
+        if (!isEnabled() || !isSupported(binaryFunctionType)) return false;
+        if (!(first instanceof DMatrix firstDMatrix) || !(second instanceof DMatrix secondDMatrix) || !(result instanceof DMatrix resultDMatrix)) return false;
+        int rows = result.getRows();
+        int columns = result.getColumns();
+        int depth = result.getDepth();
+        if (!isContiguous(resultDMatrix, rows, columns, depth)) return false;
+        boolean firstScalar = first.isScalar();
+        boolean secondScalar = second.isScalar();
+        if (firstScalar && secondScalar) return false;
+        if ((firstScalar && first.getMask() != null) || (secondScalar && second.getMask() != null)) return false;
+        if (!firstScalar && !isContiguous(firstDMatrix, rows, columns, depth)) return false;
+        if (!secondScalar && !isContiguous(secondDMatrix, rows, columns, depth)) return false;
+
+        double[] firstData = firstDMatrix.getMatrixData();
+        int firstOffset = firstDMatrix.getArrayOffset();
+        double[] secondData = secondDMatrix.getMatrixData();
+        int secondOffset = secondDMatrix.getArrayOffset();
+        double[] output = resultDMatrix.getMatrixData();
+        int outputOffset = resultDMatrix.getArrayOffset();
+        int length = rows * columns * depth;
+
+        int index;
+        if (firstScalar) index = Kernels.applyBinaryScalarFirst(binaryFunctionType, firstData[firstOffset], secondData, secondOffset, output, outputOffset, length);
+        else if (secondScalar) index = Kernels.applyBinaryScalarSecond(binaryFunctionType, firstData, firstOffset, secondData[secondOffset], output, outputOffset, length);
+        else index = Kernels.applyBinary(binaryFunctionType, firstData, firstOffset, secondData, secondOffset, output, outputOffset, length);
+
+        for (; index < length; index++) {
+            output[outputOffset + index] = operation.execute(firstData[firstOffset + (firstScalar ? 0 : index)], secondData[secondOffset + (secondScalar ? 0 : index)]);
+        }
+        if (first.getMask() != null) first.getMask().resetMaskedValues(output, outputOffset);
+        if (second.getMask() != null) second.getMask().resetMaskedValues(output, outputOffset);
+        return true;
+    }
+
+    /**
+     * Applies unary function or its derivative to values of input array and writes results to output array.<br>
+     * Elements are processed with vectorized kernel if function is supported and remaining elements with scalar function.<br>
+     *
+     * @param unaryFunction unary function.
+     * @param asFunction if true function is applied otherwise derivative of function.
+     * @param input input values.
+     * @param output output values.
+     * @param length number of elements.
+     */
+    public static void applyUnary(UnaryFunction unaryFunction, boolean asFunction, double[] input, double[] output, int length) {
+        int index = isEnabled() && isSupported(unaryFunction.getType()) ? Kernels.applyUnary(unaryFunction, asFunction, input, 0, output, 0, length) : 0;
+        Matrix.MatrixUnaryOperation operation = asFunction ? unaryFunction.getFunction() : unaryFunction.getDerivative();
+        for (; index < length; index++) output[index] = operation.execute(input[index]);
+    }
+
+    /**
+     * Implements kernels using vector API.<br>
+     * Kernels are kept in separate class so that vector API classes are linked only if module is available.<br>
+     * Each kernel processes elements up to loop bound of preferred vector species and returns index of first unprocessed element.<br>
+     *
+     */
+    private static class Kernels {
+
+        /**
+         * Preferred vector species for double values.
+         *
+         */
+        private static final VectorSpecies<Double> species = DoubleVector.SPECIES_PREFERRED;
+
+        /**
+         * Returns number of lanes in preferred vector species.
+         *
+         * @return number of lanes.
+         */
+        static int getLanes() {
+            return species.length();
+        }
+
+        /**
+         * Applies unary function.
+         *
+         * @param unaryFunction unary function.
+         * @param asFunction if true function is applied otherwise derivative of function.
+         * @param input input data.
+         * @param inputOffset input offset.
+         * @param output output data.
+         * @param outputOffset output offset.
+         * @param length number of elements.
+         * @return index of first unprocessed element.
+         */
+        static int applyUnary(UnaryFunction unaryFunction, boolean asFunction, double[] input, int inputOffset, double[] output, int outputOffset, int length) {
+            int bound = species.loopBound(length);
+            int lanes = species.length();
+            DoubleVector one = DoubleVector.broadcast(species, 1);
+            switch (unaryFunction.getType()) {
+                case RELU -> {
+                    double threshold = unaryFunction.getRELUThreshold();
+                    double alpha = unaryFunction.getRELUAlpha();
+                    double maxValue = unaryFunction.getRELUMaxValue();
+                    boolean hasMaxValue = maxValue != Double.MAX_VALUE;
+                    if (asFunction && !hasMaxValue) {
+                        for (int index = 0; index < bound; index += lanes) {
+                            DoubleVector value = DoubleVector.fromArray(species, input, inputOffset + index);
+                            value.blend(value.mul(alpha), value.lt(threshold)).intoArray(output, outputOffset + index);
+                        }
+                    }
+                    else if (asFunction) {
+                        for (int index = 0; index < bound; index += lanes) {
+                            DoubleVector value = DoubleVector.fromArray(species, input, inputOffset + index);
+                            value.min(maxValue).blend(value.mul(alpha), value.lt(threshold)).intoArray(output, outputOffset + index);
+                        }
+                    }
+                    else if (!hasMaxValue) {
+                        for (int index = 0; index < bound; index += lanes) {
+                            DoubleVector value = DoubleVector.fromArray(species, input, inputOffset + index);
+                            one.blend(alpha, value.lt(threshold)).intoArray(output, outputOffset + index);
+                        }
+                    }
+                    else {
+                        DoubleVector zero = DoubleVector.zero(species);
+                        for (int index = 0; index < bound; index += lanes) {
+                            DoubleVector value = DoubleVector.fromArray(species, input, inputOffset + index);
+                            zero.blend(1, value.lt(maxValue)).blend(alpha, value.lt(threshold)).intoArray(output, outputOffset + index);
+                        }
+                    }
+                }
+                case SIGMOID -> {
+                    if (asFunction) {
+                        for (int index = 0; index < bound; index += lanes) {
+                            DoubleVector value = DoubleVector.fromArray(species, input, inputOffset + index);
+                            one.div(value.neg().lanewise(VectorOperators.EXP).add(1)).intoArray(output, outputOffset + index);
+                        }
+                    }
+                    else {
+                        for (int index = 0; index < bound; index += lanes) {
+                            DoubleVector exp = DoubleVector.fromArray(species, input, inputOffset + index).lanewise(VectorOperators.EXP);
+                            DoubleVector expPlusOne = exp.add(1);
+                            exp.div(expPlusOne.mul(expPlusOne)).intoArray(output, outputOffset + index);
+                        }
+                    }
+                }
+                case TANH -> {
+                    if (asFunction) {
+                        for (int index = 0; index < bound; index += lanes) {
+                            DoubleVector.fromArray(species, input, inputOffset + index).lanewise(VectorOperators.TANH).intoArray(output, outputOffset + index);
+                        }
+                    }
+                    else {
+                        for (int index = 0; index < bound; index += lanes) {
+                            DoubleVector tanh = DoubleVector.fromArray(species, input, inputOffset + index).lanewise(VectorOperators.TANH);
+                            one.sub(tanh.mul(tanh)).intoArray(output, outputOffset + index);
+                        }
+                    }
+                }
+                case SQRT -> {
+                    if (asFunction) {
+                        for (int index = 0; index < bound; index += lanes) {
+                            DoubleVector.fromArray(species, input, inputOffset + index).sqrt().intoArray(output, outputOffset + index);
+                        }
+                    }
+                    else {
+                        for (int index = 0; index < bound; index += lanes) {
+                            one.div(DoubleVector.fromArray(species, input, inputOffset + index).sqrt().mul(2)).intoArray(output, outputOffset + index);
+                        }
+                    }
+                }
+                case EXP -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, input, inputOffset + index).lanewise(VectorOperators.EXP).intoArray(output, outputOffset + index);
+                    }
+                }
+                default -> bound = 0;
+            }
+            return bound;
+        }
+
+        /**
+         * Applies binary function to two arrays.
+         *
+         * @param binaryFunctionType binary function type.
+         * @param first first data.
+         * @param firstOffset first offset.
+         * @param second second data.
+         * @param secondOffset second offset.
+         * @param output output data.
+         * @param outputOffset output offset.
+         * @param length number of elements.
+         * @return index of first unprocessed element.
+         */
+        static int applyBinary(BinaryFunctionType binaryFunctionType, double[] first, int firstOffset, double[] second, int secondOffset, double[] output, int outputOffset, int length) {
+            int bound = species.loopBound(length);
+            int lanes = species.length();
+            switch (binaryFunctionType) {
+                case ADD -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).add(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                case SUBTRACT -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).sub(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                case MULTIPLY -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).mul(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                case DIVIDE -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).div(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                case POW -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).pow(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                default -> bound = 0;
+            }
+            return bound;
+        }
+
+        /**
+         * Applies binary function to array and scalar second value.
+         *
+         * @param binaryFunctionType binary function type.
+         * @param first first data.
+         * @param firstOffset first offset.
+         * @param second second value.
+         * @param output output data.
+         * @param outputOffset output offset.
+         * @param length number of elements.
+         * @return index of first unprocessed element.
+         */
+        static int applyBinaryScalarSecond(BinaryFunctionType binaryFunctionType, double[] first, int firstOffset, double second, double[] output, int outputOffset, int length) {
+            int bound = species.loopBound(length);
+            int lanes = species.length();
+            switch (binaryFunctionType) {
+                case ADD -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).add(second).intoArray(output, outputOffset + index);
+                    }
+                }
+                case SUBTRACT -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).sub(second).intoArray(output, outputOffset + index);
+                    }
+                }
+                case MULTIPLY -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).mul(second).intoArray(output, outputOffset + index);
+                    }
+                }
+                case DIVIDE -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).div(second).intoArray(output, outputOffset + index);
+                    }
+                }
+                case POW -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        DoubleVector.fromArray(species, first, firstOffset + index).pow(second).intoArray(output, outputOffset + index);
+                    }
+                }
+                default -> bound = 0;
+            }
+            return bound;
+        }
+
+        /**
+         * Applies binary function to scalar first value and array.
+         *
+         * @param binaryFunctionType binary function type.
+         * @param first first value.
+         * @param second second data.
+         * @param secondOffset second offset.
+         * @param output output data.
+         * @param outputOffset output offset.
+         * @param length number of elements.
+         * @return index of first unprocessed element.
+         */
+        static int applyBinaryScalarFirst(BinaryFunctionType binaryFunctionType, double first, double[] second, int secondOffset, double[] output, int outputOffset, int length) {
+            int bound = species.loopBound(length);
+            int lanes = species.length();
+            DoubleVector firstVector = DoubleVector.broadcast(species, first);
+            switch (binaryFunctionType) {
+                case ADD -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        firstVector.add(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                case SUBTRACT -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        firstVector.sub(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                case MULTIPLY -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        firstVector.mul(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                case DIVIDE -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        firstVector.div(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                case POW -> {
+                    for (int index = 0; index < bound; index += lanes) {
+                        firstVector.pow(DoubleVector.fromArray(species, second, secondOffset + index)).intoArray(output, outputOffset + index);
+                    }
+                }
+                default -> bound = 0;
+            }
+            return bound;
+        }
+
+    }
+
+}
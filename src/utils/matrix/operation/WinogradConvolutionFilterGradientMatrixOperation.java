@@ -0,0 +1,72 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.DMatrix;
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+
+/**
+ * Implements filter gradient of F(m x m, 3x3) Winograd crosscorrelation.<br>
+ * Filter gradient is calculated with F(3x3, m x m) Winograd transform where each m x m output gradient tile acts as kernel and corresponding (m + 2) x (m + 2) input tile as data.<br>
+ * Sum over tiles is calculated as matrix product per transformed element.<br>
+ * Masked operations are applied directly.<br>
+ *
+ */
+public class WinogradConvolutionFilterGradientMatrixOperation extends AbstractConvolutionFilterGradientMatrixOperation {
+
+    /**
+     * Winograd transform.
+     *
+     */
+    private final WinogradTransform winogradTransform;
+
+    /**
+     * Output tile size of forward operation.
+     *
+     */
+    private final int tileSize;
+
+    /**
+     * Constructor for Winograd convolution filter gradient matrix operation.
+     *
+     * @param rows       number of rows for operation.
+     * @param columns    number of columns for operation.
+     * @param depth      depth for operation.
+     * @param inputDepth input depth.
+     * @param tileSize   output tile size of forward operation (2 or 4).
+     * @throws MatrixException throws exception if tile size is not supported.
+     */
+    public WinogradConvolutionFilterGradientMatrixOperation(int rows, int columns, int depth, int inputDepth, int tileSize) throws MatrixException {
+        super(rows, columns, depth, inputDepth, 3, 3, 1, 1, false, false);
+        if (tileSize != 2 && tileSize != 4) throw new MatrixException("Winograd tile size must be 2 or 4.");
+        winogradTransform = new WinogradTransform(3, tileSize);
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Applies matrix operation.
+     *
+     * @param outputGradient output gradient.
+     * @param first input matrix.
+     * @return filter gradient.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix apply(Matrix outputGradient, Matrix first) throws MatrixException {
+        if (hasMask(outputGradient, first)) return super.apply(outputGradient, first);
+        final Matrix result = outputGradient.getNewMatrix(getFilterRows(), getFilterColumns(), getInputDepth() * getDepth());
+        final DMatrix filterGradient = getDenseMatrix(result);
+        final int tileRows = (getRows() + tileSize - 1) / tileSize;
+        final int tileColumns = (getColumns() + tileSize - 1) / tileSize;
+        final int tiles = tileRows * tileColumns;
+        final double[][] inputTransform = winogradTransform.transformTiles(getDenseMatrix(first), getInputDepth(), tileRows, tileColumns, tileSize, 0, false, false);
+        final double[][] gradientTransform = winogradTransform.transformTiles(getDenseMatrix(outputGradient), getDepth(), tileRows, tileColumns, tileSize, 0, true, false);
+        final double[][] products = winogradTransform.multiply(inputTransform, gradientTransform, getInputDepth(), tiles, getDepth(), false, true);
+        winogradTransform.transformOutputs(products, getInputDepth() * getDepth(), 1, 1, filterGradient);
+        return setResult(filterGradient, result);
+    }
+
+}
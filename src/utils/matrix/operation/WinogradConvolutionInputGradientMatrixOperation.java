@@ -0,0 +1,101 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.DMatrix;
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+
+/**
+ * Implements input gradient of F(m x m, 3x3) Winograd crosscorrelation.<br>
+ * Input gradient is full crosscorrelation of zero padded output gradient and filter rotated by 180 degrees calculated with same Winograd transform as forward operation.<br>
+ * Filter transform is cached and reused until it is reset which allows reusing it across samples of batch.<br>
+ * Masked operations are applied directly.<br>
+ *
+ */
+public class WinogradConvolutionInputGradientMatrixOperation extends AbstractConvolutionInputGradientMatrixOperation {
+
+    /**
+     * Winograd transform.
+     *
+     */
+    private final WinogradTransform winogradTransform;
+
+    /**
+     * Filter of cached filter transform.<br>
+     * Cache is keyed by identity of filter matrix and not by its values. Optimizers update weights in place so updated filter is same object as before update.<br>
+     * Therefore cache must be reset with resetFilterTransform whenever filter values may have changed. WinogradConvolutionExpression resets it before each forward pass.<br>
+     *
+     */
+    private transient Matrix transformedFilter;
+
+    /**
+     * Cached transform of rotated filter.
+     *
+     */
+    private transient double[][] filterTransform;
+
+    /**
+     * Constructor for Winograd convolution input gradient matrix operation.
+     *
+     * @param rows       number of rows for operation.
+     * @param columns    number of columns for operation.
+     * @param depth      depth for operation.
+     * @param inputDepth input depth.
+     * @param tileSize   output tile size (2 or 4).
+     * @throws MatrixException throws exception if tile size is not supported.
+     */
+    public WinogradConvolutionInputGradientMatrixOperation(int rows, int columns, int depth, int inputDepth, int tileSize) throws MatrixException {
+        super(rows, columns, depth, inputDepth, 3, 3, 1, 1, false, false);
+        winogradTransform = WinogradConvolutionMatrixOperation.getWinogradTransform(tileSize);
+    }
+
+    /**
+     * Resets cached filter transform. Must be called when filter values have been changed.
+     *
+     */
+    public synchronized void resetFilterTransform() {
+        transformedFilter = null;
+        filterTransform = null;
+    }
+
+    /**
+     * Returns transform of rotated filter. Transform is calculated once and reused until filter changes or transform is reset.
+     *
+     * @param filter filter matrix.
+     * @return filter transform.
+     * @throws MatrixException throws exception if transform fails.
+     */
+    private synchronized double[][] getFilterTransform(Matrix filter) throws MatrixException {
+        if (filterTransform == null || transformedFilter != filter) {
+            filterTransform = winogradTransform.transformTiles(getDenseMatrix(filter), getInputDepth() * getDepth(), 1, 1, 0, 0, true, true);
+            transformedFilter = filter;
+        }
+        return filterTransform;
+    }
+
+    /**
+     * Applies matrix operation.
+     *
+     * @param outputGradient output gradient.
+     * @param filter filter matrix.
+     * @return input gradient.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public Matrix apply(Matrix outputGradient, Matrix filter) throws MatrixException {
+        if (hasMask(outputGradient, filter)) return super.apply(outputGradient, filter);
+        final Matrix result = outputGradient.getNewMatrix(getInputRows(), getInputColumns(), getInputDepth());
+        final DMatrix inputGradient = getDenseMatrix(result);
+        final int outputSize = winogradTransform.getOutputSize();
+        final int tileRows = (getInputRows() + outputSize - 1) / outputSize;
+        final int tileColumns = (getInputColumns() + outputSize - 1) / outputSize;
+        final double[][] gradientTransform = winogradTransform.transformTiles(getDenseMatrix(outputGradient), getDepth(), tileRows, tileColumns, outputSize, 1 - getFilterRows(), false, false);
+        final double[][] products = winogradTransform.multiply(getFilterTransform(filter), gradientTransform, getInputDepth(), getDepth(), tileRows * tileColumns, false, false);
+        winogradTransform.transformOutputs(products, getInputDepth(), tileRows, tileColumns, inputGradient);
+        return setResult(inputGradient, result);
+    }
+
+}
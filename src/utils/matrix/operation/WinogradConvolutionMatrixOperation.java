@@ -5,293 +5,113 @@
 
 package utils.matrix.operation;
 
-import utils.configurable.DynamicParamException;
 import utils.matrix.DMatrix;
-import utils.matrix.Mask;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.matrix.QMatrix;
 
 /**
- * Implements F(2x2, 3x3) Winograd convolution.<br>
+ * Implements F(m x m, 3x3) Winograd crosscorrelation with output tile size m of 2 (F(2x2, 3x3)) or 4 (F(4x4, 3x3)).<br>
+ * Input is split into overlapping (m + 2) x (m + 2) tiles and output is calculated as AT [ Σ (G g GT) ⊙ (BT d B) ] A summed over input depths.<br>
+ * Sum over input depths is calculated as matrix product per transformed element.<br>
+ * Filter transform is cached and reused until it is reset which allows reusing it across samples of batch.<br>
+ * Masked operations and operations with quantized filter are applied directly.<br>
  *
- * Reference: <a href="http://cs231n.stanford.edu/reports/2016/pdfs/117_Report.pdf">...</a> <br>
+ * Reference: <a href="https://arxiv.org/abs/1509.09308">Lavin, Gray: Fast Algorithms for Convolutional Neural Networks</a><br>
  *
  */
-public class WinogradConvolutionMatrixOperation extends AbstractMatrixOperation {
+public class WinogradConvolutionMatrixOperation extends AbstractConvolutionMatrixOperation {
 
     /**
-     * Input matrix.
+     * Winograd transform.
      *
      */
-    private transient Matrix input;
+    private final WinogradTransform winogradTransform;
 
     /**
-     * Filter matrix.
+     * Filter of cached filter transform.<br>
+     * Cache is keyed by identity of filter matrix and not by its values. Optimizers update weights in place so updated filter is same object as before update.<br>
+     * Therefore cache must be reset with resetFilterTransform whenever filter values may have changed. WinogradConvolutionExpression resets it before each forward pass.<br>
      *
      */
-    private transient Matrix filter;
+    private transient Matrix transformedFilter;
 
     /**
-     * Result matrix.
+     * Cached filter transform.
      *
      */
-    private transient Matrix result;
+    private transient double[][] filterTransform;
 
     /**
-     * A matrix for Winograd convolution.
+     * Constructor for Winograd convolution matrix operation.
      *
+     * @param rows       number of rows for operation.
+     * @param columns    number of columns for operation.
+     * @param depth      depth for operation.
+     * @param inputDepth input depth.
+     * @param tileSize   output tile size (2 or 4).
+     * @throws MatrixException throws exception if tile size is not supported.
      */
-    private final Matrix A;
-
-    /**
-     * A transposed matrix for Winograd convolution.
-     *
-     */
-    private final Matrix AT;
-
-    /**
-     * C matrix for Winograd convolution.
-     *
-     */
-    private final Matrix C;
-
-    /**
-     * C transposed matrix for Winograd convolution.
-     *
-     */
-    private final Matrix CT;
-
-    /**
-     * G matrix for Winograd convolution.
-     *
-     */
-    private final Matrix G;
-
-    /**
-     * G transposed matrix for Winograd convolution.
-     *
-     */
-    private final Matrix GT;
-
-    /**
-     * Constructor for Winograd convolution.
-     *
-     * @param rows rows
-     * @param columns columns
-     * @param depth depth.
-     * @throws MatrixException throws exception if matrix operation fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
-     */
-    public WinogradConvolutionMatrixOperation(int rows, int columns, int depth) throws MatrixException, DynamicParamException {
-        super(rows, columns, depth, false, 2);
-        AT = getATMatrix(getDepth());
-        A = AT.transpose().copy(true);
-
-        C = getCMatrix(getDepth());
-        CT = C.transpose().copy(true);
-
-        G = getGMatrix(getDepth());
-        GT = G.transpose().copy(true);
+    public WinogradConvolutionMatrixOperation(int rows, int columns, int depth, int inputDepth, int tileSize) throws MatrixException {
+        super(rows, columns, depth, inputDepth, 3, 3, 1, 1, false, false);
+        winogradTransform = getWinogradTransform(tileSize);
     }
 
     /**
-     * Return AT matrix.
+     * Returns Winograd transform for F(m x m, 3x3).
      *
-     * @param depth depth
-     * @return AT matrix.
+     * @param tileSize output tile size.
+     * @return Winograd transform.
+     * @throws MatrixException throws exception if tile size is not supported.
      */
-    public static Matrix getATMatrix(int depth) {
-        Matrix AT = new DMatrix(2, 4, depth).copy(true);
-        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
-            AT.setValue(0, 0, currentDepth, 1);
-            AT.setValue(0, 1, currentDepth, 1);
-            AT.setValue(0, 2, currentDepth, 1);
-            AT.setValue(0, 3, currentDepth, 0);
-            AT.setValue(1, 0, currentDepth, 0);
-            AT.setValue(1, 1, currentDepth, 1);
-            AT.setValue(1, 2, currentDepth, -1);
-            AT.setValue(1, 3, currentDepth, -1);
-        }
-        maskZeros(AT);
-        return AT;
+    static WinogradTransform getWinogradTransform(int tileSize) throws MatrixException {
+        if (tileSize != 2 && tileSize != 4) throw new MatrixException("Winograd tile size must be 2 or 4.");
+        return new WinogradTransform(tileSize, 3);
     }
 
     /**
-     * Return C matrix.
+     * Resets cached filter transform. Must be called when filter values have been changed.
      *
-     * @param depth depth
-     * @return C matrix.
      */
-    public static Matrix getCMatrix(int depth) {
-        Matrix C = new DMatrix(4, 4, depth).copy(true);
-        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
-            C.setValue(0, 0, currentDepth, 1);
-            C.setValue(0, 1, currentDepth, 0);
-            C.setValue(0, 2, currentDepth, -1);
-            C.setValue(0, 3, currentDepth, 0);
-            C.setValue(1, 0, currentDepth, 0);
-            C.setValue(1, 1, currentDepth, 1);
-            C.setValue(1, 2, currentDepth, 1);
-            C.setValue(1, 3, currentDepth, 0);
-            C.setValue(2, 0, currentDepth, 0);
-            C.setValue(2, 1, currentDepth, -1);
-            C.setValue(2, 2, currentDepth, 1);
-            C.setValue(2, 3, currentDepth, 0);
-            C.setValue(3, 0, currentDepth, 0);
-            C.setValue(3, 1, currentDepth, 1);
-            C.setValue(3, 2, currentDepth, 0);
-            C.setValue(3, 3, currentDepth, -1);
-        }
-        maskZeros(C);
-        return C;
-    }
-
-    /**
-     * Return G matrix.
-     *
-     * @param depth depth
-     * @return G matrix.
-     */
-    public static Matrix getGMatrix(int depth) {
-        Matrix G = new DMatrix(4, 3, depth).copy(true);
-        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
-            G.setValue(0, 0, currentDepth, 1);
-            G.setValue(0, 1, currentDepth, 0);
-            G.setValue(0, 2, currentDepth, 0);
-            G.setValue(1, 0, currentDepth, 1/(double)2);
-            G.setValue(1, 1, currentDepth, 1/(double)2);
-            G.setValue(1, 2, currentDepth, 1/(double)2);
-            G.setValue(2, 0, currentDepth, 1/(double)2);
-            G.setValue(2, 1, currentDepth, -1/(double)2);
-            G.setValue(2, 2, currentDepth, 1/(double)2);
-            G.setValue(3, 0, currentDepth, 0);
-            G.setValue(3, 1, currentDepth, 0);
-            G.setValue(3, 2, currentDepth, 1);
-        }
-        maskZeros(G);
-        return G;
+    public synchronized void resetFilterTransform() {
+        transformedFilter = null;
+        filterTransform = null;
     }
 
     /**
-     * Constructor for Winograd convolution.
+     * Returns filter transform. Transform is calculated once and reused until filter changes or transform is reset.
      *
-     * @param rows rows
-     * @param columns columns
-     * @param depth depth.
-     * @param A A matrix
-     * @param AT A transposed matrix
-     * @param C C matrix
-     * @param CT C transposed matrix
-     * @param G G matrix
-     * @param GT G transposed matrix
-     */
-    public WinogradConvolutionMatrixOperation(int rows, int columns, int depth, Matrix A, Matrix AT, Matrix C, Matrix CT, Matrix G, Matrix GT) {
-        super(rows, columns, depth, false, 2);
-        this.A = A;
-        this.AT = AT;
-        this.C = C;
-        this.CT = CT;
-        this.G = G;
-        this.GT = GT;
-    }
-
-    /**
-     * Constructor for Winograd convolution.
-     *
-     * @param rows rows
-     * @param columns columns
-     * @param depth depth.
-     * @param A A matrix
-     * @param AT A transposed matrix
-     * @param C C matrix
-     * @param CT C transposed matrix
-     */
-    public WinogradConvolutionMatrixOperation(int rows, int columns, int depth, Matrix A, Matrix AT, Matrix C, Matrix CT) {
-        super(rows, columns, depth, false, 2);
-        this.A = A;
-        this.AT = AT;
-        this.C = C;
-        this.CT = CT;
-        this.G = null;
-        this.GT = null;
-    }
-
-    /**
-     * Masks matrix positions with zero value to avoid unnecessary calculations.
-     *
-     * @param matrix matrix to be masked.
+     * @param filter filter matrix.
+     * @return filter transform.
+     * @throws MatrixException throws exception if transform fails.
      */
-    private static void maskZeros(Matrix matrix) {
-        matrix.setMask();
-        int matrixRows = matrix.getRows();
-        int matrixColumns = matrix.getColumns();
-        int matrixDepth = matrix.getDepth();
-        Mask matrixMask = matrix.getMask();
-        for (int depth = 0; depth < matrixDepth; depth++) {
-            for (int row = 0; row < matrixRows; row++) {
-                for (int column = 0; column < matrixColumns; column++) {
-                    if (matrix.getValue(row, column, depth) == 0) matrixMask.setMask(row, column, depth, true);
-                }
-            }
+    private synchronized double[][] getFilterTransform(Matrix filter) throws MatrixException {
+        if (filterTransform == null || transformedFilter != filter) {
+            filterTransform = winogradTransform.transformTiles(getDenseMatrix(filter), getInputDepth() * getDepth(), 1, 1, 0, 0, true, false);
+            transformedFilter = filter;
         }
+        return filterTransform;
     }
 
     /**
-     * Applies operation.
+     * Applies matrix operation.
      *
-     * @param input input matrix.
+     * @param first first matrix.
      * @param filter filter matrix.
      * @return result matrix.
      * @throws MatrixException throws exception if matrix operation fails.
      */
-    public Matrix apply(Matrix input, Matrix filter) throws MatrixException {
-        this.input = input;
-        this.filter = filter;
-        this.result = input.getNewMatrix(getRows(), getColumns(), getDepth()).copy(true);
-        applyMatrixOperation(input, null, result);
-        return result;
-    }
-
-    /**
-     * Applies operation.
-     *
-     * @param row    current row.
-     * @param column current column.
-     * @param depth  current depth.
-     * @param value  current value.
-     * @param result result matrix.
-     * @throws MatrixException throws exception if matrix operation fails.
-     */
-    public void apply(int row, int column, int depth, double value, Matrix result) throws MatrixException {
-        Matrix currentFilter = filter.copy(true);
-        currentFilter.slice(0, 0, depth, filter.getTotalRows() - 1, filter.getTotalColumns() - 1, depth);
-        Matrix Gprime;
-        if (G != null) {
-            G.slice(0, 0, depth, 3, 2, depth);
-            GT.slice(0, 0, depth, 2, 3, depth);
-            Matrix G1 = G.dot(currentFilter);
-            Gprime = G1.dot(GT);
-        }
-        else Gprime = currentFilter;
-        Matrix C1 = null;
-        Matrix currentInput = input.copy(true);
-        for (int inputDepth = 0; inputDepth < currentInput.getDepth(); inputDepth++) {
-            currentInput.slice(row, column, inputDepth, row + 3, column + 3, inputDepth);
-            CT.slice(0, 0, depth, 3, 3, depth);
-            C1 = C1 == null ? CT.dot(currentInput) : C1.add(CT.dot(currentInput));
-        }
-
-        C.slice(0, 0, depth, 3, 3, depth);
-        assert C1 != null;
-        Matrix CPrime = C1.dot(C);
-        Matrix GCprime = Gprime.dot(CPrime);
-        AT.slice(0, 0, depth, 1, 3, depth);
-        Matrix AT1 = AT.dot(GCprime);
-        this.result.slice(row, column, depth, row + 1, column + 1, depth);
-        A.slice(0, 0, depth, 3, 1, depth);
-        this.result.setEqualTo(AT1.dot(A));
-        currentInput.unslice();
-        this.result.unslice();
+    public Matrix apply(Matrix first, Matrix filter) throws MatrixException {
+        if (hasMask(first, filter) || filter instanceof QMatrix) return super.apply(first, filter);
+        final Matrix result = first.getNewMatrix(getRows(), getColumns(), getDepth());
+        final DMatrix output = getDenseMatrix(result);
+        final int outputSize = winogradTransform.getOutputSize();
+        final int tileRows = (getRows() + outputSize - 1) / outputSize;
+        final int tileColumns = (getColumns() + outputSize - 1) / outputSize;
+        final double[][] inputTransform = winogradTransform.transformTiles(getDenseMatrix(first), getInputDepth(), tileRows, tileColumns, outputSize, 0, false, false);
+        final double[][] products = winogradTransform.multiply(getFilterTransform(filter), inputTransform, getDepth(), getInputDepth(), tileRows * tileColumns, true, false);
+        winogradTransform.transformOutputs(products, getDepth(), tileRows, tileColumns, output);
+        return setResult(output, result);
     }
 
 }
@@ -0,0 +1,371 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.matrix.operation;
+
+import utils.matrix.DMatrix;
+import utils.matrix.MatrixException;
+
+/**
+ * Implements transforms of two dimensional Winograd minimal filtering algorithm F(m x m, r x r).<br>
+ * Algorithm calculates m x m outputs of crosscorrelation between (m + r - 1) x (m + r - 1) data tile and r x r kernel as Y = AT [ (G g GT) ⊙ (BT d B) ] A.<br>
+ * Transform matrices are constructed with Toom-Cook method from interpolation points 0, 1, -1, 2, -2, 1/2, -1/2 and infinity.<br>
+ * Small matrices of transform are stored as row major arrays.<br>
+ *
+ * Reference: <a href="https://arxiv.org/abs/1509.09308">Lavin, Gray: Fast Algorithms for Convolutional Neural Networks</a><br>
+ *
+ */
+class WinogradTransform {
+
+    /**
+     * Finite interpolation points of transform.
+     *
+     */
+    private static final double[] points = { 0, 1, -1, 2, -2, 0.5, -0.5 };
+
+    /**
+     * Size of output tile (m).
+     *
+     */
+    private final int outputSize;
+
+    /**
+     * Size of kernel (r).
+     *
+     */
+    private final int kernelSize;
+
+    /**
+     * Size of data tile (m + r - 1).
+     *
+     */
+    private final int tileSize;
+
+    /**
+     * Output transform matrix AT (m x tile size).
+     *
+     */
+    private final double[] outputTransform;
+
+    /**
+     * Kernel transform matrix G (tile size x r).
+     *
+     */
+    private final double[] kernelTransform;
+
+    /**
+     * Data transform matrix BT (tile size x tile size).
+     *
+     */
+    private final double[] dataTransform;
+
+    /**
+     * Constructor for Winograd transform.
+     *
+     * @param outputSize size of output tile.
+     * @param kernelSize size of kernel.
+     * @throws MatrixException throws exception if transform cannot be constructed for given sizes.
+     */
+    WinogradTransform(int outputSize, int kernelSize) throws MatrixException {
+        this.outputSize = outputSize;
+        this.kernelSize = kernelSize;
+        tileSize = outputSize + kernelSize - 1;
+        if (outputSize < 1 || kernelSize < 1 || tileSize - 1 > points.length) throw new MatrixException("Winograd transform is not supported for output size " + outputSize + " and kernel size " + kernelSize);
+        outputTransform = transpose(getEvaluationMatrix(outputSize), tileSize, outputSize);
+        kernelTransform = getEvaluationMatrix(kernelSize);
+        dataTransform = transpose(invert(getEvaluationMatrix(tileSize)), tileSize, tileSize);
+    }
+
+    /**
+     * Returns matrix evaluating polynomial of given number of coefficients at interpolation points and at infinity (tile size x coefficients).
+     *
+     * @param coefficients number of coefficients of polynomial.
+     * @return evaluation matrix.
+     */
+    private double[] getEvaluationMatrix(int coefficients) {
+        final double[] evaluationMatrix = new double[tileSize * coefficients];
+        for (int point = 0; point < tileSize - 1; point++) {
+            for (int coefficient = 0; coefficient < coefficients; coefficient++) evaluationMatrix[point * coefficients + coefficient] = Math.pow(points[point], coefficient);
+        }
+        evaluationMatrix[(tileSize - 1) * coefficients + coefficients - 1] = 1;
+        return evaluationMatrix;
+    }
+
+    /**
+     * Returns transpose of matrix.
+     *
+     * @param matrix matrix.
+     * @param rows number of rows in matrix.
+     * @param columns number of columns in matrix.
+     * @return transposed matrix.
+     */
+    private static double[] transpose(double[] matrix, int rows, int columns) {
+        final double[] transposedMatrix = new double[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) transposedMatrix[column * rows + row] = matrix[row * columns + column];
+        }
+        return transposedMatrix;
+    }
+
+    /**
+     * Returns inverse of square matrix of tile size calculated with Gauss-Jordan elimination.
+     *
+     * @param matrix matrix.
+     * @return inverse matrix.
+     */
+    private double[] invert(double[] matrix) {
+        final int size = tileSize;
+        final double[] work = matrix.clone();
+        final double[] inverse = new double[size * size];
+        for (int index = 0; index < size; index++) inverse[index * size + index] = 1;
+        for (int column = 0; column < size; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < size; row++) if (Math.abs(work[row * size + column]) > Math.abs(work[pivot * size + column])) pivot = row;
+            if (pivot != column) {
+                swapRows(work, size, pivot, column);
+                swapRows(inverse, size, pivot, column);
+            }
+            final double pivotValue = work[column * size + column];
+            for (int index = 0; index < size; index++) {
+                work[column * size + index] /= pivotValue;
+                inverse[column * size + index] /= pivotValue;
+            }
+            for (int row = 0; row < size; row++) {
+                final double factor = work[row * size + column];
+                if (row == column || factor == 0) continue;
+                for (int index = 0; index < size; index++) {
+                    work[row * size + index] -= factor * work[column * size + index];
+                    inverse[row * size + index] -= factor * inverse[column * size + index];
+                }
+            }
+        }
+        return inverse;
+    }
+
+    /**
+     * Swaps two rows of square matrix.
+     *
+     * @param matrix matrix.
+     * @param size size of matrix.
+     * @param first first row.
+     * @param second second row.
+     */
+    private static void swapRows(double[] matrix, int size, int first, int second) {
+        for (int index = 0; index < size; index++) {
+            final double value = matrix[first * size + index];
+            matrix[first * size + index] = matrix[second * size + index];
+            matrix[second * size + index] = value;
+        }
+    }
+
+    /**
+     * Returns size of output tile.
+     *
+     * @return size of output tile.
+     */
+    int getOutputSize() {
+        return outputSize;
+    }
+
+    /**
+     * Returns number of elements in transformed tile.
+     *
+     * @return number of elements in transformed tile.
+     */
+    int getElements() {
+        return tileSize * tileSize;
+    }
+
+    /**
+     * Transforms tiles of matrix as data tiles (BT d B) or as kernels (G g GT).<br>
+     * Tile at tile row and tile column of each depth starts at position (offset + tile row * tile step, offset + tile column * tile step). Positions outside of matrix are treated as zeros.<br>
+     * Transformed value of element of depth and tile is stored at index depth * tile rows * tile columns + tile row * tile columns + tile column of element.<br>
+     *
+     * @param matrix matrix.
+     * @param depthCount number of depths transformed.
+     * @param tileRows number of tile rows.
+     * @param tileColumns number of tile columns.
+     * @param tileStep step between tiles.
+     * @param offset offset of first tile.
+     * @param asKernel if true tiles are transformed as kernels otherwise as data tiles.
+     * @param rotated if true tiles are rotated by 180 degrees before transform.
+     * @return transformed tiles.
+     * @throws MatrixException throws exception if transform fails.
+     */
+    double[][] transformTiles(DMatrix matrix, int depthCount, int tileRows, int tileColumns, int tileStep, int offset, boolean asKernel, boolean rotated) throws MatrixException {
+        final int tiles = tileRows * tileColumns;
+        final int size = asKernel ? kernelSize : tileSize;
+        final double[][] transformedTiles = new double[getElements()][depthCount * tiles];
+        ComputePool.execute(depthCount * tiles, (long)depthCount * tiles * getElements() * (tileSize + size), (start, end) -> {
+            final double[] tile = new double[size * size];
+            final double[] work = new double[tileSize * size];
+            final double[] result = new double[getElements()];
+            for (int index = start; index < end; index++) {
+                final int tileIndex = index % tiles;
+                setTile(matrix, index / tiles, offset + (tileIndex / tileColumns) * tileStep, offset + (tileIndex % tileColumns) * tileStep, size, rotated, tile);
+                if (asKernel) {
+                    multiply(kernelTransform, tileSize, tile, kernelSize, work);
+                    multiplyTransposed(work, kernelSize, kernelTransform, tileSize, result);
+                }
+                else {
+                    multiply(dataTransform, tileSize, tile, tileSize, work);
+                    multiplyTransposed(work, tileSize, dataTransform, tileSize, result);
+                }
+                for (int element = 0; element < result.length; element++) transformedTiles[element][index] = result[element];
+            }
+        });
+        return transformedTiles;
+    }
+
+    /**
+     * Multiplies transformed tiles element wise as matrix products over shared dimension.<br>
+     * For each element result (rows x columns) is product of first (rows x shared) and second (shared x columns) matrix.<br>
+     *
+     * @param first first transformed tiles.
+     * @param second second transformed tiles.
+     * @param rows number of rows in result.
+     * @param shared size of shared dimension.
+     * @param columns number of columns in result.
+     * @param transposedFirst if true first matrix is stored as transposed (shared x rows).
+     * @param transposedSecond if true second matrix is stored as transposed (columns x shared).
+     * @return products of transformed tiles.
+     * @throws MatrixException throws exception if multiplication fails.
+     */
+    double[][] multiply(double[][] first, double[][] second, int rows, int shared, int columns, boolean transposedFirst, boolean transposedSecond) throws MatrixException {
+        final double[][] products = new double[getElements()][rows * columns];
+        ComputePool.execute(getElements(), (long)getElements() * rows * shared * columns, (start, end) -> {
+            for (int element = start; element < end; element++) {
+                final double[] firstValues = first[element];
+                final double[] secondValues = second[element];
+                final double[] productValues = products[element];
+                for (int row = 0; row < rows; row++) {
+                    final int rowOffset = row * columns;
+                    if (transposedSecond) {
+                        for (int column = 0; column < columns; column++) {
+                            double sum = 0;
+                            for (int index = 0; index < shared; index++) sum += firstValues[transposedFirst ? index * rows + row : row * shared + index] * secondValues[column * shared + index];
+                            productValues[rowOffset + column] = sum;
+                        }
+                    }
+                    else {
+                        for (int index = 0; index < shared; index++) {
+                            final double firstValue = firstValues[transposedFirst ? index * rows + row : row * shared + index];
+                            if (firstValue == 0) continue;
+                            final int sharedOffset = index * columns;
+                            for (int column = 0; column < columns; column++) productValues[rowOffset + column] += firstValue * secondValues[sharedOffset + column];
+                        }
+                    }
+                }
+            }
+        });
+        return products;
+    }
+
+    /**
+     * Transforms products back to output tiles (AT M A) and writes them to result matrix.<br>
+     * Output tile at tile row and tile column of each depth starts at position (tile row * output size, tile column * output size). Positions outside of result matrix are omitted.<br>
+     *
+     * @param products products of transformed tiles.
+     * @param depthCount number of depths.
+     * @param tileRows number of tile rows.
+     * @param tileColumns number of tile columns.
+     * @param result result matrix.
+     * @throws MatrixException throws exception if transform fails.
+     */
+    void transformOutputs(double[][] products, int depthCount, int tileRows, int tileColumns, DMatrix result) throws MatrixException {
+        final int tiles = tileRows * tileColumns;
+        ComputePool.execute(depthCount * tiles, (long)depthCount * tiles * getElements() * (outputSize + tileSize), (start, end) -> {
+            final double[] product = new double[getElements()];
+            final double[] work = new double[outputSize * tileSize];
+            final double[] output = new double[outputSize * outputSize];
+            for (int index = start; index < end; index++) {
+                for (int element = 0; element < product.length; element++) product[element] = products[element][index];
+                multiply(outputTransform, outputSize, product, tileSize, work);
+                multiplyTransposed(work, tileSize, outputTransform, outputSize, output);
+                final int depth = index / tiles;
+                final int tileIndex = index % tiles;
+                final int row = (tileIndex / tileColumns) * outputSize;
+                final int column = (tileIndex % tileColumns) * outputSize;
+                for (int outputRow = 0; outputRow < Math.min(outputSize, result.getRows() - row); outputRow++) {
+                    for (int outputColumn = 0; outputColumn < Math.min(outputSize, result.getColumns() - column); outputColumn++) {
+                        result.setValue(row + outputRow, column + outputColumn, depth, output[outputRow * outputSize + outputColumn]);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets square tile of depth slice of matrix in row major order. Positions of tile outside of matrix are zeros.
+     *
+     * @param matrix matrix.
+     * @param depth depth of matrix.
+     * @param row first row of tile.
+     * @param column first column of tile.
+     * @param size size of tile.
+     * @param rotated if true tile is rotated by 180 degrees.
+     * @param tile tile.
+     */
+    private static void setTile(DMatrix matrix, int depth, int row, int column, int size, boolean rotated, double[] tile) {
+        final double[] data = matrix.getMatrixData();
+        final int depthOffset = matrix.getArrayOffset() + depth * matrix.getArrayDepthStride();
+        for (int tileRow = 0; tileRow < size; tileRow++) {
+            final int currentRow = row + tileRow;
+            for (int tileColumn = 0; tileColumn < size; tileColumn++) {
+                final int currentColumn = column + tileColumn;
+                final int index = rotated ? (size - 1 - tileRow) * size + size - 1 - tileColumn : tileRow * size + tileColumn;
+                final boolean isInside = currentRow >= 0 && currentRow < matrix.getRows() && currentColumn >= 0 && currentColumn < matrix.getColumns();
+                tile[index] = isInside ? data[depthOffset + currentRow * matrix.getArrayRowStride() + currentColumn * matrix.getArrayColumnStride()] : 0;
+            }
+        }
+    }
+
+    /**
+     * Multiplies first matrix (rows x shared) by second matrix (shared x columns). Zero values of first matrix are skipped.
+     *
+     * @param first first matrix.
+     * @param rows number of rows in first matrix.
+     * @param second second matrix.
+     * @param columns number of columns in second matrix.
+     * @param result result matrix (rows x columns).
+     */
+    private static void multiply(double[] first, int rows, double[] second, int columns, double[] result) {
+        final int shared = second.length / columns;
+        for (int row = 0; row < rows; row++) {
+            final int rowOffset = row * columns;
+            for (int column = 0; column < columns; column++) result[rowOffset + column] = 0;
+            for (int index = 0; index < shared; index++) {
+                final double firstValue = first[row * shared + index];
+                if (firstValue == 0) continue;
+                final int sharedOffset = index * columns;
+                for (int column = 0; column < columns; column++) result[rowOffset + column] += firstValue * second[sharedOffset + column];
+            }
+        }
+    }
+
+    /**
+     * Multiplies first matrix (rows x shared) by transpose of second matrix (columns x shared). Zero values of second matrix are skipped.
+     *
+     * @param first first matrix.
+     * @param shared number of columns in first matrix and second matrix.
+     * @param second second matrix.
+     * @param columns number of rows in second matrix.
+     * @param result result matrix (rows x columns).
+     */
+    private static void multiplyTransposed(double[] first, int shared, double[] second, int columns, double[] result) {
+        final int rows = result.length / columns;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                double sum = 0;
+                for (int index = 0; index < shared; index++) {
+                    final double secondValue = second[column * shared + index];
+                    if (secondValue != 0) sum += first[row * shared + index] * secondValue;
+                }
+                result[row * columns + column] = sum;
+            }
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 /**
  * Defines matrix functions for neural network.<br>
- * Provides dense and sparse matrices with masking.<br>
+ * Provides dense, off-heap dense and sparse matrices with masking.<br>
+ * Provides 8-bit quantized dense matrix for inference.<br>
+ * Provides batched matrix stacking samples of mini-batch along column axis.<br>
  * Provides versatile set of matrix functions for calculation including unary and binary functions.<br>
  *
  */
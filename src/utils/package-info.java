@@ -1,5 +1,5 @@
 /**
- * Defines matrix, procedure, sampling, dynamic parameter handling and persistence for neural network.<br>
+ * Defines matrix, procedure, sampling, random number generation, dynamic parameter handling and persistence for neural network.<br>
  *
  */
 package utils;
\ No newline at end of file
@@ -12,6 +12,8 @@ import utils.matrix.AbstractMatrix;
 import utils.sampling.Sequence;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
+import utils.matrix.MatrixPool;
+import utils.matrix.OffHeapArena;
 import utils.procedure.expression.Expression;
 import utils.procedure.node.Node;
 
@@ -64,6 +66,18 @@ public class Procedure implements Serializable {
      */
     private final HashSet<Node> dependentNodes = new HashSet<>();
 
+    /**
+     * Program compiled from chain of expressions and chain of gradients.
+     *
+     */
+    private final ProcedureProgram procedureProgram;
+
+    /**
+     * If true latest expressions and gradients are calculated by compiled program otherwise by chains of expressions and gradients.
+     *
+     */
+    private transient boolean executeProgram;
+
     /**
      * If true input is reversed otherwise not.
      *
@@ -76,6 +90,12 @@ public class Procedure implements Serializable {
      */
     private final boolean joinedInput;
 
+    /**
+     * Number of nodes removed by fusing chains of element wise expressions.
+     *
+     */
+    private final int numberOfFusedNodes;
+
     /**
      * Parameter matrices.
      *
@@ -88,6 +108,47 @@ public class Procedure implements Serializable {
      */
     protected Optimizer optimizer = OptimizerFactory.createDefault();
 
+    /**
+     * Arena owning off-heap matrices produced by procedure.<br>
+     * Arena is reset when procedure is reset and closed when procedure is closed.<br>
+     *
+     */
+    private transient OffHeapArena offHeapArena = null;
+
+    /**
+     * Pool recycling data of intermediate matrices produced by procedure.<br>
+     * Pool is active only while procedure calculates its expressions and gradients.<br>
+     * Matrices and gradients of intermediate nodes are released to pool when procedure is reset.<br>
+     *
+     */
+    private transient MatrixPool matrixPool = null;
+
+    /**
+     * Interval of steps of which intermediate results of compiled program are kept for backward calculation when procedure is calculated sample by sample.<br>
+     * Intermediate results of other steps are released after forward calculation and recalculated segment by segment from nearest preceding kept step during backward calculation.<br>
+     * Value less than 2 means that intermediate results of all steps are kept.<br>
+     *
+     */
+    private transient int checkpointSteps;
+
+    /**
+     * Sample indices in order of forward calculation when intermediate results are kept only for checkpoint steps.
+     *
+     */
+    private transient ArrayList<Integer> checkpointSampleIndices;
+
+    /**
+     * Positions of sample indices in order of forward calculation when intermediate results are kept only for checkpoint steps.
+     *
+     */
+    private transient HashMap<Integer, Integer> checkpointSamplePositions;
+
+    /**
+     * First sample index of forward calculation.
+     *
+     */
+    private transient int firstSampleIndex;
+
     /**
      * Constructor for procedure.
      *
@@ -101,10 +162,11 @@ public class Procedure implements Serializable {
      * @param stopGradientMatrices matrices for which gradient is not updated.
      * @param reversedInput reversed input.
      * @param joinedInput if true inputs are joined otherwise not.
+     * @param numberOfFusedNodes number of nodes removed by fusing chains of element wise expressions.
      * @throws MatrixException throws exception if node does not contain all constant and parameter matrices.
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    public Procedure(HashMap<Integer, Node> inputNodes, Node outputNode, HashSet<Node> nodes, Expression expressionChain, Expression gradientChain, HashSet<Node> dependentNodes, HashSet<Matrix> parameterMatrices, HashSet<Matrix> stopGradientMatrices, boolean reversedInput, boolean joinedInput) throws MatrixException, DynamicParamException {
+    public Procedure(HashMap<Integer, Node> inputNodes, Node outputNode, HashSet<Node> nodes, Expression expressionChain, Expression gradientChain, HashSet<Node> dependentNodes, HashSet<Matrix> parameterMatrices, HashSet<Matrix> stopGradientMatrices, boolean reversedInput, boolean joinedInput, int numberOfFusedNodes) throws MatrixException, DynamicParamException {
         this.inputNodes.putAll(inputNodes);
         this.outputNode = outputNode;
         this.nodes.addAll(nodes);
@@ -116,6 +178,8 @@ public class Procedure implements Serializable {
         if (stopGradientMatrices != null) setStopGradient(stopGradientMatrices, true);
         this.reversedInput = reversedInput;
         this.joinedInput = joinedInput;
+        this.numberOfFusedNodes = numberOfFusedNodes;
+        procedureProgram = new ProcedureProgram(expressionChain, gradientChain, inputNodes.values(), outputNode, dependentNodes, dependentNodes.isEmpty());
     }
 
     /**
@@ -133,7 +197,77 @@ public class Procedure implements Serializable {
      * @throws MatrixException throws exception is dimensions of matrices are not matching or any matrix is scalar type.
      */
     public void reset() throws MatrixException {
+        if (matrixPool != null) releaseMatrices();
         for (Node node : nodes) node.reset();
+        if (procedureProgram != null) procedureProgram.reset();
+        if (offHeapArena != null) offHeapArena.reset();
+    }
+
+    /**
+     * Releases matrices and gradients of intermediate nodes of procedure to matrix pool.<br>
+     * Intermediate nodes are multi index nodes other than input, output and dependent nodes. Their matrices are not accessed outside of procedure.<br>
+     * Matrix sharing data with matrix of input, output, dependent, constant or parameter node is not released.<br>
+     * Matrices held only outside of nodes (such as copies cached by layers) are never released to pool.<br>
+     *
+     */
+    private void releaseMatrices() {
+        ArrayList<Matrix> retainedMatrices = new ArrayList<>();
+        ArrayList<Matrix> releasedMatrices = new ArrayList<>();
+        for (Node node : nodes) {
+            if (!node.isMultiIndex()) {
+                addMatrix(retainedMatrices, node.getMatrix());
+                addMatrix(retainedMatrices, node.getGradient());
+            }
+            else {
+                boolean retained = node == outputNode || inputNodes.containsValue(node) || dependentNodes.contains(node);
+                for (Map.Entry<Integer, Matrix> entry : node.entrySet()) {
+                    addMatrix(retained ? retainedMatrices : releasedMatrices, entry.getValue());
+                    addMatrix(retained ? retainedMatrices : releasedMatrices, node.getGradient(entry.getKey()));
+                }
+            }
+        }
+        matrixPool.release(releasedMatrices, retainedMatrices);
+    }
+
+    /**
+     * Adds matrix to list of matrices if matrix is defined.
+     *
+     * @param matrices list of matrices.
+     * @param matrix matrix.
+     */
+    private static void addMatrix(ArrayList<Matrix> matrices, Matrix matrix) {
+        if (matrix != null) matrices.add(matrix);
+    }
+
+    /**
+     * Closes procedure and releases off-heap memory owned by procedure.<br>
+     * Off-heap matrices produced by procedure are not accessible after procedure is closed.<br>
+     *
+     */
+    public void close() {
+        if (offHeapArena != null) offHeapArena.close();
+        offHeapArena = null;
+        if (matrixPool != null) matrixPool.clear();
+    }
+
+    /**
+     * Returns arena owning off-heap matrices produced by procedure.
+     *
+     * @return arena owning off-heap matrices produced by procedure.
+     */
+    private OffHeapArena getOffHeapArena() {
+        if (offHeapArena == null) offHeapArena = new OffHeapArena();
+        return offHeapArena;
+    }
+
+    /**
+     * Returns pool recycling data of intermediate matrices produced by procedure.
+     *
+     * @return pool recycling data of intermediate matrices produced by procedure.
+     */
+    public MatrixPool getMatrixPool() {
+        if (matrixPool == null) matrixPool = new MatrixPool();
+        return matrixPool;
     }
 
     /**
@@ -184,18 +318,67 @@ public class Procedure implements Serializable {
         return !dependentNodes.isEmpty();
     }
 
+    /**
+     * Returns number of nodes removed by fusing chains of element wise expressions.
+     *
+     * @return number of nodes removed by fusing chains of element wise expressions.
+     */
+    public int getNumberOfFusedNodes() {
+        return numberOfFusedNodes;
+    }
+
+    /**
+     * Returns planned peak bytes per sample held in buffer slots of procedure program when matrices and gradients are released according to memory plan.
+     *
+     * @return planned peak bytes per sample.
+     */
+    public long getPlannedPeakBytes() {
+        return procedureProgram != null ? procedureProgram.getMemoryPlan().getPlannedPeakBytes() : 0;
+    }
+
+    /**
+     * Returns peak bytes per sample held in buffer slots of procedure program when matrices and gradients are kept until procedure is reset.
+     *
+     * @return unplanned peak bytes per sample.
+     */
+    public long getUnplannedPeakBytes() {
+        return procedureProgram != null ? procedureProgram.getMemoryPlan().getUnplannedPeakBytes() : 0;
+    }
+
+    /**
+     * Returns actual peak bytes held in buffer slots of procedure program during execution.
+     *
+     * @return actual peak bytes.
+     */
+    public long getPeakBytes() {
+        return procedureProgram != null ? procedureProgram.getMemoryPlan().getPeakBytes() : 0;
+    }
+
     /**
      * Calculates chain of forward expressions.
      *
      * @param inputSequences input sequences.
      * @param outputSequence output sequence.
+     * @param checkpointSteps interval of steps of which intermediate results are kept for backward calculation. Value less than 2 means that intermediate results of all steps are kept.
      * @throws MatrixException throws exception if calculation fails.
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    public void calculateExpression(TreeMap<Integer, Sequence> inputSequences, Sequence outputSequence) throws MatrixException, DynamicParamException {
-        expressionChain.reset();
-        if (joinedInput) calculateExpressionForMultipleSequences(Sequence.join(inputSequences, true), outputSequence);
-        else calculateExpressionForMultipleSequences(inputSequences, outputSequence);
+    public void calculateExpression(TreeMap<Integer, Sequence> inputSequences, Sequence outputSequence, int checkpointSteps) throws MatrixException, DynamicParamException {
+        OffHeapArena previousArena = OffHeapArena.setActive(getOffHeapArena());
+        MatrixPool previousPool = MatrixPool.setActive(getMatrixPool());
+        try {
+            expressionChain.reset();
+            executeProgram = procedureProgram != null && ProcedureProgram.isEnabled();
+            this.checkpointSteps = checkpointSteps;
+            checkpointSampleIndices = null;
+            checkpointSamplePositions = null;
+            if (joinedInput) calculateExpressionForMultipleSequences(Sequence.join(inputSequences, true), outputSequence);
+            else calculateExpressionForMultipleSequences(inputSequences, outputSequence);
+        }
+        finally {
+            OffHeapArena.setActive(previousArena);
+            MatrixPool.setActive(previousPool);
+        }
     }
 
     /**
@@ -212,7 +395,8 @@ public class Procedure implements Serializable {
     }
 
     /**
-     * Calculates chain of forward expressions sample by sample.
+     * Calculates chain of forward expressions sample by sample.<br>
+     * If checkpointing is used intermediate results of compiled program are kept only for every checkpoint steps-th step.<br>
      *
      * @param inputSequences input sequences.
      * @param outputSequence output sequence.
@@ -225,23 +409,61 @@ public class Procedure implements Serializable {
         int firstKey = reversedInput ? inputSequence.lastKey() : inputSequence.firstKey();
         Set<Integer> inputKeySet = reversedInput ? inputSequence.descendingKeySet() : inputSequence.keySet();
 
+        firstSampleIndex = firstKey;
+        if (isCheckpointing()) {
+            checkpointSampleIndices = new ArrayList<>();
+            checkpointSamplePositions = new HashMap<>();
+        }
         int previousSampleIndex = -1;
         for (Integer sampleIndex : inputKeySet) {
             for (Node dependentNode : dependentNodes) dependentNode.updateMatrixDependency(sampleIndex, previousSampleIndex);
 
             setInputSamples(inputSequences, inputSequence, sampleIndex);
 
-            expressionChain.calculateExpressionStep(sampleIndex, firstKey);
+            if (executeProgram) procedureProgram.calculateExpression(sampleIndex, firstKey);
+            else expressionChain.calculateExpressionStep(sampleIndex, firstKey);
 
             outputSequence.put(sampleIndex, getOutputNode().getMatrix(sampleIndex));
 
             for (Node dependentNode : dependentNodes) dependentNode.updateDependencies(sampleIndex);
 
+            if (checkpointSampleIndices != null) {
+                if (checkpointSampleIndices.size() % checkpointSteps != 0) procedureProgram.releaseFrame(sampleIndex);
+                checkpointSamplePositions.put(sampleIndex, checkpointSampleIndices.size());
+                checkpointSampleIndices.add(sampleIndex);
+            }
+
             previousSampleIndex = sampleIndex;
         }
 
     }
 
+    /**
+     * Checks if intermediate results of compiled program are kept only for checkpoint steps.
+     *
+     * @return true if intermediate results are kept only for checkpoint steps otherwise false.
+     */
+    private boolean isCheckpointing() {
+        return executeProgram && checkpointSteps > 1;
+    }
+
+    /**
+     * Recalculates intermediate results of compiled program for segment of steps starting after nearest preceding checkpoint step and ending at given sample index.<br>
+     * Matrices of input and dependent nodes are kept for all steps so segment is recalculated without updating dependencies.<br>
+     *
+     * @param sampleIndex sample index ending segment.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    private void recalculateSegment(int sampleIndex) throws MatrixException, DynamicParamException {
+        Integer step = checkpointSamplePositions != null ? checkpointSamplePositions.get(sampleIndex) : null;
+        if (step == null) throw new MatrixException("Expressions are not calculated for sample index " + sampleIndex);
+        for (int segmentStep = step - step % checkpointSteps; segmentStep <= step; segmentStep++) {
+            int segmentSampleIndex = checkpointSampleIndices.get(segmentStep);
+            if (!procedureProgram.hasFrame(segmentSampleIndex)) procedureProgram.calculateExpression(segmentSampleIndex, firstSampleIndex);
+        }
+    }
+
     /**
      * Calculates chain of forward expressions for all samples.
      *
@@ -257,7 +479,8 @@ public class Procedure implements Serializable {
 
         for (Integer sampleIndex : inputKeySet) setInputSamples(inputSequences, inputSequence, sampleIndex);
 
-        expressionChain.calculateExpressionStep(inputKeySet);
+        if (executeProgram) procedureProgram.calculateExpression(inputKeySet);
+        else expressionChain.calculateExpressionStep(inputKeySet);
 
         for (Integer sampleIndex : inputKeySet) outputSequence.put(sampleIndex, getOutputNode().getMatrix(sampleIndex));
     }
@@ -290,9 +513,19 @@ public class Procedure implements Serializable {
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
     public Matrix calculateExpression(Matrix inputMatrix) throws MatrixException, DynamicParamException {
-        getInputNodes().get(0).setMatrix(0, inputMatrix);
-        expressionChain.calculateExpressionStep(0, 0);
-        return getOutputNode().getMatrix(0);
+        OffHeapArena previousArena = OffHeapArena.setActive(getOffHeapArena());
+        MatrixPool previousPool = MatrixPool.setActive(getMatrixPool());
+        try {
+            getInputNodes().get(0).setMatrix(0, inputMatrix);
+            executeProgram = procedureProgram != null && ProcedureProgram.isEnabled();
+            if (executeProgram) procedureProgram.calculateExpression(0, 0);
+            else expressionChain.calculateExpressionStep(0, 0);
+            return getOutputNode().getMatrix(0);
+        }
+        finally {
+            OffHeapArena.setActive(previousArena);
+            MatrixPool.setActive(previousPool);
+        }
     }
 
     /**
@@ -305,18 +538,26 @@ public class Procedure implements Serializable {
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
     public void calculateGradient(Sequence outputGradientSequence, TreeMap<Integer, Sequence> inputGradientSequences, int steps) throws MatrixException, DynamicParamException {
-        if (joinedInput) {
-            TreeMap <Integer, Sequence> joinedInputGradientSequences = new TreeMap<>() {{ put(0, new Sequence()); }};
-            calculateGradientForMultipleInputs(outputGradientSequence, joinedInputGradientSequences, steps);
-            Sequence sequence = joinedInputGradientSequences.get(0);
-            for (Map.Entry<Integer, Matrix> entry : sequence.entrySet()) {
-                Matrix[] matrices = AbstractMatrix.unjoin(entry.getValue());
-                for (int index = 0; index < matrices.length; index++) {
-                    inputGradientSequences.get(index).put(entry.getKey(), matrices[index]);
+        OffHeapArena previousArena = OffHeapArena.setActive(getOffHeapArena());
+        MatrixPool previousPool = MatrixPool.setActive(getMatrixPool());
+        try {
+            if (joinedInput) {
+                TreeMap <Integer, Sequence> joinedInputGradientSequences = new TreeMap<>() {{ put(0, new Sequence()); }};
+                calculateGradientForMultipleInputs(outputGradientSequence, joinedInputGradientSequences, steps);
+                Sequence sequence = joinedInputGradientSequences.get(0);
+                for (Map.Entry<Integer, Matrix> entry : sequence.entrySet()) {
+                    Matrix[] matrices = AbstractMatrix.unjoin(entry.getValue());
+                    for (int index = 0; index < matrices.length; index++) {
+                        inputGradientSequences.get(index).put(entry.getKey(), matrices[index]);
+                    }
                 }
             }
+            else calculateGradientForMultipleInputs(outputGradientSequence, inputGradientSequences, steps);
+        }
+        finally {
+            OffHeapArena.setActive(previousArena);
+            MatrixPool.setActive(previousPool);
         }
-        else calculateGradientForMultipleInputs(outputGradientSequence, inputGradientSequences, steps);
     }
 
     /**
@@ -334,7 +575,8 @@ public class Procedure implements Serializable {
     }
 
     /**
-     * Calculates chain of backward expressions for multiple inputs per gradient expression step per sample.
+     * Calculates chain of backward expressions for multiple inputs per gradient expression step per sample.<br>
+     * If checkpointing is used intermediate results of released steps are recalculated segment by segment and released again once gradient of step is calculated.<br>
      *
      * @param outputGradientSequence output gradient sequence.
      * @param inputGradientSequences input gradient sequences.
@@ -354,7 +596,12 @@ public class Procedure implements Serializable {
 
             getOutputNode().setGradient(sampleIndex, entry.getValue());
 
-            gradientChain.calculateGradientStep(sampleIndex, lastKey);
+            if (executeProgram) {
+                if (checkpointSampleIndices != null && !procedureProgram.hasFrame(sampleIndex)) recalculateSegment(sampleIndex);
+                procedureProgram.calculateGradient(sampleIndex, lastKey);
+                if (checkpointSampleIndices != null) procedureProgram.releaseFrame(sampleIndex);
+            }
+            else gradientChain.calculateGradientStep(sampleIndex, lastKey);
 
             for (Map.Entry<Integer, Node> nodeEntry : inputNodes.entrySet()) {
                 inputGradientSequences.get(nodeEntry.getKey()).increment(sampleIndex, nodeEntry.getValue().getGradient(sampleIndex));
@@ -385,7 +632,8 @@ public class Procedure implements Serializable {
             if (numberOfGradientSteps > 0 && ++gradientStepCount >= numberOfGradientSteps) break;
         }
 
-        gradientChain.calculateGradientStep(inputKeySet, numberOfGradientSteps);
+        if (executeProgram) procedureProgram.calculateGradient(inputKeySet, numberOfGradientSteps);
+        else gradientChain.calculateGradientStep(inputKeySet, numberOfGradientSteps);
 
         gradientStepCount = 0;
         for (Integer sampleIndex : inputKeySet) {
@@ -127,10 +127,26 @@ public class ProcedureFactory implements Serializable {
      */
     private int currentNodeID = 0;
 
+    /**
+     * If true chains of element wise expressions are fused into fused expressions.
+     *
+     */
+    private final boolean fuseExpressions;
+
     /**
      * Default constructor for procedure factory.
      */
     public ProcedureFactory() {
+        this(false);
+    }
+
+    /**
+     * Constructor for procedure factory.
+     *
+     * @param fuseExpressions if true chains of element wise expressions are fused into fused expressions.
+     */
+    public ProcedureFactory(boolean fuseExpressions) {
+        this.fuseExpressions = fuseExpressions;
     }
 
     /**
@@ -199,6 +215,8 @@ public class ProcedureFactory implements Serializable {
 
         updateDependencies(previousProcedureData, nextProcedureData);
 
+        int numberOfFusedNodes = fuseExpressions ? fuseExpressions(nextProcedureData, forwardProcedure.getStopGradients()) : 0;
+
         nodeRegister.removeProcedureFactory();
 
         Expression previousExpression = null;
@@ -213,7 +231,7 @@ public class ProcedureFactory implements Serializable {
             previousExpression = expression;
         }
 
-        return new Procedure(nextProcedureData.inputNodes, nextProcedureData.outputNode, nextProcedureData.nodes, nextProcedureData.expressions.get(0), nextProcedureData.gradients.get(0), nextProcedureData.dependentNodes, forwardProcedure.getParameterMatrices(), forwardProcedure.getStopGradients(), forwardProcedure.isReversedInput(), forwardProcedure.isJoinedInput());
+        return new Procedure(nextProcedureData.inputNodes, nextProcedureData.outputNode, nextProcedureData.nodes, nextProcedureData.expressions.get(0), nextProcedureData.gradients.get(0), nextProcedureData.dependentNodes, forwardProcedure.getParameterMatrices(), forwardProcedure.getStopGradients(), forwardProcedure.isReversedInput(), forwardProcedure.isJoinedInput(), numberOfFusedNodes);
     }
 
     /**
@@ -255,22 +273,26 @@ public class ProcedureFactory implements Serializable {
     /**
      * Defines backward gradient calculation path for expressions.<br>
      * Records gradient path to current procedure data.<br>
+     * Expressions contributing to output are recorded in reverse order of expression calculation so that gradient of each node is fully cumulated by all its consumers before it is propagated further.<br>
      *
      */
     private void defineGradientPath(ProcedureData procedureData) {
         Stack<Node> resultNodes = new Stack<>();
         HashMap<Node, Expression> reverseExpressionMap = new HashMap<>(procedureData.reverseExpressionMap);
+        HashSet<Expression> gradientExpressions = new HashSet<>();
         resultNodes.push(procedureData.outputNode);
         while (!resultNodes.empty()) {
             Expression expression = reverseExpressionMap.remove(resultNodes.pop());
             if (expression != null) {
-                procedureData.gradients.add(expression);
-                Node argument1 = expression.getArgument1();
-                if (argument1 != null) resultNodes.push(argument1);
-                Node argument2 = expression.getArgument2();
-                if (argument2 != null) resultNodes.push(argument2);
+                gradientExpressions.add(expression);
+                for (Node argument : expression.getArguments()) resultNodes.push(argument);
             }
         }
+        Iterator<Expression> expressionIterator = procedureData.expressions.descendingIterator();
+        while (expressionIterator.hasNext()) {
+            Expression expression = expressionIterator.next();
+            if (gradientExpressions.contains(expression)) procedureData.gradients.add(expression);
+        }
     }
 
     /**
@@ -292,6 +314,78 @@ public class ProcedureFactory implements Serializable {
         }
     }
 
+    /**
+     * Fuses chains of element wise expressions into fused expressions and rebuilds gradient path of procedure.<br>
+     * Result node of element wise expression is fused away if it is multi index node consumed only once and by element wise expression.<br>
+     * Input, output and dependent nodes and nodes with stopped gradient are never fused away as they are accessed outside of expressions.<br>
+     *
+     * @param procedureData procedure data.
+     * @param stopGradientMatrices matrices for which gradient is not updated.
+     * @return number of nodes removed by fusion.
+     * @throws MatrixException throws exception if creation of fused expression fails.
+     */
+    private int fuseExpressions(ProcedureData procedureData, HashSet<Matrix> stopGradientMatrices) throws MatrixException {
+        HashMap<Node, Integer> consumerCounts = new HashMap<>();
+        HashMap<Node, Expression> consumers = new HashMap<>();
+        for (Expression expression : procedureData.expressions) {
+            for (Node argument : expression.getArguments()) {
+                consumerCounts.merge(argument, 1, Integer::sum);
+                consumers.put(argument, expression);
+            }
+        }
+
+        HashSet<Node> fixedNodes = new HashSet<>(procedureData.inputNodes.values());
+        fixedNodes.add(procedureData.outputNode);
+        fixedNodes.addAll(procedureData.dependentNodes);
+        if (stopGradientMatrices != null) {
+            for (Node node : procedureData.nodes) {
+                for (Matrix stopGradientMatrix : stopGradientMatrices) if (node.isReferenceOf(stopGradientMatrix)) fixedNodes.add(node);
+            }
+        }
+
+        HashMap<Node, ArrayList<Expression>> openChains = new HashMap<>();
+        HashMap<Expression, Expression> fusedExpressions = new HashMap<>();
+        HashSet<Expression> removedExpressions = new HashSet<>();
+        int numberOfFusedNodes = 0;
+        for (Expression expression : procedureData.expressions) {
+            if (!FusedExpression.isFusable(expression)) continue;
+            ArrayList<Expression> chain = new ArrayList<>();
+            for (Node argument : expression.getArguments()) {
+                ArrayList<Expression> argumentChain = openChains.remove(argument);
+                if (argumentChain != null) chain.addAll(argumentChain);
+            }
+            chain.add(expression);
+            Node result = expression.getResult();
+            if (result.isMultiIndex() && !fixedNodes.contains(result) && consumerCounts.getOrDefault(result, 0) == 1 && FusedExpression.isFusable(consumers.get(result))) openChains.put(result, chain);
+            else if (chain.size() > 1) {
+                fusedExpressions.put(expression, new FusedExpression(expression.getExpressionID(), chain));
+                for (Expression chainExpression : chain) {
+                    if (chainExpression == expression) continue;
+                    removedExpressions.add(chainExpression);
+                    procedureData.nodes.remove(chainExpression.getResult());
+                    procedureData.reverseExpressionMap.remove(chainExpression.getResult());
+                    numberOfFusedNodes++;
+                }
+            }
+        }
+        if (numberOfFusedNodes == 0) return 0;
+
+        ListIterator<Expression> expressionIterator = procedureData.expressions.listIterator();
+        while (expressionIterator.hasNext()) {
+            Expression expression = expressionIterator.next();
+            if (removedExpressions.contains(expression)) expressionIterator.remove();
+            else if (fusedExpressions.containsKey(expression)) {
+                expressionIterator.set(fusedExpressions.get(expression));
+                procedureData.reverseExpressionMap.put(expression.getResult(), fusedExpressions.get(expression));
+            }
+        }
+
+        procedureData.gradients.clear();
+        defineGradientPath(procedureData);
+
+        return numberOfFusedNodes;
+    }
+
     /**
      * Records dependencies between previous time step result node and next time step argument nodes.<br>
      *
@@ -499,7 +593,7 @@ public class ProcedureFactory implements Serializable {
     }
 
     /**
-     * Records crosscorrelate expression to procedure factory.
+     * Records FFT convolve or crosscorrelate expression to procedure factory.
      *
      * @param expressionLock unique expression lock key.
      * @param argument1 first argument of expression.
@@ -507,12 +601,28 @@ public class ProcedureFactory implements Serializable {
      * @param result result of expression.
      * @param stride stride for operation.
      * @param dilation dilation step size.
+     * @param isDepthSeparable if true convolution is depth separable
+     * @param asConvolution if true operation is executed as convolution otherwise as crosscorrelation
+     * @throws MatrixException throws exception if adding of expression fails.
+     */
+    public void createFFTConvolveExpression(double expressionLock, Matrix argument1, Matrix argument2, Matrix result, int stride, int dilation, boolean isDepthSeparable, boolean asConvolution) throws MatrixException {
+        if (checkOngoingExpression(expressionLock)) return;
+        storeExpression(new FFTConvolutionExpression(currentExpressionID++, defineNode(argument1), defineNode(argument2), defineNode(result), stride, dilation, isDepthSeparable, asConvolution));
+    }
+
+    /**
+     * Records Winograd convolution expression to procedure factory.
+     *
+     * @param expressionLock unique expression lock key.
+     * @param argument1 first argument of expression.
+     * @param argument2 second argument of expression.
+     * @param result result of expression.
+     * @param tileSize output tile size of Winograd transform.
      * @throws MatrixException throws exception if adding of expression fails.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    public void createWinogradConvolveExpression(double expressionLock, Matrix argument1, Matrix argument2, Matrix result, int stride, int dilation) throws MatrixException, DynamicParamException {
+    public void createWinogradConvolveExpression(double expressionLock, Matrix argument1, Matrix argument2, Matrix result, int tileSize) throws MatrixException {
         if (checkOngoingExpression(expressionLock)) return;
-        storeExpression(new WinogradConvolutionExpression(currentExpressionID++, defineNode(argument1), defineNode(argument2), defineNode(result), stride, dilation));
+        storeExpression(new WinogradConvolutionExpression(currentExpressionID++, defineNode(argument1), defineNode(argument2), defineNode(result), tileSize));
     }
 
     /**
@@ -0,0 +1,311 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.procedure;
+
+import utils.matrix.FMatrix;
+import utils.matrix.Matrix;
+import utils.procedure.expression.Expression;
+import utils.procedure.node.Node;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Implements memory plan of procedure program based on liveness of matrices and gradients in buffer slots of program.<br>
+ * Forward and gradient instructions form single sequence of positions. For each slot plan resolves position after which matrix or gradient of slot is not accessed anymore and releases it at that position so that its buffer can be reused by later instructions.<br>
+ * Matrices needed by gradient instructions are kept until respective gradient instruction has been calculated. Matrices and gradients accessed outside of program (synchronized with nodes) are never released.<br>
+ * Plan estimates peak bytes per sample with and without releasing and tracks actual peak bytes held in buffer slots during execution.<br>
+ *
+ */
+public class ProcedureMemoryPlan implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 4180553412773067316L;
+
+    /**
+     * If true matrices and gradients are released according to memory plan.
+     *
+     */
+    private static volatile boolean enabled = true;
+
+    /**
+     * Slots of which matrices are released after each expression instruction.
+     *
+     */
+    private final int[][] expressionReleaseSlots;
+
+    /**
+     * Slots of which matrices are released after each gradient instruction.
+     *
+     */
+    private final int[][] gradientReleaseSlots;
+
+    /**
+     * Slots of which gradients are released after each gradient instruction.
+     *
+     */
+    private final int[][] gradientBufferReleaseSlots;
+
+    /**
+     * Planned peak bytes per sample held in buffer slots when matrices and gradients are released according to plan.
+     *
+     */
+    private final long plannedPeakBytes;
+
+    /**
+     * Peak bytes per sample held in buffer slots when matrices and gradients are kept until procedure is reset.
+     *
+     */
+    private final long unplannedPeakBytes;
+
+    /**
+     * Bytes currently held in buffer slots.
+     *
+     */
+    private transient long bytes;
+
+    /**
+     * Peak bytes held in buffer slots.
+     *
+     */
+    private transient long peakBytes;
+
+    /**
+     * Constructor for procedure memory plan.
+     *
+     * @param expressionInstructions expression instructions.
+     * @param gradientInstructions gradient instructions.
+     * @param nodes nodes by slot.
+     * @param synchronizedSlots slots of which matrices are synchronized with nodes.
+     * @param synchronizedGradientSlots slots of which gradients are synchronized with nodes.
+     */
+    ProcedureMemoryPlan(ProcedureProgram.Instruction[] expressionInstructions, ProcedureProgram.Instruction[] gradientInstructions, Node[] nodes, boolean[] synchronizedSlots, boolean[] synchronizedGradientSlots) {
+        int numberOfPositions = expressionInstructions.length + gradientInstructions.length;
+        int[] matrixStarts = new int[nodes.length];
+        int[] matrixEnds = new int[nodes.length];
+        int[] gradientStarts = new int[nodes.length];
+        int[] gradientEnds = new int[nodes.length];
+        Arrays.fill(matrixStarts, -1);
+        Arrays.fill(gradientStarts, -1);
+        boolean[] releasableMatrices = new boolean[nodes.length];
+        boolean[] releasableGradients = new boolean[nodes.length];
+
+        for (int position = 0; position < expressionInstructions.length; position++) {
+            ProcedureProgram.Instruction instruction = expressionInstructions[position];
+            for (int argumentSlot : instruction.argumentSlots()) matrixEnds[argumentSlot] = position;
+            int resultSlot = instruction.resultSlot();
+            if (!nodes[resultSlot].isMultiIndex() || matrixStarts[resultSlot] != -1) continue;
+            matrixStarts[resultSlot] = matrixEnds[resultSlot] = position;
+            releasableMatrices[resultSlot] = instruction.isInstruction() && !synchronizedSlots[resultSlot];
+        }
+        for (int index = 0; index < gradientInstructions.length; index++) {
+            ProcedureProgram.Instruction instruction = gradientInstructions[index];
+            int position = expressionInstructions.length + index;
+            Expression expression = instruction.expression();
+            int resultSlot = instruction.resultSlot();
+            if (!instruction.isInstruction() || expression.isArgumentRequiredForGradient()) {
+                for (int argumentSlot : instruction.argumentSlots()) matrixEnds[argumentSlot] = position;
+            }
+            if (!instruction.isInstruction() || expression.isResultRequiredForGradient()) matrixEnds[resultSlot] = position;
+            if (nodes[resultSlot].isMultiIndex()) {
+                if (gradientStarts[resultSlot] == -1) gradientStarts[resultSlot] = position;
+                gradientEnds[resultSlot] = position;
+                releasableGradients[resultSlot] = instruction.isInstruction() && !synchronizedGradientSlots[resultSlot];
+            }
+            for (int argumentSlot : instruction.argumentSlots()) {
+                if (!nodes[argumentSlot].isMultiIndex()) continue;
+                if (gradientStarts[argumentSlot] == -1) gradientStarts[argumentSlot] = position;
+                gradientEnds[argumentSlot] = Math.max(gradientEnds[argumentSlot], position);
+            }
+        }
+
+        ArrayList<ArrayList<Integer>> matrixReleases = getPositions(numberOfPositions);
+        ArrayList<ArrayList<Integer>> gradientReleases = getPositions(numberOfPositions);
+        long[] allocatedBytes = new long[numberOfPositions];
+        long[] releasedBytes = new long[numberOfPositions];
+        long totalBytes = 0;
+        for (int slot = 0; slot < nodes.length; slot++) {
+            long slotBytes = getBytes(nodes[slot]);
+            if (matrixStarts[slot] != -1) {
+                allocatedBytes[matrixStarts[slot]] += slotBytes;
+                totalBytes += slotBytes;
+                if (releasableMatrices[slot]) {
+                    matrixReleases.get(matrixEnds[slot]).add(slot);
+                    releasedBytes[matrixEnds[slot]] += slotBytes;
+                }
+            }
+            if (gradientStarts[slot] != -1) {
+                allocatedBytes[gradientStarts[slot]] += slotBytes;
+                totalBytes += slotBytes;
+                if (releasableGradients[slot]) {
+                    gradientReleases.get(gradientEnds[slot]).add(slot);
+                    releasedBytes[gradientEnds[slot]] += slotBytes;
+                }
+            }
+        }
+        long liveBytes = 0;
+        long maxBytes = 0;
+        for (int position = 0; position < numberOfPositions; position++) {
+            liveBytes += allocatedBytes[position];
+            maxBytes = Math.max(maxBytes, liveBytes);
+            liveBytes -= releasedBytes[position];
+        }
+        plannedPeakBytes = maxBytes;
+        unplannedPeakBytes = totalBytes;
+
+        expressionReleaseSlots = toArray(matrixReleases.subList(0, expressionInstructions.length));
+        gradientReleaseSlots = toArray(matrixReleases.subList(expressionInstructions.length, numberOfPositions));
+        gradientBufferReleaseSlots = toArray(gradientReleases.subList(expressionInstructions.length, numberOfPositions));
+    }
+
+    /**
+     * Returns list of slot lists for positions.
+     *
+     * @param numberOfPositions number of positions.
+     * @return list of slot lists for positions.
+     */
+    private static ArrayList<ArrayList<Integer>> getPositions(int numberOfPositions) {
+        ArrayList<ArrayList<Integer>> positions = new ArrayList<>();
+        for (int position = 0; position < numberOfPositions; position++) positions.add(new ArrayList<>());
+        return positions;
+    }
+
+    /**
+     * Converts slot lists to arrays.
+     *
+     * @param slots slot lists.
+     * @return slot arrays.
+     */
+    private static int[][] toArray(List<ArrayList<Integer>> slots) {
+        int[][] slotArrays = new int[slots.size()][];
+        for (int position = 0; position < slots.size(); position++) slotArrays[position] = slots.get(position).stream().mapToInt(Integer::intValue).toArray();
+        return slotArrays;
+    }
+
+    /**
+     * Returns estimated bytes of matrix of node. Estimate assumes double precision.
+     *
+     * @param node node.
+     * @return estimated bytes of matrix of node.
+     */
+    private static long getBytes(Node node) {
+        return (long)node.getRows() * node.getColumns() * node.getDepth() * Double.BYTES;
+    }
+
+    /**
+     * Sets if matrices and gradients are released according to memory plan.
+     *
+     * @param enabled if true matrices and gradients are released according to memory plan otherwise they are kept until procedure is reset.
+     */
+    public static void setEnabled(boolean enabled) {
+        ProcedureMemoryPlan.enabled = enabled;
+    }
+
+    /**
+     * Checks if matrices and gradients are released according to memory plan.
+     *
+     * @return true if matrices and gradients are released according to memory plan otherwise false.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns slots of which matrices are released after expression instruction.
+     *
+     * @param index index of expression instruction.
+     * @return slots of which matrices are released.
+     */
+    int[] getExpressionReleaseSlots(int index) {
+        return expressionReleaseSlots[index];
+    }
+
+    /**
+     * Returns slots of which matrices are released after gradient instruction.
+     *
+     * @param index index of gradient instruction.
+     * @return slots of which matrices are released.
+     */
+    int[] getGradientReleaseSlots(int index) {
+        return gradientReleaseSlots[index];
+    }
+
+    /**
+     * Returns slots of which gradients are released after gradient instruction.
+     *
+     * @param index index of gradient instruction.
+     * @return slots of which gradients are released.
+     */
+    int[] getGradientBufferReleaseSlots(int index) {
+        return gradientBufferReleaseSlots[index];
+    }
+
+    /**
+     * Returns planned peak bytes per sample held in buffer slots when matrices and gradients are released according to plan.
+     *
+     * @return planned peak bytes per sample.
+     */
+    public long getPlannedPeakBytes() {
+        return plannedPeakBytes;
+    }
+
+    /**
+     * Returns peak bytes per sample held in buffer slots when matrices and gradients are kept until procedure is reset.
+     *
+     * @return unplanned peak bytes per sample.
+     */
+    public long getUnplannedPeakBytes() {
+        return unplannedPeakBytes;
+    }
+
+    /**
+     * Returns actual peak bytes held in buffer slots over all samples since memory plan was created.
+     *
+     * @return actual peak bytes.
+     */
+    public synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+
+    /**
+     * Records matrix assigned into buffer slot.
+     *
+     * @param matrix matrix.
+     */
+    synchronized void allocate(Matrix matrix) {
+        bytes += getBytes(matrix);
+        peakBytes = Math.max(peakBytes, bytes);
+    }
+
+    /**
+     * Records matrix removed from buffer slot.
+     *
+     * @param matrix matrix.
+     */
+    synchronized void release(Matrix matrix) {
+        bytes -= getBytes(matrix);
+    }
+
+    /**
+     * Resets bytes held in buffer slots. Peak bytes are kept.
+     *
+     */
+    synchronized void reset() {
+        bytes = 0;
+    }
+
+    /**
+     * Returns bytes of matrix.
+     *
+     * @param matrix matrix.
+     * @return bytes of matrix.
+     */
+    private static long getBytes(Matrix matrix) {
+        return (long)matrix.getRows() * matrix.getColumns() * matrix.getDepth() * (matrix instanceof FMatrix ? Float.BYTES : Double.BYTES);
+    }
+
+}
@@ -0,0 +1,928 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.procedure;
+
+import utils.configurable.DynamicParamException;
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+import utils.matrix.MatrixPool;
+import utils.matrix.OffHeapArena;
+import utils.matrix.operation.ComputePool;
+import utils.procedure.expression.Expression;
+import utils.procedure.node.Node;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Implements procedure program compiled from chain of expressions and chain of gradients of procedure.<br>
+ * Chains are lowered into flat arrays of instructions and each node of procedure is assigned with preassigned buffer slot. Instructions refer to their arguments and result by slot.<br>
+ * Matrices and gradients of multi index nodes are kept in frames of sample indexed by slot. Matrices and gradients of single index nodes (constants and parameters) are accessed directly from nodes.<br>
+ * Only nodes accessed outside of program i.e. input, output and dependent nodes and nodes of expressions not executable as instructions are synchronized with frames.<br>
+ * Expressions not executable as instructions (such as expressions executed as single step) are executed through their nodes.<br>
+ * Matrices and gradients of slots are released according to memory plan once they are not accessed anymore and their buffers are returned to active matrix pool for reuse.<br>
+ * When program is calculated for all samples at once consecutive instructions executable concurrently are executed for chunks of samples in parallel on compute pool.
+ * Gradients of single index nodes are summed per chunk and chunk sums are cumulated to nodes in chunk order so that result does not depend on number of threads.<br>
+ *
+ */
+public class ProcedureProgram implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -2937720542370520165L;
+
+    /**
+     * If true procedures are executed by compiled programs.
+     *
+     */
+    private static volatile boolean enabled = true;
+
+    /**
+     * If true independent samples are executed in parallel when program is calculated for all samples at once.
+     *
+     */
+    private static volatile boolean parallelSamples = true;
+
+    /**
+     * Number of samples in chunk of samples executed in parallel.
+     *
+     */
+    private static final int sampleChunkSize = 4;
+
+    /**
+     * Instructions of expression chain.
+     *
+     */
+    private final Instruction[] expressionInstructions;
+
+    /**
+     * Instructions of gradient chain.
+     *
+     */
+    private final Instruction[] gradientInstructions;
+
+    /**
+     * Expression instructions that can be executed concurrently for different samples.
+     *
+     */
+    private final boolean[] concurrentExpressionInstructions;
+
+    /**
+     * Gradient instructions that can be executed concurrently for different samples.
+     *
+     */
+    private final boolean[] concurrentGradientInstructions;
+
+    /**
+     * Nodes by slot.
+     *
+     */
+    private final Node[] nodes;
+
+    /**
+     * Slot is for multi index node if true otherwise slot is for single index node.
+     *
+     */
+    private final boolean[] multiIndexSlots;
+
+    /**
+     * Slots of which matrices are written to nodes when calculated.
+     *
+     */
+    private final boolean[] synchronizedSlots;
+
+    /**
+     * Multi index slots of which matrices are calculated by instructions and kept only in frames.
+     *
+     */
+    private final boolean[] releasableSlots;
+
+    /**
+     * Multi index slots of which matrices are read from nodes when frame is created.
+     *
+     */
+    private final int[] inputSlots;
+
+    /**
+     * Multi index slots of which gradients are read from nodes when gradient frame is created.
+     *
+     */
+    private final int[] gradientInputSlots;
+
+    /**
+     * Multi index slots of which gradients are written to nodes after gradient calculation.
+     *
+     */
+    private final int[] gradientOutputSlots;
+
+    /**
+     * Memory plan of program.
+     *
+     */
+    private final ProcedureMemoryPlan memoryPlan;
+
+    /**
+     * Matrix frames by sample index.
+     *
+     */
+    private transient HashMap<Integer, Matrix[]> frames;
+
+    /**
+     * Defines instruction of procedure program.
+     *
+     * @param expression expression executed by instruction.
+     * @param isInstruction if true expression is executed directly from frame otherwise through its nodes.
+     * @param argumentSlots slots of arguments in order of arguments.
+     * @param resultSlot slot of result.
+     */
+    record Instruction(Expression expression, boolean isInstruction, int[] argumentSlots, int resultSlot) implements Serializable {
+    }
+
+    /**
+     * Defines task executed for sample of chunk of samples.
+     *
+     */
+    private interface SampleTask {
+
+        /**
+         * Executes task for sample.
+         *
+         * @param chunk chunk of samples.
+         * @param index index of sample.
+         * @throws MatrixException throws exception if calculation fails.
+         * @throws DynamicParamException throws exception if parameter (params) setting fails.
+         */
+        void execute(int chunk, int index) throws MatrixException, DynamicParamException;
+
+    }
+
+    /**
+     * Constructor for procedure program.
+     *
+     * @param expressionChain chain of expressions.
+     * @param gradientChain chain of gradients.
+     * @param inputNodes input nodes.
+     * @param outputNode output node.
+     * @param dependentNodes dependent nodes.
+     * @param perStep if true program is calculated for all samples at once otherwise sample by sample.
+     */
+    public ProcedureProgram(Expression expressionChain, Expression gradientChain, Collection<Node> inputNodes, Node outputNode, Set<Node> dependentNodes, boolean perStep) {
+        HashMap<Node, Integer> slots = new LinkedHashMap<>();
+        ArrayList<Expression> expressions = new ArrayList<>();
+        for (Expression expression = expressionChain; expression != null; expression = expression.getNextExpression()) expressions.add(expression);
+        ArrayList<Expression> gradients = new ArrayList<>();
+        for (Expression expression = gradientChain; expression != null; expression = expression.getPreviousExpression()) gradients.add(expression);
+
+        expressionInstructions = new Instruction[expressions.size()];
+        for (int index = 0; index < expressions.size(); index++) expressionInstructions[index] = getInstruction(expressions.get(index), slots, perStep);
+        gradientInstructions = new Instruction[gradients.size()];
+        for (int index = 0; index < gradients.size(); index++) gradientInstructions[index] = getInstruction(gradients.get(index), slots, perStep);
+        for (Node node : inputNodes) getSlot(node, slots);
+        getSlot(outputNode, slots);
+        for (Node node : dependentNodes) getSlot(node, slots);
+
+        nodes = slots.keySet().toArray(new Node[0]);
+        multiIndexSlots = new boolean[nodes.length];
+        for (int slot = 0; slot < nodes.length; slot++) multiIndexSlots[slot] = nodes[slot].isMultiIndex();
+        concurrentExpressionInstructions = getConcurrentInstructions(expressionInstructions);
+        concurrentGradientInstructions = getConcurrentInstructions(gradientInstructions);
+
+        synchronizedSlots = new boolean[nodes.length];
+        boolean[] synchronizedGradientSlots = new boolean[nodes.length];
+        HashSet<Integer> resultSlots = new HashSet<>();
+        TreeSet<Integer> gradientInputSlotSet = new TreeSet<>();
+        TreeSet<Integer> gradientOutputSlotSet = new TreeSet<>();
+        synchronizedSlots[slots.get(outputNode)] = true;
+        gradientInputSlotSet.add(slots.get(outputNode));
+        for (Node node : dependentNodes) {
+            synchronizedSlots[slots.get(node)] = true;
+            gradientInputSlotSet.add(slots.get(node));
+            gradientOutputSlotSet.add(slots.get(node));
+        }
+        for (Node node : inputNodes) gradientOutputSlotSet.add(slots.get(node));
+        for (Instruction instruction : expressionInstructions) {
+            resultSlots.add(instruction.resultSlot());
+            if (!instruction.isInstruction()) {
+                for (int argumentSlot : instruction.argumentSlots()) synchronizedSlots[argumentSlot] = true;
+            }
+        }
+        for (Instruction instruction : gradientInstructions) {
+            if (!instruction.isInstruction()) {
+                synchronizedGradientSlots[instruction.resultSlot()] = true;
+                for (int argumentSlot : instruction.argumentSlots()) {
+                    synchronizedSlots[argumentSlot] = true;
+                    gradientInputSlotSet.add(argumentSlot);
+                    gradientOutputSlotSet.add(argumentSlot);
+                }
+            }
+        }
+        for (int slot : gradientInputSlotSet) synchronizedGradientSlots[slot] = true;
+        for (int slot : gradientOutputSlotSet) synchronizedGradientSlots[slot] = true;
+
+        releasableSlots = new boolean[nodes.length];
+        for (Instruction instruction : expressionInstructions) {
+            int resultSlot = instruction.resultSlot();
+            if (instruction.isInstruction() && multiIndexSlots[resultSlot] && !synchronizedSlots[resultSlot]) releasableSlots[resultSlot] = true;
+        }
+
+        ArrayList<Integer> inputSlotList = new ArrayList<>();
+        for (int slot = 0; slot < nodes.length; slot++) if (multiIndexSlots[slot] && !resultSlots.contains(slot)) inputSlotList.add(slot);
+        inputSlots = getMultiIndexSlots(inputSlotList);
+        gradientInputSlots = getMultiIndexSlots(gradientInputSlotSet);
+        gradientOutputSlots = getMultiIndexSlots(gradientOutputSlotSet);
+        memoryPlan = new ProcedureMemoryPlan(expressionInstructions, gradientInstructions, nodes, synchronizedSlots, synchronizedGradientSlots);
+    }
+
+    /**
+     * Sets if procedures are executed by compiled programs.
+     *
+     * @param enabled if true procedures are executed by compiled programs otherwise by walking chains of expressions.
+     */
+    public static void setEnabled(boolean enabled) {
+        ProcedureProgram.enabled = enabled;
+    }
+
+    /**
+     * Checks if procedures are executed by compiled programs.
+     *
+     * @return true if procedures are executed by compiled programs otherwise false.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets if independent samples are executed in parallel when program is calculated for all samples at once.
+     *
+     * @param parallelSamples if true independent samples are executed in parallel otherwise one sample at a time.
+     */
+    public static void setParallelSamples(boolean parallelSamples) {
+        ProcedureProgram.parallelSamples = parallelSamples;
+    }
+
+    /**
+     * Checks if independent samples are executed in parallel when program is calculated for all samples at once.
+     *
+     * @return true if independent samples are executed in parallel otherwise false.
+     */
+    public static boolean isParallelSamples() {
+        return parallelSamples;
+    }
+
+    /**
+     * Returns instruction for expression.
+     *
+     * @param expression expression.
+     * @param slots slots by node.
+     * @param perStep if true program is calculated for all samples at once otherwise sample by sample.
+     * @return instruction.
+     */
+    private static Instruction getInstruction(Expression expression, HashMap<Node, Integer> slots, boolean perStep) {
+        int[] argumentSlots = expression.getArguments().stream().mapToInt(argument -> getSlot(argument, slots)).toArray();
+        int resultSlot = getSlot(expression.getResult(), slots);
+        return new Instruction(expression, expression.isInstruction(perStep), argumentSlots, resultSlot);
+    }
+
+    /**
+     * Returns slot of node and assigns new slot if node does not have slot yet.
+     *
+     * @param node node.
+     * @param slots slots by node.
+     * @return slot of node.
+     */
+    private static int getSlot(Node node, HashMap<Node, Integer> slots) {
+        return slots.computeIfAbsent(node, key -> slots.size());
+    }
+
+    /**
+     * Returns flags telling which instructions can be executed concurrently for different samples.<br>
+     * Instruction is executed concurrently if its expression allows it and its result is multi index node of which matrix and gradient are kept in frames.<br>
+     *
+     * @param instructions instructions.
+     * @return flags telling which instructions can be executed concurrently.
+     */
+    private boolean[] getConcurrentInstructions(Instruction[] instructions) {
+        boolean[] concurrentInstructions = new boolean[instructions.length];
+        for (int index = 0; index < instructions.length; index++) {
+            Instruction instruction = instructions[index];
+            concurrentInstructions[index] = instruction.isInstruction() && multiIndexSlots[instruction.resultSlot()] && instruction.expression().isConcurrentInstruction();
+        }
+        return concurrentInstructions;
+    }
+
+    /**
+     * Returns end of segment of consecutive concurrent instructions.
+     *
+     * @param concurrentInstructions flags telling which instructions can be executed concurrently.
+     * @param startIndex index of first instruction of segment.
+     * @return index after last instruction of segment.
+     */
+    private static int getSegmentEnd(boolean[] concurrentInstructions, int startIndex) {
+        int endIndex = startIndex;
+        while (endIndex < concurrentInstructions.length && concurrentInstructions[endIndex]) endIndex++;
+        return endIndex;
+    }
+
+    /**
+     * Returns estimated workload of segment of instructions for samples.
+     *
+     * @param instructions instructions.
+     * @param startIndex index of first instruction of segment.
+     * @param endIndex index after last instruction of segment.
+     * @param numberOfSamples number of samples.
+     * @return estimated workload.
+     */
+    private long getWorkload(Instruction[] instructions, int startIndex, int endIndex, int numberOfSamples) {
+        long workload = 0;
+        for (int index = startIndex; index < endIndex; index++) {
+            Instruction instruction = instructions[index];
+            workload += getSize(nodes[instruction.resultSlot()]);
+            for (int argumentSlot : instruction.argumentSlots()) workload += getSize(nodes[argumentSlot]);
+        }
+        return workload * numberOfSamples;
+    }
+
+    /**
+     * Returns number of values in matrix of node.
+     *
+     * @param node node.
+     * @return number of values in matrix of node.
+     */
+    private static long getSize(Node node) {
+        return (long)node.getRows() * node.getColumns() * node.getDepth();
+    }
+
+    /**
+     * Returns number of chunks of samples.
+     *
+     * @param numberOfSamples number of samples.
+     * @return number of chunks of samples.
+     */
+    private static int getNumberOfChunks(int numberOfSamples) {
+        return (numberOfSamples + sampleChunkSize - 1) / sampleChunkSize;
+    }
+
+    /**
+     * Executes task for samples in chunks of samples on compute pool.<br>
+     * Samples of chunk are executed in order by single thread. Matrix pool and off-heap arena active in calling thread are activated for executing threads.<br>
+     *
+     * @param numberOfSamples number of samples.
+     * @param workload estimated workload.
+     * @param sampleTask task executed for each sample.
+     * @throws MatrixException throws exception if calculation fails.
+     */
+    private static void executeSamples(int numberOfSamples, long workload, SampleTask sampleTask) throws MatrixException {
+        MatrixPool matrixPool = MatrixPool.getActive();
+        OffHeapArena offHeapArena = OffHeapArena.getActive();
+        ComputePool.execute(getNumberOfChunks(numberOfSamples), workload, (startChunk, endChunk) -> {
+            MatrixPool previousPool = MatrixPool.setActive(matrixPool);
+            OffHeapArena previousArena = OffHeapArena.setActive(offHeapArena);
+            try {
+                for (int chunk = startChunk; chunk < endChunk; chunk++) {
+                    int endIndex = Math.min(numberOfSamples, (chunk + 1) * sampleChunkSize);
+                    for (int index = chunk * sampleChunkSize; index < endIndex; index++) sampleTask.execute(chunk, index);
+                }
+            }
+            catch (DynamicParamException exception) {
+                throw new MatrixException(exception.getMessage());
+            }
+            finally {
+                OffHeapArena.setActive(previousArena);
+                MatrixPool.setActive(previousPool);
+            }
+        });
+    }
+
+    /**
+     * Returns multi index slots of given slots.
+     *
+     * @param slots slots.
+     * @return multi index slots.
+     */
+    private int[] getMultiIndexSlots(Collection<Integer> slots) {
+        return slots.stream().filter(slot -> multiIndexSlots[slot]).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns number of instructions in expression and gradient chains.
+     *
+     * @return number of instructions in expression and gradient chains.
+     */
+    public int size() {
+        return expressionInstructions.length + gradientInstructions.length;
+    }
+
+    /**
+     * Returns memory plan of program.
+     *
+     * @return memory plan of program.
+     */
+    public ProcedureMemoryPlan getMemoryPlan() {
+        return memoryPlan;
+    }
+
+    /**
+     * Resets frames of program.
+     *
+     */
+    public void reset() {
+        frames = null;
+        memoryPlan.reset();
+    }
+
+    /**
+     * Returns frames of program.
+     *
+     * @return frames of program.
+     */
+    private HashMap<Integer, Matrix[]> getFrames() {
+        if (frames == null) frames = new HashMap<>();
+        return frames;
+    }
+
+    /**
+     * Creates matrix frame for sample index and reads input matrices from nodes.
+     *
+     * @param sampleIndex sample index.
+     * @return matrix frame.
+     */
+    private Matrix[] createFrame(int sampleIndex) {
+        Matrix[] frame = new Matrix[nodes.length];
+        for (int slot : inputSlots) frame[slot] = nodes[slot].getMatrix(sampleIndex);
+        getFrames().put(sampleIndex, frame);
+        return frame;
+    }
+
+    /**
+     * Returns matrix frame of sample index.
+     *
+     * @param sampleIndex sample index.
+     * @return matrix frame.
+     * @throws MatrixException throws exception if expressions are not calculated for sample index.
+     */
+    private Matrix[] getFrame(int sampleIndex) throws MatrixException {
+        Matrix[] frame = frames != null ? frames.get(sampleIndex) : null;
+        if (frame == null) throw new MatrixException("Expressions are not calculated for sample index " + sampleIndex);
+        return frame;
+    }
+
+    /**
+     * Checks if matrix frame exists for sample index.
+     *
+     * @param sampleIndex sample index.
+     * @return true if matrix frame exists for sample index otherwise false.
+     */
+    public boolean hasFrame(int sampleIndex) {
+        return frames != null && frames.containsKey(sampleIndex);
+    }
+
+    /**
+     * Releases matrix frame of sample index. Matrices calculated by instructions and kept only in frame are returned to active matrix pool.<br>
+     * Frame can be recalculated by calculating chain of expressions for sample again as long as matrices of input and dependent nodes are kept.<br>
+     *
+     * @param sampleIndex sample index.
+     */
+    public void releaseFrame(int sampleIndex) {
+        Matrix[] frame = frames != null ? frames.remove(sampleIndex) : null;
+        if (frame == null) return;
+        for (int slot = 0; slot < nodes.length; slot++) {
+            Matrix matrix = frame[slot];
+            if (!releasableSlots[slot] || matrix == null) continue;
+            frame[slot] = null;
+            memoryPlan.release(matrix);
+            recycle(matrix, frame, null);
+        }
+    }
+
+    /**
+     * Creates gradient frame for sample index and reads input gradients from nodes.
+     *
+     * @param sampleIndex sample index.
+     * @return gradient frame.
+     */
+    private Matrix[] createGradientFrame(int sampleIndex) {
+        Matrix[] gradientFrame = new Matrix[nodes.length];
+        for (int slot : gradientInputSlots) setGradient(slot, nodes[slot].getGradient(sampleIndex), gradientFrame);
+        return gradientFrame;
+    }
+
+    /**
+     * Writes output gradients of gradient frame to nodes.
+     *
+     * @param sampleIndex sample index.
+     * @param gradientFrame gradient frame.
+     */
+    private void writeGradientFrame(int sampleIndex, Matrix[] gradientFrame) {
+        for (int slot : gradientOutputSlots) if (gradientFrame[slot] != null) nodes[slot].setGradient(sampleIndex, gradientFrame[slot]);
+    }
+
+    /**
+     * Calculates chain of expressions for sample.
+     *
+     * @param sampleIndex sample index.
+     * @param firstSampleIndex first sample index.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public void calculateExpression(int sampleIndex, int firstSampleIndex) throws MatrixException, DynamicParamException {
+        Matrix[] frame = createFrame(sampleIndex);
+        boolean releaseMatrices = ProcedureMemoryPlan.isEnabled();
+        for (int index = 0; index < expressionInstructions.length; index++) {
+            Instruction instruction = expressionInstructions[index];
+            if (instruction.isInstruction()) calculateExpression(instruction, sampleIndex, frame);
+            else {
+                instruction.expression().executeExpressionStep(sampleIndex, firstSampleIndex);
+                readResult(instruction, sampleIndex, frame);
+            }
+            if (releaseMatrices) releaseMatrices(memoryPlan.getExpressionReleaseSlots(index), frame, null);
+        }
+    }
+
+    /**
+     * Calculates chain of expressions for samples.<br>
+     * Each instruction is calculated for all samples before proceeding to next instruction. Segments of concurrent instructions are calculated sample by sample in parallel.<br>
+     *
+     * @param sampleIndices sample indices.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public void calculateExpression(Set<Integer> sampleIndices) throws MatrixException, DynamicParamException {
+        int[] indices = sampleIndices.stream().mapToInt(Integer::intValue).toArray();
+        Matrix[][] sampleFrames = new Matrix[indices.length][];
+        for (int index = 0; index < indices.length; index++) sampleFrames[index] = createFrame(indices[index]);
+        boolean releaseMatrices = ProcedureMemoryPlan.isEnabled();
+        int instructionIndex = 0;
+        while (instructionIndex < expressionInstructions.length) {
+            if (parallelSamples && concurrentExpressionInstructions[instructionIndex]) {
+                int endIndex = getSegmentEnd(concurrentExpressionInstructions, instructionIndex);
+                calculateExpressionSegment(instructionIndex, endIndex, indices, sampleFrames, releaseMatrices);
+                instructionIndex = endIndex;
+                continue;
+            }
+            Instruction instruction = expressionInstructions[instructionIndex];
+            if (instruction.isInstruction()) {
+                for (int index = 0; index < indices.length; index++) calculateExpression(instruction, indices[index], sampleFrames[index]);
+            }
+            else {
+                instruction.expression().executeExpressionStep(sampleIndices);
+                for (int index = 0; index < indices.length; index++) readResult(instruction, indices[index], sampleFrames[index]);
+            }
+            if (releaseMatrices) {
+                for (Matrix[] frame : sampleFrames) releaseMatrices(memoryPlan.getExpressionReleaseSlots(instructionIndex), frame, null);
+            }
+            instructionIndex++;
+        }
+    }
+
+    /**
+     * Calculates segment of concurrent instructions sample by sample for samples in parallel.
+     *
+     * @param startIndex index of first instruction of segment.
+     * @param endIndex index after last instruction of segment.
+     * @param indices sample indices.
+     * @param sampleFrames matrix frames of samples.
+     * @param releaseMatrices if true matrices are released according to memory plan.
+     * @throws MatrixException throws exception if calculation fails.
+     */
+    private void calculateExpressionSegment(int startIndex, int endIndex, int[] indices, Matrix[][] sampleFrames, boolean releaseMatrices) throws MatrixException {
+        executeSamples(indices.length, getWorkload(expressionInstructions, startIndex, endIndex, indices.length), (chunk, index) -> {
+            for (int instructionIndex = startIndex; instructionIndex < endIndex; instructionIndex++) {
+                calculateExpression(expressionInstructions[instructionIndex], indices[index], sampleFrames[index]);
+                if (releaseMatrices) releaseMatrices(memoryPlan.getExpressionReleaseSlots(instructionIndex), sampleFrames[index], null);
+            }
+        });
+    }
+
+    /**
+     * Calculates instruction for sample.
+     *
+     * @param instruction instruction.
+     * @param sampleIndex sample index.
+     * @param frame matrix frame of sample.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    private void calculateExpression(Instruction instruction, int sampleIndex, Matrix[] frame) throws MatrixException, DynamicParamException {
+        Matrix[] argumentMatrices = getArgumentMatrices(instruction, frame);
+        for (int argument = 0; argument < argumentMatrices.length; argument++) {
+            if (argumentMatrices[argument] == null) throw new MatrixException(instruction.expression().getExpressionName() + ": Argument " + (argument + 1) + " for operation is not defined for sample index " + sampleIndex);
+        }
+        Matrix result = instruction.expression().executeInstruction(sampleIndex, argumentMatrices);
+        int resultSlot = instruction.resultSlot();
+        if (!multiIndexSlots[resultSlot] || synchronizedSlots[resultSlot]) {
+            Node resultNode = nodes[resultSlot];
+            synchronized (resultNode) {
+                resultNode.setMatrix(sampleIndex, result);
+            }
+        }
+        if (multiIndexSlots[resultSlot]) memoryPlan.allocate(result);
+        frame[resultSlot] = result;
+    }
+
+    /**
+     * Reads result of expression executed through its nodes into frame.
+     *
+     * @param instruction instruction.
+     * @param sampleIndex sample index.
+     * @param frame matrix frame of sample.
+     */
+    private void readResult(Instruction instruction, int sampleIndex, Matrix[] frame) {
+        Matrix result = nodes[instruction.resultSlot()].getMatrix(sampleIndex);
+        if (multiIndexSlots[instruction.resultSlot()] && result != null) memoryPlan.allocate(result);
+        frame[instruction.resultSlot()] = result;
+    }
+
+    /**
+     * Returns argument matrices of instruction.
+     *
+     * @param instruction instruction.
+     * @param frame matrix frame.
+     * @return argument matrices of instruction.
+     */
+    private Matrix[] getArgumentMatrices(Instruction instruction, Matrix[] frame) {
+        int[] argumentSlots = instruction.argumentSlots();
+        Matrix[] argumentMatrices = new Matrix[argumentSlots.length];
+        for (int argument = 0; argument < argumentSlots.length; argument++) argumentMatrices[argument] = getMatrix(argumentSlots[argument], frame);
+        return argumentMatrices;
+    }
+
+    /**
+     * Returns matrix of slot.
+     *
+     * @param slot slot.
+     * @param frame matrix frame.
+     * @return matrix of slot.
+     */
+    private Matrix getMatrix(int slot, Matrix[] frame) {
+        return multiIndexSlots[slot] ? frame[slot] : nodes[slot].getMatrix();
+    }
+
+    /**
+     * Calculates chain of gradients for sample.
+     *
+     * @param sampleIndex sample index.
+     * @param lastSampleIndex last sample index.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public void calculateGradient(int sampleIndex, int lastSampleIndex) throws MatrixException, DynamicParamException {
+        Matrix[] frame = getFrame(sampleIndex);
+        Matrix[] gradientFrame = createGradientFrame(sampleIndex);
+        boolean releaseMatrices = ProcedureMemoryPlan.isEnabled();
+        for (int index = 0; index < gradientInstructions.length; index++) {
+            Instruction instruction = gradientInstructions[index];
+            if (instruction.isInstruction()) calculateGradient(instruction, sampleIndex, frame, gradientFrame, releaseMatrices, null, null);
+            else {
+                writeGradients(instruction, sampleIndex, gradientFrame);
+                instruction.expression().executeGradientStep(sampleIndex, lastSampleIndex);
+                readGradients(instruction, sampleIndex, gradientFrame);
+            }
+            if (releaseMatrices) releaseMatrices(index, frame, gradientFrame);
+        }
+        writeGradientFrame(sampleIndex, gradientFrame);
+    }
+
+    /**
+     * Calculates chain of gradients for samples.<br>
+     * Each instruction is calculated for all samples before proceeding to next instruction. Segments of concurrent instructions are calculated sample by sample in parallel.<br>
+     *
+     * @param sampleIndices sample indices.
+     * @param numberOfGradientSteps number of gradient steps taken.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public void calculateGradient(Set<Integer> sampleIndices, int numberOfGradientSteps) throws MatrixException, DynamicParamException {
+        int numberOfSamples = numberOfGradientSteps > 0 ? Math.min(numberOfGradientSteps, sampleIndices.size()) : sampleIndices.size();
+        int[] indices = sampleIndices.stream().mapToInt(Integer::intValue).limit(numberOfSamples).toArray();
+        Matrix[][] sampleFrames = new Matrix[indices.length][];
+        Matrix[][] gradientFrames = new Matrix[indices.length][];
+        for (int index = 0; index < indices.length; index++) {
+            sampleFrames[index] = getFrame(indices[index]);
+            gradientFrames[index] = createGradientFrame(indices[index]);
+        }
+        boolean releaseMatrices = ProcedureMemoryPlan.isEnabled();
+        int instructionIndex = 0;
+        while (instructionIndex < gradientInstructions.length) {
+            if (parallelSamples && concurrentGradientInstructions[instructionIndex]) {
+                int endIndex = getSegmentEnd(concurrentGradientInstructions, instructionIndex);
+                calculateGradientSegment(instructionIndex, endIndex, indices, sampleFrames, gradientFrames, releaseMatrices);
+                instructionIndex = endIndex;
+                continue;
+            }
+            Instruction instruction = gradientInstructions[instructionIndex];
+            if (instruction.isInstruction()) {
+                for (int index = 0; index < indices.length; index++) calculateGradient(instruction, indices[index], sampleFrames[index], gradientFrames[index], releaseMatrices, null, null);
+            }
+            else {
+                for (int index = 0; index < indices.length; index++) writeGradients(instruction, indices[index], gradientFrames[index]);
+                instruction.expression().executeGradientStep(sampleIndices, numberOfGradientSteps);
+                for (int index = 0; index < indices.length; index++) readGradients(instruction, indices[index], gradientFrames[index]);
+            }
+            if (releaseMatrices) {
+                for (int index = 0; index < indices.length; index++) releaseMatrices(instructionIndex, sampleFrames[index], gradientFrames[index]);
+            }
+            instructionIndex++;
+        }
+        for (int index = 0; index < indices.length; index++) writeGradientFrame(indices[index], gradientFrames[index]);
+    }
+
+    /**
+     * Calculates gradients of segment of concurrent instructions sample by sample for samples in parallel.<br>
+     * Gradients of single index nodes are summed per chunk of samples and chunk sums are cumulated to nodes in chunk order.<br>
+     *
+     * @param startIndex index of first instruction of segment.
+     * @param endIndex index after last instruction of segment.
+     * @param indices sample indices.
+     * @param sampleFrames matrix frames of samples.
+     * @param gradientFrames gradient frames of samples.
+     * @param releaseMatrices if true matrices and gradients are released according to memory plan.
+     * @throws MatrixException throws exception if calculation fails.
+     */
+    private void calculateGradientSegment(int startIndex, int endIndex, int[] indices, Matrix[][] sampleFrames, Matrix[][] gradientFrames, boolean releaseMatrices) throws MatrixException {
+        int numberOfChunks = getNumberOfChunks(indices.length);
+        Matrix[][] chunkGradients = new Matrix[numberOfChunks][nodes.length];
+        int[][] chunkGradientEntries = new int[numberOfChunks][nodes.length];
+        executeSamples(indices.length, getWorkload(gradientInstructions, startIndex, endIndex, indices.length), (chunk, index) -> {
+            for (int instructionIndex = startIndex; instructionIndex < endIndex; instructionIndex++) {
+                calculateGradient(gradientInstructions[instructionIndex], indices[index], sampleFrames[index], gradientFrames[index], releaseMatrices, chunkGradients[chunk], chunkGradientEntries[chunk]);
+                if (releaseMatrices) releaseMatrices(instructionIndex, sampleFrames[index], gradientFrames[index]);
+            }
+        });
+        for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+            for (int slot = 0; slot < nodes.length; slot++) {
+                if (chunkGradients[chunk][slot] != null) nodes[slot].cumulateGradient(indices[chunk * sampleChunkSize], chunkGradients[chunk][slot], chunkGradientEntries[chunk][slot]);
+            }
+        }
+    }
+
+    /**
+     * Calculates gradient of instruction for sample.
+     *
+     * @param instruction instruction.
+     * @param sampleIndex sample index.
+     * @param frame matrix frame of sample.
+     * @param gradientFrame gradient frame of sample.
+     * @param releaseGradients if true argument gradients are released after they are cumulated.
+     * @param chunkGradients gradient sums of single index slots for chunk of samples or null if gradients are cumulated directly to nodes.
+     * @param chunkGradientEntries number of gradient entries in gradient sums of single index slots or null if gradients are cumulated directly to nodes.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    private void calculateGradient(Instruction instruction, int sampleIndex, Matrix[] frame, Matrix[] gradientFrame, boolean releaseGradients, Matrix[] chunkGradients, int[] chunkGradientEntries) throws MatrixException, DynamicParamException {
+        Expression expression = instruction.expression();
+        int resultSlot = instruction.resultSlot();
+        Matrix resultGradient = multiIndexSlots[resultSlot] ? gradientFrame[resultSlot] : nodes[resultSlot].getGradient();
+        if (resultGradient == null) throw new MatrixException(expression.getExpressionName() + ": Result gradient not defined for sample index" + sampleIndex);
+        Matrix[] argumentMatrices = getArgumentMatrices(instruction, frame);
+        Matrix[] argumentGradients = expression.executeGradientInstruction(sampleIndex, resultGradient, argumentMatrices, getMatrix(resultSlot, frame));
+        int[] argumentSlots = instruction.argumentSlots();
+        for (int argument = 0; argument < argumentSlots.length; argument++) {
+            if (argumentGradients[argument] != null) cumulateGradient(argumentSlots[argument], sampleIndex, argumentGradients[argument], gradientFrame, chunkGradients, chunkGradientEntries);
+        }
+        if (releaseGradients) {
+            for (Matrix argumentGradient : argumentGradients) {
+                if (argumentGradient != null && !MatrixPool.isSharingData(argumentGradient, resultGradient) && !isSharingData(argumentGradient, argumentMatrices)) recycle(argumentGradient, frame, gradientFrame);
+            }
+        }
+    }
+
+    /**
+     * Cumulates gradient of slot.
+     *
+     * @param slot slot.
+     * @param sampleIndex sample index.
+     * @param gradient gradient.
+     * @param gradientFrame gradient frame.
+     * @param chunkGradients gradient sums of single index slots for chunk of samples or null if gradients are cumulated directly to nodes.
+     * @param chunkGradientEntries number of gradient entries in gradient sums of single index slots or null if gradients are cumulated directly to nodes.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    private void cumulateGradient(int slot, int sampleIndex, Matrix gradient, Matrix[] gradientFrame, Matrix[] chunkGradients, int[] chunkGradientEntries) throws MatrixException {
+        if (!multiIndexSlots[slot]) {
+            if (chunkGradients == null) nodes[slot].cumulateGradient(sampleIndex, gradient);
+            else {
+                if (chunkGradients[slot] == null) chunkGradients[slot] = nodes[slot].getNewMatrix();
+                chunkGradients[slot].addBy(gradient);
+                chunkGradientEntries[slot]++;
+            }
+        }
+        else {
+            if (gradientFrame[slot] == null) setGradient(slot, nodes[slot].getNewMatrix(), gradientFrame);
+            gradientFrame[slot].addBy(gradient);
+        }
+    }
+
+    /**
+     * Writes gradients of expression executed through its nodes from gradient frame to nodes.
+     *
+     * @param instruction instruction.
+     * @param sampleIndex sample index.
+     * @param gradientFrame gradient frame.
+     */
+    private void writeGradients(Instruction instruction, int sampleIndex, Matrix[] gradientFrame) {
+        writeGradient(instruction.resultSlot(), sampleIndex, gradientFrame);
+        for (int argumentSlot : instruction.argumentSlots()) writeGradient(argumentSlot, sampleIndex, gradientFrame);
+    }
+
+    /**
+     * Writes gradient of multi index slot from gradient frame to node.
+     *
+     * @param slot slot.
+     * @param sampleIndex sample index.
+     * @param gradientFrame gradient frame.
+     */
+    private void writeGradient(int slot, int sampleIndex, Matrix[] gradientFrame) {
+        if (multiIndexSlots[slot] && gradientFrame[slot] != null) nodes[slot].setGradient(sampleIndex, gradientFrame[slot]);
+    }
+
+    /**
+     * Reads argument gradients of expression executed through its nodes from nodes into gradient frame.
+     *
+     * @param instruction instruction.
+     * @param sampleIndex sample index.
+     * @param gradientFrame gradient frame.
+     */
+    private void readGradients(Instruction instruction, int sampleIndex, Matrix[] gradientFrame) {
+        for (int argumentSlot : instruction.argumentSlots()) {
+            if (multiIndexSlots[argumentSlot]) setGradient(argumentSlot, nodes[argumentSlot].getGradient(sampleIndex), gradientFrame);
+        }
+    }
+
+    /**
+     * Sets gradient of multi index slot into gradient frame and records change of bytes held by gradient frame.
+     *
+     * @param slot slot.
+     * @param gradient gradient.
+     * @param gradientFrame gradient frame.
+     */
+    private void setGradient(int slot, Matrix gradient, Matrix[] gradientFrame) {
+        Matrix previousGradient = gradientFrame[slot];
+        if (previousGradient == gradient) return;
+        if (previousGradient != null) memoryPlan.release(previousGradient);
+        if (gradient != null) memoryPlan.allocate(gradient);
+        gradientFrame[slot] = gradient;
+    }
+
+    /**
+     * Releases matrices of slots from frame.
+     *
+     * @param slots slots.
+     * @param frame matrix frame.
+     * @param gradientFrame gradient frame or null if gradient frame does not exist.
+     */
+    private void releaseMatrices(int[] slots, Matrix[] frame, Matrix[] gradientFrame) {
+        for (int slot : slots) {
+            Matrix matrix = frame[slot];
+            if (matrix == null) continue;
+            frame[slot] = null;
+            memoryPlan.release(matrix);
+            recycle(matrix, frame, gradientFrame);
+        }
+    }
+
+    /**
+     * Releases matrices and gradients of slots that are not accessed after gradient instruction.
+     *
+     * @param index index of gradient instruction.
+     * @param frame matrix frame.
+     * @param gradientFrame gradient frame.
+     */
+    private void releaseMatrices(int index, Matrix[] frame, Matrix[] gradientFrame) {
+        releaseMatrices(memoryPlan.getGradientReleaseSlots(index), frame, gradientFrame);
+        for (int slot : memoryPlan.getGradientBufferReleaseSlots(index)) {
+            Matrix gradient = gradientFrame[slot];
+            if (gradient == null) continue;
+            setGradient(slot, null, gradientFrame);
+            recycle(gradient, frame, gradientFrame);
+        }
+    }
+
+    /**
+     * Returns data of released matrix to active matrix pool unless data is shared with matrix still held in frames.
+     *
+     * @param matrix released matrix.
+     * @param frame matrix frame.
+     * @param gradientFrame gradient frame or null if gradient frame does not exist.
+     */
+    private static void recycle(Matrix matrix, Matrix[] frame, Matrix[] gradientFrame) {
+        MatrixPool matrixPool = MatrixPool.getActive();
+        if (matrixPool == null || isSharingData(matrix, frame) || (gradientFrame != null && isSharingData(matrix, gradientFrame))) return;
+        matrixPool.release(matrix);
+    }
+
+    /**
+     * Checks if matrix shares data with any matrix of frame.
+     *
+     * @param matrix matrix.
+     * @param frame frame.
+     * @return true if matrix shares data with any matrix of frame otherwise false.
+     */
+    private static boolean isSharingData(Matrix matrix, Matrix[] frame) {
+        for (Matrix frameMatrix : frame) if (frameMatrix != null && MatrixPool.isSharingData(matrix, frameMatrix)) return true;
+        return false;
+    }
+
+}
@@ -10,6 +10,8 @@ import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 import utils.procedure.node.Node;
 
+import java.util.List;
+
 /**
  * Implements abstract binary expression.<br>
  *
@@ -47,6 +49,15 @@ public abstract class AbstractBinaryExpression extends AbstractUnaryExpression {
         return argument2;
     }
 
+    /**
+     * Returns arguments of expression.
+     *
+     * @return arguments of expression.
+     */
+    public List<Node> getArguments() {
+        return List.of(argument1, argument2);
+    }
+
     /**
      * Calculates expression.
      *
@@ -84,6 +95,23 @@ public abstract class AbstractBinaryExpression extends AbstractUnaryExpression {
         if (!argument2.isStopGradient()) argument2.cumulateGradient(sampleIndex, calculateArgument2Gradient(sampleIndex, getResult().getGradient(sampleIndex), getArgument1().getMatrix(sampleIndex), getArgument2().getMatrix(sampleIndex), getResult().getMatrix(sampleIndex)));
     }
 
+    /**
+     * Calculates argument gradients of expression as instruction.
+     *
+     * @param sampleIndex sample index.
+     * @param resultGradient result gradient.
+     * @param argumentMatrices argument matrices in order of arguments.
+     * @param resultMatrix result matrix.
+     * @return argument gradients in order of arguments. Gradient is null for arguments with stopped gradient.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public Matrix[] executeGradientInstruction(int sampleIndex, Matrix resultGradient, Matrix[] argumentMatrices, Matrix resultMatrix) throws MatrixException, DynamicParamException {
+        Matrix[] argumentGradients = super.executeGradientInstruction(sampleIndex, resultGradient, argumentMatrices, resultMatrix);
+        if (!argument2.isStopGradient()) argumentGradients[1] = calculateArgument2Gradient(sampleIndex, resultGradient, argumentMatrices[0], argumentMatrices[1], resultMatrix);
+        return argumentGradients;
+    }
+
     /**
      * Calculates argument 2 gradient matrix.
      *
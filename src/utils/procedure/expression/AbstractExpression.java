@@ -115,6 +115,65 @@ public abstract class AbstractExpression implements Expression, Serializable {
         this.previousExpression = previousExpression;
     }
 
+    /**
+     * Returns next expression for expression calculation chain.
+     *
+     * @return next expression.
+     */
+    public Expression getNextExpression() {
+        return nextExpression;
+    }
+
+    /**
+     * Returns previous expression for gradient calculation chain.
+     *
+     * @return previous expression.
+     */
+    public Expression getPreviousExpression() {
+        return previousExpression;
+    }
+
+    /**
+     * Checks if expression can be executed as instruction of procedure program.<br>
+     * By default expression is not executable as instruction.<br>
+     *
+     * @param perStep if true expression is calculated for all samples at once otherwise sample by sample.
+     * @return true if expression can be executed as instruction otherwise false.
+     */
+    public boolean isInstruction(boolean perStep) {
+        return false;
+    }
+
+    /**
+     * Checks if argument matrices are needed to calculate gradient of expression as instruction.<br>
+     * By default argument matrices are needed.<br>
+     *
+     * @return true if argument matrices are needed to calculate gradient otherwise false.
+     */
+    public boolean isArgumentRequiredForGradient() {
+        return true;
+    }
+
+    /**
+     * Checks if result matrix is needed to calculate gradient of expression as instruction.<br>
+     * By default result matrix is needed.<br>
+     *
+     * @return true if result matrix is needed to calculate gradient otherwise false.
+     */
+    public boolean isResultRequiredForGradient() {
+        return true;
+    }
+
+    /**
+     * Checks if expression can be executed as instruction concurrently for different samples.<br>
+     * By default expression is executed for one sample at a time.<br>
+     *
+     * @return true if expression can be executed as instruction concurrently otherwise false.
+     */
+    public boolean isConcurrentInstruction() {
+        return false;
+    }
+
     /**
      * Returns true is expression is executed as single step otherwise false.
      *
@@ -165,9 +224,21 @@ public abstract class AbstractExpression implements Expression, Serializable {
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
     public void calculateExpressionStep(int sampleIndex, int firstSampleIndex) throws MatrixException, DynamicParamException {
+        executeExpressionStep(sampleIndex, firstSampleIndex);
+        if (nextExpression != null) nextExpression.calculateExpressionStep(sampleIndex, firstSampleIndex);
+    }
+
+    /**
+     * Calculates expression without proceeding to next expression of chain.
+     *
+     * @param sampleIndex sample index
+     * @param firstSampleIndex first sample index
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public void executeExpressionStep(int sampleIndex, int firstSampleIndex) throws MatrixException, DynamicParamException {
         if (executeAsSingleStep() && sampleIndex == firstSampleIndex) calculateExpression();
         else calculateExpression(sampleIndex);
-        if (nextExpression != null) nextExpression.calculateExpressionStep(sampleIndex, firstSampleIndex);
     }
 
     /**
@@ -178,11 +249,34 @@ public abstract class AbstractExpression implements Expression, Serializable {
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
     public void calculateExpressionStep(Set<Integer> sampleIndices) throws MatrixException, DynamicParamException {
-        if (executeAsSingleStep()) calculateExpression();
-        else for (Integer sampleIndex : sampleIndices) calculateExpression(sampleIndex);
+        executeExpressionStep(sampleIndices);
         if (nextExpression != null) nextExpression.calculateExpressionStep(sampleIndices);
     }
 
+    /**
+     * Calculates expression without proceeding to next expression of chain.
+     *
+     * @param sampleIndices sample indices
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public void executeExpressionStep(Set<Integer> sampleIndices) throws MatrixException, DynamicParamException {
+        if (executeAsSingleStep()) calculateExpression();
+        else calculateExpression(sampleIndices);
+    }
+
+    /**
+     * Calculates expression for multiple samples.<br>
+     * By default expression is calculated sample by sample.<br>
+     *
+     * @param sampleIndices sample indices.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    protected void calculateExpression(Set<Integer> sampleIndices) throws MatrixException, DynamicParamException {
+        for (Integer sampleIndex : sampleIndices) calculateExpression(sampleIndex);
+    }
+
     /**
      * Calculates expression.
      *
@@ -209,9 +303,21 @@ public abstract class AbstractExpression implements Expression, Serializable {
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
     public void calculateGradientStep(int sampleIndex, int lastSampleIndex) throws MatrixException, DynamicParamException {
+        executeGradientStep(sampleIndex, lastSampleIndex);
+        if (previousExpression != null) previousExpression.calculateGradientStep(sampleIndex, lastSampleIndex);
+    }
+
+    /**
+     * Calculates gradient of expression without proceeding to previous expression of chain.
+     *
+     * @param sampleIndex sample index
+     * @param lastSampleIndex last sample index
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public void executeGradientStep(int sampleIndex, int lastSampleIndex) throws MatrixException, DynamicParamException {
         if (executeAsSingleStep() && sampleIndex == lastSampleIndex) calculateGradient();
         else calculateGradient(sampleIndex);
-        if (previousExpression != null) previousExpression.calculateGradientStep(sampleIndex, lastSampleIndex);
     }
 
     /**
@@ -223,15 +329,38 @@ public abstract class AbstractExpression implements Expression, Serializable {
      * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
     public void calculateGradientStep(Set<Integer> sampleIndices, int numberOfGradientSteps) throws MatrixException, DynamicParamException {
+        executeGradientStep(sampleIndices, numberOfGradientSteps);
+        if (previousExpression != null) previousExpression.calculateGradientStep(sampleIndices, numberOfGradientSteps);
+    }
+
+    /**
+     * Calculates gradient of expression without proceeding to previous expression of chain.
+     *
+     * @param sampleIndices sample indices
+     * @param numberOfGradientSteps number of gradient steps taken
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public void executeGradientStep(Set<Integer> sampleIndices, int numberOfGradientSteps) throws MatrixException, DynamicParamException {
         if (executeAsSingleStep()) calculateGradient();
-        else {
-            int gradientStepCount = 0;
-            for (Integer sampleIndex : sampleIndices) {
-                calculateGradient(sampleIndex);
-                if (numberOfGradientSteps > 0 && ++gradientStepCount >= numberOfGradientSteps) break;
-            }
+        else calculateGradient(sampleIndices, numberOfGradientSteps);
+    }
+
+    /**
+     * Calculates gradient of expression for multiple samples.<br>
+     * By default gradient is calculated sample by sample.<br>
+     *
+     * @param sampleIndices sample indices
+     * @param numberOfGradientSteps number of gradient steps taken
+     * @throws MatrixException throws exception if calculation of gradient fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    protected void calculateGradient(Set<Integer> sampleIndices, int numberOfGradientSteps) throws MatrixException, DynamicParamException {
+        int gradientStepCount = 0;
+        for (Integer sampleIndex : sampleIndices) {
+            calculateGradient(sampleIndex);
+            if (numberOfGradientSteps > 0 && ++gradientStepCount >= numberOfGradientSteps) break;
         }
-        if (previousExpression != null) previousExpression.calculateGradientStep(sampleIndices, numberOfGradientSteps);
     }
 
     /**
@@ -10,6 +10,8 @@ import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 import utils.procedure.node.Node;
 
+import java.util.List;
+
 /**
  * Implements abstract unary expression.<br>
  *
@@ -72,6 +74,15 @@ public abstract class AbstractUnaryExpression extends AbstractExpression {
         return null;
     }
 
+    /**
+     * Returns arguments of expression.
+     *
+     * @return arguments of expression.
+     */
+    public List<Node> getArguments() {
+        return List.of(argument1);
+    }
+
     /**
      * Returns result of expression.
      *
@@ -128,6 +139,47 @@ public abstract class AbstractUnaryExpression extends AbstractExpression {
         result.setMatrix(sampleIndex, calculateResult(sampleIndex, argument1Matrix, argument2Matrix));
     }
 
+    /**
+     * Checks if expression can be executed as instruction of procedure program.<br>
+     * Expressions executed as single step are not executable as instructions.<br>
+     *
+     * @param perStep if true expression is calculated for all samples at once otherwise sample by sample.
+     * @return true if expression can be executed as instruction otherwise false.
+     */
+    public boolean isInstruction(boolean perStep) {
+        return !executeAsSingleStep();
+    }
+
+    /**
+     * Calculates result of expression as instruction.
+     *
+     * @param sampleIndex sample index.
+     * @param argumentMatrices argument matrices in order of arguments.
+     * @return result matrix.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public Matrix executeInstruction(int sampleIndex, Matrix[] argumentMatrices) throws MatrixException, DynamicParamException {
+        return calculateResult(sampleIndex, argumentMatrices[0], argumentMatrices.length > 1 ? argumentMatrices[1] : null);
+    }
+
+    /**
+     * Calculates argument gradients of expression as instruction.
+     *
+     * @param sampleIndex sample index.
+     * @param resultGradient result gradient.
+     * @param argumentMatrices argument matrices in order of arguments.
+     * @param resultMatrix result matrix.
+     * @return argument gradients in order of arguments. Gradient is null for arguments with stopped gradient.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    public Matrix[] executeGradientInstruction(int sampleIndex, Matrix resultGradient, Matrix[] argumentMatrices, Matrix resultMatrix) throws MatrixException, DynamicParamException {
+        Matrix[] argumentGradients = new Matrix[argumentMatrices.length];
+        if (!argument1.isStopGradient()) argumentGradients[0] = calculateArgument1Gradient(sampleIndex, resultGradient, argumentMatrices[0], argumentMatrices.length > 1 ? argumentMatrices[1] : null, resultMatrix);
+        return argumentGradients;
+    }
+
     /**
      * Calculates result matrix.
      *
@@ -63,6 +63,16 @@ public class ConvolveExpression extends AbstractBinaryExpression {
         return false;
     }
 
+    /**
+     * Checks if expression can be executed as instruction concurrently for different samples.<br>
+     * Convolution operations keep no state between samples.<br>
+     *
+     * @return true as expression can be executed concurrently.
+     */
+    public boolean isConcurrentInstruction() {
+        return true;
+    }
+
     /**
      * Resets expression.
      *
@@ -65,6 +65,16 @@ public class CrosscorrelateExpression extends AbstractBinaryExpression {
         return false;
     }
 
+    /**
+     * Checks if expression can be executed as instruction concurrently for different samples.<br>
+     * Crosscorrelation operations keep no state between samples.<br>
+     *
+     * @return true as expression can be executed concurrently.
+     */
+    public boolean isConcurrentInstruction() {
+        return true;
+    }
+
     /**
      * Resets expression.
      *
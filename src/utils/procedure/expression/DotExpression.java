@@ -6,13 +6,16 @@
 package utils.procedure.expression;
 
 import utils.configurable.DynamicParamException;
-import utils.matrix.Matrix;
-import utils.matrix.MatrixException;
+import utils.matrix.*;
 import utils.matrix.operation.DotMatrixOperation;
 import utils.procedure.node.Node;
 
+import java.util.ArrayList;
+import java.util.Set;
+
 /**
  * Implements expression for dot operation.<br>
+ * If constant first argument is multiplied by samples of second argument samples of mini-batch are stacked into batched matrix and calculated as single matrix product.<br>
  *
  */
 public class DotExpression extends AbstractBinaryExpression {
@@ -61,6 +64,27 @@ public class DotExpression extends AbstractBinaryExpression {
         return false;
     }
 
+    /**
+     * Checks if expression can be executed as instruction concurrently for different samples.<br>
+     * Dot operations keep no state between samples.<br>
+     *
+     * @return true as expression can be executed concurrently.
+     */
+    public boolean isConcurrentInstruction() {
+        return true;
+    }
+
+    /**
+     * Checks if expression can be executed as instruction of procedure program.<br>
+     * Expression that may be calculated for samples as batch is not executed as instruction when calculated for all samples at once.<br>
+     *
+     * @param perStep if true expression is calculated for all samples at once otherwise sample by sample.
+     * @return true if expression can be executed as instruction otherwise false.
+     */
+    public boolean isInstruction(boolean perStep) {
+        return super.isInstruction(perStep) && !(perStep && isBatchable());
+    }
+
     /**
      * Resets expression.
      *
@@ -128,6 +152,116 @@ public class DotExpression extends AbstractBinaryExpression {
         return dotGradient2MatrixOperation.apply(argument1Matrix.transpose(), resultGradient);
     }
 
+    /**
+     * Calculates expression for multiple samples.<br>
+     * Samples of second argument are stacked into batched matrix and multiplied by first argument as single matrix product if expression can be batched.<br>
+     *
+     * @param sampleIndices sample indices.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    protected void calculateExpression(Set<Integer> sampleIndices) throws MatrixException, DynamicParamException {
+        ArrayList<Integer> batchIndices = new ArrayList<>(sampleIndices);
+        if (!isBatched(batchIndices)) {
+            super.calculateExpression(sampleIndices);
+            return;
+        }
+        BMatrix batchedInput = new BMatrix(getArgument2Matrices(batchIndices));
+        Matrix batchedResult = new DotMatrixOperation(getArgument1().getRows(), getArgument2().getRows(), batchedInput.getColumns(), 1).apply(getArgument1().getMatrix(batchIndices.get(0)), batchedInput);
+        BMatrix results = new BMatrix(batchedResult, batchIndices.size());
+        for (int batchIndex = 0; batchIndex < batchIndices.size(); batchIndex++) getResult().setMatrix(batchIndices.get(batchIndex), results.getSample(batchIndex));
+    }
+
+    /**
+     * Calculates gradient of expression for multiple samples.<br>
+     * Gradient of first argument is calculated as single matrix product of batched result gradients and batched second argument.<br>
+     * Gradients of second argument are calculated as single matrix product of first argument and batched result gradients.<br>
+     *
+     * @param sampleIndices sample indices
+     * @param numberOfGradientSteps number of gradient steps taken
+     * @throws MatrixException throws exception if calculation of gradient fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    protected void calculateGradient(Set<Integer> sampleIndices, int numberOfGradientSteps) throws MatrixException, DynamicParamException {
+        ArrayList<Integer> batchIndices = new ArrayList<>();
+        for (Integer sampleIndex : sampleIndices) {
+            batchIndices.add(sampleIndex);
+            if (numberOfGradientSteps > 0 && batchIndices.size() >= numberOfGradientSteps) break;
+        }
+        Matrix[] resultGradients = isBatched(batchIndices) ? getResultGradients(batchIndices) : null;
+        if (resultGradients == null) {
+            super.calculateGradient(sampleIndices, numberOfGradientSteps);
+            return;
+        }
+        BMatrix batchedResultGradient = new BMatrix(resultGradients);
+        if (!getArgument1().isStopGradient()) {
+            BMatrix batchedInput = new BMatrix(getArgument2Matrices(batchIndices));
+            Matrix argument1Gradient = new DotMatrixOperation(getResult().getRows(), batchedInput.getColumns(), getArgument2().getRows(), 1).apply(batchedResultGradient, batchedInput.transpose());
+            getArgument1().cumulateGradient(batchIndices.get(0), argument1Gradient, batchIndices.size());
+        }
+        if (!getArgument2().isStopGradient()) {
+            Matrix batchedArgument2Gradient = new DotMatrixOperation(getArgument1().getColumns(), getResult().getRows(), batchedResultGradient.getColumns(), 1).apply(getArgument1().getMatrix(batchIndices.get(0)).transpose(), batchedResultGradient);
+            BMatrix argument2Gradients = new BMatrix(batchedArgument2Gradient, batchIndices.size());
+            for (int batchIndex = 0; batchIndex < batchIndices.size(); batchIndex++) getArgument2().cumulateGradient(batchIndices.get(batchIndex), argument2Gradients.getSample(batchIndex));
+        }
+    }
+
+    /**
+     * Checks if arguments of expression allow calculation for samples as batch.
+     *
+     * @return true if arguments of expression allow calculation for samples as batch.
+     */
+    private boolean isBatchable() {
+        return !getArgument1().isMultiIndex() && getArgument2().isMultiIndex() && !getArgument2().isScalar() && getArgument1().getDepth() == 1 && getArgument2().getDepth() == 1;
+    }
+
+    /**
+     * Checks if expression can be calculated for samples as batch.<br>
+     * Batching requires constant unmasked dense first argument, unmasked sample specific second argument and depth of one.<br>
+     *
+     * @param batchIndices sample indices of batch.
+     * @return true if expression can be calculated for samples as batch.
+     */
+    private boolean isBatched(ArrayList<Integer> batchIndices) {
+        if (batchIndices.size() < 2 || !isBatchable()) return false;
+        Matrix argument1Matrix = getArgument1().getMatrix(batchIndices.get(0));
+        if (argument1Matrix == null || argument1Matrix.getMask() != null || !(argument1Matrix instanceof DMatrix || argument1Matrix instanceof QMatrix)) return false;
+        for (Integer sampleIndex : batchIndices) {
+            Matrix argument2Matrix = getArgument2().getMatrix(sampleIndex);
+            if (argument2Matrix == null || argument2Matrix.getMask() != null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns second argument matrices of batch.
+     *
+     * @param batchIndices sample indices of batch.
+     * @return second argument matrices of batch.
+     */
+    private Matrix[] getArgument2Matrices(ArrayList<Integer> batchIndices) {
+        Matrix[] matrices = new Matrix[batchIndices.size()];
+        for (int batchIndex = 0; batchIndex < batchIndices.size(); batchIndex++) matrices[batchIndex] = getArgument2().getMatrix(batchIndices.get(batchIndex));
+        return matrices;
+    }
+
+    /**
+     * Returns result gradients of batch.
+     *
+     * @param batchIndices sample indices of batch.
+     * @return result gradients of batch or null if any result gradient is masked.
+     * @throws MatrixException throws exception if result gradient is not defined.
+     */
+    private Matrix[] getResultGradients(ArrayList<Integer> batchIndices) throws MatrixException {
+        Matrix[] gradients = new Matrix[batchIndices.size()];
+        for (int batchIndex = 0; batchIndex < batchIndices.size(); batchIndex++) {
+            checkResultGradient(getResult(), batchIndices.get(batchIndex));
+            gradients[batchIndex] = getResult().getGradient(batchIndices.get(batchIndex));
+            if (gradients[batchIndex].getMask() != null) return null;
+        }
+        return gradients;
+    }
+
     /**
      * Returns expression operation signature.
      *
@@ -6,9 +6,11 @@
 package utils.procedure.expression;
 
 import utils.configurable.DynamicParamException;
+import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
 import utils.procedure.node.Node;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -24,6 +26,13 @@ public interface Expression {
      */
     int getExpressionID();
 
+    /**
+     * Returns name of expression.
+     *
+     * @return name of expression.
+     */
+    String getExpressionName();
+
     /**
      * Returns first argument of expression.
      *
@@ -38,6 +47,13 @@ public interface Expression {
      */
     Node getArgument2();
 
+    /**
+     * Returns arguments of expression.
+     *
+     * @return arguments of expression.
+     */
+    List<Node> getArguments();
+
     /**
      * Returns result of expression.
      *
@@ -59,6 +75,20 @@ public interface Expression {
      */
     void setPreviousExpression(Expression previousExpression);
 
+    /**
+     * Returns next expression for expression calculation chain.
+     *
+     * @return next expression.
+     */
+    Expression getNextExpression();
+
+    /**
+     * Returns previous expression for gradient calculation chain.
+     *
+     * @return previous expression.
+     */
+    Expression getPreviousExpression();
+
     /**
      * Sets is procedure is active.
      *
@@ -111,6 +141,102 @@ public interface Expression {
      */
     void calculateGradientStep(Set<Integer> sampleIndices, int numberOfGradientSteps) throws MatrixException, DynamicParamException;
 
+    /**
+     * Calculates expression without proceeding to next expression of chain.
+     *
+     * @param sampleIndex sample index
+     * @param firstSampleIndex first sample index
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    void executeExpressionStep(int sampleIndex, int firstSampleIndex) throws MatrixException, DynamicParamException;
+
+    /**
+     * Calculates expression without proceeding to next expression of chain.
+     *
+     * @param sampleIndices sample indices
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    void executeExpressionStep(Set<Integer> sampleIndices) throws MatrixException, DynamicParamException;
+
+    /**
+     * Calculates gradient of expression without proceeding to previous expression of chain.
+     *
+     * @param sampleIndex sample index
+     * @param lastSampleIndex last sample index
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    void executeGradientStep(int sampleIndex, int lastSampleIndex) throws MatrixException, DynamicParamException;
+
+    /**
+     * Calculates gradient of expression without proceeding to previous expression of chain.
+     *
+     * @param sampleIndices sample indices
+     * @param numberOfGradientSteps number of gradient steps taken
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    void executeGradientStep(Set<Integer> sampleIndices, int numberOfGradientSteps) throws MatrixException, DynamicParamException;
+
+    /**
+     * Checks if expression can be executed as instruction of procedure program.<br>
+     * Instruction is calculated sample by sample from given argument matrices without accessing nodes of expression.<br>
+     *
+     * @param perStep if true expression is calculated for all samples at once otherwise sample by sample.
+     * @return true if expression can be executed as instruction otherwise false.
+     */
+    boolean isInstruction(boolean perStep);
+
+    /**
+     * Checks if argument matrices are needed to calculate gradient of expression as instruction.<br>
+     * Argument matrices not needed by gradient may be released once they are not needed by other expressions.<br>
+     *
+     * @return true if argument matrices are needed to calculate gradient otherwise false.
+     */
+    boolean isArgumentRequiredForGradient();
+
+    /**
+     * Checks if result matrix is needed to calculate gradient of expression as instruction.<br>
+     * Result matrix not needed by gradient may be released once it is not needed by other expressions.<br>
+     *
+     * @return true if result matrix is needed to calculate gradient otherwise false.
+     */
+    boolean isResultRequiredForGradient();
+
+    /**
+     * Checks if expression can be executed as instruction concurrently for different samples.<br>
+     * Concurrent instruction must not modify state shared between samples other than through returned matrices.<br>
+     *
+     * @return true if expression can be executed as instruction concurrently otherwise false.
+     */
+    boolean isConcurrentInstruction();
+
+    /**
+     * Calculates result of expression as instruction.
+     *
+     * @param sampleIndex sample index.
+     * @param argumentMatrices argument matrices in order of arguments.
+     * @return result matrix.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    Matrix executeInstruction(int sampleIndex, Matrix[] argumentMatrices) throws MatrixException, DynamicParamException;
+
+    /**
+     * Calculates argument gradients of expression as instruction.
+     *
+     * @param sampleIndex sample index.
+     * @param resultGradient result gradient.
+     * @param argumentMatrices argument matrices in order of arguments.
+     * @param resultMatrix result matrix.
+     * @return argument gradients in order of arguments. Gradient is null for arguments with stopped gradient.
+     * @throws MatrixException throws exception if calculation fails.
+     * @throws DynamicParamException throws exception if parameter (params) setting fails.
+     */
+    Matrix[] executeGradientInstruction(int sampleIndex, Matrix resultGradient, Matrix[] argumentMatrices, Matrix resultMatrix) throws MatrixException, DynamicParamException;
+
     /**
      * Prints expression chain.
      *
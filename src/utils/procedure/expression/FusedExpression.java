@@ -0,0 +1,346 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.procedure.expression;
+
+import utils.matrix.Matrix;
+import utils.matrix.MatrixException;
+import utils.matrix.UnaryFunctionType;
+import utils.matrix.operation.FusedElementWiseMatrixOperation;
+import utils.procedure.node.Node;
+
+import java.util.*;
+
+/**
+ * Implements expression that replaces chain of element wise add, subtract, multiply and unary function expressions with single fused operation.<br>
+ * Intermediate results of fused expressions are not stored as nodes. Fused operation calculates them in blocks for result and recalculates them for gradient.<br>
+ * Expression may have any number of arguments.<br>
+ *
+ */
+public class FusedExpression extends AbstractExpression {
+
+    /**
+     * Arguments of expression.
+     *
+     */
+    private final List<Node> arguments;
+
+    /**
+     * Result of expression.
+     *
+     */
+    private final Node result;
+
+    /**
+     * Reference to fused element wise matrix operation.
+     *
+     */
+    private final FusedElementWiseMatrixOperation fusedElementWiseMatrixOperation;
+
+    /**
+     * Expression operation signature composed of signatures of fused expressions.
+     *
+     */
+    private final String expressionOperationSignature;
+
+    /**
+     * Constructor for fused expression.
+     *
+     * @param expressionID unique ID for expression.
+     * @param expressions fused expressions in calculation order. Last expression gives result of fused expression.
+     * @throws MatrixException throws exception if expression is not fusable or expression arguments are not defined.
+     */
+    public FusedExpression(int expressionID, List<Expression> expressions) throws MatrixException {
+        super("FUSED", expressionID, getArguments(expressions).get(0));
+        arguments = getArguments(expressions);
+        result = expressions.get(expressions.size() - 1).getResult();
+
+        fusedElementWiseMatrixOperation = new FusedElementWiseMatrixOperation(result.getRows(), result.getColumns(), result.getDepth(), arguments.size());
+        HashMap<Node, Integer> registers = new HashMap<>();
+        HashMap<Node, String> signatures = new HashMap<>();
+        for (Node argument : arguments) {
+            registers.put(argument, registers.size());
+            signatures.put(argument, argument.getName());
+        }
+        for (Expression expression : expressions) {
+            if (!isFusable(expression)) throw new MatrixException("Expression " + expression.getExpressionName() + " is not fusable.");
+            int register1 = registers.get(expression.getArgument1());
+            int register2 = expression.getArgument2() != null ? registers.get(expression.getArgument2()) : -1;
+            String signature1 = signatures.get(expression.getArgument1());
+            String signature2 = expression.getArgument2() != null ? signatures.get(expression.getArgument2()) : null;
+            int resultRegister;
+            String signature;
+            if (expression instanceof AddExpression) {
+                resultRegister = fusedElementWiseMatrixOperation.addStep(FusedElementWiseMatrixOperation.Operation.ADD, register1, register2, null);
+                signature = "(" + signature1 + " + " + signature2 + ")";
+            }
+            else if (expression instanceof SubtractExpression) {
+                resultRegister = fusedElementWiseMatrixOperation.addStep(FusedElementWiseMatrixOperation.Operation.SUBTRACT, register1, register2, null);
+                signature = "(" + signature1 + " - " + signature2 + ")";
+            }
+            else if (expression instanceof MultiplyExpression) {
+                resultRegister = fusedElementWiseMatrixOperation.addStep(FusedElementWiseMatrixOperation.Operation.MULTIPLY, register1, register2, null);
+                signature = "(" + signature1 + " * " + signature2 + ")";
+            }
+            else {
+                UnaryFunctionExpression unaryFunctionExpression = (UnaryFunctionExpression)expression;
+                resultRegister = fusedElementWiseMatrixOperation.addStep(FusedElementWiseMatrixOperation.Operation.UNARY_FUNCTION, register1, -1, unaryFunctionExpression.getUnaryFunction());
+                signature = unaryFunctionExpression.getUnaryFunction().getType() + "(" + signature1 + ")";
+            }
+            registers.put(expression.getResult(), resultRegister);
+            signatures.put(expression.getResult(), signature);
+        }
+        expressionOperationSignature = signatures.get(result);
+    }
+
+    /**
+     * Returns arguments of chain of expressions i.e. arguments that are not results of expressions in chain.
+     *
+     * @param expressions chain of expressions.
+     * @return arguments of chain of expressions in order of appearance.
+     */
+    private static List<Node> getArguments(List<Expression> expressions) {
+        HashSet<Node> results = new HashSet<>();
+        for (Expression expression : expressions) results.add(expression.getResult());
+        LinkedHashSet<Node> arguments = new LinkedHashSet<>();
+        for (Expression expression : expressions) {
+            for (Node argument : expression.getArguments()) if (!results.contains(argument)) arguments.add(argument);
+        }
+        return new ArrayList<>(arguments);
+    }
+
+    /**
+     * Checks if expression can be fused.<br>
+     * Expression can be fused if it is add, subtract, multiply or element wise unary function expression and its arguments have same dimensions as its result.<br>
+     *
+     * @param expression expression.
+     * @return true if expression can be fused otherwise false.
+     */
+    public static boolean isFusable(Expression expression) {
+        if (expression instanceof UnaryFunctionExpression unaryFunctionExpression) {
+            UnaryFunctionType unaryFunctionType = unaryFunctionExpression.getUnaryFunction().getType();
+            if (unaryFunctionType == UnaryFunctionType.SOFTMAX || unaryFunctionType == UnaryFunctionType.TRANSPOSE) return false;
+        }
+        else if (!(expression instanceof AddExpression || expression instanceof SubtractExpression || expression instanceof MultiplyExpression)) return false;
+        Node result = expression.getResult();
+        for (Node argument : expression.getArguments()) {
+            if (argument.getRows() != result.getRows() || argument.getColumns() != result.getColumns() || argument.getDepth() != result.getDepth()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns first argument of expression.
+     *
+     * @return first argument of expression.
+     */
+    public Node getArgument1() {
+        return arguments.get(0);
+    }
+
+    /**
+     * Returns second argument of expression.
+     *
+     * @return second argument of expression or null if expression has only one argument.
+     */
+    public Node getArgument2() {
+        return arguments.size() > 1 ? arguments.get(1) : null;
+    }
+
+    /**
+     * Returns arguments of expression.
+     *
+     * @return arguments of expression.
+     */
+    public List<Node> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Returns result of expression.
+     *
+     * @return result of expression.
+     */
+    public Node getResult() {
+        return result;
+    }
+
+    /**
+     * Returns number of expressions fused into expression.
+     *
+     * @return number of expressions fused into expression.
+     */
+    public int getNumberOfFusedExpressions() {
+        return fusedElementWiseMatrixOperation.getNumberOfSteps();
+    }
+
+    /**
+     * Returns true is expression is executed as single step otherwise false.
+     *
+     * @return true is expression is executed as single step otherwise false.
+     */
+    protected boolean executeAsSingleStep() {
+        return false;
+    }
+
+    /**
+     * Checks if expression can be executed as instruction concurrently for different samples.<br>
+     * Fused operation keeps intermediate results of steps in buffers local to each call.<br>
+     *
+     * @return true as expression can be executed concurrently.
+     */
+    public boolean isConcurrentInstruction() {
+        return true;
+    }
+
+    /**
+     * Checks if argument matrices are needed to calculate gradient of expression as instruction.<br>
+     * Fused operation recalculates intermediate results of steps from arguments.<br>
+     *
+     * @return true as argument matrices are needed.
+     */
+    public boolean isArgumentRequiredForGradient() {
+        return true;
+    }
+
+    /**
+     * Checks if result matrix is needed to calculate gradient of expression as instruction.<br>
+     * Fused operation recalculates intermediate results of steps from arguments.<br>
+     *
+     * @return false as result matrix is not needed.
+     */
+    public boolean isResultRequiredForGradient() {
+        return false;
+    }
+
+    /**
+     * Resets expression.
+     *
+     */
+    public void applyReset() {
+    }
+
+    /**
+     * Calculates expression.
+     *
+     */
+    protected void calculateExpression() {
+    }
+
+    /**
+     * Calculates expression.
+     *
+     * @param sampleIndex sample index
+     * @throws MatrixException throws exception if calculation fails.
+     */
+    protected void calculateExpression(int sampleIndex) throws MatrixException {
+        result.setMatrix(sampleIndex, fusedElementWiseMatrixOperation.applyFunction(getArgumentMatrices(sampleIndex)));
+    }
+
+    /**
+     * Calculates gradient of expression.
+     *
+     */
+    protected void calculateGradient() {
+    }
+
+    /**
+     * Calculates gradient of expression.
+     *
+     * @param sampleIndex sample index
+     * @throws MatrixException throws exception if calculation of gradient fails.
+     */
+    protected void calculateGradient(int sampleIndex) throws MatrixException {
+        checkResultGradient(result, sampleIndex);
+        Matrix[] argumentGradients = fusedElementWiseMatrixOperation.applyGradient(getArgumentMatrices(sampleIndex), result.getGradient(sampleIndex), getCalculateGradients());
+        for (int argument = 0; argument < arguments.size(); argument++) {
+            if (argumentGradients[argument] != null) arguments.get(argument).cumulateGradient(sampleIndex, argumentGradients[argument]);
+        }
+    }
+
+    /**
+     * Returns argument matrices for sample index.
+     *
+     * @param sampleIndex sample index.
+     * @return argument matrices.
+     * @throws MatrixException throws exception if argument is not defined for sample index.
+     */
+    private Matrix[] getArgumentMatrices(int sampleIndex) throws MatrixException {
+        Matrix[] argumentMatrices = new Matrix[arguments.size()];
+        for (int argument = 0; argument < arguments.size(); argument++) {
+            argumentMatrices[argument] = arguments.get(argument).getMatrix(sampleIndex);
+            if (argumentMatrices[argument] == null) throw new MatrixException(getExpressionName() + ": Argument " + (argument + 1) + " for operation is not defined for sample index " + sampleIndex);
+        }
+        return argumentMatrices;
+    }
+
+    /**
+     * Returns flags telling for which arguments gradient is calculated.
+     *
+     * @return flags telling for which arguments gradient is calculated.
+     */
+    private boolean[] getCalculateGradients() {
+        boolean[] calculateGradients = new boolean[arguments.size()];
+        for (int argument = 0; argument < arguments.size(); argument++) calculateGradients[argument] = !arguments.get(argument).isStopGradient();
+        return calculateGradients;
+    }
+
+    /**
+     * Checks if expression can be executed as instruction of procedure program.
+     *
+     * @param perStep if true program is calculated for all samples at once otherwise sample by sample.
+     * @return true as fused expression is always executed as instruction.
+     */
+    public boolean isInstruction(boolean perStep) {
+        return true;
+    }
+
+    /**
+     * Calculates result of expression as instruction.
+     *
+     * @param sampleIndex sample index.
+     * @param argumentMatrices argument matrices in order of arguments.
+     * @return result matrix.
+     * @throws MatrixException throws exception if calculation fails.
+     */
+    public Matrix executeInstruction(int sampleIndex, Matrix[] argumentMatrices) throws MatrixException {
+        return fusedElementWiseMatrixOperation.applyFunction(argumentMatrices);
+    }
+
+    /**
+     * Calculates argument gradients of expression as instruction.
+     *
+     * @param sampleIndex sample index.
+     * @param resultGradient result gradient.
+     * @param argumentMatrices argument matrices in order of arguments.
+     * @param resultMatrix result matrix.
+     * @return argument gradients in order of arguments. Gradient is null for arguments with stopped gradient.
+     * @throws MatrixException throws exception if calculation fails.
+     */
+    public Matrix[] executeGradientInstruction(int sampleIndex, Matrix resultGradient, Matrix[] argumentMatrices, Matrix resultMatrix) throws MatrixException {
+        return fusedElementWiseMatrixOperation.applyGradient(argumentMatrices, resultGradient, getCalculateGradients());
+    }
+
+    /**
+     * Returns expression operation signature.
+     *
+     * @return expression operation signature.
+     */
+    protected String getExpressionOperationSignature() {
+        return expressionOperationSignature;
+    }
+
+    /**
+     * Prints gradient.
+     *
+     */
+    protected void printGradient() {
+        for (Node argument : arguments) {
+            String gradientOperationSignature = "d" + result.getName() + " * d" + expressionOperationSignature + " / d" + argument.getName();
+            System.out.println("Gradient" + getExpressionID() + ": " + getExpressionName() + ": " + (!argument.isMultiIndex() ? "sum(" + gradientOperationSignature + ")" : gradientOperationSignature) + " = d" + argument.getName() + (argument.isStopGradient() ? " [ stop gradient ]" : ""));
+        }
+    }
+
+}
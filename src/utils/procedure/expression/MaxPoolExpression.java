@@ -11,6 +11,7 @@ import utils.matrix.operation.MaxPoolGradientMatrixOperation;
 import utils.matrix.operation.MaxPoolMatrixOperation;
 import utils.procedure.node.Node;
 
+import java.util.ArrayDeque;
 import java.util.HashMap;
 
 /**
@@ -32,10 +33,16 @@ public class MaxPoolExpression extends AbstractUnaryExpression {
     private final MaxPoolGradientMatrixOperation maxPoolGradientMatrixOperation;
 
     /**
-     * Maximum positions for max pool operation.
+     * Maximum positions for max pool operation by sample index.
      *
      */
-    private transient HashMap<Integer, HashMap<Integer, Integer>> maxPos = new HashMap<>();
+    private transient HashMap<Integer, int[]> maxPos = new HashMap<>();
+
+    /**
+     * Position buffers released by reset and reused for following samples.
+     *
+     */
+    private transient ArrayDeque<int[]> maxPosBuffers = new ArrayDeque<>();
 
     /**
      * Constructor for max pooling operation.
@@ -66,11 +73,13 @@ public class MaxPoolExpression extends AbstractUnaryExpression {
     }
 
     /**
-     * Resets expression.
+     * Resets expression.<br>
+     * Position buffers of previous samples are released for reuse.<br>
      *
      */
     public void applyReset() {
-        maxPos = new HashMap<>();
+        maxPosBuffers.addAll(maxPos.values());
+        maxPos.clear();
     }
 
     /**
@@ -92,8 +101,9 @@ public class MaxPoolExpression extends AbstractUnaryExpression {
      * @throws MatrixException throws exception if calculation fails.
      */
     protected Matrix calculateResult(int sampleIndex, Matrix argument1Matrix, Matrix argument2Matrix) throws MatrixException {
-        maxPos.put(sampleIndex, new HashMap<>());
-        return maxPoolMatrixOperation.apply(argument1.getMatrix(sampleIndex), maxPos.get(sampleIndex));
+        int[] maxPosEntry = maxPosBuffers.isEmpty() ? new int[maxPoolMatrixOperation.getPositionSize()] : maxPosBuffers.pop();
+        maxPos.put(sampleIndex, maxPosEntry);
+        return maxPoolMatrixOperation.apply(argument1Matrix, maxPosEntry);
     }
 
     /**
@@ -114,9 +124,9 @@ public class MaxPoolExpression extends AbstractUnaryExpression {
      * @throws MatrixException throws exception if calculation fails.
      */
     protected Matrix calculateArgument1Gradient(int sampleIndex, Matrix resultGradient, Matrix argument1Matrix, Matrix argument2Matrix, Matrix resultMatrix) throws MatrixException {
-        HashMap<Integer, Integer> maxPosEntry = maxPos.get(sampleIndex);
+        int[] maxPosEntry = maxPos.get(sampleIndex);
         if (maxPosEntry == null) throw new MatrixException("Maximum positions for gradient calculation are not defined.");
-        return maxPoolGradientMatrixOperation.apply(result.getGradient(sampleIndex), maxPosEntry);
+        return maxPoolGradientMatrixOperation.apply(resultGradient, maxPosEntry);
     }
 
     /**
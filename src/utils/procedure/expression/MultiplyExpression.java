@@ -53,6 +53,36 @@ public class MultiplyExpression extends AbstractBinaryExpression {
         return false;
     }
 
+    /**
+     * Checks if expression can be executed as instruction concurrently for different samples.<br>
+     * Multiply operation keeps no state between samples.<br>
+     *
+     * @return true as expression can be executed concurrently.
+     */
+    public boolean isConcurrentInstruction() {
+        return true;
+    }
+
+    /**
+     * Checks if argument matrices are needed to calculate gradient of expression as instruction.<br>
+     * Gradient of product is calculated from result gradient and other argument.<br>
+     *
+     * @return true as argument matrices are needed.
+     */
+    public boolean isArgumentRequiredForGradient() {
+        return true;
+    }
+
+    /**
+     * Checks if result matrix is needed to calculate gradient of expression as instruction.<br>
+     * Gradient of product is calculated from result gradient and other argument.<br>
+     *
+     * @return false as result matrix is not needed.
+     */
+    public boolean isResultRequiredForGradient() {
+        return false;
+    }
+
     /**
      * Resets expression.
      *
@@ -11,6 +11,7 @@ import utils.matrix.operation.RandomPoolGradientMatrixOperation;
 import utils.matrix.operation.RandomPoolMatrixOperation;
 import utils.procedure.node.Node;
 
+import java.util.ArrayDeque;
 import java.util.HashMap;
 
 /**
@@ -32,10 +33,16 @@ public class RandomPoolExpression extends AbstractUnaryExpression {
     private final RandomPoolGradientMatrixOperation randomPoolGradientMatrixOperation;
 
     /**
-     * Input positions for random pool operation.
+     * Input positions for random pool operation by sample index.
      *
      */
-    private transient HashMap<Integer, HashMap<Integer, Integer>> inputPos = new HashMap<>();
+    private transient HashMap<Integer, int[]> inputPos = new HashMap<>();
+
+    /**
+     * Position buffers released by reset and reused for following samples.
+     *
+     */
+    private transient ArrayDeque<int[]> inputPosBuffers = new ArrayDeque<>();
 
     /**
      * Constructor for random pooling operation.
@@ -66,11 +73,13 @@ public class RandomPoolExpression extends AbstractUnaryExpression {
     }
 
     /**
-     * Resets expression.
+     * Resets expression.<br>
+     * Position buffers of previous samples are released for reuse.<br>
      *
      */
     public void applyReset() {
-        inputPos = new HashMap<>();
+        inputPosBuffers.addAll(inputPos.values());
+        inputPos.clear();
     }
 
     /**
@@ -92,8 +101,9 @@ public class RandomPoolExpression extends AbstractUnaryExpression {
      * @throws MatrixException throws exception if calculation fails.
      */
     protected Matrix calculateResult(int sampleIndex, Matrix argument1Matrix, Matrix argument2Matrix) throws MatrixException {
-        inputPos.put(sampleIndex, new HashMap<>());
-        return randomPoolMatrixOperation.apply(argument1Matrix, inputPos.get(sampleIndex));
+        int[] inputPosEntry = inputPosBuffers.isEmpty() ? new int[randomPoolMatrixOperation.getPositionSize()] : inputPosBuffers.pop();
+        inputPos.put(sampleIndex, inputPosEntry);
+        return randomPoolMatrixOperation.apply(argument1Matrix, inputPosEntry);
     }
 
     /**
@@ -114,9 +124,9 @@ public class RandomPoolExpression extends AbstractUnaryExpression {
      * @throws MatrixException throws exception if calculation fails.
      */
     protected Matrix calculateArgument1Gradient(int sampleIndex, Matrix resultGradient, Matrix argument1Matrix, Matrix argument2Matrix, Matrix resultMatrix) throws MatrixException {
-        HashMap<Integer, Integer> inputPosEntry = inputPos.get(sampleIndex);
+        int[] inputPosEntry = inputPos.get(sampleIndex);
         if (inputPosEntry == null) throw new MatrixException("Input positions for gradient calculation are not defined.");
-        return randomPoolGradientMatrixOperation.apply(result.getGradient(sampleIndex), inputPosEntry);
+        return randomPoolGradientMatrixOperation.apply(resultGradient, inputPosEntry);
     }
 
     /**
@@ -53,6 +53,36 @@ public class SubtractExpression extends AbstractBinaryExpression {
         return false;
     }
 
+    /**
+     * Checks if expression can be executed as instruction concurrently for different samples.<br>
+     * Subtract operation keeps no state between samples.<br>
+     *
+     * @return true as expression can be executed concurrently.
+     */
+    public boolean isConcurrentInstruction() {
+        return true;
+    }
+
+    /**
+     * Checks if argument matrices are needed to calculate gradient of expression as instruction.<br>
+     * Gradient of difference is result gradient or its negation.<br>
+     *
+     * @return false as argument matrices are not needed.
+     */
+    public boolean isArgumentRequiredForGradient() {
+        return false;
+    }
+
+    /**
+     * Checks if result matrix is needed to calculate gradient of expression as instruction.<br>
+     * Gradient of difference is result gradient or its negation.<br>
+     *
+     * @return false as result matrix is not needed.
+     */
+    public boolean isResultRequiredForGradient() {
+        return false;
+    }
+
     /**
      * Resets expression.
      *
@@ -26,7 +26,6 @@ public class UnaryFunctionExpression extends AbstractUnaryExpression {
      * UnaryFunction used.
      *
      */
-    @SuppressWarnings("FieldCanBeLocal")
     private final UnaryFunction unaryFunction;
 
     /**
@@ -53,6 +52,15 @@ public class UnaryFunctionExpression extends AbstractUnaryExpression {
         unaryMatrixOperation = new UnaryMatrixOperation(argument1.getRows(), argument1.getColumns(), argument1.getDepth(), unaryFunction);
     }
 
+    /**
+     * Returns unary function of expression.
+     *
+     * @return unary function of expression.
+     */
+    public UnaryFunction getUnaryFunction() {
+        return unaryFunction;
+    }
+
     /**
      * Returns true is expression is executed as single step otherwise false.
      *
@@ -62,6 +70,36 @@ public class UnaryFunctionExpression extends AbstractUnaryExpression {
         return false;
     }
 
+    /**
+     * Checks if argument matrices are needed to calculate gradient of expression as instruction.<br>
+     * Gradient of unary function is calculated from result of function.<br>
+     *
+     * @return false as argument matrices are not needed.
+     */
+    public boolean isArgumentRequiredForGradient() {
+        return false;
+    }
+
+    /**
+     * Checks if result matrix is needed to calculate gradient of expression as instruction.<br>
+     * Gradient of unary function is calculated from result of function.<br>
+     *
+     * @return true as result matrix is needed.
+     */
+    public boolean isResultRequiredForGradient() {
+        return true;
+    }
+
+    /**
+     * Checks if expression can be executed as instruction concurrently for different samples.<br>
+     * Gumbel softmax draws noise from shared random source and is executed for one sample at a time to keep results reproducible.<br>
+     *
+     * @return true if expression can be executed as instruction concurrently otherwise false.
+     */
+    public boolean isConcurrentInstruction() {
+        return !unaryFunction.isAsGumbelSoftmax();
+    }
+
     /**
      * Resets expression.
      *
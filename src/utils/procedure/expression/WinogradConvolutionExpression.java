@@ -5,49 +5,38 @@
 
 package utils.procedure.expression;
 
-import utils.configurable.DynamicParamException;
 import utils.matrix.Matrix;
 import utils.matrix.MatrixException;
-import utils.matrix.operation.CrosscorrelationFilterGradientMatrixOperation;
-import utils.matrix.operation.CrosscorrelationInputGradientMatrixOperation;
+import utils.matrix.operation.WinogradConvolutionFilterGradientMatrixOperation;
+import utils.matrix.operation.WinogradConvolutionInputGradientMatrixOperation;
 import utils.matrix.operation.WinogradConvolutionMatrixOperation;
 import utils.procedure.node.Node;
 
 /**
  * Implements expression for Winograd convolution operation.<br>
+ * Forward and gradient operations are calculated with Winograd transforms.<br>
+ * Filter transforms are reset when expression is reset and reused across all samples of batch.<br>
  *
  */
 public class WinogradConvolutionExpression extends AbstractBinaryExpression {
 
     /**
-     * G matrix for Winograd convolution.
-     *
-     */
-    private final Matrix G;
-
-    /**
-     * G transposed matrix for Winograd convolution.
-     *
-     */
-    private final Matrix GT;
-
-    /**
-     * Reference to crosscorrelation matrix operation.
+     * Reference to Winograd convolution matrix operation.
      *
      */
     private final WinogradConvolutionMatrixOperation winogradConvolutionMatrixOperation;
 
     /**
-     * Reference to crosscorrelation input gradient matrix operation.
+     * Reference to Winograd convolution input gradient matrix operation.
      *
      */
-    private final CrosscorrelationInputGradientMatrixOperation crosscorrelationInputGradientMatrixOperation;
+    private final WinogradConvolutionInputGradientMatrixOperation winogradConvolutionInputGradientMatrixOperation;
 
     /**
-     * Reference to crosscorrelation filter gradient matrix operation.
+     * Reference to Winograd convolution filter gradient matrix operation.
      *
      */
-    private final CrosscorrelationFilterGradientMatrixOperation crosscorrelationFilterGradientMatrixOperation;
+    private final WinogradConvolutionFilterGradientMatrixOperation winogradConvolutionFilterGradientMatrixOperation;
 
     /**
      * Constructor for Winograd convolution operation.
@@ -56,26 +45,15 @@ public class WinogradConvolutionExpression extends AbstractBinaryExpression {
      * @param argument1 first argument.
      * @param argument2 second argument.
      * @param result result of expression.
-     * @param stride stride of crosscorrelation operation.
-     * @param dilation dilation step size for crosscorrelation operation.
+     * @param tileSize output tile size of Winograd transform.
      * @throws MatrixException throws exception if expression arguments are not defined.
-     * @throws DynamicParamException throws exception if parameter (params) setting fails.
      */
-    public WinogradConvolutionExpression(int expressionID, Node argument1, Node argument2, Node result, int stride, int dilation) throws MatrixException, DynamicParamException {
+    public WinogradConvolutionExpression(int expressionID, Node argument1, Node argument2, Node result, int tileSize) throws MatrixException {
         super("WINOGRAD_CONVOLUTION", expressionID, argument1, argument2, result);
 
-        Matrix AT = WinogradConvolutionMatrixOperation.getATMatrix(result.getDepth());
-        Matrix a = AT.transpose().copy(true);
-
-        Matrix c = WinogradConvolutionMatrixOperation.getCMatrix(result.getDepth());
-        Matrix CT = c.transpose().copy(true);
-
-        G = WinogradConvolutionMatrixOperation.getGMatrix(result.getDepth());
-        GT = G.transpose().copy(true);
-
-        winogradConvolutionMatrixOperation = new WinogradConvolutionMatrixOperation(result.getRows(), result.getColumns(), result.getDepth(), a, AT, c, CT);
-        crosscorrelationInputGradientMatrixOperation = new CrosscorrelationInputGradientMatrixOperation(result.getRows(), result.getColumns(), result.getDepth(), argument1.getDepth(), argument2.getRows(), argument2.getColumns(), dilation, stride, false);
-        crosscorrelationFilterGradientMatrixOperation = new CrosscorrelationFilterGradientMatrixOperation(result.getRows(), result.getColumns(), result.getDepth(), argument1.getDepth(), argument2.getRows(), argument2.getColumns(), dilation, stride, false);
+        winogradConvolutionMatrixOperation = new WinogradConvolutionMatrixOperation(result.getRows(), result.getColumns(), result.getDepth(), argument1.getDepth(), tileSize);
+        winogradConvolutionInputGradientMatrixOperation = new WinogradConvolutionInputGradientMatrixOperation(result.getRows(), result.getColumns(), result.getDepth(), argument1.getDepth(), tileSize);
+        winogradConvolutionFilterGradientMatrixOperation = new WinogradConvolutionFilterGradientMatrixOperation(result.getRows(), result.getColumns(), result.getDepth(), argument1.getDepth(), tileSize);
     }
 
     /**
@@ -88,10 +66,13 @@ public class WinogradConvolutionExpression extends AbstractBinaryExpression {
     }
 
     /**
-     * Resets expression.
+     * Resets expression.<br>
+     * Resets cached filter transforms as filter may have been updated after previous batch.<br>
      *
      */
     public void applyReset() {
+        winogradConvolutionMatrixOperation.resetFilterTransform();
+        winogradConvolutionInputGradientMatrixOperation.resetFilterTransform();
     }
 
     /**
@@ -113,8 +94,7 @@ public class WinogradConvolutionExpression extends AbstractBinaryExpression {
      * @throws MatrixException throws exception if calculation fails.
      */
     protected Matrix calculateResult(int sampleIndex, Matrix argument1Matrix, Matrix argument2Matrix) throws MatrixException {
-        Matrix preprocessedFilter = G.dot(argument2.getMatrix(sampleIndex)).dot(GT);
-        return winogradConvolutionMatrixOperation.apply(argument1.getMatrix(sampleIndex), preprocessedFilter);
+        return winogradConvolutionMatrixOperation.apply(argument1Matrix, argument2Matrix);
     }
 
     /**
@@ -135,7 +115,7 @@ public class WinogradConvolutionExpression extends AbstractBinaryExpression {
      * @throws MatrixException throws exception if calculation fails.
      */
     protected Matrix calculateArgument1Gradient(int sampleIndex, Matrix resultGradient, Matrix argument1Matrix, Matrix argument2Matrix, Matrix resultMatrix) throws MatrixException {
-        return crosscorrelationInputGradientMatrixOperation.apply(resultGradient, argument2Matrix);
+        return winogradConvolutionInputGradientMatrixOperation.apply(resultGradient, argument2Matrix);
     }
 
     /**
@@ -150,7 +130,7 @@ public class WinogradConvolutionExpression extends AbstractBinaryExpression {
      * @throws MatrixException throws exception if calculation fails.
      */
     protected Matrix calculateArgument2Gradient(int sampleIndex, Matrix resultGradient, Matrix argument1Matrix, Matrix argument2Matrix, Matrix resultMatrix) throws MatrixException {
-        return crosscorrelationFilterGradientMatrixOperation.apply(resultGradient, argument1Matrix);
+        return winogradConvolutionFilterGradientMatrixOperation.apply(resultGradient, argument1Matrix);
     }
 
     /**
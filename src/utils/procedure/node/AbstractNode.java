@@ -258,7 +258,7 @@ public abstract class AbstractNode implements Node, Serializable {
      * @return empty matrix with dimensions of reference matrix.
      * @throws MatrixException throws exception is dimensions of matrices are not matching or any matrix is scalar type.
      */
-    private Matrix getNewMatrix() throws MatrixException {
+    public Matrix getNewMatrix() throws MatrixException {
         return referenceMatrix.getNewMatrix();
     }
 
@@ -312,11 +312,23 @@ public abstract class AbstractNode implements Node, Serializable {
      * @throws MatrixException throws exception if matrix operation fails.
      */
     public void cumulateGradient(int index, Matrix outputGradient) throws MatrixException {
+        cumulateGradient(index, outputGradient, 1);
+    }
+
+    /**
+     * Cumulates gradient which is sum of given number of gradient entries.
+     *
+     * @param index           data index.
+     * @param outputGradient  output gradient.
+     * @param numberOfEntries number of gradient entries summed in output gradient.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    public void cumulateGradient(int index, Matrix outputGradient, int numberOfEntries) throws MatrixException {
         if (getGradient(index) == null) setGradient(index, getNewMatrix());
 
         getGradient(index).addBy(outputGradient);
 
-        cumulatedGradientEntryCount++;
+        cumulatedGradientEntryCount += numberOfEntries;
     }
 
 }
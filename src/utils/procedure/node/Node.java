@@ -225,6 +225,14 @@ public interface Node {
      */
     Matrix getGradient(int index);
 
+    /**
+     * Returns empty matrix with dimensions of reference matrix.
+     *
+     * @return empty matrix with dimensions of reference matrix.
+     * @throws MatrixException throws exception is dimensions of matrices are not matching or any matrix is scalar type.
+     */
+    Matrix getNewMatrix() throws MatrixException;
+
     /**
      * Returns gradient mean (average).
      *
@@ -242,4 +250,14 @@ public interface Node {
      */
     void cumulateGradient(int index, Matrix outputGradient) throws MatrixException;
 
+    /**
+     * Cumulates gradient which is sum of given number of gradient entries.
+     *
+     * @param index           data index.
+     * @param outputGradient  output gradient.
+     * @param numberOfEntries number of gradient entries summed in output gradient.
+     * @throws MatrixException throws exception if matrix operation fails.
+     */
+    void cumulateGradient(int index, Matrix outputGradient, int numberOfEntries) throws MatrixException;
+
 }
@@ -1,6 +1,10 @@
 /**
  * Defines procedure and procedure factory for neural network.<br>
  * Records chain of matrix operations and dynamically constructs chain of expressions including chain of respective gradients for backward propagation (automatic differentiation).<br>
+ * Compiles chains of expressions and gradients into flat procedure program executed over buffer slots of nodes.<br>
+ * Optionally fuses chains of element wise expressions into single expressions calculated in one pass.<br>
+ * Plans liveness of buffer slots of procedure program and releases matrices and gradients for reuse once they are not needed anymore.<br>
+ * Optionally keeps intermediate results of recurrent procedures only for checkpoint steps and recalculates other steps segment by segment during backward calculation.<br>
  *
  */
 package utils.procedure;
\ No newline at end of file
@@ -0,0 +1,131 @@
+/*
+ * SANNet Neural Network Framework
+ * Copyright (C) 2018 - 2024 Simo Aaltonen
+ */
+
+package utils.random;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Implements central random number generator service.<br>
+ * Each thread uses its own generator split from common root generator which avoids both contention and allocation of generator per object.<br>
+ * Long-lived objects needing own independent random stream may split generator from root generator.<br>
+ * Setting global seed restarts root generator and causes generators of all threads to be split again on their next use.<br>
+ * Runs are reproducible when random numbers are drawn in same order by same sequence of threads.<br>
+ *
+ */
+public class RandomProvider {
+
+    /**
+     * Implements per-thread generator tagged with seed generation it was split from.
+     *
+     * @param generation seed generation.
+     * @param randomGenerator random generator.
+     */
+    private record ThreadGenerator(long generation, SplittableRandom randomGenerator) {
+    }
+
+    /**
+     * Root generator from which all other generators are split.
+     *
+     */
+    private static SplittableRandom rootGenerator = new SplittableRandom();
+
+    /**
+     * Seed generation increased each time global seed is set.
+     *
+     */
+    private static volatile long generation = 0;
+
+    /**
+     * Generator of each thread.
+     *
+     */
+    private static final ThreadLocal<ThreadGenerator> threadGenerator = new ThreadLocal<>();
+
+    /**
+     * Default constructor for random provider.
+     *
+     */
+    private RandomProvider() {
+    }
+
+    /**
+     * Sets global seed. Generators of all threads are split again from seeded root generator.
+     *
+     * @param seed global seed.
+     */
+    public static synchronized void setSeed(long seed) {
+        rootGenerator = new SplittableRandom(seed);
+        generation++;
+    }
+
+    /**
+     * Returns new independent generator split from root generator.
+     *
+     * @return new independent generator.
+     */
+    public static synchronized SplittableRandom split() {
+        return rootGenerator.split();
+    }
+
+    /**
+     * Returns generator of current thread. Returned generator must not be shared with other threads.
+     *
+     * @return generator of current thread.
+     */
+    public static RandomGenerator get() {
+        final ThreadGenerator currentThreadGenerator = threadGenerator.get();
+        final long currentGeneration = generation;
+        if (currentThreadGenerator != null && currentThreadGenerator.generation() == currentGeneration) return currentThreadGenerator.randomGenerator();
+        final SplittableRandom randomGenerator = split();
+        threadGenerator.set(new ThreadGenerator(currentGeneration, randomGenerator));
+        return randomGenerator;
+    }
+
+    /**
+     * Returns random value uniformly distributed between 0 (inclusive) and 1 (exclusive).
+     *
+     * @return random value.
+     */
+    public static double nextDouble() {
+        return get().nextDouble();
+    }
+
+    /**
+     * Returns random value from standard normal distribution.
+     *
+     * @return random value.
+     */
+    public static double nextGaussian() {
+        return get().nextGaussian();
+    }
+
+    /**
+     * Returns random integer uniformly distributed between 0 (inclusive) and bound (exclusive).
+     *
+     * @param bound upper bound (exclusive).
+     * @return random integer.
+     */
+    public static int nextInt(int bound) {
+        return get().nextInt(bound);
+    }
+
+    /**
+     * Shuffles list in place using generator of current thread.
+     *
+     * @param list list to be shuffled.
+     * @param <T> type of list elements.
+     */
+    public static <T> void shuffle(List<T> list) {
+        final RandomGenerator randomGenerator = get();
+        for (int index = list.size() - 1; index > 0; index--) {
+            final int swapIndex = randomGenerator.nextInt(index + 1);
+            list.set(index, list.set(swapIndex, list.get(index)));
+        }
+    }
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Defines random number generation for neural network.<br>
+ * Provides per-thread random number generators split from common seedable source.<br>
+ *
+ */
+package utils.random;
@@ -10,6 +10,7 @@ import utils.configurable.Configurable;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
 import utils.matrix.Matrix;
+import utils.random.RandomProvider;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -157,12 +158,6 @@ public class BasicSampler implements Sampler, Configurable, Serializable {
      */
     private transient int sampleAt;
 
-    /**
-     * Random function.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Constructor for basic sampler.
      *
@@ -334,7 +329,7 @@ public class BasicSampler implements Sampler, Configurable, Serializable {
         ArrayList<Integer> sampleIndices = new ArrayList<>();
         if (randomOrder) {
             ArrayList<Integer> inputSamples = new ArrayList<>(inputSampleSet);
-            Collections.shuffle(inputSamples);
+            RandomProvider.shuffle(inputSamples);
             int maxSampleAmount = Math.min(sampleSize, inputSamples.size());
             for (int sampleIndex = 0; sampleIndex < maxSampleAmount; sampleIndex++) {
                 sampleIndices.add(inputSamples.get(sampleIndex));
@@ -344,10 +339,10 @@ public class BasicSampler implements Sampler, Configurable, Serializable {
             if (fullSet) sampleIndices.addAll(inputSampleSet);
             else {
                 if (randomStart || (randomStartAfterSteps > 0 && ++randomStartAfterSteps >= randomStartAfterStepsCount)) {
-                    if (cyclical) sampleAt = random.nextInt(inputSampleSet.size());
+                    if (cyclical) sampleAt = RandomProvider.nextInt(inputSampleSet.size());
                     else {
-                        if (!stepForward) sampleAt = sampleSize + random.nextInt(inputSampleSet.size() - sampleSize);
-                        else sampleAt = random.nextInt(Math.max(1, inputSampleSet.size() - sampleSize));
+                        if (!stepForward) sampleAt = sampleSize + RandomProvider.nextInt(inputSampleSet.size() - sampleSize);
+                        else sampleAt = RandomProvider.nextInt(Math.max(1, inputSampleSet.size() - sampleSize));
                     }
                 }
                 if (randomStartAfterSteps > 0 && randomStartAfterStepsCount > randomStartAfterSteps) randomStartAfterStepsCount = 0;
@@ -380,7 +375,7 @@ public class BasicSampler implements Sampler, Configurable, Serializable {
                 }
             }
 
-            if (shuffleSamples) Collections.shuffle(sampleIndices);
+            if (shuffleSamples) RandomProvider.shuffle(sampleIndices);
             else if (sampleReverse) Collections.reverse(sampleIndices);
 
             if (perEpoch) for (Integer sampleIndex : sampleIndices) inputSampleSet.remove(sampleIndex);
@@ -9,6 +9,7 @@ import core.network.NeuralNetworkException;
 import utils.configurable.Configurable;
 import utils.configurable.DynamicParam;
 import utils.configurable.DynamicParamException;
+import utils.random.RandomProvider;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -89,12 +90,6 @@ public class SequenceSampler implements Sampler, Configurable, Serializable {
      */
     private transient int sampleAt;
 
-    /**
-     * Random function.
-     *
-     */
-    private final Random random = new Random();
-
     /**
      * Constructor for sequence sampler.
      *
@@ -213,7 +208,7 @@ public class SequenceSampler implements Sampler, Configurable, Serializable {
      * @param outputSequences sampled output sequences.
      */
     public void getSamples(TreeMap<Integer, Sequence> inputSequences, TreeMap<Integer, Sequence>  outputSequences) {
-        if (!fullSet && randomOrder) sampleAt = random.nextInt(inputs.size() - 1);
+        if (!fullSet && randomOrder) sampleAt = RandomProvider.nextInt(inputs.size() - 1);
 
         for (Map.Entry<Integer, HashMap<Integer, Sequence>> entry : inputs.entrySet()) {
             inputSequences.put(entry.getKey(), entry.getValue().get(sampleAt));